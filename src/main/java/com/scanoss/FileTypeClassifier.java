@@ -0,0 +1,290 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.Tika;
+import org.apache.tika.detect.TextStatistics;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.mime.MediaTypeRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fast text/binary file classifier, run before the (much slower) Tika media type detection.
+ * <p>
+ * Contents starting with a well known binary magic number are binary. Otherwise, a bounded prefix of the contents
+ * is sniffed: clean UTF-8 text (no NUL or other control bytes) is text, and contents which do not look like text at
+ * all are binary if they contain NUL bytes or the file extension maps to a binary media type. Anything else (i.e.
+ * text in another encoding, or text starting with an ASCII signature of a binary format like PEM) is left to Tika.
+ * </p>
+ * <p>
+ * The rules follow how Tika combines its magic and file name detection: text without a magic match is always
+ * detected as text, and binary contents without a magic match take the media type of the file name. The text prefix
+ * only needs to be sniffed as far as Tika does, and not at all past the first bytes if the extension itself maps to
+ * a text type. The text/binary decisions of media types and extension lookups are memoized.
+ * </p>
+ * <p>
+ * Tika and its media type registry are only loaded when first needed. Until then, extensions are not looked up
+ * for clean text: it is sniffed in full instead, so short runs over text files never load Tika at all.
+ * </p>
+ */
+@Slf4j
+final class FileTypeClassifier {
+    static final int SNIFF_LENGTH = 64 * 1024; // Prefix Tika inspects for magic numbers and text
+    static final int TEXT_EXT_SNIFF_LENGTH = 4 * 1024; // Prefix to sniff when the extension maps to a text type
+    private static final int MAX_MEMO_SIZE = 4096; // Maximum number of memoized extensions
+
+    // Binary formats identified by their first bytes (all detected as non-text media types by Tika too)
+    private static final byte[][] BINARY_MAGIC = {
+            {0x7f, 'E', 'L', 'F'},                                          // ELF
+            {(byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a},           // PNG
+            {(byte) 0xff, (byte) 0xd8, (byte) 0xff},                        // JPEG
+            bytes("GIF87a"), bytes("GIF89a"),                               // GIF
+            {'P', 'K', 0x03, 0x04}, {'P', 'K', 0x05, 0x06},                 // ZIP (jar, war, docx, ...)
+            {0x1f, (byte) 0x8b},                                            // GZIP
+            {(byte) 0xfd, '7', 'z', 'X', 'Z', 0x00},                        // XZ
+            {'7', 'z', (byte) 0xbc, (byte) 0xaf, 0x27, 0x1c},               // 7-Zip
+            {'R', 'a', 'r', '!', 0x1a, 0x07},                               // RAR
+            {(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe},           // Java class, Mach-O universal
+            {(byte) 0xfe, (byte) 0xed, (byte) 0xfa, (byte) 0xce},           // Mach-O
+            {(byte) 0xfe, (byte) 0xed, (byte) 0xfa, (byte) 0xcf},
+            {(byte) 0xce, (byte) 0xfa, (byte) 0xed, (byte) 0xfe},
+            {(byte) 0xcf, (byte) 0xfa, (byte) 0xed, (byte) 0xfe},
+            {'M', 'Z'},                                                     // Windows executable
+            {(byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1}, // OLE2 (msi, doc, xls)
+            bytes("%PDF-"),                                                 // PDF
+            bytes("SQLite format 3\0"),                                     // SQLite
+            bytes("OggS"), bytes("fLaC"), bytes("ID3"),                     // Audio
+            bytes("wOFF"), bytes("wOF2"),                                   // Web fonts
+    };
+    // Text signatures of binary media types (left to Tika to decide)
+    private static final byte[][] AMBIGUOUS_PREFIXES = {
+            bytes("-----BEGIN "), bytes("%!"), bytes("!<arch>"), bytes("{\\rtf"),
+    };
+
+    private static final Map<MediaType, Boolean> TEXT_MEDIA_TYPES = new ConcurrentHashMap<>(); // Text decision of each media type
+    private static final Map<String, Byte> EXTENSION_TYPES = new ConcurrentHashMap<>(); // Memoized extension -> TEXT/BINARY/UNKNOWN
+
+    private static final byte UNKNOWN = 0;
+    private static final byte TEXT = 1;
+    private static final byte BINARY = 2;
+    private static final byte UNRESOLVED = -1; // Extension not looked up (yet)
+
+    private static volatile boolean tikaLoaded = false; // Set once Tika has been loaded
+
+    private FileTypeClassifier() {
+    }
+
+    /**
+     * Classify the given file contents as text or binary, if it can be done without Tika
+     *
+     * @param filename name/path of the file
+     * @param contents file contents
+     * @return <code>true/false</code> if text/binary, <code>null</code> if undecided (Tika detection required)
+     */
+    static Boolean isText(@NonNull String filename, @NonNull byte[] contents) {
+        if (contents.length == 0) {
+            return null;
+        }
+        if (startsWithAny(contents, BINARY_MAGIC)) {
+            return false;
+        }
+        byte extensionType = tikaLoaded && contents.length > TEXT_EXT_SNIFF_LENGTH ? extensionType(filename) : UNRESOLVED;
+        if (isCleanText(contents, extensionType == TEXT ? TEXT_EXT_SNIFF_LENGTH : SNIFF_LENGTH)) {
+            return startsWithAny(contents, AMBIGUOUS_PREFIXES) ? null : Boolean.TRUE;
+        }
+        if (extensionType == UNRESOLVED) {
+            extensionType = extensionType(filename);
+        }
+        int length = Math.min(contents.length, SNIFF_LENGTH);
+        TextStatistics stats = new TextStatistics();
+        stats.addData(contents, 0, length);
+        if (stats.isMostlyAscii() || stats.looksLikeUTF8() || extensionType == TEXT) {
+            return null;  // Text in another encoding, or a few stray control bytes. Magic numbers decide
+        }
+        return extensionType == BINARY || stats.count(0) > 0 ? Boolean.FALSE : null;
+    }
+
+    /**
+     * Get the shared Tika instance, loading it (and its media type definitions) on first use
+     *
+     * @return Tika facade
+     */
+    static Tika tika() {
+        return TikaHolder.TIKA;
+    }
+
+    /**
+     * Check if the given media type is text based (itself, one of its aliases or one of its supertypes)
+     *
+     * @param mediaType media type
+     * @return <code>true</code> if a text type, <code>false</code> otherwise
+     */
+    static boolean isTextMediaType(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        return TEXT_MEDIA_TYPES.computeIfAbsent(mediaType, FileTypeClassifier::computeTextMediaType);
+    }
+
+    /**
+     * Walk the supertype chain (and aliases) of the given media type looking for a text type
+     *
+     * @param mediaType media type
+     * @return <code>true</code> if a text type, <code>false</code> otherwise
+     */
+    private static boolean computeTextMediaType(MediaType mediaType) {
+        while (mediaType != null) {
+            if (mediaType.getType().equals("text")) {
+                return true;
+            }
+            for (MediaType alias : TikaHolder.REGISTRY.getAliases(mediaType)) {
+                if (alias.getType().equals("text")) {
+                    return true;
+                }
+            }
+            mediaType = TikaHolder.REGISTRY.getSupertype(mediaType);
+        }
+        return false;
+    }
+
+    /**
+     * Get the media type class of the extension of the given file (memoized)
+     *
+     * @param filename name/path of the file
+     * @return TEXT or BINARY if the extension maps to a text/binary media type, UNKNOWN otherwise
+     */
+    private static byte extensionType(String filename) {
+        int start = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1;
+        int dot = filename.lastIndexOf('.');
+        if (dot <= start || dot == filename.length() - 1) {
+            return UNKNOWN;
+        }
+        String extension = filename.substring(dot + 1).toLowerCase();
+        Byte type = EXTENSION_TYPES.get(extension);
+        if (type == null) {
+            MediaType mediaType = MediaType.parse(tika().detect("file." + extension)); // File name detection only
+            if (mediaType == null || mediaType.equals(MediaType.OCTET_STREAM)) {
+                type = UNKNOWN;
+            } else {
+                type = isTextMediaType(mediaType) ? TEXT : BINARY;
+            }
+            if (EXTENSION_TYPES.size() < MAX_MEMO_SIZE) {
+                EXTENSION_TYPES.put(extension, type);
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Check if the given prefix of the contents is clean text: valid UTF-8 without NUL or other control bytes
+     * (tab, line feed, form feed, carriage return and escape excepted)
+     *
+     * @param contents file contents
+     * @param limit    maximum number of bytes to check
+     * @return <code>true</code> if clean text
+     */
+    static boolean isCleanText(byte[] contents, int limit) {
+        int end = Math.min(contents.length, limit);
+        int i = 0;
+        while (i < end) {
+            int b = contents[i] & 0xff;
+            if (b >= 0x20 && b < 0x80) {
+                i++;
+                continue;
+            }
+            if (b < 0x20) {
+                if (b != '\t' && b != '\n' && b != '\f' && b != '\r' && b != 0x1b) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int continuation;
+            if (b >= 0xc2 && b < 0xe0) {
+                continuation = 1;
+            } else if (b >= 0xe0 && b < 0xf0) {
+                continuation = 2;
+            } else if (b >= 0xf0 && b < 0xf5) {
+                continuation = 3;
+            } else {
+                return false;  // Continuation byte without a lead byte, or invalid lead byte
+            }
+            if (i + continuation >= contents.length) {
+                return false;  // Truncated sequence at the end of the file
+            }
+            for (int k = 1; k <= continuation; k++) {
+                if ((contents[i + k] & 0xc0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Check if the contents start with any of the given signatures
+     *
+     * @param contents   file contents
+     * @param signatures signatures to look for
+     * @return <code>true</code> if a signature matches
+     */
+    private static boolean startsWithAny(byte[] contents, byte[][] signatures) {
+        for (byte[] signature : signatures) {
+            if (contents.length >= signature.length && startsWith(contents, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] contents, byte[] signature) {
+        for (int i = 0; i < signature.length; i++) {
+            if (contents[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Tika and the media type registry, initialised on first use
+     */
+    private static final class TikaHolder {
+        static final Tika TIKA = new Tika();
+        static final MediaTypeRegistry REGISTRY = MediaTypeRegistry.getDefaultRegistry();
+
+        static {
+            tikaLoaded = true;
+        }
+    }
+}
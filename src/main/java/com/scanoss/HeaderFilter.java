@@ -24,8 +24,11 @@ package com.scanoss;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.*;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Source code header filter that identifies where real implementation begins.
@@ -34,6 +37,11 @@ import java.util.regex.Pattern;
  * license headers, documentation comments, imports/includes, or blank lines.
  * Returns the line offset where actual implementation code starts.
  * </p>
+ * <p>
+ * Contents are scanned as UTF-8 bytes, one line at a time, stopping at the first implementation line.
+ * Comment delimiters are matched in place, and import statements and license keywords are looked up through
+ * keyword tries, so no per-line strings are created.
+ * </p>
  */
 @Slf4j
 public class HeaderFilter {
@@ -41,26 +49,32 @@ public class HeaderFilter {
     private static final int LICENSE_HEADER_MAX_LINES = 50;
     private static final int COMPLETE_DOCSTRING_QUOTE_COUNT = 2;
 
-    // Comment patterns by style
-    private static final Map<String, CommentPatterns> COMMENT_PATTERNS = new HashMap<>();
-    // Import patterns by language
-    private static final Map<String, List<Pattern>> IMPORT_PATTERNS = new HashMap<>();
+    // Comment state of a line
+    private static final int NOT_COMMENT = 0;
+    private static final int COMMENT = 1;
+    private static final int COMMENT_OPEN = 2; // Comment continues on the next line
+
+    private static final byte[] DOCSTRING = bytes("\"\"\"");
+    private static final byte[] LINE_COMMENT = bytes("//");
+    private static final byte[] REQUIRE_CALL = bytes("require(");
+    private static final byte[] HEADER_GUARD = bytes("_H");
+
+    // Comment styles by name
+    private static final Map<String, CommentStyle> COMMENT_STYLES = new HashMap<>();
+    // Import rules by language (built on first use)
+    private static final Map<String, ImportRules> IMPORT_RULES = new ConcurrentHashMap<>();
+    private static final ImportRules NO_IMPORT_RULES = new ImportRules();
     // File extension to language mapping
     private static final Map<String, String> EXT_MAP = new HashMap<>();
-    // License keywords
-    private static final List<String> LICENSE_KEYWORDS = Arrays.asList(
-            "copyright", "license", "licensed", "all rights reserved",
-            "permission", "redistribution", "warranty", "liability",
-            "apache", "mit", "gpl", "bsd", "mozilla", "author:",
-            "spdx-license", "contributors", "licensee"
-    );
+    // License keywords (matched case-insensitively)
+    private static final KeywordTrie LICENSE_KEYWORDS = new KeywordTrie();
 
     // Language to comment style mapping
     private static final Map<String, String> LANGUAGE_COMMENT_STYLE = new HashMap<>();
 
     static {
-        initCommentPatterns();
-        initImportPatterns();
+        initCommentStyles();
+        initLicenseKeywords();
         initExtMap();
         initLanguageCommentStyles();
     }
@@ -91,41 +105,54 @@ public class HeaderFilter {
      * @return number of lines to skip from the beginning (0 if no filtering)
      */
     public int filter(String file, String decodedContents) {
-        if (decodedContents == null || decodedContents.isEmpty() || file == null || file.isEmpty()) {
+        return filter(file, decodedContents == null ? null : decodedContents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Filter file content and return the number of header lines to skip.
+     *
+     * @param file     file path (used to detect language from extension)
+     * @param contents UTF-8 encoded file contents
+     * @return number of lines to skip from the beginning (0 if no filtering)
+     */
+    public int filter(String file, byte[] contents) {
+        return locate(file, contents, maxLines).lines;
+    }
+
+    /**
+     * Locate the header at the beginning of a file, in a single pass over its first lines.
+     * <p>
+     * Besides the number of lines to skip, this returns the offset of the first line after them, so snippet
+     * generation can start right there instead of walking through the header again.
+     * </p>
+     *
+     * @param file      file path (used to detect language from extension)
+     * @param contents  UTF-8 encoded file contents
+     * @param skipLimit maximum lines to skip (null or 0 = unlimited)
+     * @return header lines to skip (and where the remaining lines start)
+     */
+    static Header locate(String file, byte[] contents, Integer skipLimit) {
+        if (contents == null || contents.length == 0 || file == null || file.isEmpty()) {
             log.debug("No file or contents provided, skipping header filter");
-            return 0;
+            return Header.NONE;
         }
-        String language = detectLanguage(file);
+        String language = languageOf(file);
         if (language == null) {
             log.debug("Skipping header filter for unsupported language: {}", file);
-            return 0;
+            return Header.NONE;
         }
+        log.trace("Analysing header lines for file: {}", file);
 
-        String[] lines = decodedContents.split("\n", -1);
-        if (lines.length == 0) {
-            log.debug("No lines in file: {}", file);
-            return 0;
-        }
-        log.trace("Analysing {} lines for file: {}", lines.length, file);
-
-        Integer implementationStart = findFirstImplementationLine(lines, language);
-        if (implementationStart == null) {
+        int maxLines = skipLimit != null && skipLimit > 0 ? skipLimit : 0;
+        Header header = findHeader(contents, language, maxLines);
+        if (header == null) {
             log.debug("No implementation found in file: {}", file);
-            return 0;
-        }
-
-        int lineOffset = implementationStart - 1;
-
-        if (maxLines != null && maxLines > 0 && maxLines < lineOffset) {
-            log.trace("Line offset {} exceeds maxLines {}, capping at {} for: {}",
-                    lineOffset, maxLines, maxLines, file);
-            lineOffset = maxLines;
+            return Header.NONE;
         }
-
-        if (lineOffset > 0) {
-            log.debug("Filtered out {} lines from beginning of {} (language: {})", lineOffset, file, language);
+        if (header.lines > 0) {
+            log.debug("Filtered out {} lines from beginning of {} (language: {})", header.lines, file, language);
         }
-        return lineOffset;
+        return header;
     }
 
     /**
@@ -135,6 +162,10 @@ public class HeaderFilter {
      * @return language string or null if unsupported
      */
     String detectLanguage(String filePath) {
+        return languageOf(filePath);
+    }
+
+    private static String languageOf(String filePath) {
         if (filePath == null || filePath.isEmpty()) {
             return null;
         }
@@ -147,14 +178,19 @@ public class HeaderFilter {
     }
 
     /**
-     * Find the 1-indexed line number where implementation begins.
+     * Find the header lines before the line where implementation begins.
+     * <p>
+     * Lines are separated by '\n' only, and the contents after the implementation line are never read.
+     * Only the start of the line following the line limit is remembered while going through the header.
+     * </p>
      *
-     * @param lines    array of source lines
+     * @param contents UTF-8 encoded file contents
      * @param language detected programming language
-     * @return 1-indexed line number, or null if no implementation found
+     * @param maxLines maximum lines to skip (0 = unlimited)
+     * @return header lines to skip, or null if no implementation found
      */
-    Integer findFirstImplementationLine(String[] lines, String language) {
-        if (lines == null || lines.length == 0 || language == null) {
+    static Header findHeader(byte[] contents, String language, int maxLines) {
+        if (contents == null || contents.length == 0 || language == null) {
             return null;
         }
 
@@ -162,25 +198,36 @@ public class HeaderFilter {
         boolean inLicenseSection = false;
         boolean inImportBlock = false;
 
-        String commentStyle = getCommentStyle(language);
-        CommentPatterns commentPatterns = COMMENT_PATTERNS.get(commentStyle);
-        List<Pattern> importPatterns = IMPORT_PATTERNS.getOrDefault(language, Collections.emptyList());
+        CommentStyle commentStyle = COMMENT_STYLES.get(getCommentStyle(language));
+        ImportRules importRules = IMPORT_RULES.computeIfAbsent(language, HeaderFilter::importRules);
 
-        for (int i = 0; i < lines.length; i++) {
-            int lineNumber = i + 1;
-            String stripped = lines[i].trim();
+        int lineNumber = 0;
+        int limitOffset = 0; // Start of the first line past the limit
+        for (int start = 0; start <= contents.length; start++) {
+            int end = indexOf(contents, (byte) '\n', start, contents.length);
+            if (end < 0) {
+                end = contents.length;
+            }
+            lineNumber++;
+            int lineStart = start;
+            start = end;
+            if (lineNumber == maxLines + 1) {
+                limitOffset = lineStart;
+            }
 
-            // Shebang (only first line) or blank line
-            if ((i == 0 && stripped.startsWith("#!")) || stripped.isEmpty()) {
+            // Shebang (only first line) or blank line (i.e. nothing left after String.trim())
+            int stripped = trimStart(contents, lineStart, end);
+            if (stripped == end || (lineNumber == 1 && end - stripped > 1 &&
+                    contents[stripped] == '#' && contents[stripped + 1] == '!')) {
                 continue;
             }
 
             // Check if it's a comment
-            CommentResult commentResult = isComment(lines[i], inMultilineComment, commentPatterns);
-            inMultilineComment = commentResult.inMultiline;
+            int comment = commentState(contents, lineStart, end, inMultilineComment, commentStyle);
+            inMultilineComment = comment == COMMENT_OPEN;
 
-            if (commentResult.isComment) {
-                if (isLicenseHeader(lines[i])) {
+            if (comment != NOT_COMMENT) {
+                if (LICENSE_KEYWORDS.occursIn(contents, lineStart, end)) {
                     if (!inLicenseSection) {
                         log.trace("Line {}: Detected license header section", lineNumber);
                     }
@@ -199,9 +246,18 @@ public class HeaderFilter {
             // If not a comment, end license section
             inLicenseSection = false;
 
+            boolean openParen = false, closeParen = false, openBrace = false, closeBrace = false;
+            for (int i = lineStart; i < end; i++) {
+                byte b = contents[i];
+                openParen |= b == '(';
+                closeParen |= b == ')';
+                openBrace |= b == '{';
+                closeBrace |= b == '}';
+            }
+
             // If we're inside a multi-line import block, continue until closing delimiter
             if (inImportBlock) {
-                if (stripped.contains(")") || stripped.contains("}")) {
+                if (closeParen || closeBrace) {
                     log.trace("Line {}: Multi-line import block end", lineNumber);
                     inImportBlock = false;
                 }
@@ -209,10 +265,9 @@ public class HeaderFilter {
             }
 
             // Check if it's an import
-            if (isImport(lines[i], importPatterns)) {
+            if (importRules.matches(contents, skipSpaces(contents, lineStart, end), end)) {
                 // Detect start of multi-line import block (e.g. "from x import (", "import {")
-                if ((stripped.contains("(") && !stripped.contains(")")) ||
-                        (stripped.contains("{") && !stripped.contains("}"))) {
+                if ((openParen && !closeParen) || (openBrace && !closeBrace)) {
                     log.trace("Line {}: Multi-line import block start", lineNumber);
                     inImportBlock = true;
                 }
@@ -221,259 +276,546 @@ public class HeaderFilter {
 
             // If we get here, it's implementation code
             log.trace("Line {}: First implementation line detected", lineNumber);
-            return lineNumber;
+            if (maxLines > 0 && maxLines < lineNumber - 1) {
+                log.trace("Line offset {} exceeds maxLines {}, capping at {}", lineNumber - 1, maxLines, maxLines);
+                return new Header(maxLines, limitOffset);
+            }
+            return lineNumber == 1 ? Header.NONE : new Header(lineNumber - 1, lineStart);
         }
         return null;
     }
 
     /**
      * Check if a line is a comment and track multiline comment state.
+     * <p>
+     * Comment delimiters follow the regular expression rules this filter has always used: a single line comment may
+     * not hold a line terminator other than '\n' (i.e. '\r'), and closing delimiters must be followed by
+     * white space only.
+     * </p>
      *
-     * @param line             the source line
-     * @param inMultiline      whether we're currently inside a multiline comment
-     * @param commentPatterns  comment patterns for the current language style
-     * @return result containing whether the line is a comment and the new multiline state
+     * @param line         file contents
+     * @param start        start of the line
+     * @param end          end of the line (exclusive)
+     * @param inMultiline  whether we're currently inside a multiline comment
+     * @param commentStyle comment delimiters for the current language style
+     * @return {@link #NOT_COMMENT}, {@link #COMMENT} or {@link #COMMENT_OPEN}
      */
-    private CommentResult isComment(String line, boolean inMultiline, CommentPatterns commentPatterns) {
-        if (commentPatterns == null) {
-            return new CommentResult(false, inMultiline);
+    private static int commentState(byte[] line, int start, int end, boolean inMultiline, CommentStyle commentStyle) {
+        if (commentStyle == null) {
+            return NOT_COMMENT;
         }
 
         // If we're in a multiline comment
         if (inMultiline) {
-            if (commentPatterns.multiEnd != null && commentPatterns.multiEnd.matcher(line).find()) {
-                return new CommentResult(true, false);
+            if (commentStyle.multiEnd != null && endsWith(line, start, end, commentStyle.multiEnd)) {
+                return COMMENT;
             }
-            if (commentPatterns.docStringEnd != null && commentPatterns.docStringEnd.matcher(line).find()) {
-                return new CommentResult(true, false);
+            if (commentStyle.docString && endsWith(line, start, end, DOCSTRING)) {
+                return COMMENT;
             }
-            return new CommentResult(true, true);
+            return COMMENT_OPEN;
         }
 
-        // Single-line comment
-        if (commentPatterns.singleLine != null && commentPatterns.singleLine.matcher(line).matches()) {
-            return new CommentResult(true, false);
-        }
+        int pos = skipSpaces(line, start, end);
 
-        // Multiline comment complete in one line
-        if (commentPatterns.multiSingle != null && commentPatterns.multiSingle.matcher(line).matches()) {
-            return new CommentResult(true, false);
+        // Single-line comment
+        if (commentStyle.singleLine != null && startsWith(line, pos, end, commentStyle.singleLine) &&
+                nextTerminator(line, pos + commentStyle.singleLine.length, end) == end) {
+            return COMMENT;
         }
 
-        // Start of multiline comment (C-style)
-        if (commentPatterns.multiStart != null && commentPatterns.multiStart.matcher(line).find()) {
-            if (commentPatterns.multiEnd != null && commentPatterns.multiEnd.matcher(line).find()) {
-                return new CommentResult(true, false);
+        // Start of multiline comment (a comment complete in one line also ends with the closing delimiter)
+        if (commentStyle.multiStart != null && startsWith(line, pos, end, commentStyle.multiStart)) {
+            if (commentStyle.multiEnd != null && endsWith(line, start, end, commentStyle.multiEnd)) {
+                return COMMENT;
             }
-            return new CommentResult(true, true);
+            return COMMENT_OPEN;
         }
 
         // Start of docstring (Python)
-        if (commentPatterns.docStringStart != null && line.contains("\"\"\"")) {
-            int count = countOccurrences(line, "\"\"\"");
+        if (commentStyle.docString) {
+            int count = countOccurrences(line, start, end, DOCSTRING);
             if (count == COMPLETE_DOCSTRING_QUOTE_COUNT) {
-                return new CommentResult(true, false);
+                return COMMENT;
             }
             if (count == 1) {
-                return new CommentResult(true, true);
+                return COMMENT_OPEN;
             }
         }
 
-        return new CommentResult(false, inMultiline);
+        return NOT_COMMENT;
     }
 
     /**
-     * Check if a line matches any import pattern for the language.
+     * Get the comment style for a given language.
      *
-     * @param line    source line
-     * @param patterns import patterns for the language
-     * @return true if the line is an import/include statement
+     * @param language programming language
+     * @return comment style key
      */
-    private boolean isImport(String line, List<Pattern> patterns) {
-        if (patterns == null || patterns.isEmpty()) {
-            return false;
-        }
-        return patterns.stream().anyMatch(p -> p.matcher(line).find());
+    private static String getCommentStyle(String language) {
+        return LANGUAGE_COMMENT_STYLE.getOrDefault(language, "c_style");
+    }
+
+    // --- Byte scanning helpers ---
+
+    /**
+     * Check for white space as matched by the regular expression <code>\s</code> (space, \t, \n, \x0B, \f or \r).
+     */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private static boolean isIdentifier(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
     }
 
     /**
-     * Check if a line contains license-related keywords.
+     * Length of the line terminator at the given position: \r, NEL (U+0085), LS (U+2028) or PS (U+2029).
+     * These are the characters (besides \n) the regular expression <code>.</code> does not match.
      *
-     * @param line source line
-     * @return true if the line appears to be part of a license header
+     * @return length of the terminator in bytes, or 0 if there is none
      */
-    boolean isLicenseHeader(String line) {
-        String lineLower = line.toLowerCase();
-        return LICENSE_KEYWORDS.stream().anyMatch(lineLower::contains);
+    private static int terminatorLength(byte[] b, int i, int end) {
+        if (b[i] == '\r') {
+            return 1;
+        }
+        if (b[i] == (byte) 0xC2 && i + 1 < end && b[i + 1] == (byte) 0x85) {
+            return 2;
+        }
+        if (b[i] == (byte) 0xE2 && i + 2 < end && b[i + 1] == (byte) 0x80 &&
+                (b[i + 2] == (byte) 0xA8 || b[i + 2] == (byte) 0xA9)) {
+            return 3;
+        }
+        return 0;
     }
 
     /**
-     * Get the comment style for a given language.
+     * Find the first line terminator (see {@link #terminatorLength}) at or after the given position.
      *
-     * @param language programming language
-     * @return comment style key
+     * @return position of the terminator, or <code>end</code> if there is none
      */
-    private String getCommentStyle(String language) {
-        return LANGUAGE_COMMENT_STYLE.getOrDefault(language, "c_style");
+    private static int nextTerminator(byte[] b, int i, int end) {
+        for (; i < end; i++) {
+            if (terminatorLength(b, i, end) > 0) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Check for the end of a line, as matched by <code>$</code> (the end, or a single line terminator before it).
+     */
+    private static boolean atLineEnd(byte[] b, int i, int end) {
+        return i == end || terminatorLength(b, i, end) == end - i;
+    }
+
+    private static int skipSpaces(byte[] b, int i, int end) {
+        while (i < end && isSpace(b[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skip the characters removed by {@link String#trim()} (all control characters and space).
+     */
+    private static int trimStart(byte[] b, int i, int end) {
+        while (i < end && b[i] >= 0 && b[i] <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(byte[] b, byte value, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (b[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] b, int i, int end, byte[] token) {
+        if (end - i < token.length) {
+            return false;
+        }
+        for (int j = 0; j < token.length; j++) {
+            if (b[i + j] != token[j]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Count occurrences of a substring in a string.
+     * Check if the line ends with the given token, followed by optional white space (<code>token\s*$</code>).
      */
-    private int countOccurrences(String str, String sub) {
+    private static boolean endsWith(byte[] b, int start, int end, byte[] token) {
+        int e = end;
+        if (e - start >= 2 && terminatorLength(b, e - 2, e) == 2) {
+            e -= 2;
+        } else if (e - start >= 3 && terminatorLength(b, e - 3, e) == 3) {
+            e -= 3;
+        }
+        while (e > start && isSpace(b[e - 1])) {
+            e--;
+        }
+        return e - start >= token.length && startsWith(b, e - token.length, e, token);
+    }
+
+    /**
+     * Count the (non-overlapping) occurrences of a token in a line.
+     */
+    private static int countOccurrences(byte[] b, int start, int end, byte[] token) {
         int count = 0;
-        int idx = 0;
-        while ((idx = str.indexOf(sub, idx)) != -1) {
-            count++;
-            idx += sub.length();
+        for (int i = start; i <= end - token.length; ) {
+            if (startsWith(b, i, end, token)) {
+                count++;
+                i += token.length;
+            } else {
+                i++;
+            }
         }
         return count;
     }
 
+    /**
+     * Check for the given word followed by white space (<code>word\s+</code>).
+     */
+    private static boolean wordAndSpace(byte[] b, int i, int end, byte[] word) {
+        return startsWith(b, i, end, word) && i + word.length < end && isSpace(b[i + word.length]);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // --- Import rules ---
+    // Each rule is matched right after its keyword, and mirrors the tail of a regular expression (shown in the
+    // Javadoc) anchored to the start of the line. White space is \s, and . matches anything but a line terminator.
+
+    /**
+     * <code>kw\s+</code>
+     */
+    private static boolean space(byte[] b, int i, int end) {
+        return i < end && isSpace(b[i]);
+    }
+
+    /**
+     * <code>kw\(</code>
+     */
+    private static boolean paren(byte[] b, int i, int end) {
+        return i < end && b[i] == '(';
+    }
+
+    /**
+     * <code>kw\s+c</code> for any of the given characters.
+     */
+    private static ImportRule spaceThen(String chars) {
+        return (b, i, end) -> {
+            if (!space(b, i, end)) {
+                return false;
+            }
+            int j = skipSpaces(b, i, end);
+            return j < end && chars.indexOf(b[j]) >= 0;
+        };
+    }
+
+    /**
+     * <code>kw\s+word\s+</code>
+     */
+    private static ImportRule spaceWord(String word) {
+        byte[] w = bytes(word);
+        return (b, i, end) -> space(b, i, end) && wordAndSpace(b, skipSpaces(b, i, end), end, w);
+    }
+
+    /**
+     * <code>kw\s*word\s+</code>
+     */
+    private static ImportRule optionalSpaceWord(String word) {
+        byte[] w = bytes(word);
+        return (b, i, end) -> wordAndSpace(b, skipSpaces(b, i, end), end, w);
+    }
+
+    /**
+     * <code>kw\s+\*\s+word\s+</code>
+     */
+    private static ImportRule spaceStarWord(String word) {
+        ImportRule tail = spaceWord(word);
+        return (b, i, end) -> {
+            if (!space(b, i, end)) {
+                return false;
+            }
+            int j = skipSpaces(b, i, end);
+            return j < end && b[j] == '*' && tail.matches(b, j + 1, end);
+        };
+    }
+
+    /**
+     * <code>kw\s+.*\s+word\s+</code>
+     */
+    private static ImportRule spaceAnySpaceWord(String word) {
+        byte[] w = bytes(word);
+        return (b, i, end) -> {
+            if (!space(b, i, end)) {
+                return false;
+            }
+            int text = skipSpaces(b, i, end);
+            int terminator = nextTerminator(b, text, end);
+            for (int z = i + 2; z + w.length < end; z++) {
+                if (isSpace(b[z - 1]) && wordAndSpace(b, z, end, w)) {
+                    int spaces = z - 1;
+                    while (spaces > i && isSpace(b[spaces - 1])) {
+                        spaces--;
+                    }
+                    // Either all white space up to the word, or the text in between holds no line terminator
+                    if (spaces <= text || terminator >= spaces) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * <code>kw\s+\{.*\}\s+word\s+</code>
+     */
+    private static ImportRule spaceBracesWord(String word) {
+        ImportRule tail = spaceWord(word);
+        return (b, i, end) -> {
+            if (!space(b, i, end)) {
+                return false;
+            }
+            int open = skipSpaces(b, i, end);
+            if (open >= end || b[open] != '{') {
+                return false;
+            }
+            int terminator = nextTerminator(b, open + 1, end);
+            for (int close = open + 1; close < terminator; close++) {
+                if (b[close] == '}' && tail.matches(b, close + 1, end)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * <code>kw\s+.*\s*=\s*require\(</code>
+     */
+    private static boolean requireAssignment(byte[] b, int i, int end) {
+        if (!space(b, i, end)) {
+            return false;
+        }
+        int text = skipSpaces(b, i, end);
+        int terminator = nextTerminator(b, text, end);
+        for (int e = text; e < end; e++) {
+            if (b[e] == '=') {
+                int spaces = e;
+                while (spaces > i && isSpace(b[spaces - 1])) {
+                    spaces--;
+                }
+                if (spaces > text && terminator < spaces) {
+                    return false;  // a line terminator sits between the keyword and any later '='
+                }
+                if (startsWith(b, skipSpaces(b, e + 1, end), end, REQUIRE_CALL)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <code>kw\s+.*_H.*</code>
+     */
+    private static boolean headerGuard(byte[] b, int i, int end) {
+        if (!space(b, i, end)) {
+            return false;
+        }
+        int text = skipSpaces(b, i, end);
+        int terminator = nextTerminator(b, text, end);
+        for (int h = text; h < terminator; h++) {
+            if (startsWith(b, h, end, HEADER_GUARD)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <code>kw\s+(//.*)?(\s*)$</code>
+     */
+    private static boolean endOfGuard(byte[] b, int i, int end) {
+        if (!space(b, i, end)) {
+            return false;
+        }
+        int text = skipSpaces(b, i, end);
+        if (atLineEnd(b, text, end)) {
+            return true;
+        }
+        return startsWith(b, text, end, LINE_COMMENT) &&
+                atLineEnd(b, skipSpaces(b, nextTerminator(b, text + LINE_COMMENT.length, end), end), end);
+    }
+
+    /**
+     * <code>"[^"]*"\s*$</code>
+     */
+    private static boolean quotedPath(byte[] b, int i, int end) {
+        if (i >= end || b[i] != '"') {
+            return false;
+        }
+        int close = indexOf(b, (byte) '"', i + 1, end);
+        return close >= 0 && atLineEnd(b, skipSpaces(b, close + 1, end), end);
+    }
+
+    /**
+     * <code>[a-zA-Z_][a-zA-Z0-9_]*\s+"[^"]*"\s*$</code>
+     */
+    private static boolean aliasedPath(byte[] b, int i, int end) {
+        if (i >= end || !isIdentifier(b[i]) || (b[i] >= '0' && b[i] <= '9')) {
+            return false;
+        }
+        int j = i + 1;
+        while (j < end && isIdentifier(b[j])) {
+            j++;
+        }
+        return space(b, j, end) && quotedPath(b, skipSpaces(b, j, end), end);
+    }
+
     // --- Static initialization methods ---
 
-    private static void initCommentPatterns() {
+    private static void initCommentStyles() {
         // C-style: C, C++, Java, JavaScript, TypeScript, Go, Rust, C#, PHP, Kotlin, Scala, Dart
-        COMMENT_PATTERNS.put("c_style", new CommentPatterns(
-                Pattern.compile("^\\s*//.*$"),
-                Pattern.compile("^\\s*/\\*"),
-                Pattern.compile("\\*/\\s*$"),
-                Pattern.compile("^\\s*/\\*.*\\*/\\s*$"),
-                null, null
-        ));
+        COMMENT_STYLES.put("c_style", new CommentStyle("//", "/*", "*/", false));
 
         // Python, shell scripts, Ruby, Perl, R
-        COMMENT_PATTERNS.put("python_style", new CommentPatterns(
-                Pattern.compile("^\\s*#.*$"),
-                null, null, null,
-                Pattern.compile("^\\s*\"\"\""),
-                Pattern.compile("\"\"\"\\s*$")
-        ));
+        COMMENT_STYLES.put("python_style", new CommentStyle("#", null, null, true));
 
         // Lua, Haskell
-        COMMENT_PATTERNS.put("lua_style", new CommentPatterns(
-                Pattern.compile("^\\s*--.*$"),
-                Pattern.compile("^\\s*--\\[\\["),
-                Pattern.compile("\\]\\]\\s*$"),
-                null, null, null
-        ));
+        COMMENT_STYLES.put("lua_style", new CommentStyle("--", "--[[", "]]", false));
 
         // HTML, XML
-        COMMENT_PATTERNS.put("html_style", new CommentPatterns(
-                null,
-                Pattern.compile("^\\s*<!--"),
-                Pattern.compile("-->\\s*$"),
-                Pattern.compile("^\\s*<!--.*-->\\s*$"),
-                null, null
-        ));
-    }
-
-    private static void initImportPatterns() {
-        IMPORT_PATTERNS.put("python", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*from\\s+.*\\s+import\\s+"
-        ));
-        IMPORT_PATTERNS.put("javascript", compilePatterns(
-                "^\\s*import\\s+.*\\s+from\\s+",
-                "^\\s*import\\s+[\"']",
-                "^\\s*import\\s+type\\s+",
-                "^\\s*export\\s+\\*\\s+from\\s+",
-                "^\\s*export\\s+\\{.*\\}\\s+from\\s+",
-                "^\\s*const\\s+.*\\s*=\\s*require\\(",
-                "^\\s*var\\s+.*\\s*=\\s*require\\(",
-                "^\\s*let\\s+.*\\s*=\\s*require\\("
-        ));
-        IMPORT_PATTERNS.put("typescript", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*export\\s+.*\\s+from\\s+",
-                "^\\s*import\\s+type\\s+",
-                "^\\s*import\\s+\\{.*\\}\\s+from\\s+"
-        ));
-        IMPORT_PATTERNS.put("java", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*package\\s+"
-        ));
-        IMPORT_PATTERNS.put("kotlin", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*package\\s+"
-        ));
-        IMPORT_PATTERNS.put("scala", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*package\\s+"
-        ));
-        IMPORT_PATTERNS.put("go", compilePatterns(
-                "^\\s*import\\s+\\(",
-                "^\\s*import\\s+\"",
-                "^\\s*package\\s+",
-                "^\\s*\"[^\"]*\"\\s*$",
-                "^\\s*[a-zA-Z_][a-zA-Z0-9_]*\\s+\"[^\"]*\"\\s*$",
-                "^\\s*_\\s+\"[^\"]*\"\\s*$"
-        ));
-        IMPORT_PATTERNS.put("rust", compilePatterns(
-                "^\\s*use\\s+",
-                "^\\s*extern\\s+crate\\s+",
-                "^\\s*mod\\s+"
-        ));
-        IMPORT_PATTERNS.put("cpp", compilePatterns(
-                "^\\s*#include\\s+",
-                "^\\s*#pragma\\s+",
-                "^\\s*#ifndef\\s+.*_H.*",
-                "^\\s*#define\\s+.*_H.*",
-                "^\\s*#endif\\s+(//.*)?(\\s*)$"
-        ));
-        IMPORT_PATTERNS.put("csharp", compilePatterns(
-                "^\\s*using\\s+",
-                "^\\s*namespace\\s+"
-        ));
-        IMPORT_PATTERNS.put("php", compilePatterns(
-                "^\\s*use\\s+",
-                "^\\s*require\\s+",
-                "^\\s*require_once\\s+",
-                "^\\s*include\\s+",
-                "^\\s*include_once\\s+",
-                "^\\s*namespace\\s+"
-        ));
-        IMPORT_PATTERNS.put("swift", compilePatterns(
-                "^\\s*import\\s+"
-        ));
-        IMPORT_PATTERNS.put("ruby", compilePatterns(
-                "^\\s*require\\s+",
-                "^\\s*require_relative\\s+",
-                "^\\s*load\\s+"
-        ));
-        IMPORT_PATTERNS.put("perl", compilePatterns(
-                "^\\s*use\\s+",
-                "^\\s*require\\s+"
-        ));
-        IMPORT_PATTERNS.put("r", compilePatterns(
-                "^\\s*library\\(",
-                "^\\s*require\\(",
-                "^\\s*source\\("
-        ));
-        IMPORT_PATTERNS.put("lua", compilePatterns(
-                "^\\s*require\\s+",
-                "^\\s*local\\s+.*\\s*=\\s*require\\("
-        ));
-        IMPORT_PATTERNS.put("dart", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*export\\s+",
-                "^\\s*part\\s+"
-        ));
-        IMPORT_PATTERNS.put("haskell", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*module\\s+"
-        ));
-        IMPORT_PATTERNS.put("elixir", compilePatterns(
-                "^\\s*import\\s+",
-                "^\\s*alias\\s+",
-                "^\\s*require\\s+",
-                "^\\s*use\\s+"
-        ));
-        IMPORT_PATTERNS.put("clojure", compilePatterns(
-                "^\\s*\\(\\s*ns\\s+",
-                "^\\s*\\(\\s*require\\s+",
-                "^\\s*\\(\\s*import\\s+"
-        ));
+        COMMENT_STYLES.put("html_style", new CommentStyle(null, "<!--", "-->", false));
+    }
+
+    /**
+     * Build the import rules of the given language.
+     *
+     * @param language programming language
+     * @return import rules (empty if the language has none)
+     */
+    private static ImportRules importRules(String language) {
+        switch (language) {
+            case "python":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)
+                        .add("from", spaceAnySpaceWord("import"));
+            case "javascript":
+                return new ImportRules()
+                        .add("import", spaceAnySpaceWord("from"))
+                        .add("import", spaceThen("\"'"))
+                        .add("import", spaceWord("type"))
+                        .add("export", spaceStarWord("from"))
+                        .add("export", spaceBracesWord("from"))
+                        .add("const", HeaderFilter::requireAssignment)
+                        .add("var", HeaderFilter::requireAssignment)
+                        .add("let", HeaderFilter::requireAssignment);
+            case "typescript":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)  // also covers "import type" and "import {...} from"
+                        .add("export", spaceAnySpaceWord("from"));
+            case "java":
+            case "kotlin":
+            case "scala":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)
+                        .add("package", HeaderFilter::space);
+            case "go":
+                return new ImportRules()
+                        .add("import", spaceThen("(\""))
+                        .add("package", HeaderFilter::space)
+                        .anchored(HeaderFilter::quotedPath)
+                        .anchored(HeaderFilter::aliasedPath);  // also covers blank (_) imports
+            case "rust":
+                return new ImportRules()
+                        .add("use", HeaderFilter::space)
+                        .add("extern", spaceWord("crate"))
+                        .add("mod", HeaderFilter::space);
+            case "cpp":
+                return new ImportRules()
+                        .add("#include", HeaderFilter::space)
+                        .add("#pragma", HeaderFilter::space)
+                        .add("#ifndef", HeaderFilter::headerGuard)
+                        .add("#define", HeaderFilter::headerGuard)
+                        .add("#endif", HeaderFilter::endOfGuard);
+            case "csharp":
+                return new ImportRules()
+                        .add("using", HeaderFilter::space)
+                        .add("namespace", HeaderFilter::space);
+            case "php":
+                return new ImportRules()
+                        .add("use", HeaderFilter::space)
+                        .add("require", HeaderFilter::space)
+                        .add("require_once", HeaderFilter::space)
+                        .add("include", HeaderFilter::space)
+                        .add("include_once", HeaderFilter::space)
+                        .add("namespace", HeaderFilter::space);
+            case "swift":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space);
+            case "ruby":
+                return new ImportRules()
+                        .add("require", HeaderFilter::space)
+                        .add("require_relative", HeaderFilter::space)
+                        .add("load", HeaderFilter::space);
+            case "perl":
+                return new ImportRules()
+                        .add("use", HeaderFilter::space)
+                        .add("require", HeaderFilter::space);
+            case "r":
+                return new ImportRules()
+                        .add("library", HeaderFilter::paren)
+                        .add("require", HeaderFilter::paren)
+                        .add("source", HeaderFilter::paren);
+            case "lua":
+                return new ImportRules()
+                        .add("require", HeaderFilter::space)
+                        .add("local", HeaderFilter::requireAssignment);
+            case "dart":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)
+                        .add("export", HeaderFilter::space)
+                        .add("part", HeaderFilter::space);
+            case "haskell":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)
+                        .add("module", HeaderFilter::space);
+            case "elixir":
+                return new ImportRules()
+                        .add("import", HeaderFilter::space)
+                        .add("alias", HeaderFilter::space)
+                        .add("require", HeaderFilter::space)
+                        .add("use", HeaderFilter::space);
+            case "clojure":
+                return new ImportRules()
+                        .add("(", optionalSpaceWord("ns"))
+                        .add("(", optionalSpaceWord("require"))
+                        .add("(", optionalSpaceWord("import"));
+            default:
+                return NO_IMPORT_RULES;
+        }
+    }
+
+    private static void initLicenseKeywords() {
+        for (String keyword : new String[]{"copyright", "license", "licensed", "all rights reserved",
+                "permission", "redistribution", "warranty", "liability",
+                "apache", "mit", "gpl", "bsd", "mozilla", "author:",
+                "spdx-license", "contributors", "licensee"}) {
+            LICENSE_KEYWORDS.add(keyword, null);
+        }
     }
 
     private static void initExtMap() {
@@ -533,46 +875,151 @@ public class HeaderFilter {
         }
     }
 
-    private static List<Pattern> compilePatterns(String... regexes) {
-        List<Pattern> patterns = new ArrayList<>();
-        for (String regex : regexes) {
-            patterns.add(Pattern.compile(regex));
+    /**
+     * Header lines found at the beginning of a file.
+     */
+    static final class Header {
+        static final Header NONE = new Header(0, 0);
+
+        final int lines; // Number of lines to skip
+        final int offset; // Offset of the first line after them
+
+        Header(int lines, int offset) {
+            this.lines = lines;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Import rule, matched right after its keyword (or the leading white space for anchored rules).
+     */
+    @FunctionalInterface
+    private interface ImportRule {
+        /**
+         * @param line file contents
+         * @param pos  position after the keyword
+         * @param end  end of the line (exclusive)
+         * @return true if the rest of the line matches
+         */
+        boolean matches(byte[] line, int pos, int end);
+    }
+
+    /**
+     * Import rules for a given language.
+     */
+    private static class ImportRules {
+        private final KeywordTrie keywords = new KeywordTrie();
+        private ImportRule[] anchored = new ImportRule[0]; // Rules that do not start with a keyword
+
+        ImportRules add(String keyword, ImportRule rule) {
+            keywords.add(keyword, rule);
+            return this;
+        }
+
+        ImportRules anchored(ImportRule rule) {
+            anchored = Arrays.copyOf(anchored, anchored.length + 1);
+            anchored[anchored.length - 1] = rule;
+            return this;
+        }
+
+        /**
+         * Check if a line is an import/include statement.
+         *
+         * @param line file contents
+         * @param pos  first position after the leading white space
+         * @param end  end of the line (exclusive)
+         * @return true if any of the rules match
+         */
+        boolean matches(byte[] line, int pos, int end) {
+            if (keywords.matchesAt(line, pos, end)) {
+                return true;
+            }
+            for (ImportRule rule : anchored) {
+                if (rule.matches(line, pos, end)) {
+                    return true;
+                }
+            }
+            return false;
         }
-        return patterns;
     }
 
     /**
-     * Internal record for comment detection results.
+     * Trie of ASCII keywords, each holding the rules to check after it.
      */
-    private static class CommentResult {
-        final boolean isComment;
-        final boolean inMultiline;
+    private static class KeywordTrie {
+        private final KeywordTrie[] children = new KeywordTrie[128];
+        private ImportRule[] rules = new ImportRule[0];
+        private boolean keyword;
+
+        void add(String word, ImportRule rule) {
+            KeywordTrie node = this;
+            for (byte b : bytes(word)) {
+                if (node.children[b] == null) {
+                    node.children[b] = new KeywordTrie();
+                }
+                node = node.children[b];
+            }
+            node.keyword = true;
+            if (rule != null) {
+                node.rules = Arrays.copyOf(node.rules, node.rules.length + 1);
+                node.rules[node.rules.length - 1] = rule;
+            }
+        }
+
+        /**
+         * Check if a keyword starts at the given position, and the rest of the line matches one of its rules.
+         */
+        boolean matchesAt(byte[] line, int pos, int end) {
+            KeywordTrie node = this;
+            for (int i = pos; i < end && line[i] >= 0; ) {
+                node = node.children[line[i++]];
+                if (node == null) {
+                    return false;
+                }
+                for (ImportRule rule : node.rules) {
+                    if (rule.matches(line, i, end)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
 
-        CommentResult(boolean isComment, boolean inMultiline) {
-            this.isComment = isComment;
-            this.inMultiline = inMultiline;
+        /**
+         * Check if any keyword occurs in the given line, ignoring ASCII case.
+         */
+        boolean occursIn(byte[] line, int start, int end) {
+            for (int s = start; s < end; s++) {
+                KeywordTrie node = this;
+                for (int i = s; i < end && line[i] >= 0; i++) {
+                    byte b = line[i];
+                    node = node.children[b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b];
+                    if (node == null) {
+                        break;
+                    }
+                    if (node.keyword) {
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
     }
 
     /**
-     * Comment patterns for a given language style.
+     * Comment delimiters for a given language style.
      */
-    private static class CommentPatterns {
-        final Pattern singleLine;
-        final Pattern multiStart;
-        final Pattern multiEnd;
-        final Pattern multiSingle;
-        final Pattern docStringStart;
-        final Pattern docStringEnd;
+    private static class CommentStyle {
+        final byte[] singleLine;
+        final byte[] multiStart;
+        final byte[] multiEnd;
+        final boolean docString; // Python docstrings (""")
 
-        CommentPatterns(Pattern singleLine, Pattern multiStart, Pattern multiEnd,
-                        Pattern multiSingle, Pattern docStringStart, Pattern docStringEnd) {
-            this.singleLine = singleLine;
-            this.multiStart = multiStart;
-            this.multiEnd = multiEnd;
-            this.multiSingle = multiSingle;
-            this.docStringStart = docStringStart;
-            this.docStringEnd = docStringEnd;
+        CommentStyle(String singleLine, String multiStart, String multiEnd, boolean docString) {
+            this.singleLine = singleLine == null ? null : bytes(singleLine);
+            this.multiStart = multiStart == null ? null : bytes(multiStart);
+            this.multiEnd = multiEnd == null ? null : bytes(multiEnd);
+            this.docString = docString;
         }
     }
-}
\ No newline at end of file
+}
@@ -22,34 +22,45 @@
  */
 package com.scanoss;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.scanoss.dto.ScanFileResult;
 import com.scanoss.exceptions.ScannerException;
 import com.scanoss.exceptions.WinnowingException;
 import com.scanoss.filters.FilterConfig;
 import com.scanoss.filters.factories.FileFilterFactory;
 import com.scanoss.filters.factories.FolderFilterFactory;
+import com.scanoss.metrics.ScanListener;
 import com.scanoss.processor.*;
 import com.scanoss.rest.ScanApi;
+import com.scanoss.rest.ScanResultCache;
 import com.scanoss.settings.Bom;
 import com.scanoss.settings.FileSnippet;
 import com.scanoss.settings.ScanossSettings;
+import com.scanoss.sources.*;
+import com.scanoss.utils.FolderWatcher;
+import com.scanoss.utils.GitDiff;
+import com.scanoss.utils.JsonResultWriter;
 import com.scanoss.utils.JsonUtils;
+import com.scanoss.utils.ScanJournal;
+import com.scanoss.utils.Shard;
+import com.scanoss.utils.TaskScheduler;
+import com.scanoss.utils.WfpBatcher;
+import com.scanoss.utils.WinnowingUtils;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.net.Proxy;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -86,6 +97,21 @@ public class Scanner {
     @Builder.Default
     private Integer numThreads = DEFAULT_WORKER_THREADS;  // Number of parallel threads to use when processing a folder
 
+    @Builder.Default
+    private Boolean parallelWalk = Boolean.FALSE; // Enumerate folders in parallel (fork/join) instead of a single threaded walk
+
+    @Builder.Default
+    private Boolean largestFirst = Boolean.FALSE; // Process the largest files first (results keep the discovery order)
+
+    @Builder.Default
+    private Integer lookAhead = 0; // Number of files to look ahead when ordering largest first (0 = all files)
+
+    @Builder.Default
+    private Boolean scanArchives = Boolean.FALSE; // Fingerprint the entries of zip/jar/tar archives (without extracting them)
+
+    @Builder.Default
+    private Integer archiveDepth = DEFAULT_ARCHIVE_DEPTH; // Maximum nesting level of archives to open
+
     @Builder.Default
     private Duration timeout = Duration.ofSeconds(DEFAULT_TIMEOUT); // API POST timeout
 
@@ -100,6 +126,7 @@ public class Scanner {
     private final int snippetLimit; // Size limit for a single line of generated snippet
     private final String customCert; // Custom certificate
     private final Proxy proxy; // Proxy
+    private final ScanResultCache resultCache; // Local scan result cache (optional)
     private final Winnowing winnowing;
     private final ScanApi scanApi;
     private final ScanFileProcessor scanFileProcessor;
@@ -109,18 +136,30 @@ public class Scanner {
     private final FilterConfig filterConfig;
     private Predicate<Path> fileFilter;
     private Predicate<Path> folderFilter;
+    private final Shard shard; // Only process the files of this shard (optional - BOM rules are then left to the shard merge)
+    private final ScanListener listener; // Receives progress events from the walk and worker threads (optional)
+    @Getter(AccessLevel.NONE)
+    private final Map<String, String> blobWfpCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_BLOB_WFP_CACHE;
+        }
+    }); // Fingerprints of entries with a content ID (i.e. Git blobs), so unchanged files are only fingerprinted once
 
     @SuppressWarnings("unused")
     private Scanner(Boolean skipSnippets, Boolean allExtensions, Boolean obfuscate, Boolean hpsm,
-                    Boolean hiddenFilesFolders, Boolean allFolders, Integer numThreads, Duration timeout,
+                    Boolean hiddenFilesFolders, Boolean allFolders, Integer numThreads, Boolean parallelWalk,
+                    Boolean largestFirst, Integer lookAhead, Boolean scanArchives, Integer archiveDepth, Duration timeout,
                     Integer retryLimit, String url, String apiKey, String scanFlags, String sbomType, String sbom,
-                    Integer snippetLimit, String customCert, Proxy proxy,
+                    Integer snippetLimit, String customCert, Proxy proxy, ScanResultCache resultCache,
                     Winnowing winnowing, ScanApi scanApi,
                     ScanFileProcessor scanFileProcessor, WfpFileProcessor wfpFileProcessor,
                     ScanossSettings settings,
                     ScannerPostProcessor postProcessor, FilterConfig filterConfig,
                     Predicate<Path> fileFilter,
-                    Predicate<Path> folderFilter
+                    Predicate<Path> folderFilter,
+                    Shard shard,
+                    ScanListener listener
     ) {
         this.skipSnippets = skipSnippets;
         this.allExtensions = allExtensions;
@@ -129,6 +168,11 @@ public class Scanner {
         this.hiddenFilesFolders = hiddenFilesFolders;
         this.allFolders = allFolders;
         this.numThreads = numThreads;
+        this.parallelWalk = parallelWalk;
+        this.largestFirst = largestFirst;
+        this.lookAhead = lookAhead;
+        this.scanArchives = scanArchives;
+        this.archiveDepth = archiveDepth;
         this.timeout = timeout;
         this.retryLimit = retryLimit;
         this.url = url;
@@ -139,6 +183,9 @@ public class Scanner {
         this.snippetLimit = snippetLimit;
         this.customCert = customCert;
         this.proxy = proxy;
+        this.resultCache = resultCache;
+        this.shard = shard;
+        this.listener = Objects.requireNonNullElse(listener, ScanListener.NONE);
         this.settings = Objects.requireNonNullElseGet(settings, () -> ScanossSettings.builder().build());
 
         FileSnippet fileSnippetConfig = this.settings.getSettings().getFileSnippet();
@@ -147,16 +194,12 @@ public class Scanner {
                         .hpsm(hpsm).snippetLimit(snippetLimit)
                         .skipHeaders(fileSnippetConfig != null && Boolean.TRUE.equals(fileSnippetConfig.getSkipHeaders()))
                         .skipHeadersLimit(fileSnippetConfig != null && fileSnippetConfig.getSkipHeadersLimit() != null ? fileSnippetConfig.getSkipHeadersLimit() : 0)
+                        .listener(this.listener)
                         .build());
         this.scanApi = Objects.requireNonNullElseGet(scanApi, () ->
                 ScanApi.builder().url(url).apiKey(this.apiKey).timeout(timeout).retryLimit(retryLimit).flags(scanFlags)
                         .sbomType(sbomType).sbom(sbom).customCert(customCert).proxy(proxy).settings(this.settings)
-                        .build());
-        this.scanFileProcessor = Objects.requireNonNullElseGet(scanFileProcessor, () ->
-                ScanFileProcessor.builder().winnowing(this.winnowing).scanApi(this.scanApi).build());
-        this.wfpFileProcessor = Objects.requireNonNullElseGet(wfpFileProcessor, () -> WfpFileProcessor.builder()
-                .winnowing(this.winnowing)
-                .build());
+                        .resultCache(resultCache).listener(this.listener).build());
         this.postProcessor = Objects.requireNonNullElseGet(postProcessor, () ->
                 ScannerPostProcessor.builder().build());
 
@@ -169,6 +212,19 @@ public class Scanner {
 
         this.fileFilter = Objects.requireNonNullElseGet(fileFilter , () -> FileFilterFactory.build(this.filterConfig));
         this.folderFilter = Objects.requireNonNullElseGet(folderFilter, () -> FolderFilterFactory.build(this.filterConfig));
+        if (this.listener != ScanListener.NONE) {
+            this.fileFilter = monitorFilter(this.fileFilter, false);
+            this.folderFilter = monitorFilter(this.folderFilter, true);
+        }
+
+        ArchiveSource archiveSource = scanArchives ? ArchiveSource.builder().maxDepth(archiveDepth)
+                .fileFilter(this.fileFilter).folderFilter(this.folderFilter).build() : null;
+        this.scanFileProcessor = Objects.requireNonNullElseGet(scanFileProcessor, () ->
+                ScanFileProcessor.builder().winnowing(this.winnowing).scanApi(this.scanApi).archiveSource(archiveSource).build());
+        this.wfpFileProcessor = Objects.requireNonNullElseGet(wfpFileProcessor, () -> WfpFileProcessor.builder()
+                .winnowing(this.winnowing)
+                .archiveSource(archiveSource)
+                .build());
     }
 
     /**
@@ -180,6 +236,19 @@ public class Scanner {
      * @throws WinnowingException Something in Winnowing failed
      */
     public String wfpFile(@NonNull String filename) throws ScannerException, WinnowingException {
+        return wfpFile(filename, filename);
+    }
+
+    /**
+     * Generate a WFP/Fingerprint for the given file, recording it under the given path
+     *
+     * @param filename file to fingerprint
+     * @param path     path to record in the WFP
+     * @return WFP
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public String wfpFile(@NonNull String filename, @NonNull String path) throws ScannerException, WinnowingException {
         if (filename.isEmpty()) {
             throw new ScannerException("No filename specified. Cannot fingerprint");
         }
@@ -187,7 +256,7 @@ public class Scanner {
         if (!file.exists() || !file.isFile()) {
             throw new ScannerException(String.format("File does not exist or is not a file: %s", filename));
         }
-        return this.winnowing.wfpForFile(filename, filename);
+        return this.winnowing.wfpForFile(filename, path);
     }
 
     /**
@@ -215,6 +284,20 @@ public class Scanner {
      * @throws WinnowingException Something in Winnowing failed
      */
     public List<String> processFolder(@NonNull String folder, FileProcessor processor) throws ScannerException, WinnowingException {
+        return processFolder(folder, processor, true);
+    }
+
+    /**
+     * Search the specified folder and pass each filtered file to the given processor
+     *
+     * @param folder    folder/directory to process
+     * @param processor processor to take action on the filtered file
+     * @param failFast  fail as soon as a file fails (otherwise all files are processed before reporting failures)
+     * @return List of results
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    private List<String> processFolder(@NonNull String folder, FileProcessor processor, boolean failFast) throws ScannerException, WinnowingException {
         if (processor == null) {
             throw new ScannerException("No file processor object specified.");
         }
@@ -226,37 +309,44 @@ public class Scanner {
             throw new ScannerException(String.format("Folder/directory does not exist or is not a folder: %s", folder));
         }
         ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
-        List<Future<String>> futures = new ArrayList<>();
+        TaskScheduler<String> scheduler = newScheduler(executorService);
+        List<Future<String>> futures;
+        long walkStart = System.nanoTime();
         try {
-            Files.walkFileTree(Paths.get(folder), new SimpleFileVisitor<>() {
-                @NonNull
-                @Override
-                public FileVisitResult preVisitDirectory(Path file, @NonNull BasicFileAttributes attrs) {
-                    if(folderFilter.test(file)) {
-                        log.debug("Processing file: {}", file.getFileName().toString());
-                        return FileVisitResult.SKIP_SUBTREE; // Skip the rest of this directory tree
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @NonNull
-                @Override
-                public FileVisitResult visitFile(Path file, @NonNull BasicFileAttributes attrs) {
-                    if (attrs.isRegularFile() && !fileFilter.test(file) && attrs.size() > 0) {
-                        String filename = file.toString();
-                        Future<String> future = executorService.submit(() -> processor.process(filename, stripDirectory(folder, filename)));
-                        futures.add(future);
-                    }
-                    return FileVisitResult.CONTINUE;
+            walkFolder(Paths.get(folder), (file, attrs) -> {
+                String filename = file.toString();
+                String path = stripDirectory(folder, filename);
+                if (!inShard(path)) {
+                    return;
                 }
+                listener.fileDiscovered(filename, attrs.size());
+                scheduler.add(attrs.size(), monitorTask(filename, () -> processor.process(filename, path)));
             });
+            futures = scheduler.finish();
+            listener.walkCompleted(futures.size(), System.nanoTime() - walkStart);
         } catch (SecurityException | InvalidPathException | IOException e) {
             throw new ScannerException(String.format("Problem encountered processing folder %s", folder), e);
         } finally {
             executorService.shutdown();
         }
         log.debug("Found {} files to process.", futures.size());
-        return processFutures(futures);
+        return processFutures(futures, failFast);
+    }
+
+    /**
+     * Walk the specified folder and pass each file that survives the folder/file filters to the given visitor
+     * <p>
+     *     The visitor is always called from the calling thread, regardless of the walk mode.
+     * </p>
+     *
+     * @param root    folder to walk
+     * @param visitor action to take on each accepted file
+     * @throws IOException if a folder or file could not be read
+     */
+    private void walkFolder(@NonNull Path root, @NonNull BiConsumer<Path, BasicFileAttributes> visitor) throws IOException {
+        FileSystemSource.builder().root(root).fileFilter(fileFilter).folderFilter(folderFilter)
+                .parallel(parallelWalk).parallelism(numThreads).build()
+                .walk(visitor);
     }
 
 
@@ -285,33 +375,24 @@ public class Scanner {
             throw new ScannerException("No file list specified. Cannot process request.");
         }
         ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
-        List<Future<String>> futures = new ArrayList<>();
+        TaskScheduler<String> scheduler = newScheduler(executorService);
+        List<Future<String>> futures;
+        long walkStart = System.nanoTime();
         try {
-            for(String file : files) {
-                Path path = Path.of(file);
-                boolean skipDir = false;
-                for (Path p : path) {
-                    // should we skip this folder or not
-                    if (this.folderFilter.test(p)) {  // should we skip this folder or not
-                        skipDir = true;
-                        break;
-                    }
-                }
-                if (skipDir) {
-                    continue; // skip this file as the folder is not allowed
-                }
-
-                if (!this.fileFilter.test(path)) {
-                    Path fullPath = Path.of(root, file);
-                    File f = fullPath.toFile();
-                    if (f.exists() && f.isFile() && f.length() > 0 && ! Files.isSymbolicLink(fullPath)) {
-                        String filename = f.toString();
+            FileListSource.builder().root(Path.of(root)).files(files).fileFilter(fileFilter).folderFilter(folderFilter).build()
+                    .walk((file, fullPath) -> {
+                        String filename = fullPath.toFile().toString();
+                        String path = stripDirectory(root, filename);
+                        if (!inShard(path)) {
+                            return;
+                        }
                         log.debug("Adding file to processing list: {} - {}", file, filename);
-                        Future<String> future = executorService.submit(() -> processor.process(filename, stripDirectory(root, filename)));
-                        futures.add(future);
-                    }
-                }
-            }
+                        long size = largestFirst || listener != ScanListener.NONE ? fullPath.toFile().length() : 0;
+                        listener.fileDiscovered(filename, size);
+                        scheduler.add(size, monitorTask(filename, () -> processor.process(filename, path)));
+                    });
+            futures = scheduler.finish();
+            listener.walkCompleted(futures.size(), System.nanoTime() - walkStart);
         } catch (SecurityException | InvalidPathException e) {
             throw new ScannerException(String.format("Problem encountered processing folder %s", root), e);
         } finally {
@@ -321,8 +402,80 @@ public class Scanner {
         return processFutures(futures);
     }
 
+    /**
+     * Check if the given file belongs to the shard being processed
+     *
+     * @param path file path relative to the scan root
+     * @return <code>true</code> if the file should be processed (always the case when not sharding)
+     */
+    private boolean inShard(String path) {
+        return shard == null || shard.contains(path);
+    }
+
+    /**
+     * Create a scheduler to submit file tasks to the given executor, largest first if requested
+     *
+     * @param executorService executor to run the tasks on
+     * @return task scheduler
+     */
+    private TaskScheduler<String> newScheduler(ExecutorService executorService) {
+        return TaskScheduler.<String>builder().executor(executorService).largestFirst(largestFirst).lookAhead(lookAhead).build();
+    }
+
+    /**
+     * Wrap the given file task, so failures are reported to the listener
+     *
+     * @param path file being processed
+     * @param task file task
+     * @return monitored task (or the task itself, if there is no listener)
+     */
+    private Callable<String> monitorTask(String path, Callable<String> task) {
+        if (listener == ScanListener.NONE) {
+            return task;
+        }
+        return () -> {
+            try {
+                return task.call();
+            } catch (Exception | Error e) {
+                listener.fileFailed(path, e);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Wrap the given file/folder filter, so skipped paths are reported to the listener
+     *
+     * @param filter filter returning true if a path should be skipped
+     * @param folder <code>true</code> if this is a folder filter
+     * @return monitored filter
+     */
+    private Predicate<Path> monitorFilter(Predicate<Path> filter, boolean folder) {
+        return path -> {
+            if (filter.test(path)) {
+                listener.fileFiltered(path, folder);
+                return true;
+            }
+            return false;
+        };
+    }
+
     private List<String> processFutures(@NonNull List<Future<String>> futures) throws ScannerException {
+        return processFutures(futures, true);
+    }
+
+    /**
+     * Collect the results of the given file tasks (in order)
+     *
+     * @param futures  pending file results
+     * @param failFast fail on the first failed task (otherwise wait for all tasks, then report the failures)
+     * @return List of (non-empty) results
+     * @throws ScannerException if a task failed
+     */
+    private List<String> processFutures(@NonNull List<Future<String>> futures, boolean failFast) throws ScannerException {
         List<String> results = new ArrayList<>(futures.size());
+        Exception failure = null;
+        int failures = 0;
         for (Future<String> future : futures) {
             try {
                 String result = future.get();
@@ -335,9 +488,16 @@ public class Scanner {
                 if (log.isDebugEnabled()) {
                     log.error("Issue encountered processing subtask futures: {}", e.getLocalizedMessage(), e);
                 }
-                throw new ScannerException("File processing subtask failed", e);
+                if (failFast || e instanceof InterruptedException) {
+                    throw new ScannerException("File processing subtask failed", e);
+                }
+                failure = failure == null ? e : failure;
+                failures++;
             }
         }
+        if (failure != null) {
+            throw new ScannerException(String.format("%d file processing subtasks failed", failures), failure);
+        }
         return results;
     }
 
@@ -353,6 +513,277 @@ public class Scanner {
         return processFolder(folder, wfpFileProcessor);
     }
 
+    /**
+     * Generate WFPs/Fingerprints for the given folder, writing each file WFP out as soon as it is ready
+     *
+     * @param folder folder/directory to fingerprint
+     * @param out    writer to stream the WFPs to (flushed, but not closed)
+     * @return number of files fingerprinted
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public long wfpFolder(@NonNull String folder, @NonNull Writer out) throws ScannerException, WinnowingException {
+        return wfpFolder(folder, out, false);
+    }
+
+    /**
+     * Generate WFPs/Fingerprints for the given folder, writing each file WFP out as soon as it is ready
+     * <p>
+     *     Only a bounded number of WFPs are pending at any time, so folders of any size can be fingerprinted in
+     *     constant memory. In ordered mode, WFPs are held in a (bounded) reorder buffer, so they are written in the
+     *     order the files were found in, rather than in the order they were fingerprinted. Otherwise, the WFPs of
+     *     archive entries are written out in batches as they are fingerprinted.
+     * </p>
+     *
+     * @param folder  folder/directory to fingerprint
+     * @param out     writer to stream the WFPs to (flushed, but not closed)
+     * @param ordered write the WFPs in the order the files were found in
+     * @return number of files fingerprinted
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public long wfpFolder(@NonNull String folder, @NonNull Writer out, boolean ordered) throws ScannerException, WinnowingException {
+        File dir = new File(folder);
+        if (folder.isEmpty() || !dir.exists() || !dir.isDirectory()) {
+            throw new ScannerException(String.format("Folder/directory does not exist or is not a folder: %s", folder));
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        StreamingWriter writer = new StreamingWriter(new BufferedWriter(out), new ExecutorCompletionService<>(executorService),
+                numThreads * STREAMING_PENDING_PER_THREAD, ordered);
+        long walkStart = System.nanoTime();
+        try {
+            walkFolder(Paths.get(folder), (file, attrs) -> {
+                String filename = file.toString();
+                String path = stripDirectory(folder, filename);
+                if (!inShard(path)) {
+                    return;
+                }
+                listener.fileDiscovered(filename, attrs.size());
+                try {
+                    writer.submit(monitorTask(filename, () -> wfpFile(writer, filename, path)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            listener.walkCompleted(writer.submitted, System.nanoTime() - walkStart);
+            long written = writer.finish();
+            log.debug("Fingerprinted {} files.", written);
+            return written;
+        } catch (UncheckedIOException e) {
+            throw new ScannerException(String.format("Problem writing fingerprints for folder %s", folder), e.getCause());
+        } catch (SecurityException | InvalidPathException | IOException e) {
+            throw new ScannerException(String.format("Problem encountered processing folder %s", folder), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Fingerprint the given file for the given streaming writer
+     * <p>
+     *     Outside of ordered mode, all but the last WFP batch of an archive are written out straight away, and only
+     *     the last one is returned (to be written as the result of the task).
+     * </p>
+     *
+     * @param writer streaming writer the result is submitted to
+     * @param file   file to fingerprint
+     * @param path   path of the file (relative to the scan root)
+     * @return WFP (or its last batch)
+     */
+    private String wfpFile(StreamingWriter writer, String file, String path) {
+        if (writer.ordered) {
+            return wfpFileProcessor.process(file, path);
+        }
+        String[] last = new String[1];
+        wfpFileProcessor.process(file, path, batch -> {
+            if (last[0] != null) {
+                writer.writeBatch(last[0]);
+            }
+            last[0] = batch;
+        });
+        return last[0];
+    }
+
+    /**
+     * Generate WFPs/Fingerprints for the given folder, writing each file WFP (UTF-8 encoded) to the given channel
+     *
+     * @param folder  folder/directory to fingerprint
+     * @param channel channel to stream the WFPs to (not closed)
+     * @param ordered write the WFPs in the order the files were found in
+     * @return number of files fingerprinted
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public long wfpFolder(@NonNull String folder, @NonNull WritableByteChannel channel, boolean ordered) throws ScannerException, WinnowingException {
+        return wfpFolder(folder, Channels.newWriter(channel, StandardCharsets.UTF_8), ordered);
+    }
+
+    /**
+     * Generate WFPs/Fingerprints for the given revision of a Git repository, reading the files straight from the object database
+     *
+     * @param repo     repository folder (work tree or bare repository)
+     * @param revision revision to fingerprint (optional - default HEAD)
+     * @return List of WFPs
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public List<String> wfpGitTree(@NonNull String repo, String revision) throws ScannerException, WinnowingException {
+        return processGitTree(repo, revision, false);
+    }
+
+    /**
+     * Scan the given revision of a Git repository, reading the files straight from the object database
+     *
+     * @param repo     repository folder (work tree or bare repository)
+     * @param revision revision to scan (optional - default HEAD)
+     * @return List of scan result strings (in JSON format)
+     */
+    public List<String> scanGitTree(@NonNull String repo, String revision) {
+        List<String> results = processGitTree(repo, revision, true);
+        return postProcessResults(results);
+    }
+
+    /**
+     * Fingerprint (and optionally scan) each file in the given Git revision
+     *
+     * @param repo     repository folder (work tree or bare repository)
+     * @param revision revision to process
+     * @param scan     send the fingerprints for scanning
+     * @return List of results
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    private List<String> processGitTree(@NonNull String repo, String revision, boolean scan) throws ScannerException, WinnowingException {
+        try (GitTreeSource source = GitTreeSource.builder().repository(new File(repo)).revision(revision)
+                .fileFilter(fileFilter).folderFilter(folderFilter).build()) {
+            return processSource(source, scan);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ScannerException(String.format("Problem encountered processing Git repository %s", repo), e);
+        }
+    }
+
+    /**
+     * Generate WFPs/Fingerprints for the files of the given source
+     *
+     * @param source source of the files to fingerprint (file system, archive, Git tree, in-memory, etc.)
+     * @return List of WFPs
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    public List<String> wfpSource(@NonNull ScanSource source) throws ScannerException, WinnowingException {
+        return processSource(source, false);
+    }
+
+    /**
+     * Scan the files of the given source
+     *
+     * @param source source of the files to scan (file system, archive, Git tree, in-memory, etc.)
+     * @return List of scan result strings (in JSON format)
+     */
+    public List<String> scanSource(@NonNull ScanSource source) {
+        List<String> results = processSource(source, true);
+        return postProcessResults(results);
+    }
+
+    /**
+     * Fingerprint (and optionally scan) each file provided by the given source
+     * <p>
+     *     Entries are enumerated on the calling thread, and their contents read on the worker threads.
+     * </p>
+     *
+     * @param source source of the files to process
+     * @param scan   send the fingerprints for scanning
+     * @return List of results
+     * @throws ScannerException   Something in Scanning failed
+     * @throws WinnowingException Something in Winnowing failed
+     */
+    private List<String> processSource(@NonNull ScanSource source, boolean scan) throws ScannerException, WinnowingException {
+        ArchiveSource archiveSource = scanArchives ? ArchiveSource.builder().maxDepth(archiveDepth)
+                .fileFilter(fileFilter).folderFilter(folderFilter).build() : null;
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        TaskScheduler<String> scheduler = newScheduler(executorService);
+        List<Future<String>> futures;
+        long walkStart = System.nanoTime();
+        try {
+            source.forEach(entry -> {
+                if (!inShard(entry.getPath())) {
+                    return;
+                }
+                listener.fileDiscovered(entry.getPath(), entry.getSize());
+                scheduler.add(entry.getSize(), monitorTask(entry.getPath(), () -> {
+                    if (archiveSource != null && ArchiveSource.isArchive(entry.getPath())) {
+                        return processArchiveEntry(entry, archiveSource, scan);
+                    }
+                    String wfp = wfpEntry(entry);
+                    return scan ? scanApi.scan(wfp, "", 1) : wfp;
+                }));
+            });
+            futures = scheduler.finish();
+            listener.walkCompleted(futures.size(), System.nanoTime() - walkStart);
+        } catch (SecurityException | InvalidPathException | IOException e) {
+            throw new ScannerException("Problem encountered reading the scan source", e);
+        } finally {
+            executorService.shutdown();
+        }
+        log.debug("Found {} source entries to process.", futures.size());
+        return processFutures(futures);
+    }
+
+    /**
+     * Fingerprint (and optionally scan) the given archive source entry and the entries inside it
+     * <p>
+     *     The archive contents are streamed from the source, and entry WFPs are scanned in batches as soon as they
+     *     fill up, so only one batch is held at a time when scanning.
+     * </p>
+     *
+     * @param entry         archive source entry
+     * @param archiveSource archive reader
+     * @param scan          send the fingerprints for scanning
+     * @return WFP or scan result string (in JSON format)
+     * @throws IOException if the archive could not be read
+     */
+    private String processArchiveEntry(ScanEntry entry, ArchiveSource archiveSource, boolean scan) throws IOException {
+        String path = entry.getPath();
+        List<String> results = new ArrayList<>();
+        WfpBatcher batcher = new WfpBatcher(MAX_WFP_BATCH_SIZE, batch -> results.add(scan ? scanApi.scan(batch, "", 1) : batch));
+        batcher.add(winnowing.wfpForContents(path, entry.readAllBytes()));
+        try (InputStream in = new BufferedInputStream(Channels.newInputStream(entry.openChannel()))) {
+            archiveSource.walk(path, in, (entryPath, contents) -> batcher.add(winnowing.wfpForContents(entryPath, contents)));
+        }
+        batcher.flush();
+        if (!scan) {
+            return String.join("", results);
+        }
+        return results.size() == 1 ? results.get(0) : JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).toString();
+    }
+
+    /**
+     * Generate the WFP for the given source entry
+     * <p>
+     *     Entries with a content ID (i.e. Git blobs) reuse a previous fingerprint of the same contents/file name if available.
+     * </p>
+     *
+     * @param entry source entry
+     * @return WFP
+     * @throws IOException if the entry could not be read
+     */
+    private String wfpEntry(ScanEntry entry) throws IOException {
+        String path = entry.getPath();
+        if (entry.getContentId() == null || obfuscate) {
+            return winnowing.wfpForContents(path, entry.readAllBytes());  // obfuscated paths are unique per file
+        }
+        String key = entry.getContentId() + '/' + Paths.get(path).getFileName();
+        String wfp = blobWfpCache.get(key);
+        if (wfp == null) {
+            wfp = winnowing.wfpForContents(path, entry.readAllBytes());
+            blobWfpCache.put(key, wfp);
+            return wfp;
+        }
+        // Swap the recorded path in the 'file=<md5>,<size>,<path>' header
+        int pathStart = wfp.indexOf(',', wfp.indexOf(',') + 1) + 1;
+        return wfp.substring(0, pathStart) + path + wfp.substring(wfp.indexOf('\n'));
+    }
+
     /**
      * Scan the given file
      *
@@ -362,7 +793,20 @@ public class Scanner {
      * @throws WinnowingException   Something in Winnowing failed
      */
     public String scanFile(@NonNull String filename) throws ScannerException, WinnowingException {
-        String wfp = wfpFile(filename);
+        return scanFile(filename, filename);
+    }
+
+    /**
+     * Scan the given file, recording it under the given path
+     *
+     * @param filename file to scan
+     * @param path     path to record in the WFP (and key the results by)
+     * @return scan results string (in JSON format)
+     * @throws ScannerException     Something in Scanning failed
+     * @throws WinnowingException   Something in Winnowing failed
+     */
+    public String scanFile(@NonNull String filename, @NonNull String path) throws ScannerException, WinnowingException {
+        String wfp = wfpFile(filename, path);
         if (wfp == null || wfp.isEmpty()) {
             return "";
         }
@@ -382,6 +826,47 @@ public class Scanner {
         return postProcessResults(results);
     }
 
+    /**
+     * Scan the given folder, recording each file result in the given journal as soon as it completes
+     * <p>
+     *     Files already done according to the journal (i.e. when resuming a failed scan) are not scanned again, and
+     *     their recorded results are used instead. Failed files are recorded too, and retried on resume. All files are
+     *     attempted before any failure is reported, so no completed result is lost.
+     * </p>
+     *
+     * @param folder  folder to scan
+     * @param journal journal to resume from and record to
+     * @return List of scan result strings (in JSON format)
+     * @throws ScannerException if any file failed to scan (after all others were scanned and journaled)
+     */
+    public List<String> scanFolder(@NonNull String folder, @NonNull ScanJournal journal) {
+        FileProcessor processor = (file, path) -> {
+            String result = journal.getResult(path);
+            if (result != null) {
+                return result;
+            }
+            try {
+                try {
+                    result = scanFileProcessor.process(file, path);
+                } catch (RuntimeException e) {
+                    journal.failed(path, e.getLocalizedMessage());
+                    throw e;
+                }
+                if (result == null || result.isEmpty()) {
+                    journal.failed(path, "No scan result");
+                } else {
+                    result = obfuscate ? deobfuscateResult(result) : result;
+                    journal.done(path, result);
+                }
+            } catch (IOException e) {
+                throw new ScannerException(String.format("Problem writing scan journal entry for %s", path), e);
+            }
+            return result;
+        };
+        List<String> results = processFolder(folder, processor, false);
+        return postProcessResults(results, false);  // journaled and fresh results are both keyed by the real paths already
+    }
+
     /**
      * Scan the given list of files
      *
@@ -394,6 +879,196 @@ public class Scanner {
         return postProcessResults(results);
     }
 
+    /**
+     * Scan the given folder, then keep its results up to date as files change
+     * <p>
+     *     Only the changed files are fingerprinted and scanned again. See {@link FolderWatcher} for details.
+     *     The watcher runs in the background until closed.
+     * </p>
+     *
+     * @param folder   folder to watch
+     * @param listener receives the result updates, starting with the initial scan (optional)
+     * @return started folder watcher (to be closed by the caller)
+     * @throws ScannerException if the folder could not be watched or the initial scan failed
+     */
+    public FolderWatcher watchFolder(@NonNull String folder, FolderWatcher.UpdateListener listener) {
+        FolderWatcher watcher;
+        try {
+            watcher = FolderWatcher.builder().scanner(this).folder(folder).listener(listener).build();
+        } catch (IOException e) {
+            throw new ScannerException(String.format("Problem watching folder %s", folder), e);
+        }
+        try {
+            return watcher.start();
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e instanceof ScannerException ? (ScannerException) e :
+                    new ScannerException(String.format("Problem watching folder %s", folder), e);
+        }
+    }
+
+
+    /**
+     * Scan a pre-generated WFP file, writing the results out as they arrive
+     * <p>
+     *     The WFP file is streamed and split into batches of whole file entries (up to
+     *     {@value com.scanoss.ScanossConstants#MAX_WFP_BATCH_SIZE} characters each), which are scanned concurrently.
+     *     At most twice the number of threads batches are in flight, so the WFP is never held in memory as a whole.
+     *     Results are written in WFP order.
+     * </p>
+     *
+     * @param wfpFile WFP file to scan
+     * @param out     writer to stream the results (JSON object) to
+     * @return number of files scanned (according to the WFP)
+     * @throws ScannerException Something in Scanning failed
+     */
+    public long scanWfpFile(@NonNull String wfpFile, @NonNull Writer out) throws ScannerException {
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        Deque<Future<List<String>>> pending = new ArrayDeque<>();
+        int maxPending = numThreads * 2;
+        long files = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(wfpFile), StandardCharsets.UTF_8)) {
+            JsonResultWriter writer = new JsonResultWriter(out);
+            StringBuilder batch = new StringBuilder();
+            StringBuilder entry = new StringBuilder();
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line == null || line.startsWith("file=")) {
+                    // Entry complete. Send the batch first, if it would grow too big
+                    if (batch.length() > 0 && batch.length() + entry.length() > MAX_WFP_BATCH_SIZE) {
+                        String wfp = batch.toString();
+                        int batchFiles = WinnowingUtils.extractFilePathsFromWFPBlock(wfp).size();
+                        listener.batchCreated(batchFiles, wfp.length());
+                        files += batchFiles;
+                        pending.add(executorService.submit(() -> scanWfpBatch(wfp)));
+                        batch.setLength(0);
+                    }
+                    batch.append(entry);
+                    entry.setLength(0);
+                    while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+                        writeResults(writer, pending.poll());
+                    }
+                    if (line == null) {
+                        break;
+                    }
+                }
+                entry.append(line).append('\n');
+            }
+            if (batch.length() > 0) {
+                String wfp = batch.toString();
+                int batchFiles = WinnowingUtils.extractFilePathsFromWFPBlock(wfp).size();
+                listener.batchCreated(batchFiles, wfp.length());
+                files += batchFiles;
+                pending.add(executorService.submit(() -> scanWfpBatch(wfp)));
+            }
+            while (!pending.isEmpty()) {
+                writeResults(writer, pending.poll());
+            }
+            writer.close();
+        } catch (IOException | SecurityException | InvalidPathException e) {
+            throw new ScannerException(String.format("Problem encountered scanning WFP file %s", wfpFile), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        log.debug("Scanned {} files from {}.", files, wfpFile);
+        return files;
+    }
+
+    /**
+     * Scan the given WFP batch and post-process the results
+     *
+     * @param wfp WFP batch to scan
+     * @return List of scan result strings (in JSON format)
+     */
+    private List<String> scanWfpBatch(String wfp) {
+        String result = scanApi.scan(wfp, "", 1);
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return postProcessResults(List.of(result));
+    }
+
+    /**
+     * Wait for the given scan results and write them out
+     *
+     * @param writer JSON result writer
+     * @param future pending scan results
+     * @throws IOException      if writing failed
+     * @throws ScannerException if the scan failed
+     */
+    private void writeResults(JsonResultWriter writer, Future<List<String>> future) throws IOException, ScannerException {
+        try {
+            List<String> results = future.get();
+            if (results.isEmpty()) {
+                log.warn("something went wrong processing result: {}", future);
+            }
+            for (String result : results) {
+                writer.write(result);
+            }
+            writer.flush();
+        } catch (InterruptedException | ExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.error("Issue encountered processing subtask futures: {}", e.getLocalizedMessage(), e);
+            }
+            throw new ScannerException("WFP batch scanning subtask failed", e);
+        }
+    }
+
+    /**
+     * Scan the files that changed between two revisions of the given Git repository
+     * <p>
+     *     Added and modified files are read from the repository work tree, so the head revision should be checked out.
+     *     The usual file/folder filters are still applied to the changed files.
+     * </p>
+     *
+     * @param repo    repository work tree (or a folder inside it, to only scan the changes below that folder)
+     * @param baseRef base revision to compare against (i.e. the last released tag)
+     * @param headRef head revision (optional - default HEAD)
+     * @return List of scan result strings (in JSON format) for the changed files
+     */
+    public List<String> scanGitChanges(@NonNull String repo, @NonNull String baseRef, String headRef) {
+        return scanGitChanges(repo, baseRef, headRef, null);
+    }
+
+    /**
+     * Scan the files that changed between two revisions of the given Git repository and merge them into a previous result
+     * <p>
+     *     Entries in the previous results for changed or deleted files are dropped, and replaced by the new results.
+     * </p>
+     *
+     * @param repo            repository work tree (or a folder inside it, to only scan the changes below that folder)
+     * @param baseRef         base revision to compare against (i.e. the last released tag)
+     * @param headRef         head revision (optional - default HEAD)
+     * @param previousResults previous full scan results file (in JSON format) to merge into (optional)
+     * @return List of scan result strings (in JSON format)
+     */
+    public List<String> scanGitChanges(@NonNull String repo, @NonNull String baseRef, String headRef, String previousResults) {
+        GitDiff diff;
+        try {
+            diff = GitDiff.between(new File(repo), baseRef, headRef);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ScannerException(String.format("Problem calculating Git changes for %s (%s..%s)", repo, baseRef, headRef), e);
+        }
+        List<String> results = new ArrayList<>();
+        if (!diff.getChangedFiles().isEmpty()) {
+            results = processFileList(diff.getWorkTree().getPath(), diff.getChangedFiles(), scanFileProcessor);
+        }
+        log.debug("Scanned {} of {} changed files.", results.size(), diff.getChangedFiles().size());
+        results = postProcessResults(results);
+        if (previousResults == null || previousResults.isEmpty()) {
+            return results;
+        }
+        Set<String> replaced = new HashSet<>(diff.getChangedFiles());
+        replaced.addAll(diff.getDeletedFiles());
+        try {
+            JsonObject previous = JsonUtils.toJsonObject(Files.readString(Paths.get(previousResults)));
+            return JsonUtils.mergeResults(previous, results, replaced);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new ScannerException(String.format("Problem loading previous scan results: %s", previousResults), e);
+        }
+    }
+
 
     /**
      * Processes the result string and provides a post-processed output.
@@ -417,20 +1092,64 @@ public class Scanner {
      * @return a list of processed scan results in string format
      */
     private List<String> postProcessResults(List<String> rawResults) {
+        return postProcessResults(rawResults, obfuscate);
+    }
+
+    /**
+     * Processes the given list of raw scan results by applying (optional) deobfuscation and post-processing steps.
+     *
+     * @param rawResults  a list of raw scan results in string format to be processed
+     * @param deobfuscate <code>true</code> if the results are keyed by obfuscated paths
+     * @return a list of processed scan results in string format
+     */
+    private List<String> postProcessResults(List<String> rawResults, boolean deobfuscate) {
+        if (listener == ScanListener.NONE) {
+            return applyPostProcessing(rawResults, deobfuscate);
+        }
+        long start = System.nanoTime();
+        List<String> results = applyPostProcessing(rawResults, deobfuscate);
+        listener.resultsPostProcessed(results.size(), System.nanoTime() - start);
+        return results;
+    }
+
+    /**
+     * Apply deobfuscation and BOM post-processing (based on settings) to the given raw scan results
+     * <p>
+     *     When processing a single shard, only deobfuscation is applied (BOM rules are applied by the {@link com.scanoss.utils.ShardMerger}).
+     * </p>
+     *
+     * @param rawResults  a list of raw scan results in string format to be processed
+     * @param deobfuscate <code>true</code> if the results are keyed by obfuscated paths
+     * @return a list of processed scan results in string format
+     */
+    private List<String> applyPostProcessing(List<String> rawResults, boolean deobfuscate) {
         List<ScanFileResult> scanFileResults = JsonUtils.toScanFileResults(rawResults);
 
-        if (obfuscate) {
+        if (deobfuscate) {
             scanFileResults = deobfuscateResults(scanFileResults);
         }
 
         Bom bom = settings.getBom();
-        if (bom != null) {
+        if (bom != null && shard == null) {  // replace rules need the results of all shards, so are applied when merging
             scanFileResults = this.postProcessor.process(scanFileResults, bom);
         }
 
         return JsonUtils.toRawJsonString(scanFileResults);
     }
 
+    /**
+     * Deobfuscate the file paths of the given raw scan result, so it stays valid beyond this scanner instance
+     *
+     * @param result raw scan result (in JSON format)
+     * @return raw scan result keyed by the real file paths
+     */
+    private String deobfuscateResult(String result) {
+        JsonObject deobfuscated = new JsonObject();
+        JsonUtils.toJsonObject(result).entrySet()
+                .forEach(entry -> deobfuscated.add(winnowing.deobfuscateFilePath(entry.getKey()), entry.getValue()));
+        return deobfuscated.toString();
+    }
+
     /**
      * Deobfuscate the file paths in a list of ScanFileResult.
      *
@@ -442,4 +1161,99 @@ public class Scanner {
                 .map(result -> result.withFilePath(winnowing.deobfuscateFilePath(result.getFilePath())))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the results of the submitted tasks out as they complete, keeping the number of pending results bounded
+     * <p>
+     *     Submitting blocks (by writing out completed results) once the limit is reached. In ordered mode, completed
+     *     results are held in a reorder buffer until all earlier results have been written.
+     * </p>
+     */
+    private static class StreamingWriter {
+        private final Writer out;
+        private final CompletionService<Map.Entry<Long, String>> completionService;
+        private final int maxPending;
+        private final boolean ordered;
+        private final Map<Long, String> reorderBuffer = new HashMap<>();
+        private long submitted = 0;
+        private long consumed = 0;
+        private long written = 0;
+
+        StreamingWriter(Writer out, CompletionService<Map.Entry<Long, String>> completionService, int maxPending, boolean ordered) {
+            this.out = out;
+            this.completionService = completionService;
+            this.maxPending = Math.max(1, maxPending);
+            this.ordered = ordered;
+        }
+
+        /**
+         * Submit the given task, first writing out completed results if too many are pending
+         *
+         * @param task task producing a result to write
+         * @throws IOException      if writing failed
+         * @throws ScannerException if a task failed
+         */
+        void submit(Callable<String> task) throws IOException, ScannerException {
+            while (submitted - consumed >= maxPending) {
+                accept(take());
+            }
+            long sequence = submitted++;
+            completionService.submit(() -> new AbstractMap.SimpleImmutableEntry<>(sequence, task.call()));
+        }
+
+        /**
+         * Write out all remaining results
+         *
+         * @return number of results written
+         * @throws IOException      if writing failed
+         * @throws ScannerException if a task failed
+         */
+        long finish() throws IOException, ScannerException {
+            while (consumed < submitted) {
+                accept(take());
+            }
+            out.flush();
+            return written;
+        }
+
+        private Map.Entry<Long, String> take() throws ScannerException {
+            try {
+                return completionService.take().get();
+            } catch (InterruptedException | ExecutionException e) {
+                if (log.isDebugEnabled()) {
+                    log.error("Issue encountered processing subtask futures: {}", e.getLocalizedMessage(), e);
+                }
+                throw new ScannerException("File processing subtask failed", e);
+            }
+        }
+
+        private void accept(Map.Entry<Long, String> result) throws IOException {
+            if (!ordered) {
+                consumed++;
+                write(result.getValue());
+                return;
+            }
+            reorderBuffer.put(result.getKey(), Objects.requireNonNullElse(result.getValue(), ""));
+            String next;
+            while ((next = reorderBuffer.remove(consumed)) != null) {
+                consumed++;
+                write(next);
+            }
+        }
+
+        private void write(String result) throws IOException {
+            if (result == null || result.isEmpty()) {
+                log.warn("something went wrong processing a result");
+                return;
+            }
+            writeBatch(result);
+            written++;
+        }
+
+        private void writeBatch(String wfp) throws IOException {
+            synchronized (out) {
+                out.write(wfp);
+            }
+        }
+    }
+}
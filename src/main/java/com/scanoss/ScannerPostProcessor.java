@@ -26,6 +26,8 @@ import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
 import com.scanoss.dto.*;
 import com.scanoss.dto.enums.MatchType;
+import com.scanoss.metrics.EventSupport;
+import com.scanoss.metrics.PostProcessEvent;
 import com.scanoss.settings.Bom;
 import com.scanoss.settings.RemoveRule;
 import com.scanoss.settings.ReplaceRule;
@@ -71,6 +73,55 @@ public class ScannerPostProcessor {
      * @return List of processed scan results
      */
     public List<ScanFileResult> process(@NonNull List<ScanFileResult> scanFileResults, @NonNull Bom bom) {
+        buildPurl2ComponentDetailsMap(scanFileResults);
+        return applyRules(scanFileResults, bom);
+    }
+
+    /**
+     * Add the components of the given scan result to the PURL lookup used by replace rules
+     * <p>
+     * Allows results that do not fit in memory to be processed in chunks: index every result first, then pass
+     * the chunks to {@link #processIndexed(List, Bom)}. The first component found for a PURL is kept, so results
+     * should be indexed in file path order to pick the same details as {@link #process(List, Bom)}.
+     * </p>
+     *
+     * @param result Scan result to index
+     */
+    public void indexComponents(@NonNull ScanFileResult result) {
+        if (purl2ComponentDetailsMap == null) {
+            purl2ComponentDetailsMap = new HashMap<>();
+        }
+        addComponentDetails(result);
+    }
+
+    /**
+     * Processes scan results according to BOM configuration rules, using the components indexed so far
+     * (see {@link #indexComponents(ScanFileResult)}) for replacements.
+     *
+     * @param scanFileResults List of scan results to process
+     * @param bom             Bom containing BOM rules
+     * @return List of processed scan results
+     */
+    public List<ScanFileResult> processIndexed(@NonNull List<ScanFileResult> scanFileResults, @NonNull Bom bom) {
+        if (purl2ComponentDetailsMap == null) {
+            purl2ComponentDetailsMap = new HashMap<>();
+        }
+        return applyRules(scanFileResults, bom);
+    }
+
+    /**
+     * Applies the remove and replace rules of the given BOM to the scan results
+     *
+     * @param scanFileResults List of scan results to process
+     * @param bom             Bom containing BOM rules
+     * @return List of processed scan results
+     */
+    private List<ScanFileResult> applyRules(@NonNull List<ScanFileResult> scanFileResults, @NonNull Bom bom) {
+        PostProcessEvent event = null;
+        if (EventSupport.enabled()) {
+            event = new PostProcessEvent();
+            event.begin();
+        }
         int removeSize = bom.getRemoveSize();
         int replaceSize = bom.getReplaceSize();
         log.info("Starting scan results processing with {} results", scanFileResults.size());
@@ -80,7 +131,6 @@ public class ScannerPostProcessor {
             log.info("No scan results found. Skipping: {}", bom);
         }
 
-        buildPurl2ComponentDetailsMap(scanFileResults);
         List<ScanFileResult> processedResults = new ArrayList<>(scanFileResults);
         if (removeSize > 0) {
             log.info("Applying {} remove rules to scan results", removeSize);
@@ -92,6 +142,9 @@ public class ScannerPostProcessor {
         }
         log.info("Scan results processing completed. Original results: {}, Processed results: {}",
                 scanFileResults.size(), processedResults.size());
+        if (event != null) {
+            event.record(removeSize + replaceSize, scanFileResults.size(), processedResults.size());
+        }
         return processedResults;
     }
 
@@ -104,39 +157,52 @@ public class ScannerPostProcessor {
     private void buildPurl2ComponentDetailsMap(@NonNull List<ScanFileResult> scanFileResults) {
         log.debug("Creating Purl Component Map from scan results");
         purl2ComponentDetailsMap = new HashMap<>();
-        for (ScanFileResult result : scanFileResults) {
-            List<ScanFileDetails> fileDetails = result != null ? result.getFileDetails() : null;
-            if (fileDetails == null) {
-                log.warn("Null result or empty scan file result. Skipping: {}", result);
+        // Index in file path order (like a merge of sharded results), so the same component details win either way
+        List<ScanFileResult> sorted = new ArrayList<>(scanFileResults);
+        sorted.sort(Comparator.comparing(result -> result != null ? result.getFilePath() : null,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        for (ScanFileResult result : sorted) {
+            addComponentDetails(result);
+        }
+        log.debug("Purl Component Map created with {} entries", purl2ComponentDetailsMap.size());
+    }
+
+    /**
+     * Adds the components of a single scan result to the PURL lookup map (first component found for a PURL wins)
+     *
+     * @param result Scan result to add
+     */
+    private void addComponentDetails(ScanFileResult result) {
+        List<ScanFileDetails> fileDetails = result != null ? result.getFileDetails() : null;
+        if (fileDetails == null) {
+            log.warn("Null result or empty scan file result. Skipping: {}", result);
+            return;
+        }
+        // Iterate through file details
+        for (ScanFileDetails details : fileDetails) {
+            if (details != null && details.getMatchType() == MatchType.none) {
+                log.warn("Skipping no match for file: {}", result.getFilePath());
                 continue;
             }
-            // Iterate through file details
-            for (ScanFileDetails details : fileDetails) {
-                if (details != null && details.getMatchType() == MatchType.none) {
-                    log.warn("Skipping no match for file: {}", result.getFilePath());
-                    continue;
-                }
 
-                String[] purls = details != null ? details.getPurls() : null;
-                if (purls == null) {
-                    log.warn("Null details or empty scan file result details. Skipping: {}", details);
+            String[] purls = details != null ? details.getPurls() : null;
+            if (purls == null) {
+                log.warn("Null details or empty scan file result details. Skipping: {}", details);
+                continue;
+            }
+            // Iterate through purls for each detail
+            for (String purl : purls) {
+                String trimmedPurl = purl != null ? purl.trim() : "";
+                if (trimmedPurl.isEmpty()) {
+                    log.warn("Empty purl details found. Skipping: {}", details);
                     continue;
                 }
-                // Iterate through purls for each detail
-                for (String purl : purls) {
-                    String trimmedPurl = purl != null ? purl.trim() : "";
-                    if (trimmedPurl.isEmpty()) {
-                        log.warn("Empty purl details found. Skipping: {}", details);
-                        continue;
-                    }
-                    // Only store if purl not already in map
-                    if (!purl2ComponentDetailsMap.containsKey(trimmedPurl)) {
-                        purl2ComponentDetailsMap.put(trimmedPurl, details);
-                    }
+                // Only store if purl not already in map
+                if (!purl2ComponentDetailsMap.containsKey(trimmedPurl)) {
+                    purl2ComponentDetailsMap.put(trimmedPurl, details);
                 }
             }
         }
-        log.debug("Purl Component Map created with {} entries", purl2ComponentDetailsMap.size());
     }
 
 
@@ -50,12 +50,53 @@ public class ScanossConstants {
      * Default number of times to retry sending data to HTTP
      */
     public static final int DEFAULT_HTTP_RETRY_LIMIT = 5;
+    /**
+     * Default maximum nesting level of archives to open when scanning archive contents
+     */
+    public static final int DEFAULT_ARCHIVE_DEPTH = 2;
+    /**
+     * Default maximum size (in bytes) of a single archive entry to fingerprint
+     */
+    public static final long DEFAULT_MAX_ARCHIVE_ENTRY_SIZE = 16 * 1024 * 1024;
+    /**
+     * Maximum size (in characters) of a multi-file WFP to post in a single scan request
+     */
+    public static final int MAX_WFP_BATCH_SIZE = 64 * 1024;
+    /**
+     * Number of results (per worker thread) allowed to be pending while streaming fingerprints out
+     */
+    static final int STREAMING_PENDING_PER_THREAD = 4;
+    /**
+     * Default minimum size (in bytes) of a file to fingerprint in parallel chunks
+     */
+    public static final int DEFAULT_PARALLEL_WINNOWING_THRESHOLD = 4 * 1024 * 1024;
+    /**
+     * Size (in bytes) of each chunk of a file fingerprinted in parallel
+     */
+    static final int PARALLEL_WINNOWING_CHUNK_SIZE = 1024 * 1024;
+    /**
+     * Default time to live (in hours) of local scan result cache entries
+     */
+    public static final int DEFAULT_CACHE_TTL_HOURS = 168;
+    /**
+     * Default maximum size (in MB) of the local scan result cache
+     */
+    public static final int DEFAULT_CACHE_MAX_SIZE_MB = 512;
+    /**
+     * Default quiet period (in milliseconds) to wait for after a file change, before rescanning a watched folder
+     */
+    public static final int DEFAULT_WATCH_DEBOUNCE_MS = 500;
+    /**
+     * Default maximum number of changed files to rescan per batch, when watching a folder
+     */
+    public static final int DEFAULT_WATCH_BATCH_SIZE = 32;
 
     static final int GRAM = 30; // Winnowing Gram size. Do NOT Modify
     static final int WINDOW = 64; // Winnowing Window size. Do NOT Modify
     static final long MAX_CRC32 = 4294967296L;
     static final int MIN_FILE_SIZE = 256; // Minimum size for a file to be considered for snippet generation
     static final int MAX_LONG_LINE_CHARS = 1000; // Maximum length of a single source line to be considered source code
+    static final int MAX_BLOB_WFP_CACHE = 10000; // Maximum number of Git blob fingerprints to keep for reuse
 
     /** File extensions to ignore snippets for. */
     public static final List<String> SKIP_SNIPPET_EXT = Arrays.asList(
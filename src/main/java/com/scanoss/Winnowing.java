@@ -23,27 +23,35 @@
 package com.scanoss;
 
 import com.scanoss.exceptions.WinnowingException;
+import com.scanoss.metrics.EventSupport;
+import com.scanoss.metrics.ScanListener;
+import com.scanoss.metrics.TikaDetectEvent;
+import com.scanoss.metrics.WinnowFileEvent;
 import com.scanoss.utils.Hpsm;
+import com.scanoss.utils.WfpEmitter;
 import com.scanoss.utils.WinnowingUtils;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.tika.Tika;
 import org.apache.tika.mime.MediaType;
-import org.apache.tika.mime.MediaTypeRegistry;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.CRC32C;
 import java.util.zip.Checksum;
 
+import static com.scanoss.ScanossConstants.DEFAULT_PARALLEL_WINNOWING_THRESHOLD;
 import static com.scanoss.ScanossConstants.MAX_LONG_LINE_CHARS;
 
 /**
@@ -57,10 +65,6 @@ import static com.scanoss.ScanossConstants.MAX_LONG_LINE_CHARS;
 @Builder
 @Slf4j
 public class Winnowing {
-    // Media type detection
-    private static final Tika tika = new Tika();
-    private static final MediaTypeRegistry mediaTypeRegistry = MediaTypeRegistry.getDefaultRegistry();
-
     /**
      * Shared counter for generating unique IDs.
      * idGenerator is shared across all Winnowing instances,
@@ -84,6 +88,10 @@ public class Winnowing {
     @Builder.Default
     private int skipHeadersLimit = 0; // Maximum number of header lines to skip (0 = auto-detect)
     @Builder.Default
+    private int parallelThreshold = DEFAULT_PARALLEL_WINNOWING_THRESHOLD; // Minimum file size to fingerprint in parallel chunks (0 = never)
+    @Builder.Default
+    private ScanListener listener = ScanListener.NONE; // Receives an event for each fingerprinted file
+    @Builder.Default
     private Map<String, String> obfuscationMap = new ConcurrentHashMap<>();
 
     /**
@@ -125,16 +133,35 @@ public class Winnowing {
         if (!file.exists() || !file.isFile()) {
             throw new WinnowingException(String.format("%s does not exist, or is not a file", filePath));
         }
-        Boolean isText = this.isTextFile(file); // Detect file type from name
+        byte[] contents;
         try {
-            byte[] contents = Files.readAllBytes(file.toPath());
+            contents = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new WinnowingException(String.format("Failed to load file contents for: %s", filePath), e);
+        }
+        Boolean isText = FileTypeClassifier.isText(file.getName(), contents); // Fast classification from name and contents
+        if (isText == null) {
+            isText = this.isTextFile(file); // Detect file type from name
             if (isText == null) {
                 isText = isTextContent(file, contents);  // Detect file type from contents
             }
-            return wfpForContents(path, !isText, contents);
-        } catch (IOException e) {
-            throw new WinnowingException(String.format("Failed to load file contents for: %s", filePath), e);
         }
+        return wfpForContents(path, !isText, contents);
+    }
+
+    /**
+     * Generate a WFP for the given in-memory file contents, detecting if it is a text or binary file
+     *
+     * @param filename name of file to record in WFP (also used to detect the file type)
+     * @param contents file contents
+     * @return WFP string
+     */
+    public String wfpForContents(@NonNull String filename, byte[] contents) {
+        Boolean isText = FileTypeClassifier.isText(filename, contents);
+        if (isText == null) {
+            isText = isTextContent(filename, contents);
+        }
+        return wfpForContents(filename, !isText, contents);
     }
 
     /**
@@ -149,88 +176,201 @@ public class Winnowing {
         if (filename.isEmpty()) {
             throw new WinnowingException("Filename cannot be empty for WFP");
         }
-        char[] fileContents = (new String(contents, Charset.defaultCharset())).toCharArray();
+        WinnowFileEvent event = null;
+        if (EventSupport.enabled()) {
+            event = new WinnowFileEvent();
+            event.begin();
+        }
+        boolean timed = listener != ScanListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        long cpuStart = timed ? currentThreadCpuTime() : -1;
+        WfpEmitter emitter = new WfpEmitter(contents.length / 2 + filename.length() + 64);
+        String wfp = winnowContents(filename, binFile, contents, emitter);
+        if (timed) {
+            long cpuEnd = currentThreadCpuTime();
+            listener.fileFingerprinted(filename, contents.length, wfp.length(), System.nanoTime() - start,
+                    cpuStart >= 0 && cpuEnd >= 0 ? cpuEnd - cpuStart : -1);
+        }
+        if (event != null) {
+            event.record(filename, contents.length, emitter.getSnippetCount());
+        }
+        return wfp;
+    }
+
+    /**
+     * Generate the WFP for the given file contents
+     *
+     * @param filename name of file to record in WFP
+     * @param binFile  mark the file as binary or source
+     * @param contents file contents
+     * @param emitter  emitter to write the WFP to
+     * @return WFP string
+     */
+    private String winnowContents(String filename, Boolean binFile, byte[] contents, WfpEmitter emitter) {
         String fileMD5 = DigestUtils.md5Hex(contents);
-        StringBuilder wfpBuilder = new StringBuilder();
 
         if (obfuscate) {
             filename = obfuscateFilePath(filename);
         }
 
-        wfpBuilder.append(String.format("file=%s,%d,%s\n", fileMD5, contents.length, filename));
+        emitter.file(fileMD5, contents.length, filename);
 
         String fh2 = WinnowingUtils.calculateOppositeLineEndingHash(contents);
         if (fh2 != null){
-            wfpBuilder.append(String.format("fh2=%s\n",fh2));
+            emitter.line("fh2", fh2);
         }
 
-        if (binFile || this.skipSnippets || this.skipSnippets(filename, fileContents)) {
-            return wfpBuilder.toString();
+        if (binFile || this.skipSnippets || this.skipSnippets(filename, contents)) {
+            return emitter.finish();
         }
 
         if(this.isHpsm()){
-            wfpBuilder.append(String.format("hpsm=%s\n", Hpsm.calcHpsm(contents)));
+            emitter.line("hpsm", Hpsm.calcHpsm(contents));
         }
 
-        int skipLines = 0;
+        // Snippet generation picks up right after the header lines (if any), without walking through them again
+        int offset = 0;
+        int line = 1;
         if (this.skipHeaders) {
-            String fileString = new String(fileContents);
-            HeaderFilter filter = new HeaderFilter(this.skipHeadersLimit > 0 ? this.skipHeadersLimit : null);
-            skipLines = filter.filter(filename, fileString);
-            log.trace("Skipping {} header lines for snippet generation: {}", skipLines, filename);
-            if (skipLines > 0) {
-                wfpBuilder.append(String.format("start_line=%d\n", skipLines));
+            HeaderFilter.Header header = HeaderFilter.locate(filename, contents, this.skipHeadersLimit);
+            log.trace("Skipping {} header lines for snippet generation: {}", header.lines, filename);
+            if (header.lines > 0) {
+                emitter.line("start_line", header.lines);
             }
+            offset = header.offset;
+            line = header.lines + 1;
         }
 
-        String gram = "";
-        List<Long> window = new ArrayList<>();
+        // Very large files are split into chunks and fingerprinted on the common fork/join pool
+        if (this.parallelThreshold > 0 && contents.length - offset >= this.parallelThreshold &&
+                ForkJoinPool.getCommonPoolParallelism() > 1) {
+            winnowChunks(contents, offset, line, ScanossConstants.PARALLEL_WINNOWING_CHUNK_SIZE, emitter::snippet);
+        } else {
+            winnow(contents, offset, offset, contents.length, line, emitter::snippet);
+        }
+        return emitter.finish();
+    }
+
+    /**
+     * Winnow the given range of file contents, passing each selected snippet hash to the sink
+     * <p>
+     * Windows completed before <code>emitFrom</code> only warm up the gram/window state. As a window only depends
+     * on the last GRAM + WINDOW - 1 normalized characters, winnowing can pick up in the middle of a file by starting
+     * that many normalized characters before <code>emitFrom</code>, and still select the same hashes.
+     * </p>
+     *
+     * @param contents file contents
+     * @param from     offset to start winnowing from
+     * @param emitFrom offset of the first character whose window may be emitted
+     * @param to       offset to stop winnowing at (exclusive)
+     * @param line     line number at <code>from</code>
+     * @param sink     receiver of the selected snippet hashes
+     * @return line number at <code>to</code>
+     */
+    static int winnow(byte[] contents, int from, int emitFrom, int to, int line, SnippetSink sink) {
+        // Both gram and window are ring buffers. Gram bytes are stored twice, so the current gram is always contiguous
+        byte[] gram = new byte[2 * ScanossConstants.GRAM];
+        int gramStart = 0;
+        int gramLength = 0;
+        long[] window = new long[ScanossConstants.WINDOW];
+        int windowStart = 0;
+        int windowLength = 0;
+        Checksum checksum = new CRC32C();
         char normalized;
         long minHash;
         long lastHash = ScanossConstants.MAX_CRC32;
-        int lastLine = 0;
-        int line = 1;
-        StringBuilder outputBuilder = new StringBuilder();
-        for (char c : fileContents) {
-            if (c == '\n') {
+        for (int i = from; i < to; i++) {
+            byte b = contents[i];
+            if (b == '\n') {
                 line++;
                 normalized = 0;
             } else {
-                normalized = WinnowingUtils.normalize(c);
+                normalized = WinnowingUtils.normalize(b);
             }
-            if (normalized > 0 && line > skipLines) {
-                gram += normalized;
-                if (gram.length() >= ScanossConstants.GRAM) {
-                    Long gramCRC32 = crc32c(gram);
-                    window.add(gramCRC32);
-                    if (window.size() >= ScanossConstants.WINDOW) {
+            if (normalized > 0) {
+                int gramEnd = (gramStart + gramLength) % ScanossConstants.GRAM;
+                gram[gramEnd] = gram[gramEnd + ScanossConstants.GRAM] = (byte) normalized;
+                if (++gramLength >= ScanossConstants.GRAM) {
+                    checksum.reset();
+                    checksum.update(gram, gramStart, ScanossConstants.GRAM);
+                    window[(windowStart + windowLength) % ScanossConstants.WINDOW] = checksum.getValue();
+                    if (++windowLength >= ScanossConstants.WINDOW) {
                         minHash = min(window);
                         if (minHash != lastHash) {
-                            String minHashHex = crc32cHex(minHash);
-                            if (lastLine != line) {
-                                int obLength = outputBuilder.length();
-                                if (obLength > 0) {
-                                    wfpBuilder.append(outputBuilder).append("\n");
-                                }
-                                outputBuilder.delete(0, obLength);
-                                outputBuilder.append(String.format("%d=%s", line, minHashHex));
-                            } else {
-                                outputBuilder.append(",").append(minHashHex);
+                            if (i >= emitFrom) {
+                                sink.snippet(line, minHash);
                             }
-                            lastLine = line;
                             lastHash = minHash;
                         }
-                        window.remove(0); // Shift window
+                        windowStart = (windowStart + 1) % ScanossConstants.WINDOW; // Shift window
+                        windowLength--;
                     }
-                    gram = gram.substring(1); // Shift gram
+                    gramStart = (gramStart + 1) % ScanossConstants.GRAM; // Shift gram
+                    gramLength--;
                 }
             }
         }
-        int obLength = outputBuilder.length();
-        if (obLength > 0) {
-            wfpBuilder.append(outputBuilder).append("\n");
+        return line;
+    }
+
+    /**
+     * Winnow the contents (from the given offset) in parallel chunks, and stitch the selected hashes back together
+     * <p>
+     * Each chunk starts with a warm-up over the normalized characters preceding it, and records its hashes against
+     * line numbers relative to its own start. The chunks are then replayed in order, so the sink receives exactly
+     * the same hashes and lines as a sequential pass.
+     * </p>
+     *
+     * @param contents  file contents
+     * @param offset    offset to start winnowing from
+     * @param line      line number at <code>offset</code>
+     * @param chunkSize size of each chunk (in bytes)
+     * @param sink      receiver of the selected snippet hashes
+     */
+    static void winnowChunks(byte[] contents, int offset, int line, int chunkSize, SnippetSink sink) {
+        int chunks = (int) (((long) contents.length - offset + chunkSize - 1) / chunkSize);
+        List<ForkJoinTask<SnippetBuffer>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = offset + chunk * chunkSize;
+            int end = (int) Math.min(contents.length, (long) start + chunkSize);
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                int warmup = warmupStart(contents, offset, start);
+                int warmupLine = 1;
+                for (int i = warmup; i < start; i++) {
+                    if (contents[i] == '\n') {
+                        warmupLine--;
+                    }
+                }
+                SnippetBuffer buffer = new SnippetBuffer();
+                buffer.lineCount = winnow(contents, warmup, start, end, warmupLine, buffer) - 1;
+                return buffer;
+            }));
+        }
+        for (ForkJoinTask<SnippetBuffer> task : tasks) {
+            SnippetBuffer buffer = task.join();
+            buffer.replay(line - 1, sink);
+            line += buffer.lineCount;
+        }
+    }
+
+    /**
+     * Find where to start warming up the winnowing state for a chunk
+     *
+     * @param contents file contents
+     * @param offset   offset winnowing started from
+     * @param start    start of the chunk
+     * @return offset of the GRAM + WINDOW - 1 normalized character before the chunk (or <code>offset</code>)
+     */
+    private static int warmupStart(byte[] contents, int offset, int start) {
+        int needed = ScanossConstants.GRAM + ScanossConstants.WINDOW - 1;
+        int i = start;
+        while (i > offset && needed > 0) {
+            i--;
+            if (contents[i] != '\n' && WinnowingUtils.normalize(contents[i]) > 0) {
+                needed--;
+            }
         }
-        return wfpBuilder.toString();
+        return i;
     }
 
     /**
@@ -269,25 +409,32 @@ public class Winnowing {
 
     /**
      * Determine if a file/contents should be skipped for snippet generation or not
+     * <p>
+     * Sizes are measured in (UTF-16) characters of the UTF-8 decoded contents, without decoding the whole file.
+     * </p>
      * @param filename filename for the contents (optional)
      * @param contents file contents
      * @return <code>true</code> if we should skip snippets, <code>false</code> otherwise
      */
-    private Boolean skipSnippets(@NonNull String filename, char[] contents) {
+    private Boolean skipSnippets(@NonNull String filename, byte[] contents) {
         // Force snippet collection on all files, regardless of ending or size
         if (this.allExtensions) {
             log.trace("Generating snippets for all extensions: {}", filename);
             return false;
         }
-        if (contents.length <= ScanossConstants.MIN_FILE_SIZE) {
-            log.trace("Skipping snippets as the file is too small: {} - {}", filename, contents.length);
+        // A character takes 1-3 bytes (4 for a surrogate pair), so only small files need counting
+        int length = contents.length > 4 * ScanossConstants.MIN_FILE_SIZE ? contents.length
+                : WinnowingUtils.utf16Length(contents, 0, contents.length);
+        if (length <= ScanossConstants.MIN_FILE_SIZE) {
+            log.trace("Skipping snippets as the file is too small: {} - {}", filename, length);
             return true;
         }
         //See https://github.com/scanoss/scanoss.py/blob/ede0477f3ea1b13a0147154b565b1bf6a72a6843/src/scanoss/winnowing.py#L248-L260
         //for python implementation reference
 
         // Create prefix from first MIN_FILE_SIZE-1 characters, lowercase and trimmed
-        String prefix = new String(contents, 0, ScanossConstants.MIN_FILE_SIZE - 1).toLowerCase().strip();
+        String prefix = new String(contents, 0, Math.min(contents.length, 4 * ScanossConstants.MIN_FILE_SIZE), StandardCharsets.UTF_8)
+                .substring(0, ScanossConstants.MIN_FILE_SIZE - 1).toLowerCase().strip();
 
         // Check for JSON files (starts with { or [)
         if (prefix.charAt(0) == '{' || prefix.charAt(0) == '[') {
@@ -313,12 +460,12 @@ public class Winnowing {
         int firstLineEnd = 0;
         for (int i = 0; i < contents.length; i++) {
             if (contents[i] == '\n') {
-                firstLineEnd = i;
+                firstLineEnd = WinnowingUtils.utf16Length(contents, 0, i);  // '\n' never ends a multi-byte sequence
                 break;
             }
         }
         if (firstLineEnd == 0) {
-            firstLineEnd = contents.length - 1;  // No newline found, use length-1 (matching Python)
+            firstLineEnd = WinnowingUtils.utf16Length(contents, 0, contents.length) - 1;  // No newline found, use length-1 (matching Python)
         }
         if (snippetLimit > 0 && firstLineEnd > snippetLimit) {
             log.trace("Skipping snippets due to first line being too long: {} - {} chars", filename, firstLineEnd);
@@ -334,8 +481,11 @@ public class Winnowing {
      * @return <code>true/false</code> if is/is not a text file, <code>null</code> if something went wrong
      */
     private Boolean isTextFile(File f) {
+        TikaDetectEvent event = beginTypeDetection();
+        long start = System.nanoTime();
+        String type = null;
         try {
-            String type = tika.detect(f);
+            type = FileTypeClassifier.tika().detect(f);
             if (type != null && !type.isEmpty()) {
                 MediaType mediaType = MediaType.parse(type);
                 return isTextMediaType(mediaType);
@@ -345,6 +495,8 @@ public class Winnowing {
             }
         } catch (IOException e) {
             log.warn("Issue determining file type for: {} - {}", f, e.getLocalizedMessage());
+        } finally {
+            typeDetected(event, start, f.getPath(), -1, type);
         }
         return null;
     }
@@ -358,99 +510,152 @@ public class Winnowing {
      */
     private Boolean isTextContent(File f, byte[] contentBytes) {
         ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(contentBytes);
+        TikaDetectEvent event = beginTypeDetection();
+        long start = System.nanoTime();
+        String type = null;
         try {
-            MediaType mediaType = MediaType.parse(tika.detect(byteArrayInputStream));
+            type = FileTypeClassifier.tika().detect(byteArrayInputStream);
+            MediaType mediaType = MediaType.parse(type);
             return isTextMediaType(mediaType);
         } catch (IOException e) {
             log.debug("Issue determining file type for: {} - {}", f, e.getLocalizedMessage());
+        } finally {
+            typeDetected(event, start, f.getPath(), contentBytes.length, type);
         }
         return false;
     }
 
     /**
-     * Check if this media type is a text based
+     * Check if the named file contents is a text file
      *
-     * @param mediaType Media Type
+     * @param filename     name of the file (used as a detection hint)
+     * @param contentBytes File Contents
      * @return <code>true</code> if a text file, <code>false</code> otherwise
      */
-    private Boolean isTextMediaType(MediaType mediaType) {
-        if (mediaType == null) {
+    private Boolean isTextContent(String filename, byte[] contentBytes) {
+        TikaDetectEvent event = beginTypeDetection();
+        long start = System.nanoTime();
+        String type = FileTypeClassifier.tika().detect(contentBytes, filename);
+        typeDetected(event, start, filename, contentBytes.length, type);
+        if (type == null || type.isEmpty()) {
+            log.warn("Could not determine file type for: {}", filename);
             return false;
         }
-        if (mediaType.getType().equals("text")) {
-            return true;
-        }
-        Set<MediaType> mediaTypes = new HashSet<>();
-        while (mediaType != null) {
-            mediaTypes.addAll(mediaTypeRegistry.getAliases(mediaType));
-            mediaTypes.add(mediaType);
-            mediaType = mediaTypeRegistry.getSupertype(mediaType);
-        }
-        return mediaTypes.stream().anyMatch(mt -> mt.getType().equals("text"));
+        return isTextMediaType(MediaType.parse(type));
     }
 
     /**
-     * Convert the give number to a Little Endian encoded byte
+     * Get the CPU time of the current thread
      *
-     * @param number <code>long</code> number to convert
-     * @return Little Endian encoded <code>byte</code>
+     * @return CPU time (nanoseconds), or -1 if not supported/enabled
      */
-    private byte[] toLittleEndian(long number) {
-        byte[] b = new byte[4];
-        b[0] = (byte) (number & 0xFF);
-        b[1] = (byte) ((number >> 8) & 0xFF);
-        b[2] = (byte) ((number >> 16) & 0xFF);
-        b[3] = (byte) ((number >> 24) & 0xFF);
-        return b;
+    private static long currentThreadCpuTime() {
+        return CpuTime.SUPPORTED ? CpuTime.THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
     }
 
     /**
-     * Calculate the CRC32 for the given string
+     * Start a Tika detection event, if events are enabled
      *
-     * @param s String to calculate
-     * @return CRC32 value of the string
+     * @return started event, or <code>null</code> if events are disabled
      */
-    private long crc32c(@NonNull String s) {
-        Checksum checksum = new CRC32C();
-        checksum.update(s.getBytes());
-        return checksum.getValue();
+    private static TikaDetectEvent beginTypeDetection() {
+        if (!EventSupport.enabled()) {
+            return null;
+        }
+        TikaDetectEvent event = new TikaDetectEvent();
+        event.begin();
+        return event;
     }
 
     /**
-     * Calculate the Hex for the CRC32 of the given number
+     * Record a completed media type detection (JFR event and listener)
      *
-     * @param l Number to encode
-     * @return Zero padded Hex value of the CRC32
+     * @param event     JFR event started before the detection (<code>null</code> if events are disabled)
+     * @param start     detection start time (nanoseconds)
+     * @param path      file path
+     * @param bytes     size of the inspected contents (-1 if read from disk)
+     * @param mediaType detected media type (<code>null</code> if detection failed)
      */
-    private String crc32cHex(long l) {
-        Checksum checksum = new CRC32C();
-        checksum.update(toLittleEndian(l));
-        return zeroPaddedString(Long.toHexString(checksum.getValue()));
+    private void typeDetected(TikaDetectEvent event, long start, String path, long bytes, String mediaType) {
+        if (event != null) {
+            event.record(path, bytes, mediaType);
+        }
+        if (listener != ScanListener.NONE) {
+            listener.typeDetected(path, System.nanoTime() - start);
+        }
     }
 
     /**
-     * Zero pad the given Hex String to be 8 bytes wide
+     * Check if this media type is a text based
      *
-     * @param hexString Hex String to pad
-     * @return Padded Hex String
+     * @param mediaType Media Type
+     * @return <code>true</code> if a text file, <code>false</code> otherwise
      */
-    private String zeroPaddedString(@NonNull String hexString) {
-        StringBuilder hexStringBuilder = new StringBuilder(hexString);
-        while (hexStringBuilder.length() != 8) {
-            hexStringBuilder.insert(0, "0");
-        }
-        return hexStringBuilder.toString();
+    private Boolean isTextMediaType(MediaType mediaType) {
+        return FileTypeClassifier.isTextMediaType(mediaType);
     }
 
     /**
-     * Return the smallest number of the given list
+     * Return the smallest number of the given window
      *
-     * @param l List of numbers to sort
+     * @param window numbers to check
      * @return smallest number
      */
-    private long min(@NonNull List<Long> l) {
-        List<Long> sortedList = new ArrayList<>(l);
-        Collections.sort(sortedList);
-        return sortedList.get(0);
+    private static long min(@NonNull long[] window) {
+        long min = window[0];
+        for (int i = 1; i < window.length; i++) {
+            if (window[i] < min) {
+                min = window[i];
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Receiver of the snippet hashes selected by winnowing, in file order
+     */
+    @FunctionalInterface
+    interface SnippetSink {
+        /**
+         * Accept a selected snippet hash
+         *
+         * @param line line number the hash was selected on
+         * @param hash CRC32C hash of the gram
+         */
+        void snippet(int line, long hash);
+    }
+
+    /**
+     * CPU time support of the fingerprinting threads (only loaded once a listener measures it)
+     */
+    private static final class CpuTime {
+        static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+        static final boolean SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+    }
+
+    /**
+     * Snippet hashes selected for a single chunk, with line numbers relative to the chunk start (1-based)
+     */
+    private static final class SnippetBuffer implements SnippetSink {
+        private int[] lines = new int[256];
+        private long[] hashes = new long[256];
+        private int size;
+        private int lineCount; // Number of new lines in the chunk
+
+        @Override
+        public void snippet(int line, long hash) {
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            lines[size] = line;
+            hashes[size++] = hash;
+        }
+
+        void replay(int lineBase, SnippetSink sink) {
+            for (int i = 0; i < size; i++) {
+                sink.snippet(lineBase + lines[i], hashes[i]);
+            }
+        }
     }
 }
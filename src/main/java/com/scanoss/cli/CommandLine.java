@@ -24,9 +24,14 @@ package com.scanoss.cli;
 
 import com.scanoss.utils.PackageDetails;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
 import picocli.CommandLine.Option;
 
 import java.io.PrintWriter;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Command Line Processor Class
@@ -40,6 +45,8 @@ import java.io.PrintWriter;
                 VersionCommandLine.class,
                 WfpCommandLine.class,
                 ScanCommandLine.class,
+                MergeCommandLine.class,
+                DaemonCommandLine.class,
         }
 )
 //        mixinStandardHelpOptions = true
@@ -92,6 +99,27 @@ public class CommandLine implements Runnable {
         }
     }
 
+    /**
+     * Check that no per-run options were given along with <code>--daemon</code>
+     * <p>
+     * The daemon scans with the options it was started with, so any other option would be silently ignored.
+     * </p>
+     *
+     * @param spec    command specification (with the parse result of the current run)
+     * @param allowed options that may be combined with <code>--daemon</code>
+     * @throws RuntimeException if other options were given
+     */
+    static void checkDaemonOptions(CommandSpec spec, Set<String> allowed) {
+        List<String> ignored = spec.commandLine().getParseResult().matchedOptions().stream()
+                .map(OptionSpec::longestName)
+                .filter(name -> !allowed.contains(name))
+                .collect(Collectors.toList());
+        if (!ignored.isEmpty()) {
+            throw new RuntimeException(String.format("Error: --daemon uses the options the daemon was started with, " +
+                    "and does not accept: %s (run without --daemon to use them)", String.join(", ", ignored)));
+        }
+    }
+
     /**
      * Main Command Line entry point
      *
@@ -0,0 +1,183 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.cli;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.scanoss.cli.ScanDaemon.*;
+
+/**
+ * Scan Daemon Client Class
+ * <p>
+ * Thin client forwarding scan/fingerprint requests to a running {@link ScanDaemon}, found through its info file.
+ * </p>
+ */
+class DaemonClient {
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+
+    private final int port;
+    private final String token;
+
+    private DaemonClient(int port, String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * @return default daemon info file (<code>~/.scanoss/daemon.json</code>)
+     */
+    static Path defaultInfoFile() {
+        return Paths.get(System.getProperty("user.home"), ".scanoss", "daemon.json");
+    }
+
+    /**
+     * Load the daemon details from the given info file
+     *
+     * @param infoFile daemon info file (optional - default <code>~/.scanoss/daemon.json</code>)
+     * @return daemon client, or <code>null</code> if no daemon info file exists
+     * @throws IOException if the info file could not be read
+     */
+    static DaemonClient load(String infoFile) throws IOException {
+        Path path = infoFile == null || infoFile.isEmpty() ? defaultInfoFile() : Paths.get(infoFile);
+        try {
+            JsonObject info = JsonParser.parseString(Files.readString(path, StandardCharsets.UTF_8)).getAsJsonObject();
+            return new DaemonClient(info.get(PORT).getAsInt(), info.get(TOKEN).getAsString());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (JsonParseException | IllegalStateException | NullPointerException | UnsupportedOperationException e) {
+            throw new IOException(String.format("Invalid daemon info file %s", path), e);
+        }
+    }
+
+    /**
+     * Request the daemon to scan/fingerprint the given file or folder
+     * <p>
+     * A folder is processed as a whole (with paths relative to it), while a single file is sent as given (relative to
+     * the current folder, or absolute), so its results are keyed like those of a local run.
+     * </p>
+     *
+     * @param command <code>scan</code> or <code>wfp</code>
+     * @param target  file or folder to process
+     * @return daemon response (JSON results or WFP)
+     * @throws java.net.ConnectException if the daemon is not running
+     * @throws IOException               if the request failed
+     */
+    String process(@NonNull String command, @NonNull File target) throws IOException {
+        JsonObject request = new JsonObject();
+        if (target.isDirectory()) {
+            request.addProperty(ROOT, target.getAbsolutePath());
+        } else {
+            request.addProperty(ROOT, new File("").getAbsolutePath());
+            request.addProperty(FILE, target.getPath());
+        }
+        return send("POST", command, request.toString());
+    }
+
+    /**
+     * Request the daemon status
+     *
+     * @return status (JSON)
+     * @throws IOException if the request failed
+     */
+    String status() throws IOException {
+        return send("GET", "status", null);
+    }
+
+    /**
+     * Request the daemon to stop
+     *
+     * @throws IOException if the request failed
+     */
+    void shutdown() throws IOException {
+        send("POST", "shutdown", "{}");
+    }
+
+    /**
+     * Send a request to the daemon
+     *
+     * @param method HTTP method
+     * @param path   request path (below the API prefix)
+     * @param body   request body (optional)
+     * @return response body
+     * @throws IOException if the request failed or the daemon reported an error
+     */
+    private String send(String method, String path, String body) throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, API_PREFIX + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setRequestMethod(method);
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String response = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException(String.format("Daemon request failed (%d): %s", status, errorMessage(response)));
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Extract the error message from a daemon error response
+     *
+     * @param response response body
+     * @return error message
+     */
+    private static String errorMessage(String response) {
+        try {
+            JsonObject error = JsonParser.parseString(response).getAsJsonObject();
+            if (error.has(ERROR)) {
+                return error.get(ERROR).getAsString();
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            // not a daemon error response
+        }
+        return response;
+    }
+}
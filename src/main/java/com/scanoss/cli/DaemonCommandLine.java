@@ -0,0 +1,232 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.cli;
+
+import com.scanoss.Scanner;
+import com.scanoss.rest.ScanResultCache;
+import com.scanoss.settings.FileSnippet;
+import com.scanoss.settings.ScanossSettings;
+import com.scanoss.utils.JsonUtils;
+import com.scanoss.utils.ProxyUtils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static com.scanoss.ScanossConstants.*;
+import static com.scanoss.cli.CommandLine.printMsg;
+
+/**
+ * Daemon Command Line Processor Class
+ * <p>
+ * Run a long-lived scan daemon on the loopback interface (see {@link ScanDaemon}), which <code>scan --daemon</code>
+ * and <code>wfp --daemon</code> forward their requests to. Also queries or stops a running daemon.
+ * </p>
+ */
+@SuppressWarnings({"unused", "CanBeFinal"})
+@picocli.CommandLine.Command(name = "daemon", description = "Run a warm scan daemon for 'scan --daemon' and 'wfp --daemon' requests")
+class DaemonCommandLine implements Runnable {
+    private static final int DEFAULT_IDLE_TIMEOUT = 1800;
+    private static final String WARM_UP_SOURCE = "int main(int argc, char **argv) {\n    return argc > 1 ? 1 : 0;\n}\n";
+
+    @picocli.CommandLine.Spec
+    picocli.CommandLine.Model.CommandSpec spec;
+
+    @picocli.CommandLine.Option(names = {"-h", "--help"}, usageHelp = true, description = "Display help information")
+    private boolean helpRequested = false;
+
+    @picocli.CommandLine.Option(names = {"--port"}, description = "Loopback port to listen on (optional - default any free port)")
+    private int port = 0;
+
+    @picocli.CommandLine.Option(names = {"--info-file"}, description = "File to publish the daemon port and access token in (optional - default ~/.scanoss/daemon.json)")
+    private String infoFile;
+
+    @picocli.CommandLine.Option(names = {"--idle-timeout"}, description = "Seconds without requests before the daemon stops (0 = never, default " + DEFAULT_IDLE_TIMEOUT + ")")
+    private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    @picocli.CommandLine.Option(names = {"--status"}, description = "Print the status of the running daemon")
+    private boolean status = false;
+
+    @picocli.CommandLine.Option(names = {"--stop"}, description = "Stop the running daemon")
+    private boolean stop = false;
+
+    @picocli.CommandLine.Option(names = {"-S", "--skip-snippets"}, description = "Skip the generation of snippets")
+    private boolean skipSnippets = false;
+
+    @picocli.CommandLine.Option(names = "--all-extensions", description = "Scan all file extensions")
+    private boolean allExtensions = false;
+
+    @picocli.CommandLine.Option(names = "--all-hidden", description = "Scan all hidden files/folders")
+    private boolean allHidden = false;
+
+    @picocli.CommandLine.Option(names = "--all-folders", description = "Scan all folders")
+    private boolean allFolders = false;
+
+    @picocli.CommandLine.Option(names = {"-T", "--threads"}, description = "Number of parallel threads to use per request (optional - default " + DEFAULT_WORKER_THREADS + ")")
+    private int numThreads = DEFAULT_WORKER_THREADS;
+
+    @picocli.CommandLine.Option(names = "--apiurl", description = "SCANOSS API URL (optional - default: https://api.osskb.org/scan/direct)")
+    private String apiUrl;
+
+    @picocli.CommandLine.Option(names = {"-k", "--key"}, description = "SCANOSS API Key token (optional - not required for default OSSKB URL)")
+    private String apiKey;
+
+    @picocli.CommandLine.Option(names = {"-R", "--retry"}, description = "Retry limit for API communication (optional - default " + DEFAULT_HTTP_RETRY_LIMIT + ")")
+    private int retryLimit = DEFAULT_HTTP_RETRY_LIMIT;
+
+    @picocli.CommandLine.Option(names = {"-M", "--timeout"}, description = "Timeout (in seconds) for API communication (optional - default " + DEFAULT_TIMEOUT + ")")
+    private int timeoutLimit = DEFAULT_TIMEOUT;
+
+    @picocli.CommandLine.Option(names = {"-F", "--flags"}, description = "Scanning engine flags (see 'scan -h')")
+    private String scanFlags;
+
+    @picocli.CommandLine.Option(names = {"--settings"}, description = "Settings file to use for scanning (optional)")
+    private String settingsPath;
+
+    @picocli.CommandLine.Option(names = {"--snippet-limit"}, description = "Length of single line snippet limit (0 for unlimited, default 1000)")
+    private int snippetLimit = 1000;
+
+    @picocli.CommandLine.Option(names = {"--ca-cert"}, description = "Alternative certificate PEM file (optional)")
+    private String caCert;
+
+    @picocli.CommandLine.Option(names = {"--proxy"}, description = "HTTP Proxy URL (optional)")
+    private String proxyString;
+
+    @picocli.CommandLine.Option(names = {"--cache-dir"}, description = "Folder to cache scan results in, so unchanged files are not sent again (optional)")
+    private String cacheDir;
+
+    @picocli.CommandLine.Option(names = {"--cache-ttl"}, description = "Hours before a cached scan result expires (optional - default " + DEFAULT_CACHE_TTL_HOURS + ")")
+    private int cacheTtl = DEFAULT_CACHE_TTL_HOURS;
+
+    @picocli.CommandLine.Option(names = {"--cache-max-size"}, description = "Maximum size of the scan result cache in MB (optional - default " + DEFAULT_CACHE_MAX_SIZE_MB + ")")
+    private int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE_MB;
+
+    /**
+     * Run the 'daemon' command
+     */
+    @Override
+    public void run() {
+        var out = spec.commandLine().getOut();
+        var err = spec.commandLine().getErr();
+        if (status || stop) {
+            try {
+                DaemonClient client = DaemonClient.load(infoFile);
+                if (client == null) {
+                    throw new RuntimeException("Error: No scan daemon running");
+                }
+                if (status) {
+                    JsonUtils.writeJsonPretty(JsonUtils.toJsonObject(client.status()), out);
+                }
+                if (stop) {
+                    client.shutdown();
+                    printMsg(err, "Scan daemon stopping.");
+                }
+            } catch (ConnectException e) {
+                throw new RuntimeException("Error: Scan daemon is not reachable (stale info file?)", e);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: %s", e.getMessage()), e);
+            }
+            return;
+        }
+        ScanDaemon daemon = new ScanDaemon(buildScanner(), infoPath(), idleTimeout);
+        try {
+            int boundPort = daemon.start(port);
+            printMsg(err, String.format("Scan daemon listening on port %d (info file %s, idle timeout %d seconds).",
+                    boundPort, infoPath(), idleTimeout));
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: Failed to start scan daemon: %s", e.getMessage()), e);
+        }
+        Thread shutdownHook = new Thread(daemon::stop, "scanoss-daemon-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            daemon.awaitStop();
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            daemon.stop();
+        }
+        printMsg(err, "Scan daemon stopped.");
+    }
+
+    /**
+     * @return daemon info file to use
+     */
+    private Path infoPath() {
+        return infoFile == null || infoFile.isEmpty() ? DaemonClient.defaultInfoFile() : Paths.get(infoFile);
+    }
+
+    /**
+     * Build the (shared) scanner for the daemon, and warm up its file type detection and fingerprinting
+     *
+     * @return scanner
+     */
+    private Scanner buildScanner() {
+        var err = spec.commandLine().getErr();
+        String caCertPem = null;
+        if (caCert != null && !caCert.isEmpty()) {
+            try {
+                caCertPem = Files.readString(Paths.get(caCert), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to read certificate %s: %s", caCert, e.getMessage()), e);
+            }
+        }
+        Proxy proxy = null;
+        if (proxyString != null && !proxyString.isEmpty()) {
+            proxy = ProxyUtils.createProxyFromString(proxyString);
+            if (proxy == null) {
+                throw new RuntimeException("Error: Failed to setup proxy config");
+            }
+        }
+        ScanossSettings settings = new ScanossSettings();
+        if (settingsPath != null && !settingsPath.isEmpty()) {
+            settings = ScanossSettings.createFromPath(Paths.get(settingsPath));
+            if (settings == null) throw new RuntimeException("Error: Failed to read settings file");
+            printMsg(err, String.format("Settings file read %s", settings));
+        }
+        // Same file_snippet defaults as the 'scan' command, so daemon results match local ones
+        FileSnippet fileSnippetCLI = FileSnippet.builder().minSnippetHits(0).minSnippetLines(0).rankingThreshold(-1)
+                .skipHeaders(false).skipHeadersLimit(0).build();
+        settings.getSettings().setFileSnippet(FileSnippet.resolve(fileSnippetCLI, settings.getSettings().getFileSnippet()));
+        ScanResultCache resultCache = null;
+        if (cacheDir != null && !cacheDir.isEmpty()) {
+            try {
+                resultCache = ScanResultCache.builder().directory(Paths.get(cacheDir)).ttl(Duration.ofHours(cacheTtl))
+                        .maxSize(cacheMaxSize * 1024L * 1024L).build();
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to open scan result cache %s: %s", cacheDir, e.getMessage()));
+            }
+        }
+        Scanner scanner = Scanner.builder().skipSnippets(skipSnippets).allFolders(allFolders).allExtensions(allExtensions)
+                .hiddenFilesFolders(allHidden).numThreads(numThreads).url(apiUrl).apiKey(apiKey)
+                .retryLimit(retryLimit).timeout(Duration.ofSeconds(timeoutLimit)).scanFlags(scanFlags)
+                .snippetLimit(snippetLimit).customCert(caCertPem).proxy(proxy).resultCache(resultCache).settings(settings)
+                .build();
+        scanner.getWinnowing().wfpForContents("warm-up.c", WARM_UP_SOURCE.repeat(8).getBytes(StandardCharsets.UTF_8));
+        return scanner;
+    }
+}
@@ -0,0 +1,118 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.cli;
+
+import com.scanoss.settings.Bom;
+import com.scanoss.settings.ScanossSettings;
+import com.scanoss.utils.ShardMerger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.scanoss.cli.CommandLine.printMsg;
+
+/**
+ * Merge Command Line Processor Class
+ * <p>
+ * Merge the result files of a sharded scan (<code>scan --shard i/N</code>) into a single result file
+ * </p>
+ */
+@SuppressWarnings({"unused", "CanBeFinal"})
+@picocli.CommandLine.Command(name = "merge", description = "Merge the results of a sharded scan (scan --shard) into one result file")
+class MergeCommandLine implements Runnable {
+    @picocli.CommandLine.Spec
+    picocli.CommandLine.Model.CommandSpec spec;
+
+    @picocli.CommandLine.Option(names = {"-h", "--help"}, usageHelp = true, description = "Display help information")
+    private boolean helpRequested = false;
+
+    @picocli.CommandLine.Option(names = {"--settings"}, description = "Settings file with the BOM rules to apply to the merged results (optional - use the same file as for the shard scans)")
+    private String settingsPath;
+
+    @picocli.CommandLine.Option(names = {"-o", "--output"}, description = "Output file to write the merged results to (optional - default STDOUT)")
+    private String outputFile;
+
+    @picocli.CommandLine.Parameters(arity = "1..*", description = "shard result files to merge")
+    private List<String> files;
+
+    /**
+     * Run the 'merge' command
+     */
+    @Override
+    public void run() {
+        var err = spec.commandLine().getErr();
+        for (String file : files) {
+            if (!new File(file).isFile()) {
+                throw new RuntimeException(String.format("Error: Result file does not exist or is not a file: %s", file));
+            }
+        }
+        Bom bom = null;
+        if (settingsPath != null && !settingsPath.isEmpty()) {
+            ScanossSettings settings = ScanossSettings.createFromPath(Paths.get(settingsPath));
+            if (settings == null) throw new RuntimeException("Error: Failed to read settings file");
+            printMsg(err, String.format("Settings file read %s", settings));
+            bom = settings.getBom();
+        }
+        ShardMerger merger = ShardMerger.builder().bom(bom).build();
+        List<Path> inputs = files.stream().map(Paths::get).collect(Collectors.toList());
+        long merged;
+        if (outputFile != null && !outputFile.isEmpty()) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+                merged = merge(merger, inputs, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to write output file %s: %s", outputFile, e.getMessage()), e);
+            }
+        } else {
+            merged = merge(merger, inputs, spec.commandLine().getOut());
+        }
+        printMsg(err, String.format("Merged %d results from %d files.", merged, inputs.size()));
+    }
+
+    /**
+     * Merge the given result files into the given output
+     *
+     * @param merger shard merger
+     * @param inputs result files to merge
+     * @param out    output to write to
+     * @return number of results written
+     */
+    private long merge(ShardMerger merger, List<Path> inputs, Writer out) {
+        PrintWriter err = spec.commandLine().getErr();
+        try {
+            return merger.merge(inputs, out);
+        } catch (IOException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Error: Failed to merge scan results: %s", e.getMessage()), e);
+        }
+    }
+}
@@ -22,24 +22,38 @@
  */
 package com.scanoss.cli;
 
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 import com.scanoss.Scanner;
 import com.scanoss.exceptions.ScannerException;
 import com.scanoss.exceptions.WinnowingException;
+import com.scanoss.rest.ScanResultCache;
 import com.scanoss.settings.FileSnippet;
 import com.scanoss.settings.ScanossSettings;
+import com.scanoss.utils.FolderWatcher;
 import com.scanoss.utils.JsonUtils;
 import com.scanoss.utils.ProxyUtils;
+import com.scanoss.utils.ScanJournal;
+import com.scanoss.utils.Shard;
 import lombok.NonNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ConnectException;
 import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 import static com.scanoss.ScanossConstants.*;
+import static com.scanoss.cli.CommandLine.checkDaemonOptions;
 import static com.scanoss.cli.CommandLine.printDebug;
 import static com.scanoss.cli.CommandLine.printMsg;
 
@@ -73,6 +87,21 @@ class ScanCommandLine implements Runnable {
     @picocli.CommandLine.Option(names = {"-T", "--threads"}, description = "Number of parallel threads to use (optional - default " + DEFAULT_WORKER_THREADS + ")")
     private int numThreads = DEFAULT_WORKER_THREADS;
 
+    @picocli.CommandLine.Option(names = "--parallel-walk", description = "Enumerate folders in parallel (useful for network mounted or very wide trees)")
+    private boolean parallelWalk = false;
+
+    @picocli.CommandLine.Option(names = "--largest-first", description = "Scan the largest files first, to shorten the tail of scans with skewed file sizes")
+    private boolean largestFirst = false;
+
+    @picocli.CommandLine.Option(names = "--look-ahead", description = "Number of files to look ahead when scanning largest first (default: 0 = all files)")
+    private int lookAhead = 0;
+
+    @picocli.CommandLine.Option(names = "--archives", description = "Scan the contents of zip/jar/tar archives (without extracting them)")
+    private boolean scanArchives = false;
+
+    @picocli.CommandLine.Option(names = "--archive-depth", description = "Maximum nesting level of archives to open (optional - default " + DEFAULT_ARCHIVE_DEPTH + ")")
+    private int archiveDepth = DEFAULT_ARCHIVE_DEPTH;
+
     @picocli.CommandLine.Option(names = "--apiurl", description = "SCANOSS API URL (optional - default: https://api.osskb.org/scan/direct)")
     private String apiUrl;
 
@@ -127,12 +156,68 @@ class ScanCommandLine implements Runnable {
     @picocli.CommandLine.Option(names = {"--skip-headers-limit"}, description = "Skip limit for license headers (0 = unset, applies locally)")
     private int skipHeadersLimit = 0;
 
+    @picocli.CommandLine.Option(names = {"--wfp"}, description = "Treat the given file as a pre-generated WFP file, and scan it in batches")
+    private boolean wfpInput = false;
+
+    @picocli.CommandLine.Option(names = {"--git-rev"}, description = "Scan the given Git revision straight from the repository object database (folder may be a bare repository)")
+    private String gitRevision;
+
+    @picocli.CommandLine.Option(names = {"--git-base"}, description = "Only scan files changed since the given Git revision (folder must be a Git work tree, or a folder inside one to limit the changes to it)")
+    private String gitBase;
+
+    @picocli.CommandLine.Option(names = {"--git-head"}, description = "Git revision to compare against the base (optional - default HEAD)")
+    private String gitHead;
+
+    @picocli.CommandLine.Option(names = {"--merge-results"}, description = "Previous full scan results to merge the changed file results into (requires --git-base)")
+    private String mergeResults;
+
+    @picocli.CommandLine.Option(names = {"--cache-dir"}, description = "Folder to cache scan results in, so unchanged files are not sent again (optional)")
+    private String cacheDir;
+
+    @picocli.CommandLine.Option(names = {"--cache-ttl"}, description = "Hours before a cached scan result expires (optional - default " + DEFAULT_CACHE_TTL_HOURS + ")")
+    private int cacheTtl = DEFAULT_CACHE_TTL_HOURS;
+
+    @picocli.CommandLine.Option(names = {"--cache-max-size"}, description = "Maximum size of the scan result cache in MB (optional - default " + DEFAULT_CACHE_MAX_SIZE_MB + ")")
+    private int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE_MB;
+
+    @picocli.CommandLine.Option(names = {"--journal"}, description = "Record each completed/failed file of a folder scan in the given (new) journal file, so the scan can be resumed")
+    private String journalFile;
+
+    @picocli.CommandLine.Option(names = {"--resume"}, description = "Resume a folder scan from the given journal file (files already done are skipped, failed files are retried)")
+    private String resumeJournal;
+
+    @picocli.CommandLine.Option(names = {"--shard"}, description = "Only scan the given shard (i/N) of the files, i.e. 2/8 (combine the shard results with 'merge', which also applies the BOM rules)")
+    private String shardSpec;
+
+    @picocli.CommandLine.Option(names = {"-o", "--output"}, description = "Output file to write the results to (optional - default STDOUT)")
+    private String outputFile;
+
+    @picocli.CommandLine.Option(names = {"--daemon"}, description = "Forward the file/folder scan to a running 'daemon' (scans locally if none is running)")
+    private boolean useDaemon = false;
+
+    @picocli.CommandLine.Option(names = {"--daemon-info"}, description = "Daemon info file to find the daemon with (optional - default ~/.scanoss/daemon.json)")
+    private String daemonInfo;
+
+    @picocli.CommandLine.Option(names = {"--watch"}, description = "Scan the folder, then keep watching it and rescan changed files until stopped (rewrites the output file on each update, or prints the updated results)")
+    private boolean watch = false;
+
+    @picocli.CommandLine.Option(names = {"--debounce"}, description = "Quiet period (in milliseconds) to wait for after a file change before rescanning, when watching (optional - default " + DEFAULT_WATCH_DEBOUNCE_MS + ")")
+    private int debounceMs = DEFAULT_WATCH_DEBOUNCE_MS;
+
+    @picocli.CommandLine.Option(names = {"--stats"}, description = "Print timing and throughput statistics when done")
+    private boolean printStats = false;
+
+    @picocli.CommandLine.Option(names = {"--stats-file"}, description = "Write timing and throughput statistics (JSON) to the given file when done")
+    private String statsFile;
+
     @picocli.CommandLine.Parameters(arity = "1", description = "file/folder to scan")
     private String fileFolder;
 
     private Scanner scanner;
 
     private ScanossSettings settings;
+
+    private PrintWriter out;
     /**
      * Run the 'scan' command
      */
@@ -142,6 +227,9 @@ class ScanCommandLine implements Runnable {
         if (fileFolder == null || fileFolder.isEmpty()) {
             throw new RuntimeException("Error: No file or folder specified to scan");
         }
+        if (useDaemon && forwardToDaemon()) {
+            return;
+        }
 
         String caCertPem = null;
         if (caCert != null && !caCert.isEmpty()) {
@@ -196,18 +284,157 @@ class ScanCommandLine implements Runnable {
                 printMsg(err, String.format("Using flags %s", scanFlags));
             }
         }
+        ScanResultCache resultCache = null;
+        if (cacheDir != null && !cacheDir.isEmpty()) {
+            try {
+                resultCache = ScanResultCache.builder().directory(Paths.get(cacheDir)).ttl(Duration.ofHours(cacheTtl))
+                        .maxSize(cacheMaxSize * 1024L * 1024L).build();
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to open scan result cache %s: %s", cacheDir, e.getMessage()));
+            }
+            if (CommandLine.debug) {
+                printMsg(err, String.format("Using scan result cache %s (%d entries)", cacheDir, resultCache.getEntryCount()));
+            }
+        }
+        Shard shard = null;
+        if (isSet(shardSpec)) {
+            try {
+                shard = Shard.parse(shardSpec);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException(String.format("Error: %s", e.getMessage()));
+            }
+            printMsg(err, String.format("Scanning shard %s (BOM rules are applied when merging the shard results).", shard));
+        }
+        ScanStats stats = printStats || (statsFile != null && !statsFile.isEmpty()) ? new ScanStats() : null;
         scanner = Scanner.builder().skipSnippets(skipSnippets).allFolders(allFolders).allExtensions(allExtensions)
-                .hiddenFilesFolders(allHidden).numThreads(numThreads).url(apiUrl).apiKey(apiKey)
+                .hiddenFilesFolders(allHidden).numThreads(numThreads).parallelWalk(parallelWalk)
+                .largestFirst(largestFirst).lookAhead(lookAhead)
+                .scanArchives(scanArchives).archiveDepth(archiveDepth).url(apiUrl).apiKey(apiKey)
                 .retryLimit(retryLimit).timeout(Duration.ofSeconds(timeoutLimit)).scanFlags(scanFlags)
                 .snippetLimit(snippetLimit).customCert(caCertPem).proxy(proxy).hpsm(enableHpsm)
-                .settings(settings).obfuscate(obfuscate)
+                .resultCache(resultCache).settings(settings).obfuscate(obfuscate)
+                .shard(shard).listener(stats != null ? stats.getMetrics() : null)
                 .build();
         File f = new File(fileFolder);
         if (!f.exists()) {
             throw new RuntimeException(String.format("Error: File or folder does not exist: %s\n", fileFolder));
         }
-        if (f.isFile()) {
+        boolean journaled = isSet(journalFile) || isSet(resumeJournal);
+        if (isSet(journalFile) && isSet(resumeJournal)) {
+            throw new RuntimeException("Error: Specify either --journal or --resume, not both");
+        }
+        if (journaled && (wfpInput || isSet(gitRevision) || isSet(gitBase) || !f.isDirectory())) {
+            throw new RuntimeException("Error: --journal/--resume only apply to folder scans");
+        }
+        if (shard != null && (wfpInput || isSet(mergeResults) || !f.isDirectory())) {
+            throw new RuntimeException("Error: --shard only applies to folder and Git scans (without --merge-results)");
+        }
+        if (watch) {
+            if (wfpInput || isSet(gitRevision) || isSet(gitBase) || isSet(mergeResults) || journaled || shard != null
+                    || !f.isDirectory()) {
+                throw new RuntimeException("Error: --watch only applies to plain folder scans");
+            }
+            watchFolder(fileFolder);
+            return;
+        }
+        writeOutput(() -> scan(f, journaled));
+        if (resultCache != null) {
+            printMsg(err, String.format("Cache: %d hits, %d misses", resultCache.getHits(), resultCache.getMisses()));
+        }
+        if (stats != null) {
+            stats.report(err, printStats, statsFile);
+        }
+    }
+
+    /**
+     * Run the given action with the output writer (the requested output file or STDOUT)
+     *
+     * @param action action writing to <code>out</code>
+     */
+    private void writeOutput(Runnable action) {
+        if (isSet(outputFile)) {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8))) {
+                out = writer;
+                action.run();
+                if (writer.checkError()) {
+                    throw new IOException("write failed");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to write output file %s: %s", outputFile, e.getMessage()), e);
+            }
+        } else {
+            out = spec.commandLine().getOut();
+            action.run();
+        }
+    }
+
+    /**
+     * Forward the file/folder scan to a running scan daemon and output the results
+     *
+     * @return <code>true</code> if the daemon scanned it, <code>false</code> if no daemon is running
+     */
+    private boolean forwardToDaemon() {
+        var err = spec.commandLine().getErr();
+        File f = new File(fileFolder);
+        if (!f.exists()) {
+            throw new RuntimeException(String.format("Error: File or folder does not exist: %s\n", fileFolder));
+        }
+        if (wfpInput || isSet(gitRevision) || isSet(gitBase) || isSet(mergeResults) || isSet(journalFile)
+                || isSet(resumeJournal) || isSet(shardSpec) || watch) {
+            throw new RuntimeException("Error: --daemon only applies to plain file/folder scans");
+        }
+        checkDaemonOptions(spec, Set.of("--daemon", "--daemon-info", "--output"));
+        String response;
+        try {
+            DaemonClient client = DaemonClient.load(daemonInfo);
+            if (client == null) {
+                printMsg(err, "No scan daemon running. Scanning locally.");
+                return false;
+            }
+            printMsg(err, String.format("Scanning %s (daemon)...", fileFolder));
+            response = client.process("scan", f);
+        } catch (ConnectException e) {
+            printMsg(err, "Scan daemon not reachable. Scanning locally.");
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: %s", e.getMessage()), e);
+        }
+        JsonObject results = JsonUtils.toJsonObject(response);
+        printMsg(err, String.format("Found %d results.", results.size()));
+        if (results.size() > 0) {
+            writeOutput(() -> JsonUtils.writeJsonPretty(results, out));
+        }
+        return true;
+    }
+
+    /**
+     * Scan the specified file/folder/WFP/Git repository (as requested) and output the results
+     *
+     * @param f         file/folder to scan
+     * @param journaled record (or resume) the folder scan in a journal
+     */
+    private void scan(File f, boolean journaled) {
+        if (wfpInput) {
+            if (!f.isFile()) {
+                throw new RuntimeException(String.format("Error: Specified path is not a WFP file: %s\n", fileFolder));
+            }
+            scanWfp(fileFolder);
+        } else if (gitRevision != null && !gitRevision.isEmpty()) {
+            if (!f.isDirectory()) {
+                throw new RuntimeException(String.format("Error: Specified path is not a Git repository folder: %s\n", fileFolder));
+            }
+            scanGitTree(fileFolder);
+        } else if (gitBase != null && !gitBase.isEmpty()) {
+            if (!f.isDirectory()) {
+                throw new RuntimeException(String.format("Error: Specified path is not a Git work tree folder: %s\n", fileFolder));
+            }
+            scanGitChanges(fileFolder);
+        } else if (mergeResults != null && !mergeResults.isEmpty()) {
+            throw new RuntimeException("Error: --merge-results requires --git-base");
+        } else if (f.isFile()) {
             scanFile(fileFolder);
+        } else if (journaled) {
+            scanFolderJournaled(fileFolder);
         } else if (f.isDirectory()) {
             scanFolder(fileFolder);
         } else {
@@ -215,6 +442,86 @@ class ScanCommandLine implements Runnable {
         }
     }
 
+    /**
+     * Scan the specified folder, then keep watching it and output the updated results until stopped (i.e. Ctrl+C)
+     * <p>
+     *     With an output file, the full results are (atomically) rewritten after each update. Otherwise, the results
+     *     of the updated files are printed as they arrive, with <code>null</code> for files dropped from the results.
+     * </p>
+     *
+     * @param folder folder to watch
+     */
+    private void watchFolder(String folder) {
+        var err = spec.commandLine().getErr();
+        Path output = isSet(outputFile) ? Paths.get(outputFile).toAbsolutePath().normalize() : null;
+        Path temp = output != null ? output.resolveSibling(output.getFileName() + ".tmp") : null;
+        out = spec.commandLine().getOut();
+        FolderWatcher watcher;
+        try {
+            watcher = FolderWatcher.builder().scanner(scanner).folder(folder).debounce(Duration.ofMillis(debounceMs))
+                    .ignore(p -> output != null && (output.equals(p.toAbsolutePath().normalize())
+                            || temp.equals(p.toAbsolutePath().normalize())))
+                    .listener((w, updated, removed) -> publishUpdate(w, updated, removed, output, temp))
+                    .build();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: Failed to watch %s: %s", folder, e.getMessage()), e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(watcher::close));
+        try {
+            printMsg(err, String.format("Scanning %s...", folder));
+            watcher.start();
+            printMsg(err, String.format("Watching %s for changes (Ctrl+C to stop)...", folder));
+            watcher.awaitClose();
+        } catch (IOException | ScannerException | WinnowingException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Something went wrong while watching %s.", folder), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Output an update of the watched folder results
+     *
+     * @param watcher folder watcher holding the results
+     * @param updated files with a new result
+     * @param removed files dropped from the results
+     * @param output  output file to rewrite (optional - prints the updated results to STDOUT otherwise)
+     * @param temp    temporary file to write the results to, before moving them over the output file
+     */
+    private void publishUpdate(FolderWatcher watcher, Set<String> updated, Set<String> removed, Path output, Path temp) {
+        var err = spec.commandLine().getErr();
+        printMsg(err, String.format("Updated %d and removed %d results (%d files).", updated.size(), removed.size(),
+                watcher.getResultCount()));
+        if (output == null) {
+            JsonObject changes = new JsonObject();
+            updated.forEach(path -> changes.add(path, watcher.getResult(path)));
+            removed.forEach(path -> changes.add(path, JsonNull.INSTANCE));
+            JsonUtils.writeJsonPretty(changes, out);
+            out.flush();
+            return;
+        }
+        try {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+                JsonUtils.writeJsonPretty(watcher.getResults(), writer);
+                if (writer.checkError()) {
+                    throw new IOException("write failed");
+                }
+            }
+            try {
+                Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            err.println(String.format("Warning: Failed to write output file %s: %s", outputFile, e.getMessage()));
+        }
+    }
+
     /**
      * Load the specified file into a string
      *
@@ -252,7 +559,6 @@ class ScanCommandLine implements Runnable {
      * @param file file to scan
      */
     private void scanFile(String file) {
-        var out = spec.commandLine().getOut();
         var err = spec.commandLine().getErr();
         try {
             printMsg(err, String.format("Scanning %s...", file));
@@ -271,13 +577,33 @@ class ScanCommandLine implements Runnable {
         }
         throw new RuntimeException(String.format("Something went wrong while scanning %s", file));
     }
+    /**
+     * Scan the specified WFP file and stream the results out
+     *
+     * @param wfpFile WFP file to scan
+     */
+    private void scanWfp(String wfpFile) {
+        var err = spec.commandLine().getErr();
+        try {
+            printMsg(err, String.format("Scanning WFP %s...", wfpFile));
+            long files = scanner.scanWfpFile(wfpFile, out);
+            out.println();
+            out.flush();
+            printMsg(err, String.format("Scanned %d files.", files));
+        } catch (ScannerException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Something went wrong while scanning %s.", wfpFile), e);
+        }
+    }
+
     /**
      * Scan the specified folder/directory and return the results
      *
      * @param folder folder to scan
      */
     private void scanFolder(String folder) {
-        var out = spec.commandLine().getOut();
         var err = spec.commandLine().getErr();
         try {
             printMsg(err, String.format("Scanning %s...", folder));
@@ -296,4 +622,93 @@ class ScanCommandLine implements Runnable {
             throw new RuntimeException(String.format("Something went wrong while scanning %s.", folder), e);
         }
     }
+
+    /**
+     * Scan the specified folder/directory, recording progress in a journal (or resuming from it), and return the results
+     *
+     * @param folder folder to scan
+     */
+    private void scanFolderJournaled(String folder) {
+        var err = spec.commandLine().getErr();
+        boolean resume = isSet(resumeJournal);
+        String journalPath = resume ? resumeJournal : journalFile;
+        try (ScanJournal journal = ScanJournal.builder().file(Paths.get(journalPath)).resume(resume).build()) {
+            if (resume) {
+                printMsg(err, String.format("Resuming %s from %s (%d files done, %d failed files to retry)...",
+                        folder, journalPath, journal.getDoneCount(), journal.getFailedCount()));
+            } else {
+                printMsg(err, String.format("Scanning %s (journal %s)...", folder, journalPath));
+            }
+            List<String> results = scanner.scanFolder(folder, journal);
+            printMsg(err, String.format("Found %d results.", results.size()));
+            if (!results.isEmpty()) {
+                printDebug(err, "Converting to JSON...");
+                JsonUtils.writeJsonPretty(JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)), out);
+            }
+        } catch (ScannerException | WinnowingException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Something went wrong while scanning %s. Use --resume %s to continue.",
+                    folder, journalPath), e);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: Problem with scan journal %s: %s", journalPath, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Check if the given option value is set
+     *
+     * @param value option value
+     * @return <code>true</code> if set (and not empty)
+     */
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Scan the files changed between the requested Git revisions and output the results
+     *
+     * @param folder Git work tree to scan
+     */
+    private void scanGitChanges(String folder) {
+        var err = spec.commandLine().getErr();
+        try {
+            printMsg(err, String.format("Scanning changes in %s since %s...", folder, gitBase));
+            List<String> results = scanner.scanGitChanges(folder, gitBase, gitHead, mergeResults);
+            printMsg(err, String.format("Found %d results.", results.size()));
+            printDebug(err, "Converting to JSON...");
+            JsonUtils.writeJsonPretty(JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)), out);
+        } catch (ScannerException | WinnowingException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Something went wrong while scanning %s.", folder), e);
+        }
+    }
+
+    /**
+     * Scan the requested revision of the specified Git repository and output the results
+     *
+     * @param repo Git repository folder
+     */
+    private void scanGitTree(String repo) {
+        var err = spec.commandLine().getErr();
+        try {
+            printMsg(err, String.format("Scanning %s at %s...", repo, gitRevision));
+            List<String> results = scanner.scanGitTree(repo, gitRevision);
+            if (results != null && !results.isEmpty()) {
+                printMsg(err, String.format("Found %d results.", results.size()));
+                printDebug(err, "Converting to JSON...");
+                JsonUtils.writeJsonPretty(JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)), out);
+                return;
+            }
+            printMsg(err, String.format("Found 0 results."));
+        } catch (ScannerException | WinnowingException e) {
+            if (CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw new RuntimeException(String.format("Something went wrong while scanning %s.", repo), e);
+        }
+    }
 }
@@ -0,0 +1,359 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.cli;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.scanoss.Scanner;
+import com.scanoss.exceptions.ScannerException;
+import com.scanoss.exceptions.WinnowingException;
+import com.scanoss.utils.JsonUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scan Daemon Class
+ * <p>
+ * Keeps a warmed up {@link Scanner} (HTTP connection pool, file type registry, result cache, compiled filters and
+ * JIT compiled code) behind a loopback HTTP endpoint, so frequent small scans (i.e. pre-commit hooks and IDE
+ * integrations) do not pay the start-up costs on every run.
+ * </p>
+ * <p>
+ * The daemon only listens on the loopback interface, and writes its port and a random access token to an info file
+ * (readable by the owner only). Every request must carry the token as <code>Authorization: Bearer &lt;token&gt;</code>.
+ * Requests and responses are UTF-8 encoded:
+ * </p>
+ * <ul>
+ *     <li><code>GET /v1/status</code> - daemon version, uptime and number of requests served (JSON)</li>
+ *     <li><code>POST /v1/scan</code> - scan request (JSON, see below); responds with the scan results (JSON object)</li>
+ *     <li><code>POST /v1/wfp</code> - fingerprint request (JSON, see below); responds with the WFP (plain text)</li>
+ *     <li><code>POST /v1/shutdown</code> - stop the daemon</li>
+ * </ul>
+ * <p>
+ * Scan and fingerprint requests take the form <code>{"root": "/abs/folder", "files": ["a.c", "src/b.java"]}</code>.
+ * Without <code>files</code> the whole root folder is processed. Files are relative to the root (which is also
+ * stripped from the result paths), and are filtered like folder contents. A single file can be requested as
+ * <code>{"root": "/abs/folder", "file": "a.c"}</code> instead: it is resolved against the root if relative, is not
+ * filtered, and keeps the path as given in the results (like a local single file run). Failures are reported with a 4xx/5xx
+ * status and a <code>{"error": "message"}</code> body. The daemon stops by itself once idle for the configured time.
+ * </p>
+ */
+@Slf4j
+class ScanDaemon {
+    static final String API_PREFIX = "/v1/";
+    static final String ROOT = "root";
+    static final String FILES = "files";
+    static final String FILE = "file";
+    static final String PORT = "port";
+    static final String TOKEN = "token";
+    static final String ERROR = "error";
+    private static final int REQUEST_THREADS = 4;
+
+    private final Scanner scanner;
+    private final Path infoFile;
+    private final long idleTimeoutNanos;
+    private final String token;
+    private final long started = System.nanoTime();
+    private final AtomicLong lastActivity = new AtomicLong(started);
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService idleMonitor;
+
+    /**
+     * Create a scan daemon
+     *
+     * @param scanner            scanner to serve requests with (shared by all requests)
+     * @param infoFile           file to publish the daemon port and token in
+     * @param idleTimeoutSeconds seconds without requests before the daemon stops (0 = never)
+     */
+    ScanDaemon(@NonNull Scanner scanner, @NonNull Path infoFile, long idleTimeoutSeconds) {
+        this.scanner = scanner;
+        this.infoFile = infoFile;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        this.token = hex.toString();
+    }
+
+    /**
+     * Start listening on the given loopback port, and publish the daemon info file
+     *
+     * @param port port to listen on (0 = any free port)
+     * @return port listened on
+     * @throws IOException if the port could not be bound or the info file written
+     */
+    int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(API_PREFIX, this::handle);
+        executor = Executors.newFixedThreadPool(REQUEST_THREADS);
+        server.setExecutor(executor);
+        server.start();
+        int boundPort = server.getAddress().getPort();
+        try {
+            writeInfoFile(boundPort);
+        } catch (IOException e) {
+            stop();
+            throw e;
+        }
+        if (idleTimeoutNanos > 0) {
+            idleMonitor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "scanoss-daemon-idle");
+                thread.setDaemon(true);
+                return thread;
+            });
+            idleMonitor.scheduleWithFixedDelay(this::checkIdle, 1, 1, TimeUnit.SECONDS);
+        }
+        return boundPort;
+    }
+
+    /**
+     * Wait for the daemon to stop (idle timeout or shutdown request)
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stop the daemon and remove its info file
+     */
+    synchronized void stop() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        if (idleMonitor != null) {
+            idleMonitor.shutdownNow();
+        }
+        server.stop(0);
+        executor.shutdown();
+        try {
+            if (Files.exists(infoFile) && Files.readString(infoFile, StandardCharsets.UTF_8).contains(token)) {
+                Files.delete(infoFile);  // only remove our own info file (not one of a newer daemon)
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove daemon info file {}: {}", infoFile, e.getMessage());
+        }
+        stopped.countDown();
+    }
+
+    /**
+     * Stop the daemon if it has been idle for longer than the idle timeout
+     */
+    private void checkIdle() {
+        if (active.get() == 0 && System.nanoTime() - lastActivity.get() > idleTimeoutNanos) {
+            log.info("Scan daemon idle for {} seconds. Stopping.", TimeUnit.NANOSECONDS.toSeconds(idleTimeoutNanos));
+            stop();
+        }
+    }
+
+    /**
+     * Write the daemon port and access token to the info file (owner read/write only, where supported)
+     *
+     * @param port port listened on
+     * @throws IOException if the file could not be written
+     */
+    private void writeInfoFile(int port) throws IOException {
+        JsonObject info = new JsonObject();
+        info.addProperty(PORT, port);
+        info.addProperty(TOKEN, token);
+        info.addProperty("pid", ProcessHandle.current().pid());
+        if (infoFile.getParent() != null) {
+            Files.createDirectories(infoFile.getParent());
+        }
+        Path temp = Files.createTempFile(infoFile.toAbsolutePath().getParent(), ".daemon", ".tmp");
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        }
+        Files.writeString(temp, info.toString(), StandardCharsets.UTF_8);
+        Files.move(temp, infoFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Handle a daemon API request
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException if the response could not be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        active.incrementAndGet();
+        lastActivity.set(System.nanoTime());
+        try {
+            if (!isAuthorised(exchange)) {
+                sendError(exchange, 401, "Missing or invalid daemon token");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath().substring(API_PREFIX.length());
+            String method = exchange.getRequestMethod();
+            requests.incrementAndGet();
+            if (path.equals("status") && method.equals("GET")) {
+                JsonObject status = new JsonObject();
+                status.addProperty("version", CommandLine.version);
+                status.addProperty("uptime_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                status.addProperty("requests", requests.get());
+                send(exchange, 200, "application/json", status.toString());
+            } else if (path.equals("shutdown") && method.equals("POST")) {
+                send(exchange, 200, "application/json", "{}");
+                new Thread(this::stop, "scanoss-daemon-stop").start();
+            } else if ((path.equals("scan") || path.equals("wfp")) && method.equals("POST")) {
+                process(exchange, path.equals("scan"));
+            } else if (path.equals("status") || path.equals("shutdown") || path.equals("scan") || path.equals("wfp")) {
+                sendError(exchange, 405, String.format("Method not allowed: %s", method));
+            } else {
+                sendError(exchange, 404, String.format("Unknown request: %s", exchange.getRequestURI().getPath()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Scan daemon request failed: {}", e.getMessage(), e);
+        } finally {
+            exchange.close();
+            lastActivity.set(System.nanoTime());
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Run a scan/fingerprint request and send the results
+     *
+     * @param exchange HTTP exchange
+     * @param scan     scan (otherwise only fingerprint)
+     * @throws IOException if the response could not be sent
+     */
+    private void process(HttpExchange exchange, boolean scan) throws IOException {
+        String root;
+        String file = null;
+        List<String> files = null;
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonObject request = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+            root = request.has(ROOT) ? request.get(ROOT).getAsString() : null;
+            file = request.has(FILE) ? request.get(FILE).getAsString() : null;
+            if (request.has(FILES)) {
+                files = new ArrayList<>();
+                for (JsonElement element : request.getAsJsonArray(FILES)) {
+                    files.add(element.getAsString());
+                }
+            }
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException | ClassCastException e) {
+            sendError(exchange, 400, String.format("Invalid request: %s", e.getMessage()));
+            return;
+        }
+        if (root == null || !new File(root).isAbsolute() || !new File(root).isDirectory()) {
+            sendError(exchange, 400, String.format("Root must be an absolute folder path: %s", root));
+            return;
+        }
+        if ((files != null && files.isEmpty()) || (file != null && file.isEmpty())) {
+            sendError(exchange, 400, "No files specified");
+            return;
+        }
+        if (file != null && files != null) {
+            sendError(exchange, 400, String.format("Specify either %s or %s, not both", FILE, FILES));
+            return;
+        }
+        try {
+            if (file != null) {
+                String filename = Path.of(root).resolve(file).toString();
+                if (scan) {
+                    String result = scanner.scanFile(filename, file);
+                    send(exchange, 200, "application/json", result.isEmpty() ? "{}" : JsonUtils.toJsonObject(result).toString());
+                } else {
+                    send(exchange, 200, "text/plain", scanner.wfpFile(filename, file));
+                }
+            } else if (scan) {
+                List<String> results = files == null ? scanner.scanFolder(root) : scanner.scanFileList(root, files);
+                JsonObject json = results.isEmpty() ? new JsonObject() : JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results));
+                send(exchange, 200, "application/json", json.toString());
+            } else {
+                List<String> wfps = files == null ? scanner.wfpFolder(root) :
+                        scanner.processFileList(root, files, scanner.getWfpFileProcessor());
+                send(exchange, 200, "text/plain", String.join("", wfps));
+            }
+        } catch (ScannerException | WinnowingException | InvalidPathException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            sendError(exchange, 500, String.format("%s: %s", e.getMessage(), cause.getMessage()));
+        }
+    }
+
+    /**
+     * Check the request carries the daemon token
+     *
+     * @param exchange HTTP exchange
+     * @return <code>true</code> if authorised
+     */
+    private boolean isAuthorised(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        String expected = "Bearer " + token;
+        return header != null && MessageDigest.isEqual(header.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty(ERROR, message);
+        send(exchange, status, "application/json", error.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
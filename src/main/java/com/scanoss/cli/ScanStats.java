@@ -0,0 +1,170 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.cli;
+
+import com.google.gson.JsonObject;
+import com.scanoss.metrics.LatencyHistogram;
+import com.scanoss.metrics.ScanMetrics;
+import com.scanoss.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.scanoss.cli.CommandLine.printMsg;
+
+/**
+ * Scan Statistics Class
+ * <p>
+ * Collects the {@link ScanMetrics} of a command run, and reports the per-phase timings and throughput at the end
+ * (<code>--stats</code> and <code>--stats-file</code>).
+ * </p>
+ */
+class ScanStats {
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final ScanMetrics metrics = new ScanMetrics();
+    private final long start = System.nanoTime();
+
+    /**
+     * @return metrics listener to register on the scanner
+     */
+    ScanMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Report the statistics collected so far
+     *
+     * @param err       writer to print the statistics to (if requested)
+     * @param print     print the statistics
+     * @param statsFile file to write the statistics to, in JSON format (optional)
+     */
+    void report(PrintWriter err, boolean print, String statsFile) {
+        JsonObject stats = toJson(System.nanoTime() - start);
+        if (print) {
+            printMsg(err, toText(stats));
+        }
+        if (statsFile != null && !statsFile.isEmpty()) {
+            try {
+                Files.writeString(Paths.get(statsFile), JsonUtils.toJsonPretty(stats) + System.lineSeparator(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to write statistics file %s: %s", statsFile, e.getMessage()), e);
+            }
+        }
+    }
+
+    /**
+     * Build the JSON statistics report
+     *
+     * @param elapsedNanos elapsed time of the run
+     * @return statistics
+     */
+    JsonObject toJson(long elapsedNanos) {
+        JsonObject walk = new JsonObject();
+        walk.addProperty("time_ms", millis(metrics.getWalkNanos()));
+        walk.addProperty("files", metrics.getFilesDiscovered());
+        walk.addProperty("files_filtered", metrics.getFilesFiltered());
+        walk.addProperty("folders_filtered", metrics.getFoldersFiltered());
+        JsonObject reasons = new JsonObject();
+        metrics.getFilterReasons().forEach(reasons::addProperty);
+        walk.add("filter_reasons", reasons);
+
+        JsonObject fingerprint = new JsonObject();
+        fingerprint.addProperty("files", metrics.getFilesFingerprinted());
+        fingerprint.addProperty("bytes", metrics.getBytesRead());
+        fingerprint.addProperty("cpu_time_ms", millis(metrics.getFingerprintCpuNanos()));
+        fingerprint.addProperty("tika_time_ms", millis(metrics.getTypeDetectionLatency().getSum()));
+        fingerprint.addProperty("bytes_per_second", elapsedNanos > 0 ? Math.round(metrics.getBytesRead() * 1e9 / elapsedNanos) : 0);
+        fingerprint.addProperty("failed", metrics.getFilesFailed());
+
+        LatencyHistogram latency = metrics.getRequestLatency();
+        JsonObject requests = new JsonObject();
+        requests.addProperty("count", metrics.getRequestsPosted());
+        requests.addProperty("failed", metrics.getRequestsFailed());
+        requests.addProperty("retries", metrics.getRequestsRetried());
+        requests.addProperty("batches", metrics.getBatches());
+        requests.addProperty("wfp_bytes", metrics.getWfpBytesSent());
+        requests.addProperty("mean_latency_ms", millis(latency.getMean()));
+        requests.addProperty("p99_latency_ms", millis(latency.getPercentile(99)));
+        requests.addProperty("max_latency_ms", millis(latency.getMax()));
+
+        JsonObject postProcessing = new JsonObject();
+        postProcessing.addProperty("time_ms", millis(metrics.getPostProcessingLatency().getSum()));
+        postProcessing.addProperty("results", metrics.getResultsPostProcessed());
+
+        JsonObject stats = new JsonObject();
+        stats.addProperty("elapsed_ms", millis(elapsedNanos));
+        stats.add("walk", walk);
+        stats.add("fingerprint", fingerprint);
+        stats.add("requests", requests);
+        stats.add("post_processing", postProcessing);
+        stats.addProperty("peak_heap_bytes", metrics.sampleHeap());
+        return stats;
+    }
+
+    /**
+     * Format the given JSON statistics report for the console
+     *
+     * @param stats statistics (see {@link #toJson(long)})
+     * @return human-readable statistics
+     */
+    static String toText(JsonObject stats) {
+        JsonObject walk = stats.getAsJsonObject("walk");
+        JsonObject fingerprint = stats.getAsJsonObject("fingerprint");
+        JsonObject requests = stats.getAsJsonObject("requests");
+        JsonObject postProcessing = stats.getAsJsonObject("post_processing");
+        String reasons = walk.getAsJsonObject("filter_reasons").entrySet().stream()
+                .map(Map.Entry::toString).collect(Collectors.joining(", "));
+        StringBuilder text = new StringBuilder("Statistics:");
+        text.append(String.format("%n  Elapsed:         %.3f s", seconds(stats, "elapsed_ms")));
+        text.append(String.format("%n  Walk:            %.3f s (%d files, %d files and %d folders filtered%s)",
+                seconds(walk, "time_ms"), walk.get("files").getAsLong(), walk.get("files_filtered").getAsLong(),
+                walk.get("folders_filtered").getAsLong(), reasons.isEmpty() ? "" : ": " + reasons));
+        text.append(String.format("%n  Fingerprinting:  %.3f s CPU, %.3f s Tika (%d files, %.1f MB, %.1f MB/s, %d failed)",
+                seconds(fingerprint, "cpu_time_ms"), seconds(fingerprint, "tika_time_ms"),
+                fingerprint.get("files").getAsLong(), fingerprint.get("bytes").getAsLong() / BYTES_PER_MB,
+                fingerprint.get("bytes_per_second").getAsLong() / BYTES_PER_MB, fingerprint.get("failed").getAsLong()));
+        text.append(String.format("%n  Requests:        %d (%d failed, %d retries, %.1f MB sent), mean %.1f ms, p99 %.1f ms",
+                requests.get("count").getAsLong(), requests.get("failed").getAsLong(), requests.get("retries").getAsLong(),
+                requests.get("wfp_bytes").getAsLong() / BYTES_PER_MB, requests.get("mean_latency_ms").getAsDouble(),
+                requests.get("p99_latency_ms").getAsDouble()));
+        text.append(String.format("%n  Post-processing: %.3f s (%d results)", seconds(postProcessing, "time_ms"),
+                postProcessing.get("results").getAsLong()));
+        text.append(String.format("%n  Peak heap:       %.1f MB (sampled)", stats.get("peak_heap_bytes").getAsLong() / BYTES_PER_MB));
+        return text.toString();
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static double seconds(JsonObject object, String millisProperty) {
+        return object.get(millisProperty).getAsDouble() / 1000.0;
+    }
+}
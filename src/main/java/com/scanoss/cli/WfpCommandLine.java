@@ -27,12 +27,22 @@ import com.scanoss.exceptions.ScannerException;
 import com.scanoss.exceptions.WinnowingException;
 import com.scanoss.settings.FileSnippet;
 import com.scanoss.settings.ScanossSettings;
+import com.scanoss.utils.Shard;
 import picocli.CommandLine;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Set;
 
+import static com.scanoss.ScanossConstants.DEFAULT_ARCHIVE_DEPTH;
 import static com.scanoss.ScanossConstants.DEFAULT_WORKER_THREADS;
+import static com.scanoss.cli.CommandLine.checkDaemonOptions;
 import static com.scanoss.cli.CommandLine.printMsg;
 
 /**
@@ -65,6 +75,15 @@ public class WfpCommandLine implements Runnable {
     @picocli.CommandLine.Option(names = {"-T", "--threads"}, description = "Number of parallel threads to use")
     private int numThreads = DEFAULT_WORKER_THREADS;
 
+    @picocli.CommandLine.Option(names = "--parallel-walk", description = "Enumerate folders in parallel (useful for network mounted or very wide trees)")
+    private boolean parallelWalk = false;
+
+    @picocli.CommandLine.Option(names = "--archives", description = "Fingerprint the contents of zip/jar/tar archives (without extracting them)")
+    private boolean scanArchives = false;
+
+    @picocli.CommandLine.Option(names = "--archive-depth", description = "Maximum nesting level of archives to open (optional - default " + DEFAULT_ARCHIVE_DEPTH + ")")
+    private int archiveDepth = DEFAULT_ARCHIVE_DEPTH;
+
     @picocli.CommandLine.Option(names = {"--snippet-limit"}, description = "Length of single line snippet limit (0 for unlimited, default 1000)")
     private int snippetLimit = 1000;
 
@@ -74,6 +93,30 @@ public class WfpCommandLine implements Runnable {
     @picocli.CommandLine.Option(names = {"--skip-headers-limit"}, description = "Skip limit for license headers (0 = unset, applies locally)")
     private int skipHeadersLimit = 0;
 
+    @picocli.CommandLine.Option(names = {"--git-rev"}, description = "Fingerprint the given Git revision straight from the repository object database (folder may be a bare repository)")
+    private String gitRevision;
+
+    @picocli.CommandLine.Option(names = {"-o", "--output"}, description = "Output file to write the fingerprints to (optional - default STDOUT)")
+    private String outputFile;
+
+    @picocli.CommandLine.Option(names = "--ordered", description = "Write folder fingerprints in the order the files were found in (uses a bounded reorder buffer)")
+    private boolean ordered = false;
+
+    @picocli.CommandLine.Option(names = {"--shard"}, description = "Only fingerprint the given shard (i/N) of the files, i.e. 2/8")
+    private String shardSpec;
+
+    @picocli.CommandLine.Option(names = {"--daemon"}, description = "Forward the file/folder fingerprinting to a running 'daemon' (fingerprints locally if none is running)")
+    private boolean useDaemon = false;
+
+    @picocli.CommandLine.Option(names = {"--daemon-info"}, description = "Daemon info file to find the daemon with (optional - default ~/.scanoss/daemon.json)")
+    private String daemonInfo;
+
+    @picocli.CommandLine.Option(names = {"--stats"}, description = "Print timing and throughput statistics when done")
+    private boolean printStats = false;
+
+    @picocli.CommandLine.Option(names = {"--stats-file"}, description = "Write timing and throughput statistics (JSON) to the given file when done")
+    private String statsFile;
+
     @picocli.CommandLine.Parameters(arity = "1", description = "file/folder to fingerprint")
     private String fileFolder;
 
@@ -91,6 +134,9 @@ public class WfpCommandLine implements Runnable {
         if (!f.exists()) {
             throw new RuntimeException(String.format("Error: File or folder does not exist: %s\n", fileFolder));
         }
+        if (useDaemon && forwardToDaemon(f)) {
+            return;
+        }
         if (com.scanoss.cli.CommandLine.debug) {
             var err = spec.commandLine().getErr();
             if (numThreads != DEFAULT_WORKER_THREADS) {
@@ -105,19 +151,99 @@ public class WfpCommandLine implements Runnable {
                 .skipHeadersLimit(skipHeadersLimit)
                 .build();
         settings.getSettings().setFileSnippet(fileSnippet);
+        Shard shard = null;
+        if (shardSpec != null && !shardSpec.isEmpty()) {
+            if (!f.isDirectory()) {
+                throw new RuntimeException("Error: --shard only applies to folder and Git fingerprinting");
+            }
+            try {
+                shard = Shard.parse(shardSpec);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException(String.format("Error: %s", e.getMessage()));
+            }
+        }
+        ScanStats stats = printStats || (statsFile != null && !statsFile.isEmpty()) ? new ScanStats() : null;
         scanner = Scanner.builder()
                 .skipSnippets(skipSnippets)
                 .allFolders(allFolders)
                 .allExtensions(allExtensions)
                 .hiddenFilesFolders(allHidden)
-                .numThreads(numThreads).snippetLimit(snippetLimit)
+                .numThreads(numThreads).parallelWalk(parallelWalk)
+                .scanArchives(scanArchives).archiveDepth(archiveDepth).snippetLimit(snippetLimit)
                 .settings(settings)
+                .shard(shard)
+                .listener(stats != null ? stats.getMetrics() : null)
                 .build();
 
-        if (f.isFile()) {
-            wfpFile(fileFolder);
+        if (outputFile != null && !outputFile.isEmpty()) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+                fingerprint(f, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Error: Failed to write output file %s: %s", outputFile, e.getMessage()), e);
+            }
+        } else {
+            fingerprint(f, spec.commandLine().getOut());
+        }
+        if (stats != null) {
+            stats.report(spec.commandLine().getErr(), printStats, statsFile);
+        }
+    }
+
+    /**
+     * Forward the file/folder fingerprinting to a running scan daemon and output the results
+     *
+     * @param f file/folder to fingerprint
+     * @return <code>true</code> if the daemon fingerprinted it, <code>false</code> if no daemon is running
+     */
+    private boolean forwardToDaemon(File f) {
+        var err = spec.commandLine().getErr();
+        if ((gitRevision != null && !gitRevision.isEmpty()) || (shardSpec != null && !shardSpec.isEmpty()) || scanArchives) {
+            throw new RuntimeException("Error: --daemon only applies to plain file/folder fingerprinting");
+        }
+        checkDaemonOptions(spec, Set.of("--daemon", "--daemon-info", "--output"));
+        try {
+            DaemonClient client = DaemonClient.load(daemonInfo);
+            if (client == null) {
+                printMsg(err, "No scan daemon running. Fingerprinting locally.");
+                return false;
+            }
+            printMsg(err, String.format("Fingerprinting %s (daemon)...", fileFolder));
+            String wfp = client.process("wfp", f);
+            if (f.isFile() && !wfp.isEmpty()) {
+                wfp += System.lineSeparator();  // same as a local single file fingerprint
+            }
+            if (outputFile != null && !outputFile.isEmpty()) {
+                Files.writeString(Paths.get(outputFile), wfp, StandardCharsets.UTF_8);
+            } else {
+                var out = spec.commandLine().getOut();
+                out.write(wfp);
+                out.flush();
+            }
+            return true;
+        } catch (ConnectException e) {
+            printMsg(err, "Scan daemon not reachable. Fingerprinting locally.");
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Fingerprint the specified file/folder and write the results to the given output
+     *
+     * @param f   file/folder to fingerprint
+     * @param out output to write to
+     */
+    private void fingerprint(File f, Writer out) {
+        if (gitRevision != null && !gitRevision.isEmpty()) {
+            if (!f.isDirectory()) {
+                throw new RuntimeException(String.format("Error: Specified path is not a Git repository folder: %s\n", fileFolder));
+            }
+            wfpGitTree(fileFolder, out);
+        } else if (f.isFile()) {
+            wfpFile(fileFolder, out);
         } else if (f.isDirectory()) {
-            wfpFolder(fileFolder);
+            wfpFolder(fileFolder, out);
         } else {
             throw new RuntimeException(String.format("Error: Specified path is not a file or a folder: %s\n", fileFolder));
         }
@@ -127,15 +253,17 @@ public class WfpCommandLine implements Runnable {
      * Fingerprint the specified file and output the results
      *
      * @param file file to fingerprint
+     * @param out  output to write to
      */
-    private void wfpFile(String file) {
-        var out = spec.commandLine().getOut();
+    private void wfpFile(String file, Writer out) {
         var err = spec.commandLine().getErr();
         try {
             printMsg(err, String.format("Fingerprinting %s...", file));
             String result = scanner.wfpFile(file);
             if (result != null && !result.isEmpty()) {
-                out.println(result);
+                out.write(result);
+                out.write(System.lineSeparator());
+                out.flush();
                 return;
             } else {
                 err.println("Warning: No WFP returned.");
@@ -145,24 +273,54 @@ public class WfpCommandLine implements Runnable {
                 e.printStackTrace(err);
             }
             throw e;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: Failed to write fingerprints for %s", file), e);
         }
         throw new RuntimeException(String.format("Something went wrong while fingerprinting %s", file));
     }
 
     /**
-     * Fingerprint the specified folder and output the results
+     * Fingerprint the specified folder and stream the results out
      *
      * @param folder folder to fingerprint
+     * @param out    output to write to
      */
-    private void wfpFolder(String folder) {
-        var out = spec.commandLine().getOut();
+    private void wfpFolder(String folder, Writer out) {
         var err = spec.commandLine().getErr();
         try {
             printMsg(err, String.format("Fingerprinting %s...", folder));
-            List<String> results = scanner.wfpFolder(folder);
+            long files = scanner.wfpFolder(folder, out, ordered);
+            if (files > 0) {
+                printMsg(err, String.format("Found %d files.", files));
+                return;
+            } else {
+                err.println("Error: No results return.");
+            }
+        } catch (ScannerException | WinnowingException e) {
+            if (com.scanoss.cli.CommandLine.debug) {
+                e.printStackTrace(err);
+            }
+            throw e;
+        }
+        throw new RuntimeException(String.format("Something went wrong while fingerprinting %s", folder));
+    }
+
+    /**
+     * Fingerprint the requested revision of the specified Git repository and output the results
+     *
+     * @param repo Git repository folder
+     * @param out  output to write to
+     */
+    private void wfpGitTree(String repo, Writer out) {
+        var err = spec.commandLine().getErr();
+        try {
+            printMsg(err, String.format("Fingerprinting %s at %s...", repo, gitRevision));
+            List<String> results = scanner.wfpGitTree(repo, gitRevision);
             if (results != null && !results.isEmpty()) {
                 printMsg(err, String.format("Found %d files.", results.size()));
-                results.forEach(out::print);
+                for (String result : results) {
+                    out.write(result);
+                }
                 out.flush();
                 return;
             } else {
@@ -173,7 +331,9 @@ public class WfpCommandLine implements Runnable {
                 e.printStackTrace(err);
             }
             throw e;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error: Failed to write fingerprints for %s", repo), e);
         }
-        throw new RuntimeException(String.format("Something went wrong while fingerprinting %s", folder));
+        throw new RuntimeException(String.format("Something went wrong while fingerprinting %s", repo));
     }
 }
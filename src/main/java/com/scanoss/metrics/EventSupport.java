@@ -0,0 +1,47 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Helpers for creating SCANOSS JFR events
+ * <p>
+ * Initialising the first event class starts up the JFR metadata (a few hundred milliseconds), even when nothing
+ * is being recorded. Events are therefore only created once the flight recorder has been initialised (i.e. a
+ * recording was started), so short runs without one never load them.
+ * </p>
+ */
+public final class EventSupport {
+    private EventSupport() {
+    }
+
+    /**
+     * Check if SCANOSS events should be created
+     *
+     * @return <code>true</code> if the flight recorder has been initialised
+     */
+    public static boolean enabled() {
+        return FlightRecorder.isInitialized();
+    }
+}
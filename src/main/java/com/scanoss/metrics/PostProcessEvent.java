@@ -0,0 +1,64 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each run of the {@link com.scanoss.ScannerPostProcessor} BOM rules
+ */
+@Name("com.scanoss.PostProcess")
+@Label("Post Process")
+@Category({"SCANOSS", "Post-processing"})
+@Description("Application of the BOM (remove/replace) rules to scan results")
+@StackTrace(false)
+public final class PostProcessEvent extends Event {
+    @Label("Rules")
+    @Description("Number of remove and replace rules")
+    private int rules;
+
+    @Label("Results")
+    @Description("Number of results before post-processing")
+    private int results;
+
+    @Label("Processed Results")
+    @Description("Number of results after post-processing")
+    private int processedResults;
+
+    /**
+     * Complete the event and commit it, if enabled
+     *
+     * @param rules            number of remove and replace rules
+     * @param results          number of results before post-processing
+     * @param processedResults number of results after post-processing
+     */
+    public void record(int rules, int results, int processedResults) {
+        end();
+        if (shouldCommit()) {
+            this.rules = rules;
+            this.results = results;
+            this.processedResults = processedResults;
+            commit();
+        }
+    }
+}
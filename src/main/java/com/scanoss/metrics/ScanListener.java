@@ -0,0 +1,140 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import java.nio.file.Path;
+
+/**
+ * SCANOSS Scan Listener Interface
+ * <p>
+ * Receives progress events from a {@link com.scanoss.Scanner} (and the {@link com.scanoss.Winnowing}/
+ * {@link com.scanoss.rest.ScanApi} instances it creates), i.e. to feed metrics or progress reporting.
+ * </p>
+ * <p>
+ * Events are raised from the walking thread and from all worker threads, so implementations must be thread safe,
+ * and should return quickly. All methods do nothing by default.
+ * </p>
+ */
+public interface ScanListener {
+    /**
+     * Listener ignoring all events
+     */
+    ScanListener NONE = new ScanListener() {
+    };
+
+    /**
+     * A file passed the filters and was queued for processing
+     *
+     * @param path file path
+     * @param size file size in bytes (-1 if unknown)
+     */
+    default void fileDiscovered(String path, long size) {
+    }
+
+    /**
+     * Enumerating the files to process completed
+     * <p>
+     * In streaming modes, the walk time includes waiting for workers to catch up.
+     * </p>
+     *
+     * @param files number of files queued for processing
+     * @param nanos time taken to walk the folder/source
+     */
+    default void walkCompleted(long files, long nanos) {
+    }
+
+    /**
+     * A file or folder was skipped by the file/folder filters
+     *
+     * @param path   file or folder path
+     * @param folder <code>true</code> if a folder was skipped
+     */
+    default void fileFiltered(Path path, boolean folder) {
+    }
+
+    /**
+     * The media type of a file was detected (to tell text and binary files apart)
+     *
+     * @param path  file path
+     * @param nanos time taken to detect the media type
+     */
+    default void typeDetected(String path, long nanos) {
+    }
+
+    /**
+     * A file was fingerprinted
+     *
+     * @param path     file path (as recorded in the WFP)
+     * @param bytes    number of bytes read
+     * @param wfpBytes size of the generated WFP (in characters)
+     * @param nanos    time taken to fingerprint the file
+     * @param cpuNanos CPU time used by the fingerprinting thread (-1 if not available)
+     */
+    default void fileFingerprinted(String path, long bytes, long wfpBytes, long nanos, long cpuNanos) {
+    }
+
+    /**
+     * Processing a file failed
+     *
+     * @param path  file path
+     * @param error cause of the failure
+     */
+    default void fileFailed(String path, Throwable error) {
+    }
+
+    /**
+     * Multiple file fingerprints were packed into a single scan request
+     *
+     * @param files    number of files in the batch
+     * @param wfpBytes size of the batch WFP (in characters)
+     */
+    default void batchCreated(int files, long wfpBytes) {
+    }
+
+    /**
+     * A scan request is being retried
+     *
+     * @param retry retry number (starting at 1)
+     */
+    default void requestRetried(int retry) {
+    }
+
+    /**
+     * A scan request completed (successfully or not)
+     *
+     * @param wfpBytes size of the WFP sent (in characters)
+     * @param nanos    time taken by the request (including retries)
+     * @param success  <code>true</code> if results were received
+     */
+    default void requestCompleted(long wfpBytes, long nanos, boolean success) {
+    }
+
+    /**
+     * Scan results were post-processed
+     *
+     * @param results number of results
+     * @param nanos   time taken to post-process the results
+     */
+    default void resultsPostProcessed(int results, long nanos) {
+    }
+}
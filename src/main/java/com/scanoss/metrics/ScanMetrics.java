@@ -0,0 +1,365 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.scanoss.ScanossConstants.*;
+
+/**
+ * SCANOSS Scan Metrics Class
+ * <p>
+ * {@link ScanListener} keeping counters and latency histograms of a scan. Counters are striped
+ * ({@link LongAdder}) and histograms lock-free ({@link LatencyHistogram}), so recording from many worker threads
+ * does not contend. Values can be read at any time, i.e. while the scan is still running.
+ * </p>
+ * <p>
+ * Heap usage is sampled on the coarse grained events (walks, batches, requests, post-processing and large files),
+ * keeping the highest value seen.
+ * </p>
+ */
+public class ScanMetrics implements ScanListener {
+    /** Filter reason: hidden file/folder */
+    public static final String FILTER_HIDDEN = "hidden";
+    /** Filter reason: skipped file extension */
+    public static final String FILTER_EXTENSION = "extension";
+    /** Filter reason: skipped file name */
+    public static final String FILTER_FILE_NAME = "file_name";
+    /** Filter reason: skipped folder name */
+    public static final String FILTER_FOLDER_NAME = "folder_name";
+    /** Filter reason: skipped folder extension */
+    public static final String FILTER_FOLDER_EXTENSION = "folder_extension";
+    /** Filter reason: anything else (scanoss.json skip patterns, .gitignore patterns, custom filters) */
+    public static final String FILTER_PATTERN = "pattern";
+
+    private static final long LARGE_FILE_BYTES = 1024 * 1024; // Sample the heap after fingerprinting files this large
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final LongAccumulator peakHeapUsed = new LongAccumulator(Math::max, 0);
+    private final LongAdder walks = new LongAdder();
+    private final LongAdder walkNanos = new LongAdder();
+    private final LongAdder filesDiscovered = new LongAdder();
+    private final LongAdder filesFiltered = new LongAdder();
+    private final LongAdder foldersFiltered = new LongAdder();
+    private final LongAdder filesFingerprinted = new LongAdder();
+    private final LongAdder filesFailed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requestsPosted = new LongAdder();
+    private final LongAdder requestsRetried = new LongAdder();
+    private final LongAdder requestsFailed = new LongAdder();
+    private final LongAdder resultsPostProcessed = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder fingerprintCpuNanos = new LongAdder();
+    private final LongAdder wfpBytesSent = new LongAdder();
+    private final Map<String, LongAdder> filterReasons = new ConcurrentHashMap<>();
+    private final LatencyHistogram typeDetectionLatency = new LatencyHistogram();
+    private final LatencyHistogram fingerprintLatency = new LatencyHistogram();
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private final LatencyHistogram postProcessingLatency = new LatencyHistogram();
+
+    @Override
+    public void fileDiscovered(String path, long size) {
+        filesDiscovered.increment();
+    }
+
+    @Override
+    public void walkCompleted(long files, long nanos) {
+        walks.increment();
+        walkNanos.add(nanos);
+        sampleHeap();
+    }
+
+    @Override
+    public void fileFiltered(Path path, boolean folder) {
+        (folder ? foldersFiltered : filesFiltered).increment();
+        filterReasons.computeIfAbsent(filterReason(path, folder), reason -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void typeDetected(String path, long nanos) {
+        typeDetectionLatency.record(nanos);
+    }
+
+    @Override
+    public void fileFingerprinted(String path, long bytes, long wfpBytes, long nanos, long cpuNanos) {
+        filesFingerprinted.increment();
+        bytesRead.add(bytes);
+        fingerprintCpuNanos.add(cpuNanos >= 0 ? cpuNanos : nanos);
+        fingerprintLatency.record(nanos);
+        if (bytes >= LARGE_FILE_BYTES) {
+            sampleHeap();
+        }
+    }
+
+    @Override
+    public void fileFailed(String path, Throwable error) {
+        filesFailed.increment();
+    }
+
+    @Override
+    public void batchCreated(int files, long wfpBytes) {
+        batches.increment();
+        batchSizes.record(files);
+        sampleHeap();
+    }
+
+    @Override
+    public void requestRetried(int retry) {
+        requestsRetried.increment();
+    }
+
+    @Override
+    public void requestCompleted(long wfpBytes, long nanos, boolean success) {
+        requestsPosted.increment();
+        wfpBytesSent.add(wfpBytes);
+        requestLatency.record(nanos);
+        if (!success) {
+            requestsFailed.increment();
+        }
+        sampleHeap();
+    }
+
+    @Override
+    public void resultsPostProcessed(int results, long nanos) {
+        resultsPostProcessed.add(results);
+        postProcessingLatency.record(nanos);
+        sampleHeap();
+    }
+
+    /**
+     * Sample the heap usage now, keeping it if it is the highest seen so far
+     *
+     * @return highest heap usage sampled (bytes)
+     */
+    public long sampleHeap() {
+        peakHeapUsed.accumulate(memoryMXBean.getHeapMemoryUsage().getUsed());
+        return peakHeapUsed.get();
+    }
+
+    /**
+     * @return highest heap usage sampled so far (bytes)
+     */
+    public long getPeakHeapUsed() {
+        return peakHeapUsed.get();
+    }
+
+    /**
+     * @return number of folder/source walks completed
+     */
+    public long getWalks() {
+        return walks.sum();
+    }
+
+    /**
+     * @return total time spent walking folders/sources (nanoseconds)
+     */
+    public long getWalkNanos() {
+        return walkNanos.sum();
+    }
+
+    /**
+     * @return number of files queued for processing
+     */
+    public long getFilesDiscovered() {
+        return filesDiscovered.sum();
+    }
+
+    /**
+     * @return number of files skipped by the file filter
+     */
+    public long getFilesFiltered() {
+        return filesFiltered.sum();
+    }
+
+    /**
+     * @return number of folders skipped by the folder filter
+     */
+    public long getFoldersFiltered() {
+        return foldersFiltered.sum();
+    }
+
+    /**
+     * Get the number of skipped files/folders, per filter reason
+     *
+     * @return sorted map of filter reason (see <code>FILTER_*</code>) to number of skipped files/folders
+     */
+    public Map<String, Long> getFilterReasons() {
+        Map<String, Long> reasons = new TreeMap<>();
+        filterReasons.forEach((reason, count) -> reasons.put(reason, count.sum()));
+        return reasons;
+    }
+
+    /**
+     * @return number of files fingerprinted
+     */
+    public long getFilesFingerprinted() {
+        return filesFingerprinted.sum();
+    }
+
+    /**
+     * @return number of files which failed to process
+     */
+    public long getFilesFailed() {
+        return filesFailed.sum();
+    }
+
+    /**
+     * @return number of WFP batches created
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return number of scan requests posted (excluding retries)
+     */
+    public long getRequestsPosted() {
+        return requestsPosted.sum();
+    }
+
+    /**
+     * @return number of scan request retries
+     */
+    public long getRequestsRetried() {
+        return requestsRetried.sum();
+    }
+
+    /**
+     * @return number of scan requests which returned no results
+     */
+    public long getRequestsFailed() {
+        return requestsFailed.sum();
+    }
+
+    /**
+     * @return number of results post-processed
+     */
+    public long getResultsPostProcessed() {
+        return resultsPostProcessed.sum();
+    }
+
+    /**
+     * @return number of bytes read for fingerprinting
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * @return CPU time used fingerprinting files, summed over all threads (nanoseconds - elapsed time if the JVM
+     * does not support thread CPU time)
+     */
+    public long getFingerprintCpuNanos() {
+        return fingerprintCpuNanos.sum();
+    }
+
+    /**
+     * @return number of WFP characters sent to the API
+     */
+    public long getWfpBytesSent() {
+        return wfpBytesSent.sum();
+    }
+
+    /**
+     * @return media type detection times (nanoseconds)
+     */
+    public LatencyHistogram getTypeDetectionLatency() {
+        return typeDetectionLatency;
+    }
+
+    /**
+     * @return file fingerprinting times (nanoseconds)
+     */
+    public LatencyHistogram getFingerprintLatency() {
+        return fingerprintLatency;
+    }
+
+    /**
+     * @return number of files per WFP batch
+     */
+    public LatencyHistogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * @return scan request times, including retries (nanoseconds)
+     */
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * @return post-processing times (nanoseconds)
+     */
+    public LatencyHistogram getPostProcessingLatency() {
+        return postProcessingLatency;
+    }
+
+    /**
+     * Classify a skipped path by the default filter rule it matches
+     * <p>
+     * The file/folder filters only say whether a path is skipped, so the reason is derived from the default SCANOSS
+     * rules. Paths not matching any of them were skipped by a pattern (scanoss.json, .gitignore) or custom filter.
+     * </p>
+     *
+     * @param path   skipped path
+     * @param folder <code>true</code> if the path is a folder
+     * @return filter reason (one of the <code>FILTER_*</code> constants)
+     */
+    public static String filterReason(Path path, boolean folder) {
+        Path fileName = path.getFileName();
+        if (fileName == null) {
+            return FILTER_PATTERN;
+        }
+        String name = fileName.toString();
+        if (name.startsWith(".") && !name.equals(".")) {
+            return FILTER_HIDDEN;
+        }
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        if (folder) {
+            if (FILTERED_DIRS.contains(lowerName)) {
+                return FILTER_FOLDER_NAME;
+            }
+            if (FILTERED_DIR_EXT.stream().anyMatch(lowerName::endsWith)) {
+                return FILTER_FOLDER_EXTENSION;
+            }
+        } else {
+            if (FILTERED_FILES.contains(lowerName)) {
+                return FILTER_FILE_NAME;
+            }
+            if (FILTERED_EXTENSIONS.stream().anyMatch(lowerName::endsWith)) {
+                return FILTER_EXTENSION;
+            }
+        }
+        return FILTER_PATTERN;
+    }
+}
@@ -0,0 +1,99 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import com.scanoss.utils.WinnowingUtils;
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each scan request posted by {@link com.scanoss.rest.ScanApi}
+ * <p>
+ * The event duration is the request latency, including any retries.
+ * </p>
+ */
+@Name("com.scanoss.ScanRequest")
+@Label("Scan Request")
+@Category({"SCANOSS", "Network"})
+@Description("Scan request (WFP batch) posted to the SCANOSS API")
+@StackTrace(false)
+public final class ScanRequestEvent extends Event {
+    @Label("Request ID")
+    private String requestId;
+
+    @Label("Batch Size")
+    @Description("Number of files in the WFP batch")
+    private int files;
+
+    @Label("Bytes")
+    @Description("Size of the WFP batch")
+    @DataAmount
+    private long bytes;
+
+    @Label("Status")
+    @Description("HTTP status code (0 if no response was received)")
+    private int status;
+
+    @Label("Retries")
+    private int retries;
+
+    /**
+     * Set the ID of the request
+     *
+     * @param requestId request ID (x-request-id header)
+     */
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    /**
+     * Set the HTTP status of the (last) response
+     *
+     * @param status HTTP status code
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Set the number of retries taken
+     *
+     * @param retries number of retries
+     */
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * Complete the event and commit it, if enabled
+     *
+     * @param wfp WFP batch posted
+     */
+    public void record(String wfp) {
+        end();
+        if (shouldCommit()) {
+            this.files = WinnowingUtils.extractFilePathsFromWFPBlock(wfp).size();
+            this.bytes = wfp.length();
+            commit();
+        }
+    }
+}
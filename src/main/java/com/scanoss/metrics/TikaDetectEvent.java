@@ -0,0 +1,64 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each Tika media type detection (text/binary classification) of a file
+ */
+@Name("com.scanoss.TikaDetect")
+@Label("Tika Detect")
+@Category({"SCANOSS", "Fingerprinting"})
+@Description("Media type detection of a file with Apache Tika")
+@StackTrace(false)
+public final class TikaDetectEvent extends Event {
+    @Label("Path Hash")
+    @Description("MD5 of the file path")
+    private String pathHash;
+
+    @Label("Bytes")
+    @Description("Size of the inspected contents (-1 if read from disk by Tika)")
+    @DataAmount
+    private long bytes;
+
+    @Label("Media Type")
+    private String mediaType;
+
+    /**
+     * Complete the event and commit it, if enabled
+     *
+     * @param path      file path
+     * @param bytes     size of the inspected contents (-1 if unknown)
+     * @param mediaType detected media type (<code>null</code> if detection failed)
+     */
+    public void record(String path, long bytes, String mediaType) {
+        end();
+        if (shouldCommit()) {
+            this.pathHash = EventPaths.hash(path);
+            this.bytes = bytes;
+            this.mediaType = mediaType;
+            commit();
+        }
+    }
+}
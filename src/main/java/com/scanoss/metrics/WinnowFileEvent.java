@@ -0,0 +1,68 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each file fingerprinted by {@link com.scanoss.Winnowing}
+ * <p>
+ * Like all SCANOSS events, it is only recorded while a flight recording is running (i.e. started with
+ * <code>-XX:StartFlightRecording</code> or <code>jcmd JFR.start</code>), and costs next to nothing otherwise.
+ * </p>
+ */
+@Name("com.scanoss.WinnowFile")
+@Label("Winnow File")
+@Category({"SCANOSS", "Fingerprinting"})
+@Description("Fingerprinting (WFP generation) of a single file")
+@StackTrace(false)
+public final class WinnowFileEvent extends Event {
+    @Label("Path Hash")
+    @Description("MD5 of the file path recorded in the WFP")
+    private String pathHash;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Snippets")
+    @Description("Number of snippet hashes generated")
+    private int snippets;
+
+    /**
+     * Complete the event and commit it, if enabled
+     *
+     * @param path     file path
+     * @param bytes    file size in bytes
+     * @param snippets number of snippet hashes generated
+     */
+    public void record(String path, long bytes, int snippets) {
+        end();
+        if (shouldCommit()) {
+            this.pathHash = EventPaths.hash(path);
+            this.bytes = bytes;
+            this.snippets = snippets;
+            commit();
+        }
+    }
+}
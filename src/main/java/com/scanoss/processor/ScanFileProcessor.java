@@ -26,8 +26,17 @@ import com.scanoss.Winnowing;
 import com.scanoss.exceptions.ScanApiException;
 import com.scanoss.exceptions.WinnowingException;
 import com.scanoss.rest.ScanApi;
+import com.scanoss.sources.ArchiveSource;
+import com.scanoss.utils.JsonUtils;
+import com.scanoss.utils.WfpBatcher;
 import lombok.Builder;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.scanoss.ScanossConstants.MAX_WFP_BATCH_SIZE;
+
 /**
  * SCANOSS File Scan Process Implementation
  * <p>
@@ -40,18 +49,36 @@ public class ScanFileProcessor implements FileProcessor {
     private final ScanApi scanApi = ScanApi.builder().build();
     @Builder.Default
     private final Winnowing winnowing = Winnowing.builder().build();
+    private final ArchiveSource archiveSource; // Scan archive entries (optional - archives are opaque files if not set)
 
     /**
      * Scan the given file and return results
+     * <p>
+     * If an archive source is configured, the entries of supported archives are scanned too, and returned in the
+     * same result. Entry WFPs are posted in batches as soon as they fill up, so only one batch is held at a time.
+     * </p>
      *
      * @param file   File to scan
      * @param folder root folder of the file to scan
      * @return Scan result
-     * @throws WinnowingException if something went wrong while fingerprinting
+     * @throws WinnowingException if something went wrong while fingerprinting (or reading an archive)
      * @throws ScanApiException   if something went wrong with the scan API
      */
     @Override
     public String process(String file, String folder) throws WinnowingException, ScanApiException {
-        return scanApi.scan(winnowing.wfpForFile(file, folder), "", 1);
+        String wfp = winnowing.wfpForFile(file, folder);
+        if (archiveSource == null || !ArchiveSource.isArchive(file)) {
+            return scanApi.scan(wfp, "", 1);
+        }
+        List<String> results = new ArrayList<>();
+        WfpBatcher batcher = new WfpBatcher(MAX_WFP_BATCH_SIZE, batch -> results.add(scanApi.scan(batch, "", 1)));
+        try {
+            batcher.add(wfp);
+            archiveSource.walk(file, folder, (path, contents) -> batcher.add(winnowing.wfpForContents(path, contents)));
+            batcher.flush();
+        } catch (IOException e) {
+            throw new WinnowingException(String.format("Problem reading archive %s", file), e);
+        }
+        return results.size() == 1 ? results.get(0) : JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).toString();
     }
 }
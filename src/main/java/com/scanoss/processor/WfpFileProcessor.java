@@ -24,7 +24,14 @@ package com.scanoss.processor;
 
 import com.scanoss.Winnowing;
 import com.scanoss.exceptions.WinnowingException;
+import com.scanoss.sources.ArchiveSource;
+import com.scanoss.utils.WfpBatcher;
 import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.IOException;
+
+import static com.scanoss.ScanossConstants.MAX_WFP_BATCH_SIZE;
 
 /**
  * SCANOSS File WFP Processor Implementation
@@ -37,17 +44,50 @@ public class WfpFileProcessor implements FileProcessor {
 
     @Builder.Default
     private final Winnowing winnowing = Winnowing.builder().build();
+    private final ArchiveSource archiveSource; // Fingerprint archive entries (optional - archives are opaque files if not set)
 
     /**
      * Fingerprint the given file and return the results
+     * <p>
+     * If an archive source is configured, the entries of supported archives are fingerprinted too.
+     * </p>
      *
      * @param file   File to scan
      * @param folder root folder of the file to scan
      * @return WFP
-     * @throws WinnowingException if something went wrong while fingerprinting
+     * @throws WinnowingException if something went wrong while fingerprinting (or reading an archive)
      */
     @Override
     public String process(String file, String folder) throws WinnowingException {
-        return winnowing.wfpForFile(file, folder);
+        StringBuilder wfp = new StringBuilder();
+        process(file, folder, wfp::append);
+        return wfp.toString();
+    }
+
+    /**
+     * Fingerprint the given file, passing the WFP on in batches
+     * <p>
+     * If an archive source is configured, the entries of supported archives are fingerprinted too, and passed on as
+     * soon as a batch of {@link com.scanoss.ScanossConstants#MAX_WFP_BATCH_SIZE} fills up. Other files are passed on
+     * in a single batch.
+     * </p>
+     *
+     * @param file     File to scan
+     * @param folder   root folder of the file to scan
+     * @param consumer action to take on each WFP batch
+     * @throws WinnowingException if something went wrong while fingerprinting (or reading an archive)
+     */
+    public void process(String file, String folder, @NonNull WfpBatcher.BatchConsumer consumer) throws WinnowingException {
+        String wfp = winnowing.wfpForFile(file, folder);
+        WfpBatcher batcher = new WfpBatcher(MAX_WFP_BATCH_SIZE, consumer);
+        try {
+            batcher.add(wfp);
+            if (archiveSource != null && ArchiveSource.isArchive(file)) {
+                archiveSource.walk(file, folder, (path, contents) -> batcher.add(winnowing.wfpForContents(path, contents)));
+            }
+            batcher.flush();
+        } catch (IOException e) {
+            throw new WinnowingException(String.format("Problem fingerprinting %s", file), e);
+        }
     }
 }
@@ -22,13 +22,21 @@
  */
 package com.scanoss.rest;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.scanoss.dto.SbomLegacy;
 import com.scanoss.exceptions.ScanApiException;
+import com.scanoss.metrics.EventSupport;
+import com.scanoss.metrics.ScanListener;
+import com.scanoss.metrics.ScanRequestEvent;
 import com.scanoss.settings.Rule;
 import com.scanoss.settings.FileSnippet;
 import com.scanoss.settings.ScanossSettings;
 import com.scanoss.utils.JsonUtils;
 import com.scanoss.utils.PackageDetails;
+import com.scanoss.utils.WinnowingUtils;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -68,18 +76,23 @@ public class ScanApi {
     private String flags; // SCANOSS Premium scanning flags
     private String sbomType; // SBOM type (identify/ignore)
     private String sbom;  // SBOM to supply while scanning
-    private OkHttpClient okHttpClient; // okhttp3 client
+    private volatile OkHttpClient okHttpClient; // okhttp3 client (built on first use, unless supplied)
     private Map<String, String> headers; // custom REST client headers
     private String customCert; // Custom certificate
     private Proxy proxy; // Proxy configuration
     private String baseUrl; // SCANOSS base API URI (to used instead of url)
     private ScanossSettings settings;
+    private ScanResultCache resultCache; // Local scan result cache (optional)
+    private ScanListener listener; // Receives an event for each request/retry (optional)
     @SuppressWarnings("unused")
     private ScanApi(String scanType, Duration timeout, Integer retryLimit, String url, String apiKey, String flags,
                     String sbomType, String sbom,
                     OkHttpClient okHttpClient, Map<String, String> headers, String customCert,
-                    Proxy proxy, String baseUrl, ScanossSettings settings) {
+                    Proxy proxy, String baseUrl, ScanossSettings settings, ScanResultCache resultCache,
+                    ScanListener listener) {
         this.settings = settings;
+        this.resultCache = resultCache;
+        this.listener = listener != null ? listener : ScanListener.NONE;
         this.scanType = scanType;
         this.timeout = timeout;
         this.retryLimit = retryLimit;
@@ -97,24 +110,7 @@ public class ScanApi {
         } else if (url == null || url.isEmpty()) {
             this.url = DEFAULT_SCAN_URL;  // Default free SCANOSS endpoint
         }
-        if (okHttpClient == null) {
-            OkHttpClient.Builder okBuilder = new OkHttpClient.Builder();
-            okBuilder.callTimeout(this.timeout);  // Set default timeout
-            // Build the HTTP client with a custom certificate (ignoring hostname verification)
-            if (customCert != null && ! customCert.isEmpty()) {
-                HandshakeCertificates certificates = new HandshakeCertificates.Builder()
-                        .addTrustedCertificate(Certificates.decodeCertificatePem(customCert))
-                        .build();
-                okBuilder.hostnameVerifier((hostname, session) -> true);
-                okBuilder.sslSocketFactory(certificates.sslSocketFactory(), certificates.trustManager());
-            }
-            if (proxy != null) {
-                okBuilder.proxy(proxy);
-            }
-            this.okHttpClient = okBuilder.build();
-        } else {
-            this.okHttpClient = okHttpClient;
-        }
+        this.okHttpClient = okHttpClient;
         this.headers = Objects.requireNonNullElseGet(headers, () -> new HashMap<>(2));
         // Add the user agent to the headers if it's not already there
         if (!this.headers.containsKey("user-agent")) {
@@ -130,6 +126,51 @@ public class ScanApi {
         }
     }
 
+    /**
+     * Get the HTTP client, building it on first use
+     * <p>
+     * Building the client (TLS setup and custom certificate parsing) is deferred until the first request,
+     * so scanners that only fingerprint never pay for it.
+     * </p>
+     *
+     * @return okhttp3 client
+     */
+    public OkHttpClient getOkHttpClient() {
+        OkHttpClient client = okHttpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = okHttpClient;
+                if (client == null) {
+                    client = buildHttpClient();
+                    okHttpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Build the HTTP client with the configured timeout, custom certificate and proxy
+     *
+     * @return okhttp3 client
+     */
+    private OkHttpClient buildHttpClient() {
+        OkHttpClient.Builder okBuilder = new OkHttpClient.Builder();
+        okBuilder.callTimeout(this.timeout);  // Set default timeout
+        // Build the HTTP client with a custom certificate (ignoring hostname verification)
+        if (customCert != null && ! customCert.isEmpty()) {
+            HandshakeCertificates certificates = new HandshakeCertificates.Builder()
+                    .addTrustedCertificate(Certificates.decodeCertificatePem(customCert))
+                    .build();
+            okBuilder.hostnameVerifier((hostname, session) -> true);
+            okBuilder.sslSocketFactory(certificates.sslSocketFactory(), certificates.trustManager());
+        }
+        if (proxy != null) {
+            okBuilder.proxy(proxy);
+        }
+        return okBuilder.build();
+    }
+
     /**
      * Resolve the API key for Scanoss API
      *
@@ -165,15 +206,72 @@ public class ScanApi {
         if (wfp == null || wfp.isEmpty()) {
             throw new ScanApiException("No WFP specified. Cannot scan.");
         }
-        String uuid = UUID.randomUUID().toString();
-        // Copy & setup headers
-        Map<String, String> postHeaders = new HashMap<>(this.headers.size() + 2);
-        postHeaders.putAll(this.headers);
-        postHeaders.put("x-request-id", uuid);
-        postHeaders.put("Accept", "application/json");
-        // Setup multipart data to post
-        Map<String, String> data = new HashMap<>(1);
-        data.put("file", wfp);
+        if (resultCache != null) {
+            return scanCached(wfp, context, scanID);
+        }
+        return post(wfp, context, scanID);
+    }
+
+    /**
+     * Scan the given WFP, only sending the files not found in the local result cache
+     *
+     * @param wfp     Fingerprint to scan
+     * @param context Context for the scan (optional)
+     * @param scanID  ID of the requesting scanner (usually thread ID)
+     * @return Scan results (in JSON format)
+     * @throws ScanApiException Scanning went wrong
+     */
+    private String scanCached(String wfp, String context, int scanID) throws ScanApiException {
+        Map<String, String> requestData = requestData(context);
+        String requestContext = String.join("\n", url, String.valueOf(new TreeMap<>(requestData)),
+                Objects.requireNonNullElse(scanSettingsHeader(), ""));
+        JsonObject results = new JsonObject();
+        StringBuilder misses = new StringBuilder();
+        Map<String, String> missKeys = new HashMap<>();
+        for (String block : WinnowingUtils.splitWFPBlock(wfp, 0)) {
+            String path = WinnowingUtils.extractFilePathFromWFPBlock(block);
+            String key = ScanResultCache.key(requestContext, block);
+            String cached = path != null ? resultCache.get(key) : null;
+            if (cached != null) {
+                results.add(path, JsonParser.parseString(cached));
+            } else {
+                misses.append(block);
+                if (path != null) {
+                    missKeys.put(path, key);
+                }
+            }
+        }
+        log.debug("Result cache for {}: {} hits, {} misses", scanID, results.size(), missKeys.size());
+        if (misses.length() == 0) {
+            return results.toString();
+        }
+        String response = post(misses.toString(), context, scanID);
+        if (response == null) {
+            return null;
+        }
+        try {
+            for (Map.Entry<String, JsonElement> entry : JsonUtils.toJsonObject(response).entrySet()) {
+                results.add(entry.getKey(), entry.getValue());
+                String key = missKeys.get(entry.getKey());
+                if (key != null) {
+                    resultCache.put(key, entry.getValue().toString());
+                }
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            log.warn("Unable to cache unexpected scan response for {}: {}", scanID, e.getLocalizedMessage());
+            return response;
+        }
+        return results.toString();
+    }
+
+    /**
+     * Build the (non WFP) form data to post with a scan request
+     *
+     * @param context Context for the scan (optional)
+     * @return form data
+     */
+    private Map<String, String> requestData(String context) {
+        Map<String, String> data = new HashMap<>(4);
         if (context != null && !context.isEmpty()) {
             data.put("context", context);
         }
@@ -201,6 +299,63 @@ public class ScanApi {
             data.put("assets", JsonUtils.toJson(legacyInclude));
             data.put("type", "identify");
         }
+        return data;
+    }
+
+    /**
+     * Post the given WFP to the scanning API
+     *
+     * @param wfp     Fingerprint to scan
+     * @param context Context for the scan (optional)
+     * @param scanID  ID of the requesting scanner (usually thread ID)
+     * @return Scan results (in JSON format)
+     * @throws ScanApiException Scanning went wrong
+     */
+    private String post(String wfp, String context, int scanID) throws ScanApiException {
+        ScanRequestEvent event = null;
+        if (EventSupport.enabled()) {
+            event = new ScanRequestEvent();
+            event.begin();
+        }
+        boolean timed = listener != ScanListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        String result = null;
+        try {
+            result = postRequest(wfp, context, scanID, event);
+            return result;
+        } finally {
+            if (event != null) {
+                event.record(wfp);
+            }
+            if (timed) {
+                listener.requestCompleted(wfp.length(), System.nanoTime() - start, result != null);
+            }
+        }
+    }
+
+    /**
+     * Build the scan request for the given WFP and post it, retrying on timeouts
+     *
+     * @param wfp     Fingerprint to scan
+     * @param context Context for the scan (optional)
+     * @param scanID  ID of the requesting scanner (usually thread ID)
+     * @param event   JFR event to record the request ID, status and retries on (<code>null</code> if events are disabled)
+     * @return Scan results (in JSON format)
+     * @throws ScanApiException Scanning went wrong
+     */
+    private String postRequest(String wfp, String context, int scanID, ScanRequestEvent event) throws ScanApiException {
+        String uuid = UUID.randomUUID().toString();
+        if (event != null) {
+            event.setRequestId(uuid);
+        }
+        // Copy & setup headers
+        Map<String, String> postHeaders = new HashMap<>(this.headers.size() + 2);
+        postHeaders.putAll(this.headers);
+        postHeaders.put("x-request-id", uuid);
+        postHeaders.put("Accept", "application/json");
+        // Setup multipart data to post
+        Map<String, String> data = requestData(context);
+        data.put("file", wfp);
 
         this.addScanSettingsHeader(headers);
 
@@ -220,9 +375,16 @@ public class ScanApi {
             try {
                 if (retry > 0) {
                     log.debug("Connection timeout {} (retry {}) for {}. Sleeping, then trying again...", timeout.getSeconds(), retry, uuid);
+                    listener.requestRetried(retry);
+                    if (event != null) {
+                        event.setRetries(retry);
+                    }
                     TimeUnit.SECONDS.sleep(RETRY_FAIL_SLEEP_TIME); // Sleep ? seconds before trying again
                 }
-                response = okHttpClient.newCall(request).execute();
+                response = getOkHttpClient().newCall(request).execute();
+                if (event != null) {
+                    event.setStatus(response.code());
+                }
                 if (response.isSuccessful()) {
                     body = response.body();
                     if (body == null) {
@@ -265,8 +427,20 @@ public class ScanApi {
      * @param headers map to add the scanoss-settings header to
      */
     private void addScanSettingsHeader(Map<String, String> headers) {
+        String encoded = scanSettingsHeader();
+        if (encoded != null) {
+            headers.put("scanoss-settings", encoded);
+        }
+    }
+
+    /**
+     * Build the base64-encoded JSON scan configuration header value
+     *
+     * @return header value, or <code>null</code> if there are no scan configuration parameters
+     */
+    private String scanSettingsHeader() {
         if (this.settings == null || this.settings.getSettings().getFileSnippet() == null) {
-            return;
+            return null;
         }
         FileSnippet fileSnippet = this.settings.getSettings().getFileSnippet();
         Map<String, Object> settingsMap = new LinkedHashMap<>();
@@ -285,12 +459,12 @@ public class ScanApi {
         if (fileSnippet.isRankingThresholdSet()) {
             settingsMap.put("ranking_threshold", fileSnippet.getRankingThreshold());
         }
-        if (!settingsMap.isEmpty()) {
-            String json = JsonUtils.toJson(settingsMap);
-            log.debug("scanoss settings: {}", json);
-            String encoded = Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
-            headers.put("scanoss-settings", encoded);
+        if (settingsMap.isEmpty()) {
+            return null;
         }
+        String json = JsonUtils.toJson(settingsMap);
+        log.debug("scanoss settings: {}", json);
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
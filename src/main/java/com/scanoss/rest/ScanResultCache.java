@@ -0,0 +1,323 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.rest;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static com.scanoss.ScanossConstants.DEFAULT_CACHE_MAX_SIZE_MB;
+import static com.scanoss.ScanossConstants.DEFAULT_CACHE_TTL_HOURS;
+
+/**
+ * SCANOSS Scan Result Cache Class
+ * <p>
+ * Optional on-disk cache of per-file scan results, keyed by a hash of the file WFP block and the request context
+ * (URL, flags, settings and SBOM). Entries expire after a time-to-live, and the least recently used entries are
+ * evicted once the cache grows beyond its size limit.
+ * </p>
+ * <p>
+ * Entries are written to a temporary file and atomically moved into place, so the cache can be shared by
+ * concurrent workers (and processes) safely.
+ * </p>
+ */
+@Slf4j
+public class ScanResultCache {
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final double EVICT_TARGET = 0.9; // Fraction of the size limit to evict down to
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxSize;
+    private final Map<String, CacheEntry> index = new ConcurrentHashMap<>();
+    private final AtomicLong totalSize = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong(); // Logical clock ordering entry accesses (for LRU eviction)
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Open (or create) the result cache in the given folder
+     *
+     * @param directory folder to store the cache entries in
+     * @param ttl       time to live for each entry (optional - default {@value com.scanoss.ScanossConstants#DEFAULT_CACHE_TTL_HOURS} hours)
+     * @param maxSize   maximum total size of the entries in bytes (optional - default {@value com.scanoss.ScanossConstants#DEFAULT_CACHE_MAX_SIZE_MB} MB)
+     * @throws IOException if the cache folder could not be created or read
+     */
+    @Builder
+    private ScanResultCache(@NonNull Path directory, Duration ttl, Long maxSize) throws IOException {
+        this.directory = directory;
+        this.ttl = ttl != null ? ttl : Duration.ofHours(DEFAULT_CACHE_TTL_HOURS);
+        this.maxSize = maxSize != null ? maxSize : DEFAULT_CACHE_MAX_SIZE_MB * 1024L * 1024L;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    /**
+     * Calculate the cache key for the given parts (i.e. request context and WFP block)
+     *
+     * @param parts key parts
+     * @return SHA-256 hex key
+     */
+    public static String key(@NonNull String... parts) {
+        return DigestUtils.sha256Hex(String.join("\0", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the cached result for the given key
+     *
+     * @param key cache key
+     * @return cached result, or <code>null</code> if not cached (or expired)
+     */
+    public String get(@NonNull String key) {
+        CacheEntry entry = index.get(key);
+        Path file = entryPath(key);
+        if (entry == null) {
+            entry = adopt(key, file);  // may have been written by another process sharing the cache
+        }
+        if (entry != null) {
+            try {
+                if (isExpired(Files.getLastModifiedTime(file))) {
+                    remove(key, entry);
+                } else {
+                    String value = Files.readString(file, StandardCharsets.UTF_8);
+                    entry.lastAccess = clock.incrementAndGet();
+                    hits.increment();
+                    return value;
+                }
+            } catch (IOException e) {
+                log.debug("Dropping unreadable cache entry {}: {}", key, e.getLocalizedMessage());
+                remove(key, entry);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store the given result in the cache
+     * <p>
+     * Failures to write are logged and otherwise ignored, as the cache is only an optimisation.
+     * </p>
+     *
+     * @param key   cache key
+     * @param value result to store
+     */
+    public void put(@NonNull String key, @NonNull String value) {
+        Path file = entryPath(key);
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, data);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write cache entry {}: {}", key, e.getLocalizedMessage());
+            return;
+        }
+        CacheEntry previous = index.put(key, new CacheEntry(data.length, clock.incrementAndGet()));
+        totalSize.addAndGet(data.length - (previous != null ? previous.size : 0));
+        if (totalSize.get() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Number of cache hits since the cache was opened
+     *
+     * @return hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of cache misses since the cache was opened
+     *
+     * @return miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of entries evicted (size limit) since the cache was opened
+     *
+     * @return eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of entries currently in the cache
+     *
+     * @return entry count
+     */
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    /**
+     * Total size of the entries currently in the cache
+     *
+     * @return size in bytes
+     */
+    public long getSize() {
+        return totalSize.get();
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is back under its size limit
+     */
+    private synchronized void evict() {
+        if (totalSize.get() <= maxSize) {
+            return;  // another thread already evicted
+        }
+        long target = (long) (maxSize * EVICT_TARGET);
+        List<Map.Entry<String, CacheEntry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (Map.Entry<String, CacheEntry> entry : entries) {
+            if (totalSize.get() <= target) {
+                break;
+            }
+            remove(entry.getKey(), entry.getValue());
+            evictions.increment();
+        }
+        log.debug("Evicted cache entries down to {} bytes ({} entries)", totalSize.get(), index.size());
+    }
+
+    /**
+     * Remove the given entry from the index and disk
+     *
+     * @param key   cache key
+     * @param entry entry to remove (ignored if it has been replaced in the meantime)
+     */
+    private void remove(String key, CacheEntry entry) {
+        if (index.remove(key, entry)) {
+            totalSize.addAndGet(-entry.size);
+            try {
+                Files.deleteIfExists(entryPath(key));
+            } catch (IOException e) {
+                log.debug("Failed to delete cache entry {}: {}", key, e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Add an entry written by another process to the index
+     *
+     * @param key  cache key
+     * @param file entry file
+     * @return indexed entry, or <code>null</code> if there is no such file
+     */
+    private CacheEntry adopt(String key, Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            CacheEntry entry = new CacheEntry(attrs.size(), clock.incrementAndGet());
+            if (index.putIfAbsent(key, entry) == null) {
+                totalSize.addAndGet(attrs.size());
+                return entry;
+            }
+            return index.get(key);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Load the existing entries from disk, dropping the expired ones
+     *
+     * @throws IOException if the cache folder could not be read
+     */
+    private void loadIndex() throws IOException {
+        Map<String, BasicFileAttributes> found = new HashMap<>();
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(f -> f.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(f -> {
+                String name = f.getFileName().toString();
+                String key = name.substring(0, name.length() - ENTRY_SUFFIX.length());
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(f, BasicFileAttributes.class);
+                    if (isExpired(attrs.lastModifiedTime())) {
+                        Files.deleteIfExists(f);
+                    } else {
+                        found.put(key, attrs);
+                    }
+                } catch (IOException e) {
+                    log.debug("Skipping cache entry {}: {}", f, e.getLocalizedMessage());
+                }
+            });
+        }
+        // Oldest entries first, so they are the first to be evicted
+        found.entrySet().stream().sorted(Comparator.comparing(e -> e.getValue().lastModifiedTime())).forEach(e -> {
+            index.put(e.getKey(), new CacheEntry(e.getValue().size(), clock.incrementAndGet()));
+            totalSize.addAndGet(e.getValue().size());
+        });
+        log.debug("Loaded {} cache entries ({} bytes) from {}", index.size(), totalSize.get(), directory);
+        if (totalSize.get() > maxSize) {
+            evict();
+        }
+    }
+
+    private boolean isExpired(FileTime written) {
+        return written.toMillis() + ttl.toMillis() <= System.currentTimeMillis();
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Index details of a cached entry
+     */
+    private static class CacheEntry {
+        final long size;
+        volatile long lastAccess;
+
+        CacheEntry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
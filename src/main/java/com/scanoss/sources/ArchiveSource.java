@@ -0,0 +1,475 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.scanoss.ScanossConstants.DEFAULT_ARCHIVE_DEPTH;
+import static com.scanoss.ScanossConstants.DEFAULT_MAX_ARCHIVE_ENTRY_SIZE;
+
+/**
+ * SCANOSS Archive Source Class
+ * <p>
+ * Streams the entries of zip/jar and tar (optionally gzip compressed) archives without extracting them to disk.
+ * Each accepted entry is passed on with a virtual path of the form <code>lib/foo.jar!/com/x/Y.java</code>.
+ * </p>
+ * <p>
+ * Only one entry is held in memory at a time (per nesting level), and entries larger than the configured limit are skipped.
+ * Nested archives are reported as entries themselves, and opened in turn until the depth limit is reached.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class ArchiveSource implements ScanSource {
+    /** Separator between an archive path and the path of an entry inside it. */
+    public static final String ENTRY_SEPARATOR = "!/";
+    private static final int TAR_BLOCK = 512;
+    private static final int MAX_TAR_EXTENDED_HEADER = 64 * 1024; // Larger long name/PAX headers are rejected
+
+    @Builder.Default
+    private final int maxDepth = DEFAULT_ARCHIVE_DEPTH; // Maximum archive nesting level to open (1 = top level only)
+    @Builder.Default
+    private final long maxEntrySize = DEFAULT_MAX_ARCHIVE_ENTRY_SIZE; // Entries larger than this are skipped
+    @Builder.Default
+    private final Predicate<Path> fileFilter = p -> false; // Returns true if an entry should be skipped
+    @Builder.Default
+    private final Predicate<Path> folderFilter = p -> false; // Returns true if an entry folder should be skipped
+    private final String archive; // Archive file to provide the entries of when used as a scan source (optional)
+    private final String archivePath; // Path of the archive to record in the WFP (optional - default archive)
+
+    /**
+     * Check if the given file name is a supported archive
+     *
+     * @param name file name/path
+     * @return <code>true</code> if the archive entries can be streamed
+     */
+    public static boolean isArchive(@NonNull String name) {
+        return archiveType(name) != null;
+    }
+
+    /**
+     * Pass each entry of the configured archive file to the given consumer
+     *
+     * @param consumer action to take on each entry
+     * @throws IOException if no archive was specified, or it could not be read
+     */
+    @Override
+    public void forEach(@NonNull ScanEntryConsumer consumer) throws IOException {
+        if (archive == null || archive.isEmpty()) {
+            throw new IOException("No archive file specified to read entries from");
+        }
+        String path = archivePath == null || archivePath.isEmpty() ? archive : archivePath;
+        walk(archive, path, (entryPath, contents) -> consumer.accept(ScanEntry.of(entryPath, contents)));
+    }
+
+    /**
+     * Stream the entries of the given archive file
+     *
+     * @param file     archive file to read
+     * @param path     path of the archive to prefix the entry paths with
+     * @param consumer action to take on each accepted entry
+     * @throws IOException if the archive could not be read
+     */
+    public void walk(@NonNull String file, @NonNull String path, @NonNull ArchiveEntryConsumer consumer) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(file)))) {
+            walk(path, in, consumer);
+        }
+    }
+
+    /**
+     * Stream the entries of the given archive contents
+     *
+     * @param path     path of the archive (used to detect the archive type and prefix the entry paths)
+     * @param in       archive contents (not closed by this method)
+     * @param consumer action to take on each accepted entry
+     * @throws IOException if the archive could not be read
+     */
+    public void walk(@NonNull String path, @NonNull InputStream in, @NonNull ArchiveEntryConsumer consumer) throws IOException {
+        walk(path, in, consumer, 1);
+    }
+
+    /**
+     * Stream the entries of the given archive at the given nesting level
+     *
+     * @param path     path of the archive
+     * @param in       archive contents
+     * @param consumer action to take on each accepted entry
+     * @param depth    current nesting level
+     * @throws IOException if the archive could not be read
+     */
+    private void walk(String path, InputStream in, ArchiveEntryConsumer consumer, int depth) throws IOException {
+        ArchiveType type = archiveType(path);
+        if (type == null) {
+            throw new IOException(String.format("Unsupported archive type: %s", path));
+        }
+        switch (type) {
+            case ZIP:
+                ZipInputStream zip = new ZipInputStream(in);
+                ZipEntry zipEntry;
+                while ((zipEntry = zip.getNextEntry()) != null) {
+                    if (!zipEntry.isDirectory()) {
+                        processEntry(path, zipEntry.getName(), zipEntry.getSize(), zip, consumer, depth);
+                    }
+                }
+                break;
+            case TAR_GZ:
+                walkTar(path, new BufferedInputStream(new GZIPInputStream(in)), consumer, depth);
+                break;
+            default:
+                walkTar(path, in, consumer, depth);
+                break;
+        }
+    }
+
+    /**
+     * Stream the regular file entries of a tar archive
+     *
+     * @param path     path of the archive
+     * @param in       uncompressed tar contents
+     * @param consumer action to take on each accepted entry
+     * @param depth    current nesting level
+     * @throws IOException if the archive could not be read
+     */
+    private void walkTar(String path, InputStream in, ArchiveEntryConsumer consumer, int depth) throws IOException {
+        TarReader tar = new TarReader(in);
+        TarEntry entry;
+        while ((entry = tar.next()) != null) {
+            if (entry.regularFile) {
+                processEntry(path, entry.name, entry.size, tar.entryStream(), consumer, depth);
+            }
+        }
+    }
+
+    /**
+     * Filter, load and pass on a single archive entry (opening nested archives if allowed)
+     *
+     * @param archive  path of the containing archive
+     * @param name     entry name inside the archive
+     * @param size     entry size, if known (-1 otherwise)
+     * @param in       entry contents (positioned at the start of the entry)
+     * @param consumer action to take on the entry
+     * @param depth    current nesting level
+     * @throws IOException if the entry could not be read
+     */
+    private void processEntry(String archive, String name, long size, InputStream in, ArchiveEntryConsumer consumer, int depth) throws IOException {
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        if (name.isEmpty() || size == 0 || isFiltered(name)) {
+            return;
+        }
+        String entryPath = archive + ENTRY_SEPARATOR + name;
+        if (size > maxEntrySize) {
+            log.debug("Skipping archive entry larger than {} bytes: {}", maxEntrySize, entryPath);
+            return;
+        }
+        byte[] contents = in.readNBytes((int) Math.min(maxEntrySize + 1, Integer.MAX_VALUE - 8));
+        if (contents.length > maxEntrySize) {
+            log.debug("Skipping archive entry larger than {} bytes: {}", maxEntrySize, entryPath);
+            return;
+        }
+        if (contents.length == 0) {
+            return;
+        }
+        consumer.accept(entryPath, contents);
+        if (depth < maxDepth && isArchive(name)) {
+            try {
+                walk(entryPath, new ByteArrayInputStream(contents), consumer, depth + 1);
+            } catch (IOException e) {
+                throw new IOException(String.format("Problem reading nested archive %s", entryPath), e);
+            }
+        }
+    }
+
+    /**
+     * Apply the folder filter to each parent folder of the entry, and the file filter to the entry itself
+     *
+     * @param name entry name inside the archive
+     * @return <code>true</code> if the entry should be skipped
+     */
+    private boolean isFiltered(String name) {
+        try {
+            Path entry = Path.of(name);
+            Path parent = entry.getParent();
+            if (parent != null) {
+                for (Path folder : parent) {
+                    if (folderFilter.test(folder)) {
+                        return true;
+                    }
+                }
+            }
+            return fileFilter.test(entry);
+        } catch (InvalidPathException e) {
+            log.debug("Skipping archive entry with invalid path: {}", name);
+            return true;
+        }
+    }
+
+    /**
+     * Determine the archive type from the file name
+     *
+     * @param name file name/path
+     * @return archive type or <code>null</code> if not a supported archive
+     */
+    private static ArchiveType archiveType(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".zip") || lower.endsWith(".jar") || lower.endsWith(".war") || lower.endsWith(".ear")) {
+            return ArchiveType.ZIP;
+        } else if (lower.endsWith(".tar.gz") || lower.endsWith(".tgz")) {
+            return ArchiveType.TAR_GZ;
+        } else if (lower.endsWith(".tar")) {
+            return ArchiveType.TAR;
+        }
+        return null;
+    }
+
+    private enum ArchiveType {
+        ZIP, TAR, TAR_GZ
+    }
+
+    /**
+     * Tar archive entry header
+     */
+    private static class TarEntry {
+        final String name;
+        final long size;
+        final boolean regularFile;
+
+        TarEntry(String name, long size, boolean regularFile) {
+            this.name = name;
+            this.size = size;
+            this.regularFile = regularFile;
+        }
+    }
+
+    /**
+     * Minimal streaming tar reader (ustar, GNU long names and PAX path headers)
+     * <p>
+     * Extended headers are limited to {@link #MAX_TAR_EXTENDED_HEADER} bytes, and a truncated archive is reported
+     * as an error rather than ending the entry list early.
+     * </p>
+     */
+    private static class TarReader {
+        private final InputStream in;
+        private final byte[] header = new byte[TAR_BLOCK];
+        private long remaining = 0; // Unread bytes of the current entry
+        private long padding = 0; // Padding after the current entry, up to the next block
+
+        TarReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Move on to the next entry header
+         *
+         * @return next entry or <code>null</code> at the end of the archive
+         * @throws IOException if the archive is corrupt
+         */
+        TarEntry next() throws IOException {
+            String longName = null;
+            while (true) {
+                skipFully(remaining + padding);
+                remaining = padding = 0;
+                int read = in.readNBytes(header, 0, TAR_BLOCK);
+                if (read == 0 || (read == TAR_BLOCK && header[0] == 0)) {
+                    return null;  // end of archive (marker)
+                }
+                if (read < TAR_BLOCK) {
+                    throw new EOFException("Truncated tar header");
+                }
+                long size = parseNumber(124, 12);
+                byte type = header[156];
+                remaining = size;
+                padding = (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK;
+                if (type == 'L') {  // GNU long name for the next entry
+                    longName = trimNul(readData(size));
+                } else if (type == 'K') {  // GNU long link name for the next entry (not needed)
+                    readData(size);
+                } else if (type == 'x') {  // PAX extended header for the next entry
+                    String paxPath = parsePaxPath(readData(size));
+                    if (paxPath != null) {
+                        longName = paxPath;
+                    }
+                } else if (type == 'g') {  // PAX global header (skipped with the entry data)
+                    continue;
+                } else {
+                    String name = longName != null ? longName : headerName();
+                    return new TarEntry(name, size, type == '0' || type == 0 || type == '7');
+                }
+            }
+        }
+
+        /**
+         * Get a stream over the contents of the current entry
+         *
+         * @return entry stream (reading stops at the end of the entry)
+         */
+        InputStream entryStream() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int b = in.read();
+                    if (b < 0) {
+                        throw new EOFException("Truncated tar entry");
+                    }
+                    remaining--;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int n = in.read(b, off, (int) Math.min(len, remaining));
+                    if (n < 0) {
+                        throw new EOFException("Truncated tar entry");
+                    }
+                    remaining -= n;
+                    return n;
+                }
+            };
+        }
+
+        /**
+         * Read the data of the current (extended header) entry
+         */
+        private String readData(long size) throws IOException {
+            if (size > MAX_TAR_EXTENDED_HEADER) {
+                throw new IOException(String.format("Tar extended header too large: %d bytes", size));
+            }
+            byte[] data = in.readNBytes((int) size);
+            if (data.length < size) {
+                throw new EOFException("Truncated tar extended header");
+            }
+            remaining -= data.length;
+            return new String(data, StandardCharsets.UTF_8);
+        }
+
+        private String headerName() {
+            String name = headerString(0, 100);
+            boolean ustar = header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r';
+            String prefix = ustar ? headerString(345, 155) : "";
+            return prefix.isEmpty() ? name : prefix + "/" + name;
+        }
+
+        private String headerString(int offset, int length) {
+            int end = offset;
+            while (end < offset + length && header[end] != 0) {
+                end++;
+            }
+            return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Parse a numeric header field (octal, or GNU base-256 for large values)
+         */
+        private long parseNumber(int offset, int length) throws IOException {
+            if ((header[offset] & 0x80) != 0) {
+                long value = 0;
+                for (int i = offset + 1; i < offset + length; i++) {
+                    value = (value << 8) | (header[i] & 0xFF);
+                }
+                return value;
+            }
+            long value = 0;
+            for (int i = offset; i < offset + length; i++) {
+                byte b = header[i];
+                if (b == 0 || b == ' ') {
+                    if (value > 0) {
+                        break;
+                    }
+                    continue;
+                }
+                if (b < '0' || b > '7') {
+                    throw new IOException("Invalid tar header");
+                }
+                value = (value << 3) + (b - '0');
+            }
+            return value;
+        }
+
+        private void skipFully(long n) throws IOException {
+            while (n > 0) {
+                long skipped = in.skip(n);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("Truncated tar archive");
+                    }
+                    skipped = 1;
+                }
+                n -= skipped;
+            }
+        }
+
+        private static String trimNul(String s) {
+            int end = s.indexOf('\0');
+            return end >= 0 ? s.substring(0, end) : s;
+        }
+
+        /**
+         * Extract the 'path' record from PAX extended header data (records are '&lt;length&gt; &lt;key&gt;=&lt;value&gt;\n')
+         */
+        private static String parsePaxPath(String data) {
+            for (String record : data.split("\n")) {
+                int space = record.indexOf(' ');
+                if (space > 0 && record.startsWith("path=", space + 1)) {
+                    return record.substring(space + 6);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Action to take on each entry found in an archive
+     */
+    @FunctionalInterface
+    public interface ArchiveEntryConsumer {
+        /**
+         * Accept an archive entry
+         *
+         * @param path     virtual path of the entry (i.e. <code>lib/foo.jar!/com/x/Y.java</code>)
+         * @param contents entry contents
+         * @throws IOException if processing the entry failed
+         */
+        void accept(String path, byte[] contents) throws IOException;
+    }
+}
@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * SCANOSS File List Source Class
+ * <p>
+ * Provides a given list of files (relative to a root folder) on disk.
+ * Files inside a filtered folder, filtered files, symbolic links, missing and empty files are skipped.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class FileListSource implements ScanSource {
+    @NonNull
+    private final Path root; // Root folder of the files
+    @Singular
+    private final List<String> files; // Files to provide (relative to the root folder)
+    @Builder.Default
+    private final Predicate<Path> fileFilter = p -> false; // Returns true if a file should be skipped
+    @Builder.Default
+    private final Predicate<Path> folderFilter = p -> false; // Returns true if a folder should be skipped
+
+    @Override
+    public void forEach(@NonNull ScanEntryConsumer consumer) throws IOException {
+        try {
+            walk((file, fullPath) -> {
+                try {
+                    consumer.accept(ScanEntry.of(file, fullPath, fullPath.toFile().length()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Pass each listed file that survives the folder/file filters to the given visitor
+     *
+     * @param visitor action to take on each accepted file (relative and full path)
+     */
+    public void walk(@NonNull BiConsumer<String, Path> visitor) {
+        for (String file : files) {
+            Path path = Path.of(file);
+            boolean skipDir = false;
+            for (Path p : path) {
+                if (folderFilter.test(p)) {  // should we skip this folder or not
+                    skipDir = true;
+                    break;
+                }
+            }
+            if (skipDir) {
+                continue; // skip this file as the folder is not allowed
+            }
+            if (!fileFilter.test(path)) {
+                Path fullPath = root.resolve(file);
+                File f = fullPath.toFile();
+                if (f.exists() && f.isFile() && f.length() > 0 && !Files.isSymbolicLink(fullPath)) {
+                    visitor.accept(file, fullPath);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import com.scanoss.utils.ParallelFolderWalker;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * SCANOSS File System Source Class
+ * <p>
+ * Walks a folder on disk, skipping filtered folders and files, symbolic links and empty files.
+ * Entry paths are relative to the root folder.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class FileSystemSource implements ScanSource {
+    @NonNull
+    private final Path root; // Folder to walk
+    @Builder.Default
+    private final Predicate<Path> fileFilter = p -> false; // Returns true if a file should be skipped
+    @Builder.Default
+    private final Predicate<Path> folderFilter = p -> false; // Returns true if a folder should be skipped
+    @Builder.Default
+    private final boolean parallel = false; // Enumerate folders in parallel (fork/join) instead of a single threaded walk
+    @Builder.Default
+    private final int parallelism = Runtime.getRuntime().availableProcessors(); // Number of threads for a parallel walk
+
+    @Override
+    public void forEach(@NonNull ScanEntryConsumer consumer) throws IOException {
+        try {
+            walk((file, attrs) -> {
+                Path relative = root.relativize(file);
+                String path = relative.toString().isEmpty() ? file.getFileName().toString() : relative.toString();
+                try {
+                    consumer.accept(ScanEntry.of(path, file, attrs.size()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Walk the root folder and pass each file that survives the folder/file filters to the given visitor
+     * <p>
+     *     The visitor is always called from the calling thread, regardless of the walk mode.
+     * </p>
+     *
+     * @param visitor action to take on each accepted file
+     * @throws IOException if a folder or file could not be read
+     */
+    public void walk(@NonNull BiConsumer<Path, BasicFileAttributes> visitor) throws IOException {
+        if (parallel) {
+            ParallelFolderWalker.builder().fileFilter(fileFilter).folderFilter(folderFilter)
+                    .parallelism(parallelism).build()
+                    .walk(root, visitor);
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @NonNull
+            @Override
+            public FileVisitResult preVisitDirectory(Path file, @NonNull BasicFileAttributes attrs) {
+                if(folderFilter.test(file)) {
+                    log.debug("Processing file: {}", file.getFileName().toString());
+                    return FileVisitResult.SKIP_SUBTREE; // Skip the rest of this directory tree
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @NonNull
+            @Override
+            public FileVisitResult visitFile(Path file, @NonNull BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !fileFilter.test(file) && attrs.size() > 0) {
+                    visitor.accept(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,241 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.ignore.IgnoreNode;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * SCANOSS Git Tree Source Class
+ * <p>
+ * Lists the files of a given revision straight from the Git object database (loose objects and pack files),
+ * so bare repositories and historic revisions can be fingerprinted without a checkout.
+ * </p>
+ * <p>
+ * The folder/file filters are applied to the tree paths (relative to the repository root, using '/' as separator),
+ * and any <code>.gitignore</code> files committed in the tree are honoured. Symbolic links and submodules are skipped.
+ * </p>
+ */
+@Slf4j
+public class GitTreeSource implements ScanSource, Closeable {
+    private static final String GIT_IGNORE = ".gitignore";
+
+    private final Repository repository;
+    @Getter
+    private final String revision;
+    private final Predicate<Path> fileFilter;
+    private final Predicate<Path> folderFilter;
+    private final boolean respectGitIgnore;
+
+    /**
+     * Open the Git repository to read the tree from
+     *
+     * @param repository       repository folder (work tree, .git folder or bare repository)
+     * @param revision         revision to list (optional - default HEAD)
+     * @param fileFilter       returns true if a file should be skipped
+     * @param folderFilter     returns true if a folder should be skipped
+     * @param respectGitIgnore skip files ignored by the committed .gitignore files (optional - default true)
+     * @throws IOException if the repository could not be opened
+     */
+    @Builder
+    private GitTreeSource(@NonNull File repository, String revision, @NonNull Predicate<Path> fileFilter,
+                          @NonNull Predicate<Path> folderFilter, Boolean respectGitIgnore) throws IOException {
+        this.revision = revision == null || revision.isEmpty() ? Constants.HEAD : revision;
+        this.fileFilter = fileFilter;
+        this.folderFilter = folderFilter;
+        this.respectGitIgnore = respectGitIgnore == null || respectGitIgnore;
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().setMustExist(true);
+        if (new File(repository, Constants.DOT_GIT).exists()) {
+            builder.findGitDir(repository);
+        } else {
+            builder.setGitDir(repository);  // bare repository or .git folder
+        }
+        this.repository = builder.build();
+    }
+
+    /**
+     * Pass each accepted file of the requested revision to the given consumer
+     * <p>
+     * Entries carry their blob ID as content ID, and are only loaded from the object database when opened.
+     * </p>
+     *
+     * @param consumer action to take on each entry
+     * @throws IOException if the revision or tree could not be read
+     */
+    @Override
+    public void forEach(@NonNull ScanEntryConsumer consumer) throws IOException {
+        walk((path, blobId, size) -> consumer.accept(ScanEntry.builder().path(path).size(size).contentId(blobId.name())
+                .opener(() -> Channels.newChannel(repository.open(blobId, Constants.OBJ_BLOB).openStream()))
+                .build()));
+    }
+
+    /**
+     * Walk the tree of the requested revision and pass each accepted (non-empty) file to the consumer
+     *
+     * @param consumer action to take on each accepted file
+     * @throws IOException if the revision or tree could not be read
+     */
+    public void walk(@NonNull GitEntryConsumer consumer) throws IOException {
+        ObjectId tree = repository.resolve(revision + "^{tree}");
+        if (tree == null) {
+            throw new IOException(String.format("Unable to resolve Git revision: %s", revision));
+        }
+        try (ObjectReader reader = repository.newObjectReader(); TreeWalk walk = new TreeWalk(repository, reader)) {
+            walk.addTree(tree);
+            walk.setRecursive(false);
+            Deque<IgnoreLevel> ignores = new ArrayDeque<>();
+            if (respectGitIgnore) {
+                loadIgnoreLevel(reader, tree, "", ignores);
+            }
+            while (walk.next()) {
+                String path = walk.getPathString();
+                while (!ignores.isEmpty() && !ignores.peek().contains(path)) {
+                    ignores.pop();  // left the folder owning this .gitignore
+                }
+                FileMode mode = walk.getFileMode(0);
+                if (walk.isSubtree()) {
+                    if (folderFilter.test(Path.of(path)) || isIgnored(ignores, path, true)) {
+                        log.debug("Skipping folder: {}", path);
+                        continue;
+                    }
+                    if (respectGitIgnore) {
+                        loadIgnoreLevel(reader, walk.getObjectId(0), path + "/", ignores);
+                    }
+                    walk.enterSubtree();
+                } else if (mode == FileMode.REGULAR_FILE || mode == FileMode.EXECUTABLE_FILE) {
+                    if (fileFilter.test(Path.of(path)) || isIgnored(ignores, path, false)) {
+                        continue;
+                    }
+                    ObjectId blobId = walk.getObjectId(0);
+                    long size = reader.getObjectSize(blobId, Constants.OBJ_BLOB);
+                    if (size > 0) {
+                        consumer.accept(path, blobId, size);
+                    }
+                } else {
+                    log.trace("Skipping non-file tree entry: {}", path);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+
+    /**
+     * Parse the .gitignore file (if any) of the given tree and push it onto the ignore stack
+     *
+     * @param reader  object reader
+     * @param treeId  tree to look in
+     * @param prefix  tree path prefix (empty for the root, otherwise ending with '/')
+     * @param ignores stack of ignore levels (deepest first)
+     * @throws IOException if the tree could not be read
+     */
+    private void loadIgnoreLevel(ObjectReader reader, ObjectId treeId, String prefix, Deque<IgnoreLevel> ignores) throws IOException {
+        try (TreeWalk walk = TreeWalk.forPath(reader, GIT_IGNORE, treeId)) {
+            if (walk == null || walk.isSubtree()) {
+                return;
+            }
+            IgnoreNode node = new IgnoreNode();
+            try (InputStream in = reader.open(walk.getObjectId(0), Constants.OBJ_BLOB).openStream()) {
+                node.parse(prefix + GIT_IGNORE, in);
+            }
+            if (!node.getRules().isEmpty()) {
+                ignores.push(new IgnoreLevel(prefix, node));
+            }
+        }
+    }
+
+    /**
+     * Check the given path against the .gitignore files in scope, from the deepest folder upwards
+     *
+     * @param ignores   stack of ignore levels (deepest first)
+     * @param path      path relative to the repository root
+     * @param directory true if the path is a folder
+     * @return <code>true</code> if the path is ignored
+     */
+    private boolean isIgnored(Deque<IgnoreLevel> ignores, String path, boolean directory) {
+        Iterator<IgnoreLevel> it = ignores.iterator();
+        while (it.hasNext()) {
+            IgnoreLevel level = it.next();
+            IgnoreNode.MatchResult result = level.node.isIgnored(path.substring(level.prefix.length()), directory);
+            if (result == IgnoreNode.MatchResult.IGNORED) {
+                return true;
+            } else if (result == IgnoreNode.MatchResult.NOT_IGNORED) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rules of a single .gitignore file, and the folder it applies to
+     */
+    private static class IgnoreLevel {
+        final String prefix;
+        final IgnoreNode node;
+
+        IgnoreLevel(String prefix, IgnoreNode node) {
+            this.prefix = prefix;
+            this.node = node;
+        }
+
+        boolean contains(String path) {
+            return path.startsWith(prefix);
+        }
+    }
+
+    /**
+     * Action to take on each file found in the tree
+     */
+    @FunctionalInterface
+    public interface GitEntryConsumer {
+        /**
+         * Accept a file from the tree
+         *
+         * @param path   path relative to the repository root
+         * @param blobId blob object ID (identical contents share the same ID)
+         * @param size   size of the blob in bytes
+         * @throws IOException if processing the file failed
+         */
+        void accept(String path, ObjectId blobId, long size) throws IOException;
+    }
+}
@@ -0,0 +1,124 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * SCANOSS In-Memory Source Class
+ * <p>
+ * Provides files held in memory (i.e. from a build service or content-addressed storage), so they can be
+ * fingerprinted/scanned without writing them to disk first. Files are provided in insertion order.
+ * </p>
+ */
+public class InMemorySource implements ScanSource {
+    private final Map<String, byte[]> files; // File contents keyed by the path to record in the WFP
+    private final Predicate<Path> fileFilter; // Returns true if a file should be skipped
+    private final Predicate<Path> folderFilter; // Returns true if a folder should be skipped
+
+    /**
+     * Create an in-memory source
+     *
+     * @param files        file contents keyed by the path to record in the WFP (in insertion order)
+     * @param fileFilter   returns true if a file should be skipped (optional)
+     * @param folderFilter returns true if a folder should be skipped (optional)
+     */
+    @Builder
+    private InMemorySource(Map<String, byte[]> files, Predicate<Path> fileFilter, Predicate<Path> folderFilter) {
+        this.files = Collections.unmodifiableMap(new LinkedHashMap<>(files));
+        this.fileFilter = fileFilter != null ? fileFilter : p -> false;
+        this.folderFilter = folderFilter != null ? folderFilter : p -> false;
+    }
+
+    @Override
+    public void forEach(@NonNull ScanEntryConsumer consumer) throws IOException {
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            byte[] contents = file.getValue();
+            if (contents != null && contents.length > 0 && !isFiltered(file.getKey())) {
+                consumer.accept(ScanEntry.of(file.getKey(), contents));
+            }
+        }
+    }
+
+    /**
+     * Apply the folder filter to each parent folder of the file, and the file filter to the file itself
+     *
+     * @param name file path
+     * @return <code>true</code> if the file should be skipped
+     */
+    private boolean isFiltered(String name) {
+        try {
+            Path file = Path.of(name);
+            Path parent = file.getParent();
+            if (parent != null) {
+                for (Path folder : parent) {
+                    if (folderFilter.test(folder)) {
+                        return true;
+                    }
+                }
+            }
+            return fileFilter.test(file);
+        } catch (InvalidPathException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Builder collecting the files in insertion order
+     */
+    public static class InMemorySourceBuilder {
+        private final Map<String, byte[]> files = new LinkedHashMap<>();
+
+        /**
+         * Add a file
+         *
+         * @param path     path to record in the WFP
+         * @param contents file contents
+         * @return this builder
+         */
+        public InMemorySourceBuilder file(String path, byte[] contents) {
+            files.put(path, contents);
+            return this;
+        }
+
+        /**
+         * Add the given files
+         *
+         * @param files file contents keyed by the path to record in the WFP
+         * @return this builder
+         */
+        public InMemorySourceBuilder files(@NonNull Map<String, byte[]> files) {
+            this.files.putAll(files);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * SCANOSS Scan Entry Class
+ * <p>
+ * A single file yielded by a {@link ScanSource}: the path to record in the WFP, its size and a way to
+ * (lazily) open its contents.
+ * </p>
+ */
+@Getter
+public class ScanEntry {
+    private final String path; // Path to record in the WFP
+    private final long size; // Size in bytes (-1 if unknown)
+    private final String contentId; // Optional stable ID of the contents (i.e. Git blob ID), used to reuse fingerprints
+    @Getter(AccessLevel.NONE)
+    private final ChannelOpener opener;
+    @Getter(AccessLevel.NONE)
+    private final byte[] contents; // Contents for in-memory entries
+
+    @Builder
+    private ScanEntry(@NonNull String path, Long size, String contentId, @NonNull ChannelOpener opener) {
+        this(path, size == null ? -1 : size, contentId, opener, null);
+    }
+
+    private ScanEntry(String path, long size, String contentId, ChannelOpener opener, byte[] contents) {
+        this.path = path;
+        this.size = size;
+        this.contentId = contentId;
+        this.opener = opener;
+        this.contents = contents;
+    }
+
+    /**
+     * Create an entry for the given in-memory contents
+     *
+     * @param path     path to record in the WFP
+     * @param contents file contents (not copied, so must not be modified afterwards)
+     * @return scan entry
+     */
+    public static ScanEntry of(@NonNull String path, @NonNull byte[] contents) {
+        return new ScanEntry(path, contents.length, null, () -> Channels.newChannel(new ByteArrayInputStream(contents)), contents);
+    }
+
+    /**
+     * Create an entry for the given in-memory buffer
+     * <p>
+     * The remaining bytes of the buffer are used, without changing its position.
+     * </p>
+     *
+     * @param path     path to record in the WFP
+     * @param contents file contents
+     * @return scan entry
+     */
+    public static ScanEntry of(@NonNull String path, @NonNull ByteBuffer contents) {
+        ByteBuffer buffer = contents.asReadOnlyBuffer();
+        return new ScanEntry(path, buffer.remaining(), null, () -> new BufferChannel(buffer.duplicate()), null);
+    }
+
+    /**
+     * Create an entry for a file on disk
+     *
+     * @param path path to record in the WFP
+     * @param file file to read
+     * @param size size of the file in bytes
+     * @return scan entry
+     */
+    public static ScanEntry of(@NonNull String path, @NonNull Path file, long size) {
+        return new ScanEntry(path, size, null, () -> Files.newByteChannel(file), null);
+    }
+
+    /**
+     * Open the contents of this entry
+     *
+     * @return channel to read the contents from (to be closed by the caller)
+     * @throws IOException if the contents could not be opened
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        return opener.open();
+    }
+
+    /**
+     * Read the full contents of this entry
+     *
+     * @return file contents (in-memory entries return their backing array, which must not be modified)
+     * @throws IOException if the contents could not be read
+     */
+    public byte[] readAllBytes() throws IOException {
+        if (contents != null) {
+            return contents;
+        }
+        try (ReadableByteChannel channel = openChannel()) {
+            if (size >= 0 && size < Integer.MAX_VALUE - 8) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until full or EOF
+                }
+                ByteBuffer probe = ByteBuffer.allocate(1);
+                if (!buffer.hasRemaining() && channel.read(probe) <= 0) {
+                    return buffer.array();  // size was accurate
+                }
+                // Size changed since the entry was created. Fall back to reading the whole channel again
+            }
+        }
+        try (ReadableByteChannel channel = openChannel()) {
+            return Channels.newInputStream(channel).readAllBytes();
+        }
+    }
+
+    /**
+     * Open the contents of an entry
+     */
+    @FunctionalInterface
+    public interface ChannelOpener {
+        /**
+         * Open a new channel to the entry contents
+         *
+         * @return readable channel
+         * @throws IOException if the contents could not be opened
+         */
+        ReadableByteChannel open() throws IOException;
+    }
+
+    /**
+     * Readable channel over a byte buffer
+     */
+    private static class BufferChannel implements ReadableByteChannel {
+        private final ByteBuffer buffer;
+        private boolean open = true;
+
+        BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            ByteBuffer slice = buffer.slice();
+            slice.limit(n);
+            dst.put(slice);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
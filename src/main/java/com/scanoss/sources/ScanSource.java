@@ -0,0 +1,63 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.sources;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+
+/**
+ * SCANOSS Scan Source Interface
+ * <p>
+ * A scan source enumerates the files to fingerprint/scan, wherever they live (file system, archive, Git object
+ * database, memory, etc.). Each file is handed over as a {@link ScanEntry}, whose contents are only read when needed.
+ * </p>
+ * <p>
+ * Sources are expected to apply any filtering themselves, and may call the consumer from a single thread only.
+ * Entry contents, however, may be opened from other (worker) threads.
+ * </p>
+ */
+public interface ScanSource {
+
+    /**
+     * Pass each file of this source to the given consumer
+     *
+     * @param consumer action to take on each entry
+     * @throws IOException if the source could not be read
+     */
+    void forEach(@NonNull ScanEntryConsumer consumer) throws IOException;
+
+    /**
+     * Action to take on each entry of a scan source
+     */
+    @FunctionalInterface
+    interface ScanEntryConsumer {
+        /**
+         * Accept an entry from the source
+         *
+         * @param entry file entry
+         * @throws IOException if processing the entry failed
+         */
+        void accept(ScanEntry entry) throws IOException;
+    }
+}
@@ -0,0 +1,428 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.scanoss.Scanner;
+import com.scanoss.ScanossConstants;
+import com.scanoss.exceptions.ScannerException;
+import com.scanoss.exceptions.WinnowingException;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * SCANOSS Folder Watcher Class
+ * <p>
+ * Keeps the scan results of a folder up to date as its files change. After an initial full scan, every folder
+ * of the tree (except filtered ones) is registered with a {@link WatchService}. File events are coalesced until the
+ * tree has been quiet for the debounce period, and only the changed files are then fingerprinted and scanned again,
+ * in small batches. Each batch updates an in-memory result index (keyed by the file path relative to the folder)
+ * and is reported to the update listener.
+ * </p>
+ * <p>
+ * Deleted files are dropped from the index, new folders are registered (and their files scanned) as they appear,
+ * and an event overflow triggers a full rescan. BOM rules are applied per batch, so replace rules only see the
+ * components of the files scanned in that batch.
+ * </p>
+ */
+@Slf4j
+public class FolderWatcher implements Closeable {
+    private static final long MAX_DEBOUNCE_ROUNDS = 10; // Process pending events after this many debounce periods, even if the tree is still busy
+
+    private final Scanner scanner;
+    private final String folder;
+    private final Path root;
+    private final UpdateListener listener;
+    private final Duration debounce;
+    private final int batchSize;
+    private final Predicate<Path> ignore;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>(); // Folder of each registered watch key
+    private final Set<Path> watched = ConcurrentHashMap.newKeySet(); // Registered folders
+    private final ConcurrentSkipListMap<String, JsonElement> results = new ConcurrentSkipListMap<>(); // Current result of each file
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * Create a watcher for the given folder
+     *
+     * @param scanner   scanner to (re)scan the files with (its file/folder filters are applied to the tree)
+     * @param folder    folder to watch
+     * @param listener  receives the result updates (optional)
+     * @param debounce  quiet period to wait for after a file event, before rescanning (optional - default 500ms)
+     * @param batchSize maximum number of changed files to scan per batch (optional - default 32)
+     * @param ignore    returns true if events on the given path should be ignored, i.e. the results output file (optional)
+     * @throws IOException if the watch service could not be created
+     */
+    @Builder
+    private FolderWatcher(@NonNull Scanner scanner, @NonNull String folder, UpdateListener listener, Duration debounce,
+                          Integer batchSize, Predicate<Path> ignore) throws IOException {
+        File dir = new File(folder);
+        if (!dir.isDirectory()) {
+            throw new ScannerException(String.format("Folder/directory does not exist or is not a folder: %s", folder));
+        }
+        this.scanner = scanner;
+        this.folder = folder;
+        this.root = dir.toPath();
+        this.listener = listener == null ? (watcher, updated, removed) -> { } : listener;
+        this.debounce = debounce == null || debounce.isNegative() || debounce.isZero() ?
+                Duration.ofMillis(ScanossConstants.DEFAULT_WATCH_DEBOUNCE_MS) : debounce;
+        this.batchSize = batchSize == null || batchSize <= 0 ? ScanossConstants.DEFAULT_WATCH_BATCH_SIZE : batchSize;
+        this.ignore = ignore == null ? p -> false : ignore;
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Register the folder tree, run the initial full scan and start watching for changes in the background
+     * <p>
+     * The tree is registered before the initial scan, so files changing while it runs are scanned again afterwards.
+     * </p>
+     *
+     * @return this watcher
+     * @throws IOException if the folder tree could not be registered
+     * @throws ScannerException if the initial scan failed
+     */
+    public synchronized FolderWatcher start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Folder watcher already started");
+        }
+        register(root, null);
+        log.debug("Watching {} folders under {}", keys.size(), root);
+        for (Map.Entry<String, JsonElement> entry : parse(scanner.scanFolder(folder)).entrySet()) {
+            results.put(entry.getKey(), entry.getValue());
+        }
+        listener.resultsUpdated(this, Collections.unmodifiableSet(new TreeSet<>(results.keySet())), Collections.emptySet());
+        thread = new Thread(this::watch, "scanoss-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Wait until this watcher is closed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitClose() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    /**
+     * Stop watching the folder
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Problem closing watch service: {}", e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Get the number of files with a result in the index
+     *
+     * @return number of results
+     */
+    public int getResultCount() {
+        return results.size();
+    }
+
+    /**
+     * Get the current result of the given file
+     *
+     * @param path file path relative to the watched folder
+     * @return file result (or <code>null</code> if it has none)
+     */
+    public JsonElement getResult(@NonNull String path) {
+        return results.get(path);
+    }
+
+    /**
+     * Get a snapshot of the current results of all files, sorted by path
+     *
+     * @return scan results (JSON object keyed by file path)
+     */
+    public JsonObject getResults() {
+        JsonObject snapshot = new JsonObject();
+        results.forEach((path, result) -> snapshot.add(path, result.deepCopy()));
+        return snapshot;
+    }
+
+    /**
+     * Process watch events until closed
+     */
+    private void watch() {
+        Set<Path> pending = new LinkedHashSet<>();
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                boolean resync = false;
+                long deadline = System.nanoTime() + debounce.toNanos() * MAX_DEBOUNCE_ROUNDS;
+                while (key != null) {   // Coalesce events until the tree is quiet (or busy for too long)
+                    resync |= collect(key, pending);
+                    if (System.nanoTime() > deadline) {
+                        break;
+                    }
+                    key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (resync) {
+                    rescanAll();
+                } else {
+                    update(pending);
+                }
+                pending.clear();
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed for {}", root);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+        }
+    }
+
+    /**
+     * Collect the changed paths of the given key
+     *
+     * @param key     signalled watch key
+     * @param pending changed paths (full)
+     * @return <code>true</code> if events were lost and a full rescan is required
+     */
+    private boolean collect(WatchKey key, Set<Path> pending) {
+        boolean overflow = false;
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else if (dir != null) {
+                Path path = dir.resolve((Path) event.context());
+                if (!ignore.test(path)) {
+                    pending.add(path);
+                }
+            }
+        }
+        if (!key.reset() && dir != null) {
+            keys.remove(key);  // Folder deleted or no longer accessible
+            watched.remove(dir);
+        }
+        return overflow;
+    }
+
+    /**
+     * Rescan the changed paths and update the result index
+     *
+     * @param pending changed paths (full)
+     */
+    private void update(Set<Path> pending) {
+        Set<String> changed = new TreeSet<>();
+        Set<String> removed = new TreeSet<>();
+        for (Path path : pending) {
+            String rel = root.relativize(path).toString();
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    register(path, changed);
+                } catch (IOException e) {
+                    log.warn("Failed to watch new folder {}: {}", path, e.getLocalizedMessage());
+                }
+            } else if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+                changed.add(rel);
+            } else {
+                remove(rel, removed);  // Deleted file or folder
+            }
+        }
+        if (!removed.isEmpty()) {
+            listener.resultsUpdated(this, Collections.emptySet(), Collections.unmodifiableSet(removed));
+        }
+        List<String> files = new ArrayList<>(changed);
+        for (int i = 0; i < files.size() && !closed; i += batchSize) {
+            scan(files.subList(i, Math.min(i + batchSize, files.size())));
+        }
+    }
+
+    /**
+     * Scan a batch of changed files, and replace their entries in the result index
+     * <p>
+     * Files without a result (filtered, empty or deleted in the meantime) are dropped from the index.
+     * A failed batch is logged, and its files keep their previous results.
+     * </p>
+     *
+     * @param batch changed files (relative to the watched folder)
+     */
+    private void scan(List<String> batch) {
+        Map<String, JsonElement> found;
+        try {
+            found = parse(scanner.scanFileList(folder, batch));
+        } catch (ScannerException | WinnowingException e) {
+            log.warn("Failed to rescan {} changed files: {}", batch.size(), e.getLocalizedMessage());
+            return;
+        }
+        Set<String> updated = new TreeSet<>();
+        Set<String> removed = new TreeSet<>();
+        for (String file : batch) {
+            JsonElement result = found.get(file);
+            if (result != null) {
+                results.put(file, result);
+                updated.add(file);
+            } else if (results.remove(file) != null) {
+                removed.add(file);
+            }
+        }
+        log.debug("Rescanned {} changed files: {} updated, {} removed", batch.size(), updated.size(), removed.size());
+        if (!updated.isEmpty() || !removed.isEmpty()) {
+            listener.resultsUpdated(this, Collections.unmodifiableSet(updated), Collections.unmodifiableSet(removed));
+        }
+    }
+
+    /**
+     * Rescan the whole folder after events were lost, and replace the result index
+     */
+    private void rescanAll() {
+        log.info("Watch events lost for {}. Rescanning the whole folder...", root);
+        Map<String, JsonElement> found;
+        try {
+            register(root, null);  // Pick up any folders created while events were lost
+            found = parse(scanner.scanFolder(folder));
+        } catch (IOException | ScannerException | WinnowingException e) {
+            log.warn("Failed to rescan {}: {}", root, e.getLocalizedMessage());
+            return;
+        }
+        Set<String> removed = new TreeSet<>(results.keySet());
+        removed.removeAll(found.keySet());
+        results.keySet().removeAll(removed);
+        results.putAll(found);
+        listener.resultsUpdated(this, Collections.unmodifiableSet(new TreeSet<>(found.keySet())),
+                Collections.unmodifiableSet(removed));
+    }
+
+    /**
+     * Drop the result of the given path from the index, or the results of all files under it if it was a folder
+     *
+     * @param rel     deleted path (relative to the watched folder)
+     * @param removed paths removed from the index
+     */
+    private void remove(String rel, Set<String> removed) {
+        if (results.remove(rel) != null) {
+            removed.add(rel);
+        }
+        String prefix = rel + File.separator;
+        Map<String, JsonElement> children = results.subMap(prefix, prefix + Character.MAX_VALUE);
+        removed.addAll(children.keySet());
+        children.clear();
+    }
+
+    /**
+     * Register the given folder tree with the watch service, skipping filtered folders
+     *
+     * @param dir   top folder to register
+     * @param files collects the (unfiltered) files found in newly registered folders, relative to the watched folder (optional)
+     * @throws IOException if the tree could not be walked
+     */
+    private void register(Path dir, Set<String> files) throws IOException {
+        Predicate<Path> folderFilter = scanner.getFolderFilter();
+        Predicate<Path> fileFilter = scanner.getFileFilter();
+        Set<Path> added = new HashSet<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @NonNull
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, @NonNull BasicFileAttributes attrs) throws IOException {
+                if (!path.equals(root) && (folderFilter.test(path) || ignore.test(path))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (watched.add(path)) {
+                    keys.put(path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), path);
+                    added.add(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @NonNull
+            @Override
+            public FileVisitResult visitFile(Path path, @NonNull BasicFileAttributes attrs) {
+                if (files != null && added.contains(path.getParent()) && attrs.isRegularFile()
+                        && !fileFilter.test(path) && !ignore.test(path)) {
+                    files.add(root.relativize(path).toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Index the given scan results by file path
+     *
+     * @param rawResults scan result strings (in JSON format)
+     * @return results keyed by file path
+     * @throws ScannerException if the results could not be parsed
+     */
+    private Map<String, JsonElement> parse(List<String> rawResults) {
+        Map<String, JsonElement> parsed = new HashMap<>();
+        try {
+            for (JsonObject result : JsonUtils.toJsonObjects(rawResults)) {
+                result.entrySet().forEach(entry -> parsed.put(entry.getKey(), entry.getValue()));
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new ScannerException("Problem parsing scan results", e);
+        }
+        return parsed;
+    }
+
+    /**
+     * Receives the updates of the result index
+     */
+    @FunctionalInterface
+    public interface UpdateListener {
+        /**
+         * Called (from the watcher thread) after the results of some files changed
+         *
+         * @param watcher watcher holding the updated result index
+         * @param updated files with a new result
+         * @param removed files dropped from the index (deleted or no longer scannable)
+         */
+        void resultsUpdated(FolderWatcher watcher, Set<String> updated, Set<String> removed);
+    }
+}
@@ -0,0 +1,184 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SCANOSS Git Diff Class
+ * <p>
+ * Computes the files that changed between two revisions of a Git repository using JGit.
+ * Added, modified, copied and renamed files are reported as changed (by their new path),
+ * while deleted files and the old side of renames are reported as deleted.
+ * When a folder inside the work tree is given, only changes below that folder are reported,
+ * and all paths are relative to that folder (instead of the work tree root) and use '/' as separator.
+ * </p>
+ */
+@Slf4j
+@Getter
+public class GitDiff {
+    private final File workTree; // Folder the changed/deleted paths are relative to
+    private final List<String> changedFiles; // Files added/modified in the head revision
+    private final List<String> deletedFiles; // Files no longer present in the head revision
+
+    private GitDiff(File workTree, List<String> changedFiles, List<String> deletedFiles) {
+        this.workTree = workTree;
+        this.changedFiles = Collections.unmodifiableList(changedFiles);
+        this.deletedFiles = Collections.unmodifiableList(deletedFiles);
+    }
+
+    /**
+     * Calculate the changes between the two given revisions
+     *
+     * @param repo    repository folder (or any folder inside the work tree to limit the changes to)
+     * @param baseRef base revision (i.e. last released commit/tag)
+     * @param headRef head revision (optional - default HEAD)
+     * @return changed and deleted files (relative to the given folder)
+     * @throws IOException if the repository or revisions could not be read
+     */
+    public static GitDiff between(@NonNull File repo, @NonNull String baseRef, String headRef) throws IOException {
+        if (headRef == null || headRef.isEmpty()) {
+            headRef = "HEAD";
+        }
+        try (Repository repository = new FileRepositoryBuilder().findGitDir(repo).setMustExist(true).build()) {
+            if (repository.isBare()) {
+                throw new IOException(String.format("Repository has no work tree to scan: %s", repo));
+            }
+            String prefix = folderPrefix(repository.getWorkTree(), repo);
+            ObjectId baseTree = resolveTree(repository, baseRef);
+            ObjectId headTree = resolveTree(repository, headRef);
+            ObjectId headCommit = repository.resolve(headRef + "^{commit}");
+            ObjectId checkedOut = repository.resolve("HEAD^{commit}");
+            if (headCommit != null && !headCommit.equals(checkedOut)) {
+                log.warn("Head revision {} is not checked out. File contents will be read from the work tree.", headRef);
+            }
+            List<String> changed = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+                formatter.setRepository(repository);
+                formatter.setDetectRenames(true);
+                if (!prefix.isEmpty()) {
+                    formatter.setPathFilter(PathFilter.create(prefix));
+                }
+                for (DiffEntry entry : formatter.scan(baseTree, headTree)) {
+                    switch (entry.getChangeType()) {
+                        case DELETE:
+                            addRelative(deleted, prefix, entry.getOldPath());
+                            break;
+                        case RENAME:
+                            addRelative(deleted, prefix, entry.getOldPath());
+                            addChanged(changed, prefix, entry);
+                            break;
+                        default:  // ADD, MODIFY, COPY
+                            addChanged(changed, prefix, entry);
+                            break;
+                    }
+                }
+            }
+            log.debug("Found {} changed and {} deleted files between {} and {}", changed.size(), deleted.size(), baseRef, headRef);
+            File folder = prefix.isEmpty() ? repository.getWorkTree() : new File(repository.getWorkTree(), prefix);
+            return new GitDiff(folder, changed, deleted);
+        }
+    }
+
+    /**
+     * Get the path of the given folder relative to the work tree (in Git format)
+     *
+     * @param workTree repository work tree
+     * @param folder   folder inside the work tree
+     * @return relative path using '/' as separator (empty for the work tree root)
+     * @throws IOException if the folder is not inside the work tree
+     */
+    private static String folderPrefix(File workTree, File folder) throws IOException {
+        Path root = workTree.toPath().toRealPath();
+        Path path = folder.toPath().toRealPath();
+        if (!path.startsWith(root)) {
+            throw new IOException(String.format("Folder is not inside the repository work tree: %s", folder));
+        }
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Add the given path (relative to the folder prefix) to the list, ignoring paths outside the folder
+     *
+     * @param files  list of files
+     * @param prefix folder prefix (empty for the work tree root)
+     * @param path   path relative to the work tree
+     */
+    private static void addRelative(List<String> files, String prefix, String path) {
+        if (prefix.isEmpty()) {
+            files.add(path);
+        } else if (path.startsWith(prefix + "/")) {
+            files.add(path.substring(prefix.length() + 1));
+        }
+    }
+
+    /**
+     * Add the new side of the given entry to the change list, ignoring submodules and symlinks
+     *
+     * @param changed list of changed files
+     * @param prefix  folder prefix (empty for the work tree root)
+     * @param entry   diff entry
+     */
+    private static void addChanged(List<String> changed, String prefix, DiffEntry entry) {
+        FileMode mode = entry.getNewMode();
+        if (mode == FileMode.GITLINK || mode == FileMode.SYMLINK) {
+            log.trace("Skipping non-file change: {}", entry.getNewPath());
+            return;
+        }
+        addRelative(changed, prefix, entry.getNewPath());
+    }
+
+    /**
+     * Resolve the tree for the given revision
+     *
+     * @param repository Git repository
+     * @param ref        revision string
+     * @return tree object ID
+     * @throws IOException if the revision does not exist
+     */
+    private static ObjectId resolveTree(Repository repository, String ref) throws IOException {
+        ObjectId tree = repository.resolve(ref + "^{tree}");
+        if (tree == null) {
+            throw new IOException(String.format("Unable to resolve Git revision: %s", ref));
+        }
+        return tree;
+    }
+}
@@ -22,9 +22,7 @@
  */
 package com.scanoss.utils;
 
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * SCANOSS Hpsm Class
@@ -43,44 +41,59 @@ public class Hpsm {
     private static final int CRC8_MAXIM_DOW_POLYNOMIAL = 0x8C; // 0x31 reflected
     private static final int CRC8_MAXIM_DOW_INITIAL = 0x00; // 0x00 reflected
     private static final int CRC8_MAXIM_DOW_FINAL = 0x00; // 0x00 reflected
-    private static final int[] crc8MaximDowTable = new int[CRC8_MAXIM_DOW_TABLE_SIZE];
+    private static final byte[] crc8MaximDowTable = crc8MaximDowGenerateTable(); // Generated once, read only afterwards
 
-    private static final byte[] HEX_ARRAY = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
 
     /**
      * Calculates the HPSM value for the given content, represented as an array of bytes.
      * This method performs normalization on the content, calculates CRC8 for each line,
      * and returns the hexadecimal representation of the CRC8 values.
+     * <p>
+     * The CRC8 of each line is updated incrementally as normalized characters are found, and written out as hex
+     * straight away, so no per-line buffers are needed.
+     * </p>
      *
      * @param content the content as an array of bytes
      * @return the HPSM value in hexadecimal format
      */
     public static String calcHpsm(byte[] content) {
-        List<Integer> listNormalized = new ArrayList<>();
-        List<Integer> crcLines = new ArrayList<>();
+        char[] hex = new char[Math.max(16, content.length / 16)];
+        int hexLength = 0;
+        int crc = CRC8_MAXIM_DOW_INITIAL;
+        boolean lineNormalized = false; // Found normalized characters on the current line
 
         int lastLine = 0;
-        crc8MaximDowGenerateTable();
-
         for (int i = 0; i < content.length ; i++) {
-            char c = (char) content[i];
-            if (c == '\n') {  // When there is a new line
-                if (!listNormalized.isEmpty()) {
-                    crcLines.add(crc8MaximDowBuffer(convertListToByteArray(listNormalized)));
-                    listNormalized.clear();
+            byte b = content[i];
+            int lineCrc = -1;
+            if (b == '\n') {  // When there is a new line
+                if (lineNormalized) {
+                    lineCrc = crc ^ CRC8_MAXIM_DOW_FINAL;
+                    crc = CRC8_MAXIM_DOW_INITIAL;
+                    lineNormalized = false;
                 } else if (lastLine + 1 == i) {
-                    crcLines.add(0xFF);
+                    lineCrc = 0xFF;
                 } else if (i - lastLine > 1) {
-                    crcLines.add(0x00);
+                    lineCrc = 0x00;
                 }
                 lastLine = i;
             } else {
-                int cNormalized = WinnowingUtils.normalize(c);
-                if (cNormalized != 0) listNormalized.add(cNormalized);
+                char cNormalized = WinnowingUtils.normalize(b);
+                if (cNormalized != 0) {
+                    crc = crc8MaximDowByte(crc, cNormalized);
+                    lineNormalized = true;
+                }
+            }
+            if (lineCrc >= 0) {
+                if (hexLength + 2 > hex.length) {
+                    hex = Arrays.copyOf(hex, hex.length * 2);
+                }
+                hex[hexLength++] = HEX_ARRAY[lineCrc >>> 4];
+                hex[hexLength++] = HEX_ARRAY[lineCrc & 0x0F];
             }
         }
-
-        return convertToHex(convertListToByteArray(crcLines));
+        return new String(hex, 0, hexLength);
     }
 
     /**
@@ -105,11 +118,15 @@ public class Hpsm {
     /**
      * Generates a lookup table for CRC-8 using the Maxim/Dallas polynomial.
      * The generated table is used for faster CRC calculations.
+     *
+     * @return CRC-8 lookup table
      */
-    private static void crc8MaximDowGenerateTable() {
+    private static byte[] crc8MaximDowGenerateTable() {
+        byte[] table = new byte[CRC8_MAXIM_DOW_TABLE_SIZE];
         for (int i = 0; i < CRC8_MAXIM_DOW_TABLE_SIZE; i++) {
-            crc8MaximDowTable[i] = crc8MaximDowByteNoTable(0, i);
+            table[i] = (byte) crc8MaximDowByteNoTable(0, i);
         }
+        return table;
     }
 
     /**
@@ -121,52 +138,6 @@ public class Hpsm {
      * @return The updated CRC value after processing the byte.
      */
     private static int crc8MaximDowByte(int crc, int b) {
-        int index = b ^ crc;
-        return crc8MaximDowTable[index] ^ (crc >> 8);
-    }
-
-    /**
-     * Calculates CRC-8 for a buffer of bytes using the Maxim/Dallas polynomial.
-     *
-     * @param buffer The buffer containing bytes for CRC calculation.
-     * @return The CRC-8 value for the given buffer.
-     */
-    private static int crc8MaximDowBuffer(byte[] buffer) {
-        int crc = CRC8_MAXIM_DOW_INITIAL;
-        for (byte b : buffer) {
-            crc = crc8MaximDowByte(crc, b & 0xFF); // Convert byte to unsigned integer
-        }
-        crc ^= CRC8_MAXIM_DOW_FINAL;
-        return crc;
-    }
-
-    /**
-     * Converts a list of integers to a byte array.
-     *
-     * @param integerList The list of integers to be converted.
-     * @return The byte array representing the converted integers.
-     */
-    private static byte[] convertListToByteArray(List<Integer> integerList) {
-        byte[] byteArray = new byte[integerList.size()];
-        for (int i = 0; i < integerList.size(); i++) {
-            byteArray[i] = integerList.get(i).byteValue();
-        }
-        return byteArray;
-    }
-
-    /**
-     * Converts an array of bytes to its hexadecimal representation.
-     *
-     * @param bytes the array of bytes to be converted
-     * @return the hexadecimal representation of the input byte array
-     */
-    private static String convertToHex(byte [] bytes) {
-        byte[] hexChars = new byte[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = HEX_ARRAY[v >>> 4];
-            hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
-        }
-        return new String(hexChars, StandardCharsets.UTF_8).toLowerCase();
+        return crc8MaximDowTable[(b ^ crc) & 0xFF] & 0xFF;
     }
 }
@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * SCANOSS JSON Result Writer Class
+ * <p>
+ * Streams scan results into a single (pretty printed) JSON object as they arrive, so large scans do not need to hold
+ * all results in memory before writing them out. The entries of each result are nested-sorted like
+ * {@link JsonUtils#toJsonPretty(JsonObject)}, but the top level keys are written in arrival order.
+ * </p>
+ */
+public class JsonResultWriter implements Closeable, Flushable {
+    private static final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    private final JsonWriter writer;
+    private long count = 0;
+
+    /**
+     * Start a new JSON result object on the given writer
+     *
+     * @param out writer to stream the results to
+     * @throws IOException if the writer failed
+     */
+    public JsonResultWriter(@NonNull Writer out) throws IOException {
+        this.writer = new JsonWriter(out);
+        this.writer.setIndent("  ");
+        this.writer.setSerializeNulls(true);
+        this.writer.beginObject();
+    }
+
+    /**
+     * Write each top level entry of the given result
+     *
+     * @param result scan result (in JSON format)
+     * @throws IOException              if the writer failed
+     * @throws JsonParseException       if the result is not valid JSON
+     * @throws IllegalStateException    if the result is not a JSON object
+     */
+    public void write(@NonNull String result) throws IOException, JsonParseException, IllegalStateException {
+        write(JsonUtils.toJsonObject(result));
+    }
+
+    /**
+     * Write each top level entry of the given result
+     *
+     * @param result scan result object
+     * @throws IOException if the writer failed
+     */
+    public void write(@NonNull JsonObject result) throws IOException {
+        for (Map.Entry<String, JsonElement> entry : JsonUtils.sortJsonObject(result).entrySet()) {
+            writer.name(entry.getKey());
+            gson.toJson(entry.getValue(), writer);
+            count++;
+        }
+    }
+
+    /**
+     * Number of entries (files) written so far
+     *
+     * @return entry count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Finish the JSON object and flush it
+     * <p>
+     * The underlying writer is left open, so results can be streamed to stdout.
+     * </p>
+     *
+     * @throws IOException if the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        writer.endObject();
+        writer.flush();
+    }
+}
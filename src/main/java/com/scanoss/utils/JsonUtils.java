@@ -35,6 +35,7 @@ import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -116,7 +117,7 @@ public class JsonUtils {
      * @param jsonArray JSON Array to sort
      * @return Sorted array
      */
-    private static JsonArray sortJsonArray(JsonArray jsonArray) {
+    static JsonArray sortJsonArray(JsonArray jsonArray) {
         JsonArray tempArray = new JsonArray();
         jsonArray.forEach(e -> {
             if (e.isJsonObject()) {
@@ -168,6 +169,35 @@ public class JsonUtils {
         return root;
     }
 
+    /**
+     * Merge a list of RAW JSON results into a previous (full) set of results
+     * <p>
+     * Previous entries for any of the replaced paths, or for paths present in the new results, are dropped.
+     * </p>
+     *
+     * @param previous previous results (keyed by file path)
+     * @param results  list of RAW JSON results to merge in
+     * @param replaced file paths whose previous entries should be discarded (i.e. changed or deleted files)
+     * @return List of RAW JSON results
+     * @throws JsonParseException    JSON Parsing failed
+     * @throws IllegalStateException JSON field is not of JSON Object type
+     */
+    public static List<String> mergeResults(@NonNull JsonObject previous, @NonNull List<String> results,
+                                            @NonNull Collection<String> replaced) throws JsonParseException, IllegalStateException {
+        JsonObject latest = joinJsonObjects(toJsonObjects(results));
+        List<String> merged = new ArrayList<>(previous.size() + results.size());
+        for (String path : previous.keySet()) {
+            if (!replaced.contains(path) && !latest.has(path)) {
+                JsonObject entry = new JsonObject();
+                entry.add(path, previous.get(path));
+                merged.add(entry.toString());
+            }
+        }
+        merged.addAll(results);
+        return merged;
+    }
+
+
     /**
      * Convert a list of RAW JSON results to a list of Scan File Result objects
      *
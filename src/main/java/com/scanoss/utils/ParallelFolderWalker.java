@@ -0,0 +1,197 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * SCANOSS Parallel Folder Walker Class
+ * <p>
+ * Walks a folder tree by splitting the directory enumeration across a {@link ForkJoinPool}.
+ * Each directory is listed by its own task, which applies the folder and file filters to its entries.
+ * Accepted files are handed over to the calling thread through a bounded queue, so a slow consumer
+ * throttles the enumeration instead of buffering the whole tree in memory.
+ * </p>
+ * <p>
+ * The set of files reported is the same as a {@link Files#walkFileTree} visitor that skips filtered folders,
+ * does not follow symbolic links and only accepts non-empty regular files. The order is not deterministic.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class ParallelFolderWalker {
+    private static final int DEFAULT_QUEUE_SIZE = 1024;
+    private static final long QUEUE_POLL_MILLIS = 50;
+
+    @NonNull
+    private final Predicate<Path> fileFilter; // Returns true if a file should be skipped
+    @NonNull
+    private final Predicate<Path> folderFilter; // Returns true if a folder should be skipped
+    @Builder.Default
+    private final int parallelism = Runtime.getRuntime().availableProcessors(); // Number of directory listing threads
+    @Builder.Default
+    private final int queueSize = DEFAULT_QUEUE_SIZE; // Maximum number of discovered files waiting to be consumed
+
+    /**
+     * Walk the given folder and pass each accepted file to the consumer
+     * <p>
+     * The consumer is always invoked on the calling thread.
+     * </p>
+     *
+     * @param root     folder to walk
+     * @param consumer action to take on each accepted file and its attributes
+     * @throws IOException if a folder or file could not be read
+     */
+    public void walk(@NonNull Path root, @NonNull BiConsumer<Path, BasicFileAttributes> consumer) throws IOException {
+        BasicFileAttributes rootAttrs = Files.readAttributes(root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!rootAttrs.isDirectory()) {
+            // Match walkFileTree, which reports a (non-followed) root like any other entry
+            if (rootAttrs.isRegularFile() && !fileFilter.test(root) && rootAttrs.size() > 0) {
+                consumer.accept(root, rootAttrs);
+            }
+            return;
+        }
+        BlockingQueue<DiscoveredFile> queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            ForkJoinTask<Void> task = pool.submit(new DirectoryTask(root, queue));
+            while (true) {
+                DiscoveredFile file = queue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (file != null) {
+                    consumer.accept(file.path, file.attrs);
+                } else if (task.isDone() && queue.isEmpty()) {
+                    break;
+                }
+            }
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while walking %s", root), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(String.format("Problem walking %s", root), cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * File accepted by the walker, waiting to be consumed
+     */
+    private static class DiscoveredFile {
+        final Path path;
+        final BasicFileAttributes attrs;
+
+        DiscoveredFile(Path path, BasicFileAttributes attrs) {
+            this.path = path;
+            this.attrs = attrs;
+        }
+    }
+
+    /**
+     * Fork/Join task to list a single directory and fork a subtask for each child directory
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Path dir;
+        private final BlockingQueue<DiscoveredFile> queue;
+
+        DirectoryTask(Path dir, BlockingQueue<DiscoveredFile> queue) {
+            this.dir = dir;
+            this.queue = queue;
+        }
+
+        @Override
+        protected void compute() {
+            if (folderFilter.test(dir)) {
+                log.debug("Skipping folder: {}", dir.getFileName());
+                return;
+            }
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        subTasks.add(new DirectoryTask(entry, queue));
+                    } else if (attrs.isRegularFile() && !fileFilter.test(entry) && attrs.size() > 0) {
+                        put(new DiscoveredFile(entry, attrs));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subTasks);
+        }
+
+        /**
+         * Place the file on the hand-over queue, letting the pool compensate while blocked
+         *
+         * @param file file to queue
+         */
+        private void put(DiscoveredFile file) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    private boolean queued = false;
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        if (!queued) {
+                            queue.put(file);
+                            queued = true;
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return queued || (queued = queue.offer(file));
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException(String.format("Interrupted while queueing %s", file.path));
+            }
+        }
+    }
+}
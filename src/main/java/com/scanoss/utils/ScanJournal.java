@@ -0,0 +1,274 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SCANOSS Scan Journal Class
+ * <p>
+ * Append-only checkpoint journal of a folder scan (JSON lines). Each completed file is recorded with its raw scan
+ * result, and each failed file with its error, as soon as it is processed. A failed or interrupted scan can then be
+ * resumed from the journal: files already done are not scanned again, and failed files are retried.
+ * </p>
+ * <p>
+ * Records are flushed (but not synced) one by one. A truncated last line (i.e. after a crash) is ignored and cut off
+ * when resuming, so new records always start on a line of their own. Recording is thread safe.
+ * </p>
+ */
+@Slf4j
+public class ScanJournal implements Closeable {
+    private static final String PATH = "path";
+    private static final String STATUS = "status";
+    private static final String RESULT = "result";
+    private static final String ERROR = "error";
+    private static final String DONE = "done";
+    private static final String FAILED = "failed";
+
+    private final Path file;
+    private final Writer writer;
+    private final Map<String, String> results = new ConcurrentHashMap<>(); // Results of the files done in previous runs
+    private final Set<String> failed = ConcurrentHashMap.newKeySet(); // Files which failed in previous runs (and are not done)
+
+    /**
+     * Open the journal
+     *
+     * @param file   journal file
+     * @param resume load the existing journal (if any) and append to it, instead of starting a new one (optional - default false)
+     * @throws IOException if the journal could not be read or opened
+     */
+    @Builder
+    private ScanJournal(@NonNull Path file, Boolean resume) throws IOException {
+        this.file = file;
+        if (Boolean.TRUE.equals(resume) && Files.exists(file)) {
+            load();
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } else {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Get the result recorded for the given file in a previous run
+     *
+     * @param path file path (as recorded in the WFP)
+     * @return raw scan result, or <code>null</code> if the file is not done
+     */
+    public String getResult(@NonNull String path) {
+        return results.get(path);
+    }
+
+    /**
+     * @return number of files done in previous runs
+     */
+    public int getDoneCount() {
+        return results.size();
+    }
+
+    /**
+     * @return number of files which failed in previous runs (and are to be retried)
+     */
+    public int getFailedCount() {
+        return failed.size();
+    }
+
+    /**
+     * Record a completed file
+     *
+     * @param path   file path (as recorded in the WFP)
+     * @param result raw scan result
+     * @throws IOException if the record could not be written
+     */
+    public void done(@NonNull String path, @NonNull String result) throws IOException {
+        JsonObject record = new JsonObject();
+        record.addProperty(PATH, path);
+        record.addProperty(STATUS, DONE);
+        record.addProperty(RESULT, result);
+        append(record);
+    }
+
+    /**
+     * Record a failed file
+     *
+     * @param path  file path (as recorded in the WFP)
+     * @param error cause of the failure
+     * @throws IOException if the record could not be written
+     */
+    public void failed(@NonNull String path, String error) throws IOException {
+        JsonObject record = new JsonObject();
+        record.addProperty(PATH, path);
+        record.addProperty(STATUS, FAILED);
+        record.addProperty(ERROR, error);
+        append(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Append the given record to the journal and flush it
+     *
+     * @param record journal record
+     * @throws IOException if the record could not be written
+     */
+    private void append(JsonObject record) throws IOException {
+        String line = record.toString();
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Load the records of the existing journal (the last record for a file wins)
+     *
+     * @throws IOException if the journal could not be read
+     */
+    private void load() throws IOException {
+        int lineNumber = 0;
+        boolean lastReadable = true;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lastReadable = true;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonObject record;
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    log.warn("Ignoring unreadable journal record {}:{}", file, lineNumber);  // i.e. truncated by a crash
+                    lastReadable = false;
+                    continue;
+                }
+                String path = asString(record.get(PATH));
+                if (path == null) {
+                    continue;
+                }
+                if (DONE.equals(asString(record.get(STATUS))) && asString(record.get(RESULT)) != null) {
+                    results.put(path, asString(record.get(RESULT)));
+                    failed.remove(path);
+                } else {
+                    results.remove(path);
+                    failed.add(path);
+                }
+            }
+        }
+        log.debug("Loaded journal {}: {} files done, {} failed", file, results.size(), failed.size());
+        terminateLastLine(lastReadable);
+    }
+
+    /**
+     * Make sure the journal ends with a complete line before appending to it
+     * <p>
+     * An unreadable last line without a line feed (a record truncated by a crash) is cut off. A readable one only
+     * lacks its line feed, which is added.
+     * </p>
+     *
+     * @param lastReadable <code>true</code> if the last line of the journal holds a readable record
+     * @throws IOException if the journal could not be read or written
+     */
+    private void terminateLastLine(boolean lastReadable) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0 || byteAt(channel, size - 1) == '\n') {
+                return;
+            }
+            if (lastReadable) {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+                return;
+            }
+            long lineEnd = lastLineFeed(channel, size) + 1;
+            log.debug("Cutting off the truncated last record of journal {} ({} bytes)", file, size - lineEnd);
+            channel.truncate(lineEnd);
+        }
+    }
+
+    /**
+     * Find the last line feed of the journal, reading it backwards in chunks
+     *
+     * @param channel journal channel
+     * @param size    journal size
+     * @return position of the last line feed, or -1 if there is none
+     * @throws IOException if the journal could not be read
+     */
+    private static long lastLineFeed(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of journal at " + (start + buffer.position()));
+                }
+            }
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i;
+                }
+            }
+            end = start;
+        }
+        return -1;
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        if (channel.read(buffer, position) != 1) {
+            throw new IOException("Unexpected end of journal at " + position);
+        }
+        return buffer.get(0);
+    }
+
+    private static String asString(JsonElement element) {
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,101 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * SCANOSS Shard Class
+ * <p>
+ * Deterministically partitions a file set into a number of shards, so one large scan can be spread across
+ * several machines. A file belongs to a shard based on a stable hash (CRC32C) of its path relative to the scan
+ * root, so every node running the same filters computes the same, disjoint partition without any coordination.
+ * </p>
+ */
+@Getter
+public class Shard {
+    private final int index; // Shard number (1 based)
+    private final int count; // Total number of shards
+
+    /**
+     * Create a shard definition
+     *
+     * @param index shard number (1 based)
+     * @param count total number of shards
+     * @throws IllegalArgumentException if the shard number is out of range
+     */
+    @Builder
+    private Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException(String.format("Invalid shard %d/%d. Expected 1 <= shard <= count", index, count));
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parse a shard definition of the form <code>i/N</code> (i.e. <code>2/8</code>)
+     *
+     * @param spec shard definition
+     * @return shard
+     * @throws IllegalArgumentException if the definition is malformed or out of range
+     */
+    public static Shard parse(@NonNull String spec) {
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException(String.format("Invalid shard '%s'. Expected <shard>/<count>, i.e. 1/4", spec));
+        }
+        try {
+            return new Shard(Integer.parseInt(spec.substring(0, slash).trim()), Integer.parseInt(spec.substring(slash + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid shard '%s'. Expected <shard>/<count>, i.e. 1/4", spec), e);
+        }
+    }
+
+    /**
+     * Check if the given file belongs to this shard
+     *
+     * @param path file path relative to the scan root (either separator is accepted)
+     * @return <code>true</code> if the file is part of this shard
+     */
+    public boolean contains(@NonNull String path) {
+        if (count == 1) {
+            return true;
+        }
+        String normalised = File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+        CRC32C crc = new CRC32C();
+        crc.update(normalised.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() % count == index - 1;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
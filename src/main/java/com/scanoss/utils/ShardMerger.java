@@ -0,0 +1,282 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.scanoss.ScannerPostProcessor;
+import com.scanoss.dto.ScanFileResult;
+import com.scanoss.settings.Bom;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * SCANOSS Shard Merger Class
+ * <p>
+ * Merges the result files of a sharded scan (see {@link Shard}) into a single result JSON. The result files written
+ * by the CLI are sorted by file path, so they are merged with a streaming k-way merge: only one entry per input
+ * (plus a batch of entries being post-processed) is held in memory, regardless of the size of the scan.
+ * </p>
+ * <p>
+ * File paths in the shard results are already deobfuscated by each node, so no obfuscation maps are needed here.
+ * BOM rules, however, are not applied by the nodes, as replace rules look up component details across all
+ * results. They are applied to the merged results instead, indexing the components of all shards in a first pass.
+ * Components are indexed in merged (file path) order, as an unsharded scan does, so both pick the same details.
+ * If the same file appears in more than one input, the entry of the first input listed is kept.
+ * </p>
+ */
+@Slf4j
+@Builder
+public class ShardMerger {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final Bom bom; // BOM rules to apply to the merged results (optional)
+    @Builder.Default
+    private final ScannerPostProcessor postProcessor = ScannerPostProcessor.builder().build();
+    @Builder.Default
+    private final int batchSize = DEFAULT_BATCH_SIZE; // Number of entries to post-process at a time
+
+    /**
+     * Merge the given result files and write the merged results (pretty printed JSON) to the given writer
+     *
+     * @param inputs result files to merge (JSON objects sorted by file path)
+     * @param out    writer to stream the merged results to (flushed, but not closed)
+     * @return number of entries written
+     * @throws IOException if an input could not be read, is not sorted, or the output could not be written
+     */
+    public long merge(@NonNull List<Path> inputs, @NonNull Writer out) throws IOException {
+        boolean applyRules = bom != null && (bom.getRemoveSize() > 0 || bom.getReplaceSize() > 0);
+        try {
+            if (bom != null && bom.getReplaceSize() > 0) {  // replacements use component details from any shard
+                try (MergeReader reader = new MergeReader(inputs)) {
+                    Map.Entry<String, JsonElement> entry;
+                    while ((entry = reader.next()) != null) {
+                        postProcessor.indexComponents(toScanFileResult(entry));
+                    }
+                }
+            }
+            Gson gson = new GsonBuilder().setPrettyPrinting().serializeNulls().create(); // same format as the scan output
+            JsonWriter writer = gson.newJsonWriter(out);
+            long written = 0;
+            try (MergeReader reader = new MergeReader(inputs)) {
+                writer.beginObject();
+                JsonObject batch = new JsonObject();
+                Map.Entry<String, JsonElement> entry;
+                while ((entry = reader.next()) != null) {
+                    if (!applyRules) {
+                        write(gson, writer, entry.getKey(), entry.getValue());
+                        written++;
+                        continue;
+                    }
+                    batch.add(entry.getKey(), entry.getValue());
+                    if (batch.size() >= batchSize) {
+                        written += writeBatch(gson, writer, batch);
+                        batch = new JsonObject();
+                    }
+                }
+                written += writeBatch(gson, writer, batch);
+                writer.endObject();
+            }
+            writer.flush();
+            out.write(System.lineSeparator());
+            out.flush();
+            log.debug("Merged {} entries from {} files.", written, inputs.size());
+            return written;
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(String.format("Problem parsing scan results: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Apply the BOM rules to the given batch of merged entries and write them out
+     *
+     * @param gson   JSON serialiser
+     * @param writer JSON writer
+     * @param batch  merged entries (in order)
+     * @return number of entries written
+     * @throws IOException if writing failed
+     */
+    private long writeBatch(Gson gson, JsonWriter writer, JsonObject batch) throws IOException {
+        if (batch.size() == 0) {
+            return 0;
+        }
+        List<ScanFileResult> results = postProcessor.processIndexed(JsonUtils.toScanFileResultsFromObject(batch), bom);
+        JsonObject processed = JsonUtils.toScanFileResultJsonObject(results);
+        for (Map.Entry<String, JsonElement> entry : processed.entrySet()) {
+            write(gson, writer, entry.getKey(), entry.getValue());
+        }
+        return processed.size();
+    }
+
+    /**
+     * Write a single (key sorted) result entry
+     *
+     * @param gson   JSON serialiser
+     * @param writer JSON writer
+     * @param path   file path
+     * @param value  file result
+     * @throws IOException if writing failed
+     */
+    private void write(Gson gson, JsonWriter writer, String path, JsonElement value) throws IOException {
+        writer.name(path);
+        if (value.isJsonObject()) {
+            value = JsonUtils.sortJsonObject(value.getAsJsonObject());
+        } else if (value.isJsonArray()) {
+            value = JsonUtils.sortJsonArray(value.getAsJsonArray());
+        }
+        gson.toJson(value, writer);
+    }
+
+    /**
+     * Convert a single result entry into a scan file result
+     *
+     * @param entry file path and result
+     * @return scan file result
+     */
+    private static ScanFileResult toScanFileResult(Map.Entry<String, JsonElement> entry) {
+        JsonObject object = new JsonObject();
+        object.add(entry.getKey(), entry.getValue());
+        return JsonUtils.toScanFileResultsFromObject(object).get(0);
+    }
+
+    /**
+     * Reads the entries of several sorted result files in (merged) file path order
+     */
+    private static class MergeReader implements Closeable {
+        private final List<Path> inputs;
+        private final List<JsonReader> readers = new ArrayList<>();
+        private final PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Comparator.comparing((Cursor c) -> c.name).thenComparingInt(c -> c.input));
+
+        MergeReader(List<Path> inputs) throws IOException {
+            this.inputs = inputs;
+            try {
+                for (int i = 0; i < inputs.size(); i++) {
+                    JsonReader reader = new JsonReader(Files.newBufferedReader(inputs.get(i), StandardCharsets.UTF_8));
+                    readers.add(reader);
+                    try {
+                        reader.beginObject();
+                    } catch (EOFException e) {
+                        continue;  // a shard without results writes nothing
+                    }
+                    advance(new Cursor(reader, i));
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Read the next entry (in file path order)
+         *
+         * @return next entry, or <code>null</code> when all inputs are done
+         * @throws IOException if an input could not be read or is not sorted
+         */
+        Map.Entry<String, JsonElement> next() throws IOException {
+            Cursor cursor = queue.poll();
+            if (cursor == null) {
+                return null;
+            }
+            String name = cursor.name;
+            JsonElement value = JsonParser.parseReader(cursor.reader);
+            advance(cursor);
+            while (!queue.isEmpty() && queue.peek().name.equals(name)) {
+                Cursor duplicate = queue.poll();
+                log.warn("Duplicate result for {} in {}. Keeping the first one.", name, inputs.get(duplicate.input));
+                duplicate.reader.skipValue();
+                advance(duplicate);
+            }
+            return Map.entry(name, value);
+        }
+
+        /**
+         * Move the given cursor to the next entry of its input, queueing it again if there is one
+         *
+         * @param cursor input cursor
+         * @throws IOException if the input could not be read or is not sorted
+         */
+        private void advance(Cursor cursor) throws IOException {
+            if (!cursor.reader.hasNext()) {
+                cursor.reader.endObject();
+                return;
+            }
+            String name = cursor.reader.nextName();
+            if (cursor.name != null && name.compareTo(cursor.name) <= 0) {
+                throw new IOException(String.format("Scan results are not sorted by file path ('%s' after '%s'): %s",
+                        name, cursor.name, inputs.get(cursor.input)));
+            }
+            cursor.name = name;
+            queue.add(cursor);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (JsonReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Current position in one of the inputs
+     */
+    private static class Cursor {
+        final JsonReader reader;
+        final int input;
+        String name; // File path of the next entry
+
+        Cursor(JsonReader reader, int input) {
+            this.reader = reader;
+            this.input = input;
+        }
+    }
+}
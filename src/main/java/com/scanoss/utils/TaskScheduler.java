@@ -0,0 +1,127 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * SCANOSS Task Scheduler Class
+ * <p>
+ * Submits file processing tasks to an executor. In largest-first mode, tasks are held back in a look-ahead window
+ * and submitted by decreasing cost (i.e. file size), so the biggest files start first instead of ending up as the
+ * tail of the run (LPT scheduling). With an unbounded window, all tasks are collected before any is submitted.
+ * </p>
+ * <p>
+ * Futures are always returned in the order the tasks were added, so results keep the discovery order.
+ * This class is not thread safe: tasks must be added from a single thread.
+ * </p>
+ */
+@Slf4j
+public class TaskScheduler<T> {
+    private final ExecutorService executor;
+    private final int lookAhead;
+    private final PriorityQueue<PendingTask<T>> window;
+    private final List<Future<T>> futures = new ArrayList<>();
+    private long added = 0;
+
+    /**
+     * Create a scheduler for the given executor
+     *
+     * @param executor     executor to run the tasks on
+     * @param largestFirst submit the tasks with the highest cost first (optional - default false)
+     * @param lookAhead    maximum number of tasks to hold back in largest-first mode (optional - default 0 = all)
+     */
+    @Builder
+    private TaskScheduler(@NonNull ExecutorService executor, Boolean largestFirst, Integer lookAhead) {
+        this.executor = executor;
+        if (largestFirst != null && largestFirst) {
+            this.lookAhead = lookAhead == null || lookAhead <= 0 ? Integer.MAX_VALUE : lookAhead;
+            this.window = new PriorityQueue<>(Comparator.comparingLong((PendingTask<T> t) -> -t.cost)
+                    .thenComparingLong(t -> t.sequence));
+        } else {
+            this.lookAhead = 0;
+            this.window = null;
+        }
+    }
+
+    /**
+     * Add a task to run
+     *
+     * @param cost estimated cost of the task (i.e. file size in bytes)
+     * @param task task to run
+     */
+    public void add(long cost, @NonNull Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        futures.add(future);
+        if (window == null) {
+            executor.execute(future);
+            return;
+        }
+        window.add(new PendingTask<>(cost, added++, future));
+        if (window.size() > lookAhead) {
+            executor.execute(window.poll().future);
+        }
+    }
+
+    /**
+     * Submit any tasks still held back, largest first
+     *
+     * @return futures of all added tasks, in the order they were added
+     */
+    public List<Future<T>> finish() {
+        if (window != null) {
+            log.debug("Submitting {} held back tasks, largest first", window.size());
+            PendingTask<T> pending;
+            while ((pending = window.poll()) != null) {
+                executor.execute(pending.future);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Task waiting in the look-ahead window
+     */
+    private static class PendingTask<T> {
+        final long cost;
+        final long sequence;
+        final FutureTask<T> future;
+
+        PendingTask(long cost, long sequence, FutureTask<T> future) {
+            this.cost = cost;
+            this.sequence = sequence;
+            this.future = future;
+        }
+    }
+}
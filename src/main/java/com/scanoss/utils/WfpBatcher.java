@@ -0,0 +1,95 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+
+/**
+ * SCANOSS WFP Batcher Class
+ * <p>
+ * Collects the WFPs of multiple files into batches, handing each batch on as soon as adding another file would
+ * take it over the size limit. Batches always hold whole file entries, so a single file larger than the limit is
+ * passed on in a batch of its own. This keeps the memory used by multi-file WFPs (i.e. archive contents) bounded.
+ * </p>
+ */
+public class WfpBatcher {
+    private final int maxSize; // Maximum batch size (in characters)
+    private final BatchConsumer consumer;
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * Create a batcher
+     *
+     * @param maxSize  maximum size (in characters) of a batch
+     * @param consumer action to take on each full batch
+     */
+    public WfpBatcher(int maxSize, @NonNull BatchConsumer consumer) {
+        this.maxSize = maxSize;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Add the WFP of a file, first passing on the current batch if it would get too large
+     *
+     * @param wfp file WFP
+     * @throws IOException if passing on the current batch failed
+     */
+    public void add(String wfp) throws IOException {
+        if (wfp == null || wfp.isEmpty()) {
+            return;
+        }
+        if (batch.length() > 0 && batch.length() + wfp.length() > maxSize) {
+            flush();
+        }
+        batch.append(wfp);
+    }
+
+    /**
+     * Pass on the current batch (if not empty)
+     *
+     * @throws IOException if passing on the batch failed
+     */
+    public void flush() throws IOException {
+        if (batch.length() > 0) {
+            String wfp = batch.toString();
+            batch.setLength(0);
+            consumer.accept(wfp);
+        }
+    }
+
+    /**
+     * Action to take on each WFP batch
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        /**
+         * Accept a batch of file WFPs
+         *
+         * @param wfp multi-file WFP
+         * @throws IOException if processing the batch failed
+         */
+        void accept(String wfp) throws IOException;
+    }
+}
@@ -0,0 +1,182 @@
+// SPDX-License-Identifier: MIT
+/*
+ * Copyright (c) 2026, SCANOSS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.scanoss.utils;
+
+import lombok.NonNull;
+
+/**
+ * SCANOSS WFP Emitter Class
+ * <p>
+ * Writes WFP lines straight into a character buffer, without any intermediate formatting. Snippet hashes are
+ * encoded through lookup tables (CRC32C of the little-endian hash, then hex), so no temporary objects are created
+ * per hash.
+ * </p>
+ * <p>
+ * Instances are not thread safe, but may be reused (see {@link #reset()}).
+ * </p>
+ */
+public class WfpEmitter {
+    private static final int CRC32C_POLYNOMIAL = 0x82F63B78; // Castagnoli, reflected
+    private static final int[] CRC32C_TABLE = new int[256];
+    private static final char[] HEX_PAIRS = new char[512]; // Two lowercase hex digits per byte value
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ CRC32C_POLYNOMIAL : crc >>> 1;
+            }
+            CRC32C_TABLE[i] = crc;
+            HEX_PAIRS[i * 2] = Character.forDigit(i >>> 4, 16);
+            HEX_PAIRS[i * 2 + 1] = Character.forDigit(i & 0xF, 16);
+        }
+    }
+
+    private final StringBuilder out;
+    private int snippetLine = 0; // Line of the open snippet line (0 if none)
+    private int snippetCount = 0; // Number of snippet hashes written
+
+    /**
+     * Create an emitter with the given initial buffer capacity
+     *
+     * @param capacity initial capacity (in characters)
+     */
+    public WfpEmitter(int capacity) {
+        this.out = new StringBuilder(Math.max(capacity, 16));
+    }
+
+    /**
+     * Write the <code>file=&lt;md5&gt;,&lt;size&gt;,&lt;path&gt;</code> line
+     *
+     * @param md5  MD5 hex of the file contents
+     * @param size size of the file in bytes
+     * @param path path to record
+     * @return this emitter
+     */
+    public WfpEmitter file(@NonNull String md5, long size, @NonNull String path) {
+        out.append("file=").append(md5).append(',').append(size).append(',').append(path).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a <code>key=value</code> line (i.e. fh2, hpsm)
+     *
+     * @param key   line key
+     * @param value line value
+     * @return this emitter
+     */
+    public WfpEmitter line(@NonNull String key, @NonNull String value) {
+        out.append(key).append('=').append(value).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a <code>key=value</code> line with a numeric value (i.e. start_line)
+     *
+     * @param key   line key
+     * @param value line value
+     * @return this emitter
+     */
+    public WfpEmitter line(@NonNull String key, int value) {
+        out.append(key).append('=').append(value).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a snippet hash, grouping the hashes of the same line as <code>&lt;line&gt;=&lt;hash&gt;,&lt;hash&gt;...</code>
+     *
+     * @param line line number the hash was found on
+     * @param hash (CRC32C) snippet hash (only the low 32 bits are used)
+     * @return this emitter
+     */
+    public WfpEmitter snippet(int line, long hash) {
+        if (line != snippetLine) {
+            if (snippetLine != 0) {
+                out.append('\n');
+            }
+            out.append(line).append('=');
+            snippetLine = line;
+        } else {
+            out.append(',');
+        }
+        appendHex(crc32cLittleEndian((int) hash));
+        snippetCount++;
+        return this;
+    }
+
+    /**
+     * Complete any open snippet line and return the WFP
+     *
+     * @return WFP string
+     */
+    public String finish() {
+        if (snippetLine != 0) {
+            out.append('\n');
+            snippetLine = 0;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Clear the buffer so the emitter can be reused for the next file
+     */
+    public void reset() {
+        out.setLength(0);
+        snippetLine = 0;
+        snippetCount = 0;
+    }
+
+    /**
+     * @return number of snippet hashes written since the emitter was created/reset
+     */
+    public int getSnippetCount() {
+        return snippetCount;
+    }
+
+    /**
+     * Calculate the CRC32C of the given value, encoded as 4 little-endian bytes
+     *
+     * @param value value to hash
+     * @return CRC32C (as an unsigned 32-bit value)
+     */
+    public static int crc32cLittleEndian(int value) {
+        int crc = ~0;
+        crc = CRC32C_TABLE[(crc ^ value) & 0xFF] ^ (crc >>> 8);
+        crc = CRC32C_TABLE[(crc ^ (value >>> 8)) & 0xFF] ^ (crc >>> 8);
+        crc = CRC32C_TABLE[(crc ^ (value >>> 16)) & 0xFF] ^ (crc >>> 8);
+        crc = CRC32C_TABLE[(crc ^ (value >>> 24)) & 0xFF] ^ (crc >>> 8);
+        return ~crc;
+    }
+
+    /**
+     * Append the given value as 8 (zero padded) lowercase hex digits
+     *
+     * @param value value to encode
+     */
+    private void appendHex(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int b = (value >>> shift) & 0xFF;
+            out.append(HEX_PAIRS[b * 2]).append(HEX_PAIRS[b * 2 + 1]);
+        }
+    }
+}
@@ -25,10 +25,13 @@ package com.scanoss.utils;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 
-import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,6 +48,17 @@ public class WinnowingUtils {
     private WinnowingUtils() {
     }
 
+    private static final int LINE_ENDING_CHUNK_SIZE = 8192; // Digest chunk buffer size for opposite line ending hashes
+
+    // Normalised value of each byte (see normalize(char)). Non-ASCII bytes are never kept
+    private static final byte[] NORMALIZE_TABLE = new byte[256];
+
+    static {
+        for (int i = 0; i < 128; i++) {
+            NORMALIZE_TABLE[i] = (byte) normalize((char) i);
+        }
+    }
+
     /**
      * Inner class to hold line ending detection results.
      */
@@ -74,6 +88,95 @@ public class WinnowingUtils {
         }
     }
 
+    /**
+     * Normalise the given byte using a lookup table
+     * <p>
+     * Only ASCII bytes can produce a non-zero value, so UTF-8 encoded contents can be normalised without decoding.
+     * </p>
+     *
+     * @param b byte to normalise
+     * @return normalised character (0 if it should be ignored)
+     */
+    public static char normalize(byte b) {
+        return (char) NORMALIZE_TABLE[b & 0xFF];
+    }
+
+    /**
+     * Count the number of UTF-16 characters the given UTF-8 bytes decode to, without decoding them.
+     * <p>
+     * Malformed input is counted the way the JDK decoder replaces it (one replacement character per malformed
+     * sequence), so the result is always equal to <code>new String(bytes, offset, length, UTF_8).length()</code>.
+     * </p>
+     *
+     * @param bytes  UTF-8 encoded bytes
+     * @param offset index of the first byte to count
+     * @param length number of bytes to count
+     * @return number of UTF-16 characters
+     */
+    public static int utf16Length(@NonNull byte[] bytes, int offset, int length) {
+        int sp = offset;
+        int sl = offset + length;
+        int count = 0;
+        while (sp < sl) {
+            int b1 = bytes[sp++];
+            count++;
+            if (b1 >= 0) {
+                // ASCII
+            } else if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
+                // 2 byte sequence
+                if (sp < sl && isContinuation(bytes[sp])) {
+                    sp++;
+                } else if (sp >= sl) {
+                    break;
+                }
+            } else if ((b1 >> 4) == -2) {
+                // 3 byte sequence
+                if (sp + 1 < sl) {
+                    int b2 = bytes[sp];
+                    int b3 = bytes[sp + 1];
+                    if ((b1 == (byte) 0xe0 && (b2 & 0xe0) == 0x80) || !isContinuation(b2) || !isContinuation(b3)) {
+                        sp += (b1 == (byte) 0xe0 && (b2 & 0xe0) == 0x80) || !isContinuation(b2) ? 0 : 1;
+                    } else {
+                        sp += 2;
+                    }
+                } else if (sp < sl && ((b1 == (byte) 0xe0 && (bytes[sp] & 0xe0) == 0x80) || !isContinuation(bytes[sp]))) {
+                    // malformed, only the lead byte is replaced
+                } else {
+                    break;  // truncated sequence at the end is replaced as a whole
+                }
+            } else if ((b1 >> 3) == -2) {
+                // 4 byte sequence
+                int lead = b1 & 0xff;
+                if (sp + 2 < sl) {
+                    int b2 = bytes[sp] & 0xff;
+                    if (lead > 0xf4 || (lead == 0xf0 && (b2 < 0x90 || b2 > 0xbf)) || (lead == 0xf4 && (b2 & 0xf0) != 0x80)
+                            || !isContinuation(b2)) {
+                        // malformed, only the lead byte is replaced
+                    } else if (!isContinuation(bytes[sp + 1])) {
+                        sp += 1;
+                    } else if (!isContinuation(bytes[sp + 2])) {
+                        sp += 2;
+                    } else {
+                        sp += 3;
+                        count++;  // surrogate pair
+                    }
+                } else if (lead > 0xf4 || sp < sl && ((lead == 0xf0 && ((bytes[sp] & 0xff) < 0x90 || (bytes[sp] & 0xff) > 0xbf))
+                        || (lead == 0xf4 && (bytes[sp] & 0xf0) != 0x80) || !isContinuation(bytes[sp]))) {
+                    // malformed, only the lead byte is replaced
+                } else if (++sp < sl && !isContinuation(bytes[sp])) {
+                    // malformed, the lead and second byte are replaced
+                } else {
+                    break;  // truncated sequence at the end is replaced as a whole
+                }
+            }
+            // else: stray continuation or invalid lead byte, replaced on its own
+        }
+        return count;
+    }
+
+    private static boolean isContinuation(int b) {
+        return (b & 0xc0) == 0x80;
+    }
 
     /**
      * Extracts the first/primary file path from a WFP block.
@@ -115,10 +218,41 @@ public class WinnowingUtils {
         return paths;
     }
 
+    /**
+     * Split a multi-file WFP block into batches of whole file entries, each no larger than the given size.
+     * A single file entry larger than the limit is returned in a batch on its own.
+     *
+     * @param wfpBlock the WFP block containing multiple file entries
+     * @param maxSize  maximum size (in characters) of each batch
+     * @return List of WFP batches (in the original order)
+     */
+    public static List<String> splitWFPBlock(@NonNull String wfpBlock, int maxSize) {
+        List<String> batches = new ArrayList<>();
+        int batchStart = 0;
+        int entryStart = 0;
+        while (entryStart < wfpBlock.length()) {
+            int next = wfpBlock.indexOf("\nfile=", entryStart);
+            int entryEnd = next < 0 ? wfpBlock.length() : next + 1;
+            if (entryEnd - batchStart > maxSize && entryStart > batchStart) {
+                batches.add(wfpBlock.substring(batchStart, entryStart));
+                batchStart = entryStart;
+            }
+            entryStart = entryEnd;
+        }
+        if (batchStart < wfpBlock.length()) {
+            batches.add(wfpBlock.substring(batchStart));
+        }
+        return batches;
+    }
+
     /**
      * Calculate hash for contents with opposite line endings.
      * If the file is primarily Unix (LF), calculates Windows (CRLF) hash.
      * If the file is primarily Windows (CRLF), calculates Unix (LF) hash.
+     * <p>
+     * The rewritten contents are never materialised: unchanged runs of bytes and the replacement line endings are
+     * streamed into the digest through a small chunk buffer.
+     * </p>
      *
      * @param contents File contents as bytes
      * @return Hash with opposite line endings as hex string, or null if no line endings detected
@@ -131,115 +265,66 @@ public class WinnowingUtils {
             return null;
         }
 
-        // Normalize all line endings to LF first
-        byte[] normalized = replaceSequence(contents, new byte[]{'\r', '\n'}, new byte[]{'\n'});
-        normalized = replaceSequence(normalized, new byte[]{'\r'}, new byte[]{'\n'});
-
-        byte[] oppositeContents;
-
-        // Determine the dominant line ending type
-        if (lineEndingInfo.hasCrlf && !lineEndingInfo.hasStandaloneLf && !lineEndingInfo.hasStandaloneCr) {
-            // File is Windows (CRLF) - produce Unix (LF) hash
-            oppositeContents = normalized;
-        } else {
-            // File is Unix (LF/CR) or mixed - produce Windows (CRLF) hash
-            oppositeContents = replaceSequence(normalized, new byte[]{'\n'}, new byte[]{'\r', '\n'});
-        }
-
-        return DigestUtils.md5Hex(oppositeContents);
-    }
-
-    /**
-     * Detect the types of line endings present in file contents.
-     *
-     * @param contents File contents as bytes
-     * @return LineEndingInfo indicating which line ending types are present
-     */
-    private static LineEndingInfo detectLineEndings(byte[] contents) {
-        // Check for CRLF (Windows line endings)
-        boolean hasCrlf = containsSequence(contents, new byte[]{'\r', '\n'});
-
-        // Remove all CRLF sequences to check for standalone LF and CR
-        byte[] contentWithoutCrlf = replaceSequence(contents, new byte[]{'\r', '\n'}, new byte[]{});
-
-        // Check for standalone LF (not part of CRLF)
-        boolean hasStandaloneLf = containsSequence(contentWithoutCrlf, new byte[]{'\n'});
-
-        // Check for standalone CR (not part of CRLF)
-        boolean hasStandaloneCr = containsSequence(contentWithoutCrlf, new byte[]{'\r'});
-
-        return new LineEndingInfo(hasCrlf, hasStandaloneLf, hasStandaloneCr);
-    }
-
-    /**
-     * Check if a byte array contains a specific sequence of bytes.
-     *
-     * @param data     The byte array to search in
-     * @param sequence The sequence to search for
-     * @return true if the sequence is found, false otherwise
-     */
-    private static boolean containsSequence(byte[] data, byte[] sequence) {
-        if (sequence.length == 0 || data.length < sequence.length) {
-            return false;
-        }
-
-        for (int i = 0; i <= data.length - sequence.length; i++) {
-            boolean found = true;
-            for (int j = 0; j < sequence.length; j++) {
-                if (data[i + j] != sequence[j]) {
-                    found = false;
-                    break;
+        // File is Windows (CRLF) - produce Unix (LF) hash. Otherwise (Unix, CR or mixed) produce a Windows (CRLF) hash
+        boolean toLf = lineEndingInfo.hasCrlf && !lineEndingInfo.hasStandaloneLf && !lineEndingInfo.hasStandaloneCr;
+        MessageDigest digest = DigestUtils.getMd5Digest();
+        byte[] chunk = new byte[LINE_ENDING_CHUNK_SIZE];
+        int chunkLength = 0;
+        int runStart = 0;
+        for (int i = 0; i < contents.length; i++) {
+            byte b = contents[i];
+            if (b != '\r' && b != '\n') {
+                continue;
+            }
+            // Copy the unchanged run before this line ending, then the replacement line ending
+            int runLength = i - runStart;
+            if (chunkLength + runLength + 2 > chunk.length) {
+                digest.update(chunk, 0, chunkLength);
+                chunkLength = 0;
+                if (runLength + 2 > chunk.length) {
+                    digest.update(contents, runStart, runLength);
+                    runLength = 0;
                 }
             }
-            if (found) {
-                return true;
+            System.arraycopy(contents, runStart, chunk, chunkLength, runLength);
+            chunkLength += runLength;
+            if (b == '\r' && i + 1 < contents.length && contents[i + 1] == '\n') {
+                i++;  // CRLF
             }
+            if (!toLf) {
+                chunk[chunkLength++] = '\r';
+            }
+            chunk[chunkLength++] = '\n';
+            runStart = i + 1;
         }
-        return false;
+        digest.update(chunk, 0, chunkLength);
+        digest.update(contents, runStart, contents.length - runStart);
+        return Hex.encodeHexString(digest.digest());
     }
 
     /**
-     * Replace all occurrences of a byte sequence with another sequence.
-     * Uses ByteArrayOutputStream for better performance compared to List<Byte>.
+     * Detect the types of line endings present in file contents (in a single pass).
      *
-     * @param data        The original byte array
-     * @param search      The sequence to search for
-     * @param replacement The sequence to replace with
-     * @return A new byte array with replacements made
+     * @param contents File contents as bytes
+     * @return LineEndingInfo indicating which line ending types are present
      */
-    private static byte[] replaceSequence(byte[] data, byte[] search, byte[] replacement) {
-        if (search.length == 0) {
-            return data;
-        }
-
-        ByteArrayOutputStream result = new ByteArrayOutputStream(data.length);
-        int i = 0;
-
-        while (i < data.length) {
-            boolean found = false;
-
-            // Check if we have a match at current position
-            if (i <= data.length - search.length) {
-                found = true;
-                for (int j = 0; j < search.length; j++) {
-                    if (data[i + j] != search[j]) {
-                        found = false;
-                        break;
-                    }
+    private static LineEndingInfo detectLineEndings(byte[] contents) {
+        boolean hasCrlf = false;
+        boolean hasStandaloneLf = false;
+        boolean hasStandaloneCr = false;
+        for (int i = 0; i < contents.length; i++) {
+            byte b = contents[i];
+            if (b == '\n') {
+                hasStandaloneLf = true;
+            } else if (b == '\r') {
+                if (i + 1 < contents.length && contents[i + 1] == '\n') {
+                    hasCrlf = true;
+                    i++;
+                } else {
+                    hasStandaloneCr = true;
                 }
             }
-
-            if (found) {
-                // Add replacement bytes
-                result.write(replacement, 0, replacement.length);
-                i += search.length;
-            } else {
-                // Add current byte
-                result.write(data[i]);
-                i++;
-            }
         }
-
-        return result.toByteArray();
+        return new LineEndingInfo(hasCrlf, hasStandaloneLf, hasStandaloneCr);
     }
 }
@@ -22,18 +22,33 @@
  */
 package com.scanoss;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.scanoss.cli.CommandLine;
 import lombok.extern.slf4j.Slf4j;
+import com.scanoss.utils.WinnowingUtils;
+import lombok.NonNull;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.scanoss.TestConstants.SCAN_RESP_SUCCESS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @Slf4j
@@ -102,6 +117,49 @@ public class TestCli {
         log.info("Finished {} -->", methodName);
     }
 
+    @Test
+    public void TestWfpCommandOutput() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path output = Files.createTempFile("scanoss", ".wfp");
+        String[] args = new String[]{"wfp", "--ordered", "-o", output.toString(), "src/test/java/com"};
+        int exitCode = new picocli.CommandLine(new CommandLine()).execute(args);
+        assertEquals("command should not fail", 0, exitCode);
+        String expected = String.join("", Scanner.builder().snippetLimit(1000).build().wfpFolder("src/test/java/com"));
+        assertEquals("Ordered output should match the folder WFP", expected, Files.readString(output));
+        Files.delete(output);
+
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void TestWfpCommandStats() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path output = Files.createTempFile("scanoss", ".wfp");
+        Path stats = Files.createTempFile("scanoss", ".json");
+        String[] args = new String[]{"wfp", "--stats", "--stats-file", stats.toString(), "-o", output.toString(), "src/test"};
+        int exitCode = new picocli.CommandLine(new CommandLine()).execute(args);
+        assertEquals("command should not fail", 0, exitCode);
+        JsonObject json = JsonParser.parseString(Files.readString(stats)).getAsJsonObject();
+        JsonObject walk = json.getAsJsonObject("walk");
+        JsonObject fingerprint = json.getAsJsonObject("fingerprint");
+        assertTrue("Files should have been found", walk.get("files").getAsLong() > 0);
+        assertEquals("All files fingerprinted", walk.get("files").getAsLong(), fingerprint.get("files").getAsLong());
+        assertTrue("Bytes read", fingerprint.get("bytes").getAsLong() > 0);
+        assertTrue("Resources filtered by extension", walk.getAsJsonObject("filter_reasons").has("extension"));
+        assertEquals("No requests", 0, json.getAsJsonObject("requests").get("count").getAsLong());
+        assertTrue("Peak heap", json.get("peak_heap_bytes").getAsLong() > 0);
+        Files.delete(output);
+        Files.delete(stats);
+
+        log.info("Finished {} -->", methodName);
+    }
+
     @Test
     public void TestWfpCommandNegative() {
         String methodName = new Object() {
@@ -208,4 +266,156 @@ public class TestCli {
         log.info("Finished {} -->", methodName);
     }
 
+    @Test
+    public void TestScanShardsAndMergeCommand() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        server.setDispatcher(noMatchDispatcher());
+        String folder = "src/main/java/com/scanoss/utils";
+        String apiUrl = server.url("/api/scan/direct").toString();
+        Path full = Files.createTempFile("scanoss", ".json");
+        String[] args = new String[]{"scan", "--obfuscate", "--apiurl", apiUrl, "-o", full.toString(), folder};
+        assertEquals("full scan should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+
+        List<String> mergeArgs = new ArrayList<>(List.of("merge", "-o", Files.createTempFile("scanoss", ".json").toString()));
+        for (int i = 1; i <= 3; i++) {
+            Path shard = Files.createTempFile("scanoss-shard", ".json");
+            args = new String[]{"scan", "--obfuscate", "--shard", i + "/3", "--apiurl", apiUrl, "-o", shard.toString(), folder};
+            assertEquals("shard scan should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+            mergeArgs.add(shard.toString());
+        }
+        int exitCode = new picocli.CommandLine(new CommandLine()).execute(mergeArgs.toArray(new String[0]));
+        assertEquals("merge should not fail", 0, exitCode);
+        Path merged = Path.of(mergeArgs.get(2));
+        assertEquals("Merged shards should match the full scan", Files.readString(full), Files.readString(merged));
+
+        args = new String[]{"scan", "--shard", "4/3", "--apiurl", apiUrl, folder};
+        assertTrue("invalid shard should fail", new picocli.CommandLine(new CommandLine()).execute(args) != 0);
+        for (int i = 3; i < mergeArgs.size(); i++) {
+            Files.delete(Path.of(mergeArgs.get(i)));
+        }
+        Files.delete(merged);
+        Files.delete(full);
+
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void TestDaemonCommand() throws Exception {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        server.setDispatcher(noMatchDispatcher());
+        String apiUrl = server.url("/api/scan/direct").toString();
+        Path infoFile = Files.createTempDirectory("scanoss-daemon").resolve("daemon.json");
+        Thread daemon = startDaemon(infoFile, apiUrl, 0);
+
+        String folder = "src/main/java/com/scanoss/utils";
+        Path local = Files.createTempFile("scanoss", ".json");
+        Path remote = Files.createTempFile("scanoss", ".json");
+        String[] args = new String[]{"scan", "--apiurl", apiUrl, "-o", local.toString(), folder};
+        assertEquals("local scan should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        args = new String[]{"scan", "--daemon", "--daemon-info", infoFile.toString(), "-o", remote.toString(), folder};
+        assertEquals("daemon scan should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        assertEquals("Daemon scan should match the local scan", Files.readString(local), Files.readString(remote));
+
+        String file = "src/main/java/com/scanoss/Winnowing.java";
+        args = new String[]{"wfp", "-o", local.toString(), file};
+        assertEquals("local wfp should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        args = new String[]{"wfp", "--daemon", "--daemon-info", infoFile.toString(), "-o", remote.toString(), file};
+        assertEquals("daemon wfp should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        assertEquals("Daemon WFP should match the local WFP", Files.readString(local), Files.readString(remote));
+
+        // Single files keep the path as given (absolute, i.e. from IDEs), and are not filtered (like a local run)
+        for (String single : new String[]{Path.of(file).toAbsolutePath().toString(), Path.of("README.md").toAbsolutePath().toString()}) {
+            for (String command : new String[]{"scan", "wfp"}) {
+                args = new String[]{command, "--apiurl", apiUrl, "-o", local.toString(), single};
+                if (command.equals("wfp")) {
+                    args = new String[]{command, "-o", local.toString(), single};
+                }
+                assertEquals("local " + command + " should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+                args = new String[]{command, "--daemon", "--daemon-info", infoFile.toString(), "-o", remote.toString(), single};
+                assertEquals("daemon " + command + " should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+                assertEquals("Daemon " + command + " of " + single + " should match local", Files.readString(local), Files.readString(remote));
+                assertTrue("Output should record the absolute path", Files.readString(remote).contains(single));
+            }
+        }
+        args = new String[]{"wfp", "-o", local.toString(), file};
+        assertEquals("local wfp should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+
+        // Per-run options would be ignored by the daemon, so are rejected
+        args = new String[]{"scan", "--daemon", "--daemon-info", infoFile.toString(), "--settings", "scanoss.json", folder};
+        assertTrue("daemon scan with --settings should fail", new picocli.CommandLine(new CommandLine()).execute(args) != 0);
+        args = new String[]{"scan", "--daemon", "--daemon-info", infoFile.toString(), "-T", "2", folder};
+        assertTrue("daemon scan with -T should fail", new picocli.CommandLine(new CommandLine()).execute(args) != 0);
+        args = new String[]{"wfp", "--daemon", "--daemon-info", infoFile.toString(), "--skip-headers", file};
+        assertTrue("daemon wfp with --skip-headers should fail", new picocli.CommandLine(new CommandLine()).execute(args) != 0);
+
+        args = new String[]{"daemon", "--status", "--info-file", infoFile.toString()};
+        assertEquals("daemon status should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        int port = JsonParser.parseString(Files.readString(infoFile)).getAsJsonObject().get("port").getAsInt();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", InetAddress.getLoopbackAddress().getHostAddress(),
+                port, "/v1/status").openConnection();
+        connection.setRequestProperty("Authorization", "Bearer invalid");
+        assertEquals("Requests without the token should be rejected", 401, connection.getResponseCode());
+        connection.disconnect();
+
+        args = new String[]{"daemon", "--stop", "--info-file", infoFile.toString()};
+        assertEquals("daemon stop should not fail", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        daemon.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse("Daemon should have stopped", daemon.isAlive());
+        assertFalse("Daemon info file should be removed", Files.exists(infoFile));
+
+        args = new String[]{"wfp", "--daemon", "--daemon-info", infoFile.toString(), "-o", remote.toString(), file};
+        assertEquals("wfp should fall back to local", 0, new picocli.CommandLine(new CommandLine()).execute(args));
+        assertEquals("Local fallback WFP", Files.readString(local), Files.readString(remote));
+
+        daemon = startDaemon(infoFile, apiUrl, 1);
+        daemon.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse("Idle daemon should have stopped", daemon.isAlive());
+        Files.delete(local);
+        Files.delete(remote);
+
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Start a scan daemon in the background and wait for its info file
+     *
+     * @param infoFile    daemon info file
+     * @param apiUrl      scanning API URL
+     * @param idleTimeout idle timeout in seconds (0 = never)
+     * @return daemon thread
+     */
+    private Thread startDaemon(Path infoFile, String apiUrl, int idleTimeout) throws InterruptedException {
+        Thread daemon = new Thread(() -> new picocli.CommandLine(new CommandLine()).execute("daemon", "--info-file",
+                infoFile.toString(), "--apiurl", apiUrl, "--idle-timeout", String.valueOf(idleTimeout)));
+        daemon.start();
+        for (int i = 0; i < 300 && !Files.exists(infoFile); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue("Daemon info file should be written", Files.exists(infoFile));
+        return daemon;
+    }
+
+    /**
+     * @return mock server dispatcher answering each scanned file with a "no match" result
+     */
+    private Dispatcher noMatchDispatcher() {
+        return new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                JsonObject results = new JsonObject();
+                for (String path : WinnowingUtils.extractFilePathsFromWFPBlock(request.getBody().readUtf8())) {
+                    results.add(path, JsonParser.parseString("[{\"id\": \"none\"}]"));
+                }
+                return new MockResponse().addHeader("Content-Type", "application/json; charset=utf-8")
+                        .setBody(results.toString()).setResponseCode(200);
+            }
+        };
+    }
 }
@@ -32,6 +32,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
@@ -330,4 +332,194 @@ public class TestHeaderFilter {
         assertNull(headerFilter.detectLanguage("file.unknown"));
         assertNull(headerFilter.detectLanguage("noextension"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void TestByteScannerMatchesRegexFilter() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Sample files, as bytes and as decoded strings
+        try (Stream<Path> files = Files.list(Path.of(TEST_FILES_DIR))) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                byte[] contents = Files.readAllBytes(path);
+                String name = path.getFileName().toString();
+                int expected = RegexHeaderFilter.filter(headerFilter, name, new String(contents, StandardCharsets.UTF_8), null);
+                assertEquals("Offset mismatch for " + name, expected, headerFilter.filter(name, contents));
+                String crlf = new String(contents, StandardCharsets.UTF_8).replace("\n", "\r\n");
+                assertEquals("CRLF offset mismatch for " + name,
+                        RegexHeaderFilter.filter(headerFilter, name, crlf, null), headerFilter.filter(name, crlf));
+            }
+        }
+
+        // Random headers built from the tokens each language cares about (plus terminators and malformed UTF-8)
+        String[] tokens = {
+                "import", "from", "export", "type", "package", "use", "extern", "crate", "mod", "#include", "#pragma",
+                "#ifndef", "#define", "#endif", "_H", "using", "namespace", "require", "require_once", "require_relative",
+                "include", "include_once", "load", "library", "source", "local", "part", "module", "alias", "ns",
+                "const", "var", "let", "=", "require(", "(", ")", "{", "}", "*", "\"", "'", "_", "x", "Foo9",
+                "//", "/*", "*/", "/", "#", "#!", "\"\"\"", "--", "--[[", "]]", "<!--", "-->",
+                "Copyright", "LICENSE", "mit", "All Rights Reserved", "Author:", "GPL", "SPDX-License",
+                " ", " ", " ", "\t", "\r", "\f", "\u000B", "\u0001", "\u0085", " ", " ", "é", "İ",
+                "K", "﻿", "😀", "\n", "\n", "\n"
+        };
+        byte[][] malformed = {{(byte) 0xC3}, {(byte) 0xE2, (byte) 0x80}, {(byte) 0xF0, (byte) 0x9F}, {(byte) 0x85}};
+        String[] extensions = {".py", ".js", ".ts", ".java", ".go", ".rs", ".c", ".cs", ".php", ".rb", ".pl", ".r",
+                ".lua", ".dart", ".hs", ".ex", ".clj", ".swift", ".kt", ".sh", ".txt"};
+        Random random = new Random(38);
+        for (int iteration = 0; iteration < 20000; iteration++) {
+            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            int count = random.nextInt(60);
+            for (int t = 0; t < count; t++) {
+                if (random.nextInt(40) == 0) {
+                    out.writeBytes(malformed[random.nextInt(malformed.length)]);
+                } else {
+                    out.writeBytes(tokens[random.nextInt(tokens.length)].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            byte[] contents = out.toByteArray();
+            String name = "fuzz" + extensions[random.nextInt(extensions.length)];
+            Integer limit = random.nextInt(4) == 0 ? 1 + random.nextInt(5) : null;
+            HeaderFilter filter = new HeaderFilter(limit);
+            int expected = RegexHeaderFilter.filter(filter, name, new String(contents, StandardCharsets.UTF_8), limit);
+            assertEquals("Offset mismatch for " + name + ": " + Arrays.toString(contents), expected, filter.filter(name, contents));
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Reference implementation: the regular expression based header filter the byte scanner replaced
+     */
+    private static class RegexHeaderFilter {
+        private static final Map<String, Pattern[]> COMMENT_PATTERNS = new HashMap<>();
+        private static final Map<String, List<Pattern>> IMPORT_PATTERNS = new HashMap<>();
+        private static final List<String> LICENSE_KEYWORDS = Arrays.asList(
+                "copyright", "license", "licensed", "all rights reserved",
+                "permission", "redistribution", "warranty", "liability",
+                "apache", "mit", "gpl", "bsd", "mozilla", "author:",
+                "spdx-license", "contributors", "licensee");
+
+        static {
+            // singleLine, multiStart, multiEnd, multiSingle, docStringStart, docStringEnd
+            COMMENT_PATTERNS.put("c_style", patterns("^\\s*//.*$", "^\\s*/\\*", "\\*/\\s*$", "^\\s*/\\*.*\\*/\\s*$", null, null));
+            COMMENT_PATTERNS.put("python_style", patterns("^\\s*#.*$", null, null, null, "^\\s*\"\"\"", "\"\"\"\\s*$"));
+            COMMENT_PATTERNS.put("lua_style", patterns("^\\s*--.*$", "^\\s*--\\[\\[", "\\]\\]\\s*$", null, null, null));
+            IMPORT_PATTERNS.put("python", list("^\\s*import\\s+", "^\\s*from\\s+.*\\s+import\\s+"));
+            IMPORT_PATTERNS.put("javascript", list("^\\s*import\\s+.*\\s+from\\s+", "^\\s*import\\s+[\"']",
+                    "^\\s*import\\s+type\\s+", "^\\s*export\\s+\\*\\s+from\\s+", "^\\s*export\\s+\\{.*\\}\\s+from\\s+",
+                    "^\\s*const\\s+.*\\s*=\\s*require\\(", "^\\s*var\\s+.*\\s*=\\s*require\\(",
+                    "^\\s*let\\s+.*\\s*=\\s*require\\("));
+            IMPORT_PATTERNS.put("typescript", list("^\\s*import\\s+", "^\\s*export\\s+.*\\s+from\\s+",
+                    "^\\s*import\\s+type\\s+", "^\\s*import\\s+\\{.*\\}\\s+from\\s+"));
+            IMPORT_PATTERNS.put("java", list("^\\s*import\\s+", "^\\s*package\\s+"));
+            IMPORT_PATTERNS.put("kotlin", list("^\\s*import\\s+", "^\\s*package\\s+"));
+            IMPORT_PATTERNS.put("scala", list("^\\s*import\\s+", "^\\s*package\\s+"));
+            IMPORT_PATTERNS.put("go", list("^\\s*import\\s+\\(", "^\\s*import\\s+\"", "^\\s*package\\s+",
+                    "^\\s*\"[^\"]*\"\\s*$", "^\\s*[a-zA-Z_][a-zA-Z0-9_]*\\s+\"[^\"]*\"\\s*$", "^\\s*_\\s+\"[^\"]*\"\\s*$"));
+            IMPORT_PATTERNS.put("rust", list("^\\s*use\\s+", "^\\s*extern\\s+crate\\s+", "^\\s*mod\\s+"));
+            IMPORT_PATTERNS.put("cpp", list("^\\s*#include\\s+", "^\\s*#pragma\\s+", "^\\s*#ifndef\\s+.*_H.*",
+                    "^\\s*#define\\s+.*_H.*", "^\\s*#endif\\s+(//.*)?(\\s*)$"));
+            IMPORT_PATTERNS.put("csharp", list("^\\s*using\\s+", "^\\s*namespace\\s+"));
+            IMPORT_PATTERNS.put("php", list("^\\s*use\\s+", "^\\s*require\\s+", "^\\s*require_once\\s+",
+                    "^\\s*include\\s+", "^\\s*include_once\\s+", "^\\s*namespace\\s+"));
+            IMPORT_PATTERNS.put("swift", list("^\\s*import\\s+"));
+            IMPORT_PATTERNS.put("ruby", list("^\\s*require\\s+", "^\\s*require_relative\\s+", "^\\s*load\\s+"));
+            IMPORT_PATTERNS.put("perl", list("^\\s*use\\s+", "^\\s*require\\s+"));
+            IMPORT_PATTERNS.put("r", list("^\\s*library\\(", "^\\s*require\\(", "^\\s*source\\("));
+            IMPORT_PATTERNS.put("lua", list("^\\s*require\\s+", "^\\s*local\\s+.*\\s*=\\s*require\\("));
+            IMPORT_PATTERNS.put("dart", list("^\\s*import\\s+", "^\\s*export\\s+", "^\\s*part\\s+"));
+            IMPORT_PATTERNS.put("haskell", list("^\\s*import\\s+", "^\\s*module\\s+"));
+            IMPORT_PATTERNS.put("elixir", list("^\\s*import\\s+", "^\\s*alias\\s+", "^\\s*require\\s+", "^\\s*use\\s+"));
+            IMPORT_PATTERNS.put("clojure", list("^\\s*\\(\\s*ns\\s+", "^\\s*\\(\\s*require\\s+", "^\\s*\\(\\s*import\\s+"));
+        }
+
+        static int filter(HeaderFilter filter, String file, String contents, Integer maxLines) {
+            String language = filter.detectLanguage(file);
+            if (contents.isEmpty() || language == null) {
+                return 0;
+            }
+            Integer start = findFirstImplementationLine(contents.split("\n", -1), language);
+            if (start == null) {
+                return 0;
+            }
+            return maxLines != null && maxLines < start - 1 ? maxLines : start - 1;
+        }
+
+        static Integer findFirstImplementationLine(String[] lines, String language) {
+            boolean inMultiline = false, inLicense = false, inImportBlock = false;
+            String style = Set.of("python", "ruby", "perl", "r").contains(language) ? "python_style" :
+                    Set.of("lua", "haskell").contains(language) ? "lua_style" : "c_style";
+            Pattern[] comment = COMMENT_PATTERNS.get(style);
+            List<Pattern> imports = IMPORT_PATTERNS.getOrDefault(language, Collections.emptyList());
+            for (int i = 0; i < lines.length; i++) {
+                String line = lines[i];
+                String stripped = line.trim();
+                if ((i == 0 && stripped.startsWith("#!")) || stripped.isEmpty()) {
+                    continue;
+                }
+                boolean[] result = isComment(line, inMultiline, comment);
+                inMultiline = result[1];
+                if (result[0]) {
+                    String lower = line.toLowerCase();
+                    if (LICENSE_KEYWORDS.stream().anyMatch(lower::contains)) {
+                        inLicense = true;
+                    } else if (!(inLicense && i + 1 < 50)) {
+                        inLicense = false;
+                    }
+                    continue;
+                }
+                inLicense = false;
+                if (inImportBlock) {
+                    if (stripped.contains(")") || stripped.contains("}")) {
+                        inImportBlock = false;
+                    }
+                    continue;
+                }
+                if (imports.stream().anyMatch(p -> p.matcher(line).find())) {
+                    if ((stripped.contains("(") && !stripped.contains(")")) ||
+                            (stripped.contains("{") && !stripped.contains("}"))) {
+                        inImportBlock = true;
+                    }
+                    continue;
+                }
+                return i + 1;
+            }
+            return null;
+        }
+
+        private static boolean[] isComment(String line, boolean inMultiline, Pattern[] p) {
+            if (inMultiline) {
+                boolean end = (p[2] != null && p[2].matcher(line).find()) || (p[5] != null && p[5].matcher(line).find());
+                return new boolean[]{true, !end};
+            }
+            if ((p[0] != null && p[0].matcher(line).matches()) || (p[3] != null && p[3].matcher(line).matches())) {
+                return new boolean[]{true, false};
+            }
+            if (p[1] != null && p[1].matcher(line).find()) {
+                return new boolean[]{true, p[2] == null || !p[2].matcher(line).find()};
+            }
+            if (p[4] != null && line.contains("\"\"\"")) {
+                int count = line.split("\"\"\"", -1).length - 1;
+                if (count == 2) {
+                    return new boolean[]{true, false};
+                }
+                if (count == 1) {
+                    return new boolean[]{true, true};
+                }
+            }
+            return new boolean[]{false, false};
+        }
+
+        private static Pattern[] patterns(String... regexes) {
+            Pattern[] patterns = new Pattern[regexes.length];
+            for (int i = 0; i < regexes.length; i++) {
+                patterns[i] = regexes[i] == null ? null : Pattern.compile(regexes[i]);
+            }
+            return patterns;
+        }
+
+        private static List<Pattern> list(String... regexes) {
+            return Arrays.asList(patterns(regexes));
+        }
+    }
+}
@@ -22,9 +22,12 @@
  */
 package com.scanoss;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.scanoss.exceptions.ScanApiException;
 import com.scanoss.rest.HttpStatusCode;
 import com.scanoss.rest.ScanApi;
+import com.scanoss.rest.ScanResultCache;
 import com.scanoss.settings.Bom;
 import com.scanoss.settings.Rule;
 import com.scanoss.settings.ScanossSettings;
@@ -38,6 +41,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
@@ -93,6 +98,25 @@ public class TestScanApi {
         log.info("Finished {} -->", methodName);
     }
 
+    @Test
+    public void TestScanApiLazyHttpClient() {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        OkHttpClient client = new OkHttpClient();
+        ScanApi scanApi = ScanApi.builder().okHttpClient(client).build();
+        assertSame("Should use the supplied HTTP client", client, scanApi.getOkHttpClient());
+
+        scanApi = ScanApi.builder().timeout(Duration.ofSeconds(7)).customCert(customSelfSignedCertificate).build();
+        OkHttpClient built = scanApi.getOkHttpClient();
+        assertNotNull("Should build an HTTP client on first use", built);
+        assertSame("Should build the HTTP client only once", built, scanApi.getOkHttpClient());
+        assertEquals("Should apply the configured timeout", 7000, built.callTimeoutMillis());
+
+        log.info("Finished {} -->", methodName);
+    }
+
     @Test
     public void TestScanApiScanPositive() {
         String methodName = new Object() {
@@ -247,6 +271,76 @@ public class TestScanApi {
         log.info("Finished {} -->", methodName);
     }
 
+    @Test
+    public void TestScanApiResultCachePositive() throws IOException, InterruptedException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path cacheDir = Files.createTempDirectory("scanoss-cache");
+        String wfpA = "file=0f0b9b8b0a0d4e2c3b0e4f1a2b3c4d5e,100,a.c\n4=1a2b3c4d\n";
+        String wfpB = "file=1f0b9b8b0a0d4e2c3b0e4f1a2b3c4d5e,200,b.c\n5=2a2b3c4d\n";
+        String respA = "\"a.c\":[{\"id\":\"none\"}]";
+        String respB = "\"b.c\":[{\"id\":\"file\"}]";
+        ScanResultCache cache = ScanResultCache.builder().directory(cacheDir).build();
+        ScanApi scanApi = ScanApi.builder().url(server.url("/api/scan/direct").toString()).resultCache(cache).build();
+
+        // Cold cache: everything is sent
+        server.enqueue(new MockResponse().setBody("{" + respA + "}").setResponseCode(200));
+        String result = scanApi.scan(wfpA, null, 1);
+        assertNotNull(result);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, cache.getMisses());
+        assertTrue(server.takeRequest().getBody().readUtf8().contains("a.c"));
+
+        // Partial hit: only the uncached file is sent, and results are merged
+        server.enqueue(new MockResponse().setBody("{" + respB + "}").setResponseCode(200));
+        result = scanApi.scan(wfpA + wfpB, null, 1);
+        assertEquals(2, server.getRequestCount());
+        String body = server.takeRequest().getBody().readUtf8();
+        assertTrue("Should've sent the cache miss", body.contains("b.c"));
+        assertFalse("Should not have sent the cache hit", body.contains("a.c"));
+        JsonObject merged = JsonParser.parseString(result).getAsJsonObject();
+        assertTrue(merged.has("a.c") && merged.has("b.c"));
+
+        // Full hit, from a new cache instance reading the same folder: nothing is sent
+        cache = ScanResultCache.builder().directory(cacheDir).build();
+        scanApi = ScanApi.builder().url(server.url("/api/scan/direct").toString()).resultCache(cache).build();
+        result = scanApi.scan(wfpA + wfpB, null, 1);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, JsonParser.parseString(result).getAsJsonObject().size());
+
+        // Different flags produce different keys
+        scanApi = ScanApi.builder().url(server.url("/api/scan/direct").toString()).flags("8").resultCache(cache).build();
+        server.enqueue(new MockResponse().setBody("{" + respA + "}").setResponseCode(200));
+        scanApi.scan(wfpA, null, 1);
+        assertEquals(3, server.getRequestCount());
+
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void TestScanApiResultCacheExpiryEviction() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
 
+        Path cacheDir = Files.createTempDirectory("scanoss-cache");
+        ScanResultCache cache = ScanResultCache.builder().directory(cacheDir).ttl(Duration.ZERO).build();
+        cache.put("aa01", "{}");
+        assertNull("Expired entry should not be returned", cache.get("aa01"));
+        assertEquals(0, cache.getEntryCount());
+
+        cache = ScanResultCache.builder().directory(cacheDir).maxSize(10L).build();
+        cache.put("aa02", "[1,2,3]");
+        assertEquals("[1,2,3]", cache.get("aa02"));
+        cache.put("bb03", "[4,5,6]");
+        assertTrue("Cache should stay within its size limit", cache.getSize() <= 10);
+        assertEquals(1, cache.getEvictions());
+        assertNull("Least recently used entry should be evicted", cache.get("aa02"));
+        assertEquals("[4,5,6]", cache.get("bb03"));
 
+        log.info("Finished {} -->", methodName);
+    }
 }
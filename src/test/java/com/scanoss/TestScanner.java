@@ -23,14 +23,26 @@
 package com.scanoss;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.scanoss.dto.ScanFileDetails;
 import com.scanoss.dto.ScanFileResult;
 import com.scanoss.dto.ServerDetails;
 import com.scanoss.dto.enums.MatchType;
 import com.scanoss.exceptions.ScannerException;
 import com.scanoss.filters.FilterConfig;
+import com.scanoss.metrics.LatencyHistogram;
+import com.scanoss.metrics.ScanMetrics;
 import com.scanoss.settings.ScanossSettings;
+import com.scanoss.sources.FileListSource;
+import com.scanoss.sources.FileSystemSource;
+import com.scanoss.sources.InMemorySource;
+import com.scanoss.sources.ScanEntry;
+import com.scanoss.utils.FolderWatcher;
+import com.scanoss.utils.GitDiff;
 import com.scanoss.utils.JsonUtils;
+import com.scanoss.utils.ScanJournal;
+import com.scanoss.utils.Shard;
+import com.scanoss.utils.TaskScheduler;
 import com.scanoss.utils.WinnowingUtils;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -38,17 +50,23 @@ import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.jgit.api.Git;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
+import static com.scanoss.ScanossConstants.MAX_WFP_BATCH_SIZE;
 import static org.junit.Assert.*;
 
 @Slf4j
@@ -367,6 +385,33 @@ public class TestScanner {
 
 
 
+    @Test
+    public void TestScannerParallelWalk() {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        for (String folder : Arrays.asList(".", "testing", "testing/data/folder-ends-with-nbproject")) {
+            Scanner scanner = Scanner.builder().skipSnippets(true).build();
+            List<String> sequential = new ArrayList<>(scanner.wfpFolder(folder));
+            scanner = Scanner.builder().skipSnippets(true).parallelWalk(true).numThreads(3).build();
+            List<String> parallel = new ArrayList<>(scanner.wfpFolder(folder));
+            Collections.sort(sequential);
+            Collections.sort(parallel);
+            assertFalse("WFP should not be empty", parallel.isEmpty());
+            assertEquals("Parallel walk should discover the same files for " + folder, sequential, parallel);
+        }
+
+        ScanossSettings.Patterns patterns = ScanossSettings.Patterns.builder().scanning(List.of("*nbproject")).build();
+        ScanossSettings.Skip skip = ScanossSettings.Skip.builder().patterns(patterns).build();
+        ScanossSettings scanossSettings = ScanossSettings.builder()
+                .settings(ScanossSettings.Settings.builder().skip(skip).build()).build();
+        Scanner scanner = Scanner.builder().settings(scanossSettings).parallelWalk(true).build();
+        assertTrue("Folder should be skipped by gitignore", scanner.wfpFolder("testing/data/folder-ends-with-nbproject").isEmpty());
+
+        log.info("Finished {} -->", methodName);
+    }
+
     @Test
     public void TestScannerSkipGitIgnore() {
         String methodName = new Object() {
@@ -643,4 +688,823 @@ public class TestScanner {
                 assertTrue("Result should be a valid source file path: " + r.getFilePath(),
                         allFiles.contains(r.getFilePath())));
     }
+
+    /**
+     * Test that only the files changed between two Git revisions are scanned, and merged into previous results
+     */
+    @Test
+    public void testScanGitChanges() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path repo = Files.createTempDirectory("scanoss-git");
+        try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+            Files.writeString(repo.resolve("keep.c"), "int keep() { return 1; }\n");
+            Files.writeString(repo.resolve("modify.c"), "int modify() { return 1; }\n");
+            Files.writeString(repo.resolve("delete.c"), "int remove() { return 1; }\n");
+            Files.writeString(repo.resolve("rename.c"), "int rename_me(int a, int b) { return a + b; }\n");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("base").setSign(false).call();
+            git.tag().setName("v1").call();
+
+            Files.writeString(repo.resolve("modify.c"), "int modify() { return 2; }\n");
+            Files.writeString(repo.resolve("add.c"), "int add() { return 1; }\n");
+            Files.delete(repo.resolve("delete.c"));
+            Files.move(repo.resolve("rename.c"), repo.resolve("renamed.c"));
+            git.add().addFilepattern(".").call();
+            git.rm().addFilepattern("delete.c").addFilepattern("rename.c").call();
+            git.commit().setMessage("head").setSign(false).call();
+
+            GitDiff diff = GitDiff.between(repo.toFile(), "v1", null);
+            assertEquals("Changed files", Set.of("modify.c", "add.c", "renamed.c"), new HashSet<>(diff.getChangedFiles()));
+            assertEquals("Deleted files", Set.of("delete.c", "rename.c"), new HashSet<>(diff.getDeletedFiles()));
+
+            final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+            server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+            Scanner scanner = Scanner.builder().url(server.url("/api/scan/direct").toString()).build();
+
+            List<String> results = scanner.scanGitChanges(repo.toString(), "v1", null);
+            assertEquals("Server should only receive changed files", Set.of("modify.c", "add.c", "renamed.c"), receivedPaths);
+            assertEquals("Results", 3, results.size());
+
+            // Merge into a previous full scan result
+            Path previous = repo.resolve("previous.json");
+            Files.writeString(previous, "{\"keep.c\":[{\"id\":\"none\"}],\"modify.c\":[{\"id\":\"file\"}]," +
+                    "\"delete.c\":[{\"id\":\"none\"}],\"rename.c\":[{\"id\":\"none\"}]}");
+            results = scanner.scanGitChanges(repo.toString(), "v1", "HEAD", previous.toString());
+            JsonObject merged = JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results));
+            assertEquals("Merged results", Set.of("keep.c", "modify.c", "add.c", "renamed.c"), merged.keySet());
+            assertEquals("Modified file should be rescanned", "none",
+                    merged.getAsJsonArray("modify.c").get(0).getAsJsonObject().get("id").getAsString());
+
+            // No changes between identical revisions
+            receivedPaths.clear();
+            results = scanner.scanGitChanges(repo.toString(), "HEAD", "HEAD");
+            assertTrue("No results expected", results.isEmpty());
+            assertTrue("No requests expected", receivedPaths.isEmpty());
+
+            // Changes limited to (and relative to) a folder inside the work tree
+            Files.createDirectories(repo.resolve("sub"));
+            Files.writeString(repo.resolve("sub/inner.c"), "int inner() { return 1; }\n");
+            Files.writeString(repo.resolve("keep.c"), "int keep() { return 2; }\n");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("sub").setSign(false).call();
+            diff = GitDiff.between(repo.resolve("sub").toFile(), "HEAD~1", null);
+            assertEquals("Changed files in folder", List.of("inner.c"), diff.getChangedFiles());
+            assertEquals("Diff folder", repo.resolve("sub").toRealPath(), diff.getWorkTree().toPath().toRealPath());
+            results = scanner.scanGitChanges(repo.resolve("sub").toString(), "HEAD~1", null);
+            assertEquals("Server should only receive folder changes", Set.of("inner.c"), receivedPaths);
+            assertEquals("Folder results", Set.of("inner.c"), JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).keySet());
+        } finally {
+            try (var paths = Files.walk(repo)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test fingerprinting/scanning a Git revision straight from a (bare) repository object database
+     */
+    @Test
+    public void testScanGitTree() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path repo = Files.createTempDirectory("scanoss-git");
+        Path bare = Files.createTempDirectory("scanoss-bare");
+        String source = Files.readString(Paths.get("src/main/java/com/scanoss/Winnowing.java"));
+        try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+            Files.createDirectories(repo.resolve("src"));
+            Files.createDirectories(repo.resolve("generated"));
+            Files.writeString(repo.resolve("src/Winnowing.java"), source);
+            Files.writeString(repo.resolve("src/Copy.java"), source);
+            Files.writeString(repo.resolve("src/Skip.java"), "class Skip {}\n");
+            Files.writeString(repo.resolve("generated/Gen.java"), "class Gen {}\n");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("initial").setSign(false).call();
+            // Ignore files that are already tracked
+            Files.writeString(repo.resolve(".gitignore"), "generated/\n");
+            Files.writeString(repo.resolve("src/.gitignore"), "Skip.java\n");
+            git.add().addFilepattern(".gitignore").addFilepattern("src/.gitignore").call();
+            git.commit().setMessage("ignores").setSign(false).call();
+            // Change the work tree, so we know the files are read from the object database
+            Files.writeString(repo.resolve("src/Winnowing.java"), "class Changed {}\n");
+        }
+        try (Git ignored = Git.cloneRepository().setURI(repo.toUri().toString()).setDirectory(bare.toFile()).setBare(true).call()) {
+            Scanner scanner = Scanner.builder().url(server.url("/api/scan/direct").toString()).build();
+            String expected = scanner.getWinnowing().wfpForContents("src/Winnowing.java", false, source.getBytes());
+
+            for (Path path : List.of(repo, bare)) {
+                List<String> wfps = scanner.wfpGitTree(path.toString(), "HEAD");
+                Map<String, String> byPath = wfps.stream().collect(Collectors.toMap(
+                        w -> w.substring(w.indexOf(',', w.indexOf(',') + 1) + 1, w.indexOf('\n')), w -> w));
+                assertEquals("Files fingerprinted", Set.of("src/Winnowing.java", "src/Copy.java"), byPath.keySet());
+                assertEquals("WFP should match the committed contents", expected, byPath.get("src/Winnowing.java"));
+                assertEquals("Cached WFP should only differ by path", expected.replace("src/Winnowing.java", "src/Copy.java"),
+                        byPath.get("src/Copy.java"));
+            }
+            final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+            server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+            List<String> results = scanner.scanGitTree(bare.toString(), null);
+            assertEquals("Results", 2, results.size());
+            assertEquals("Scanned paths", Set.of("src/Winnowing.java", "src/Copy.java"), receivedPaths);
+        } finally {
+            for (Path dir : List.of(repo, bare)) {
+                try (var paths = Files.walk(dir)) {
+                    paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+                }
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test fingerprinting/scanning the entries of (nested) zip/jar and tar.gz archives without extracting them
+     */
+    @Test
+    public void testScanArchives() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        byte[] source = Files.readAllBytes(Paths.get("src/main/java/com/scanoss/Winnowing.java"));
+        byte[] other = Files.readAllBytes(Paths.get("src/main/java/com/scanoss/Scanner.java"));
+        Path folder = Files.createTempDirectory("scanoss-archives");
+        try {
+            java.io.ByteArrayOutputStream nested = new java.io.ByteArrayOutputStream();
+            try (java.util.zip.ZipOutputStream zip = new java.util.zip.ZipOutputStream(nested)) {
+                zip.putNextEntry(new java.util.zip.ZipEntry("Z.java"));
+                zip.write(other);
+            }
+            try (java.util.zip.ZipOutputStream zip = new java.util.zip.ZipOutputStream(Files.newOutputStream(folder.resolve("lib.jar")))) {
+                zip.putNextEntry(new java.util.zip.ZipEntry("com/x/"));
+                zip.putNextEntry(new java.util.zip.ZipEntry("com/x/Y.java"));
+                zip.write(source);
+                zip.putNextEntry(new java.util.zip.ZipEntry("com/x/Y.class"));
+                zip.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+                zip.putNextEntry(new java.util.zip.ZipEntry("nbproject/Skip.java"));
+                zip.write(other);
+                zip.putNextEntry(new java.util.zip.ZipEntry("nested.zip"));
+                zip.write(nested.toByteArray());
+            }
+            java.io.ByteArrayOutputStream tar = new java.io.ByteArrayOutputStream();
+            writeTarEntry(tar, "pkg/A.java", source);
+            writeTarEntry(tar, "pkg/B.java", other);
+            tar.write(new byte[1024]);
+            try (java.util.zip.GZIPOutputStream gz = new java.util.zip.GZIPOutputStream(Files.newOutputStream(folder.resolve("src.tar.gz")))) {
+                gz.write(tar.toByteArray());
+            }
+            Scanner scanner = Scanner.builder().scanArchives(true).url(server.url("/api/scan/direct").toString()).build();
+            Map<String, String> byPath = new HashMap<>();
+            for (String wfp : scanner.wfpFolder(folder.toString())) {
+                for (String block : wfp.split("(?=file=)")) {
+                    byPath.put(block.substring(block.indexOf(',', block.indexOf(',') + 1) + 1, block.indexOf('\n')), block);
+                }
+            }
+            assertEquals("Fingerprinted paths", Set.of("lib.jar", "lib.jar!/com/x/Y.java", "lib.jar!/nested.zip",
+                    "lib.jar!/nested.zip!/Z.java", "src.tar.gz", "src.tar.gz!/pkg/A.java", "src.tar.gz!/pkg/B.java"), byPath.keySet());
+            Winnowing winnowing = scanner.getWinnowing();
+            assertEquals("Zip entry WFP", winnowing.wfpForContents("lib.jar!/com/x/Y.java", false, source), byPath.get("lib.jar!/com/x/Y.java"));
+            assertEquals("Tar entry WFP", winnowing.wfpForContents("src.tar.gz!/pkg/B.java", false, other), byPath.get("src.tar.gz!/pkg/B.java"));
+
+            // Limit the nesting level and check the scan requests
+            final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+            server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+            scanner = Scanner.builder().scanArchives(true).archiveDepth(1).url(server.url("/api/scan/direct").toString()).build();
+            List<String> results = scanner.scanFolder(folder.toString());
+            Set<String> expected = Set.of("lib.jar", "lib.jar!/com/x/Y.java", "lib.jar!/nested.zip",
+                    "src.tar.gz", "src.tar.gz!/pkg/A.java", "src.tar.gz!/pkg/B.java");
+            assertEquals("Scanned paths", expected, receivedPaths);
+            assertEquals("Result paths", expected, JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).keySet());
+        } finally {
+            try (var paths = Files.walk(folder)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test that archive entry WFPs are batched as they are fingerprinted, GNU/PAX extended tar headers are bounded,
+     * and unreadable archives fail the scan instead of dropping entries
+     */
+    @Test
+    public void testScanArchiveLimits() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path folder = Files.createTempDirectory("scanoss-archives");
+        try {
+            Set<String> entries = new HashSet<>(Set.of("big.jar"));
+            try (java.util.zip.ZipOutputStream zip = new java.util.zip.ZipOutputStream(Files.newOutputStream(folder.resolve("big.jar")))) {
+                Path root = Paths.get("src/main/java");
+                List<Path> sources;
+                try (var paths = Files.walk(root)) {
+                    sources = paths.filter(p -> p.toString().endsWith(".java")).collect(Collectors.toList());
+                }
+                for (Path source : sources) {
+                    String name = root.relativize(source).toString().replace('\\', '/');
+                    zip.putNextEntry(new java.util.zip.ZipEntry(name));
+                    zip.write(Files.readAllBytes(source));
+                    entries.add("big.jar!/" + name);
+                }
+            }
+            Scanner scanner = Scanner.builder().scanArchives(true).url(server.url("/api/scan/direct").toString()).build();
+            String wfp = scanner.wfpFolder(folder.toString()).get(0);
+            assertTrue("Archive WFP should need several batches", wfp.length() > 2 * MAX_WFP_BATCH_SIZE);
+            StringWriter streamed = new StringWriter();
+            assertEquals("Streamed files", 1, scanner.wfpFolder(folder.toString(), streamed));
+            assertEquals("Streamed WFP", wfp, streamed.toString());
+            InMemorySource memory = InMemorySource.builder().file("big.jar", Files.readAllBytes(folder.resolve("big.jar"))).build();
+            assertEquals("Source WFP", wfp, scanner.wfpSource(memory).get(0));
+
+            final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+            server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+            int requests = server.getRequestCount();
+            List<String> results = scanner.scanFolder(folder.toString());
+            assertEquals("Scanned paths", entries, receivedPaths);
+            assertEquals("Result paths", entries, JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).keySet());
+            int batches = WinnowingUtils.splitWFPBlock(wfp, MAX_WFP_BATCH_SIZE).size();
+            assertEquals("Scan requests", batches, server.getRequestCount() - requests);
+            requests = server.getRequestCount();
+            results = scanner.scanSource(memory);
+            assertEquals("Source result paths", entries, JsonUtils.joinJsonObjects(JsonUtils.toJsonObjects(results)).keySet());
+            assertEquals("Source scan requests", batches, server.getRequestCount() - requests);
+            Files.delete(folder.resolve("big.jar"));
+
+            // GNU long link names must not be taken as the name of the next entry
+            byte[] contents = "int main() { return 0; }\n".getBytes();
+            String longName = "pkg/" + "x".repeat(120) + ".c";
+            java.io.ByteArrayOutputStream tar = new java.io.ByteArrayOutputStream();
+            writeTarData(tar, "././@LongLink", 'K', "target/link.c\0".getBytes());
+            writeTarData(tar, "link.c", '2', new byte[0]);
+            writeTarData(tar, "././@LongLink", 'L', (longName + "\0").getBytes());
+            writeTarEntry(tar, "truncated-name.c", contents);
+            writeTarEntry(tar, "short.c", contents);
+            tar.write(new byte[1024]);
+            Files.write(folder.resolve("names.tar"), tar.toByteArray());
+            Set<String> paths = WinnowingUtils.extractFilePathsFromWFPBlock(String.join("", scanner.wfpFolder(folder.toString())));
+            assertEquals("Tar paths", Set.of("names.tar", "names.tar!/" + longName, "names.tar!/short.c"), new HashSet<>(paths));
+            Files.delete(folder.resolve("names.tar"));
+
+            // Oversized extended headers and truncated archives are errors
+            tar.reset();
+            writeTarData(tar, "././@LongLink", 'L', new byte[1024 * 1024]);
+            writeTarEntry(tar, "a.c", contents);
+            Files.write(folder.resolve("huge.tar"), tar.toByteArray());
+            assertWfpFolderFails(scanner, folder.toString());
+            Files.delete(folder.resolve("huge.tar"));
+
+            tar.reset();
+            writeTarEntry(tar, "a.c", contents);
+            writeTarEntry(tar, "b.c", contents);
+            Files.write(folder.resolve("truncated.tar"), Arrays.copyOf(tar.toByteArray(), 512 + 512 + 100));
+            assertWfpFolderFails(scanner, folder.toString());
+        } finally {
+            try (var paths = Files.walk(folder)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Check that fingerprinting the given folder fails
+     */
+    private void assertWfpFolderFails(Scanner scanner, String folder) {
+        try {
+            scanner.wfpFolder(folder);
+            fail("Expected a ScannerException");
+        } catch (ScannerException e) {
+            log.info("Got expected exception: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write a single regular file entry in (ustar) tar format
+     */
+    private void writeTarEntry(java.io.ByteArrayOutputStream tar, String name, byte[] contents) throws IOException {
+        writeTarData(tar, name, '0', contents);
+    }
+
+    /**
+     * Write a single entry of the given type in (ustar) tar format
+     */
+    private void writeTarData(java.io.ByteArrayOutputStream tar, String name, char type, byte[] contents) throws IOException {
+        byte[] header = new byte[512];
+        System.arraycopy(name.getBytes(), 0, header, 0, name.length());
+        System.arraycopy(String.format("%07o\0", 0644).getBytes(), 0, header, 100, 8);
+        System.arraycopy(String.format("%011o\0", contents.length).getBytes(), 0, header, 124, 12);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\0".getBytes(), 0, header, 257, 6);
+        tar.write(header);
+        tar.write(contents);
+        tar.write(new byte[(512 - contents.length % 512) % 512]);
+    }
+
+    /**
+     * Test that the file system, file list and in-memory scan sources feed the same fingerprint/scan pipeline
+     */
+    @Test
+    public void testScanSources() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Scanner scanner = Scanner.builder().url(server.url("/api/scan/direct").toString()).build();
+        String folder = "src/main/java/com/scanoss";
+        List<String> expected = scanner.wfpFolder(folder);
+        Collections.sort(expected);
+
+        List<String> wfps = scanner.wfpSource(FileSystemSource.builder().root(Paths.get(folder))
+                .fileFilter(scanner.getFileFilter()).folderFilter(scanner.getFolderFilter()).build());
+        Collections.sort(wfps);
+        assertEquals("File system source WFPs", expected, wfps);
+
+        List<String> files = List.of("Scanner.java", "Winnowing.java", "cli/ScanCommandLine.java");
+        wfps = scanner.wfpSource(FileListSource.builder().root(Paths.get(folder)).files(files).build());
+        List<String> expectedList = scanner.processFileList(folder, files, scanner.getWfpFileProcessor());
+        Collections.sort(wfps);
+        Collections.sort(expectedList);
+        assertEquals("File list source WFPs", expectedList, wfps);
+
+        byte[] contents = Files.readAllBytes(Paths.get(folder, "Winnowing.java"));
+        String expectedWfp = scanner.getWinnowing().wfpForFile(folder + "/Winnowing.java", "mem/Winnowing.java");
+        InMemorySource memory = InMemorySource.builder().file("mem/Winnowing.java", contents).file("mem/empty.c", new byte[0])
+                .folderFilter(scanner.getFolderFilter()).build();
+        assertEquals("In-memory source WFP", List.of(expectedWfp), scanner.wfpSource(memory));
+        assertEquals("Buffer entry contents", new String(contents),
+                new String(ScanEntry.of("x.java", java.nio.ByteBuffer.wrap(contents)).readAllBytes()));
+
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+        List<String> results = scanner.scanSource(memory);
+        assertEquals("Results", 1, results.size());
+        assertEquals("Scanned paths", Set.of("mem/Winnowing.java"), receivedPaths);
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test scanning a pre-generated WFP file in batches
+     */
+    @Test
+    public void testScanWfpFile() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Scanner scanner = Scanner.builder().numThreads(4).url(server.url("/api/scan/direct").toString()).build();
+        String wfp = String.join("", scanner.wfpFolder("src"));
+        assertTrue("WFP should need several batches", wfp.length() > 2 * MAX_WFP_BATCH_SIZE);
+        Path wfpFile = Files.createTempFile("scanoss", ".wfp");
+        Files.writeString(wfpFile, wfp);
+
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+        StringWriter out = new StringWriter();
+        long files = scanner.scanWfpFile(wfpFile.toString(), out);
+        Set<String> expected = WinnowingUtils.extractFilePathsFromWFPBlock(wfp);
+        assertEquals("Scanned file count", expected.size(), files);
+        assertEquals("Scanned paths", expected, receivedPaths);
+        assertTrue("Should've been sent in batches", server.getRequestCount() > 1);
+        JsonObject results = JsonUtils.toJsonObject(out.toString());
+        assertEquals("Results", expected, results.keySet());
+        Files.delete(wfpFile);
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test streaming folder fingerprints to a writer, in completion and discovery order
+     */
+    @Test
+    public void testWfpFolderStreaming() {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Scanner scanner = Scanner.builder().numThreads(3).build();
+        String folder = "src/main/java/com/scanoss";
+        List<String> expected = scanner.wfpFolder(folder);
+
+        StringWriter ordered = new StringWriter();
+        assertEquals("Ordered file count", expected.size(), scanner.wfpFolder(folder, ordered, true));
+        assertEquals("Ordered WFP", String.join("", expected), ordered.toString());
+
+        StringWriter unordered = new StringWriter();
+        assertEquals("Unordered file count", expected.size(), scanner.wfpFolder(folder, unordered));
+        List<String> blocks = WinnowingUtils.splitWFPBlock(unordered.toString(), 0);
+        Collections.sort(blocks);
+        List<String> sortedExpected = new ArrayList<>(expected);
+        Collections.sort(sortedExpected);
+        assertEquals("Unordered WFP blocks", sortedExpected, blocks);
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void testLargestFirstScheduling() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Tasks run largest first (within the look-ahead window), while futures keep the order they were added in
+        long[] costs = {5, 50, 1, 20, 100};
+        for (int lookAhead : new int[]{0, 2}) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            List<Long> executed = Collections.synchronizedList(new ArrayList<>());
+            TaskScheduler<Long> scheduler = TaskScheduler.<Long>builder().executor(executor).largestFirst(true)
+                    .lookAhead(lookAhead).build();
+            for (long cost : costs) {
+                scheduler.add(cost, () -> {
+                    executed.add(cost);
+                    return cost;
+                });
+            }
+            List<Future<Long>> futures = scheduler.finish();
+            executor.shutdown();
+            List<Long> results = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get());
+            }
+            assertEquals("Results in added order", List.of(5L, 50L, 1L, 20L, 100L), results);
+            assertEquals("Execution order (look ahead " + lookAhead + ")",
+                    lookAhead == 0 ? List.of(100L, 50L, 20L, 5L, 1L) : List.of(50L, 20L, 100L, 5L, 1L), executed);
+        }
+
+        // Largest-first scanning does not change the results (or their order)
+        String folder = "src/main/java/com/scanoss";
+        List<String> expected = Scanner.builder().numThreads(3).build().wfpFolder(folder);
+        assertEquals("Largest first WFPs", expected,
+                Scanner.builder().numThreads(3).largestFirst(true).build().wfpFolder(folder));
+        assertEquals("Largest first WFPs (look ahead)", expected,
+                Scanner.builder().numThreads(3).largestFirst(true).lookAhead(4).build().wfpFolder(folder));
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test collecting scan metrics through a listener
+     */
+    @Test
+    public void testScanMetrics() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertEquals("p50", 500_000, histogram.getPercentile(50), 500_000 * 0.04);
+        assertEquals("p99", 990_000, histogram.getPercentile(99), 990_000 * 0.04);
+        assertEquals("p100", 1_000_000, histogram.getPercentile(100));
+
+        Path dir = Files.createTempDirectory("scanoss-metrics");
+        Files.writeString(dir.resolve("a.c"), "int main() {\n  return 0;\n}\n");
+        Files.writeString(dir.resolve("b.c"), "int add(int a, int b) {\n  return a + b;\n}\n");
+        Files.writeString(dir.resolve(".hidden.c"), "int hidden;\n");
+        Files.createDirectories(dir.resolve(".hidden"));
+        Files.writeString(dir.resolve(".hidden/c.c"), "int c;\n");
+
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+        ScanMetrics metrics = new ScanMetrics();
+        Scanner scanner = Scanner.builder().numThreads(2).url(server.url("/api/scan/direct").toString())
+                .listener(metrics).build();
+        List<String> results = scanner.scanFolder(dir.toString());
+        assertEquals("Results", 2, results.size());
+        assertEquals("Discovered", 2, metrics.getFilesDiscovered());
+        assertEquals("Filtered files", 1, metrics.getFilesFiltered());
+        assertEquals("Filtered folders", 1, metrics.getFoldersFiltered());
+        assertEquals("Fingerprinted", 2, metrics.getFilesFingerprinted());
+        assertEquals("Bytes read", Files.size(dir.resolve("a.c")) + Files.size(dir.resolve("b.c")), metrics.getBytesRead());
+        assertEquals("Posted", 2, metrics.getRequestsPosted());
+        assertEquals("Request latencies", 2, metrics.getRequestLatency().getCount());
+        assertTrue("WFP bytes sent", metrics.getWfpBytesSent() > 0);
+        assertEquals("Failed requests", 0, metrics.getRequestsFailed());
+        assertEquals("Failed files", 0, metrics.getFilesFailed());
+        assertEquals("Post-processed", 2, metrics.getResultsPostProcessed());
+        assertEquals("Post-processing runs", 1, metrics.getPostProcessingLatency().getCount());
+        long peakHeap = metrics.getPeakHeapUsed();
+        assertTrue("Sampled peak heap", peakHeap > 0);
+        assertTrue("Peak heap only grows", metrics.sampleHeap() >= peakHeap);
+        assertTrue("Peak heap within the heap", peakHeap <= Runtime.getRuntime().maxMemory());
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test recording the SCANOSS JFR events while scanning
+     */
+    @Test
+    public void testJfrEvents() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path dir = Files.createTempDirectory("scanoss-jfr");
+        Files.copy(Paths.get("src/main/java/com/scanoss/Winnowing.java"), dir.resolve("Winnowing.java"));
+        // Latin-1 text is not classified by the fast file type check, so it goes through Tika detection
+        Files.write(dir.resolve("b.c"), "int add(int a, int b) { /* caf\u00e9 */\n  return a + b;\n}\n"
+                .getBytes(java.nio.charset.StandardCharsets.ISO_8859_1));
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+        Scanner scanner = Scanner.builder().numThreads(1).url(server.url("/api/scan/direct").toString()).build();
+
+        Path dump = Files.createTempFile("scanoss", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("com.scanoss.WinnowFile", "com.scanoss.TikaDetect", "com.scanoss.ScanRequest", "com.scanoss.PostProcess")) {
+                recording.enable(event).withThreshold(java.time.Duration.ZERO);
+            }
+            recording.start();
+            assertEquals("Results", 2, scanner.scanFolder(dir.toString()).size());
+            recording.stop();
+            recording.dump(dump);
+        }
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(dump).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+        Files.deleteIfExists(dump);
+
+        List<RecordedEvent> winnowed = events.getOrDefault("com.scanoss.WinnowFile", List.of());
+        assertEquals("WinnowFile events", 2, winnowed.size());
+        assertTrue("Snippets recorded", winnowed.stream().anyMatch(event -> event.getInt("snippets") > 0));
+        assertTrue("Path hashes recorded", winnowed.stream().allMatch(event -> event.getString("pathHash").length() == 32));
+        assertFalse("TikaDetect events", events.getOrDefault("com.scanoss.TikaDetect", List.of()).isEmpty());
+        List<RecordedEvent> requests = events.getOrDefault("com.scanoss.ScanRequest", List.of());
+        assertEquals("ScanRequest events", 2, requests.size());
+        for (RecordedEvent request : requests) {
+            assertEquals("Status", 200, request.getInt("status"));
+            assertEquals("Batch size", 1, request.getInt("files"));
+            assertEquals("Retries", 0, request.getInt("retries"));
+        }
+        assertEquals("PostProcess events", 1, events.getOrDefault("com.scanoss.PostProcess", List.of()).size());
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test resuming a failed folder scan from its journal
+     */
+    @Test
+    public void testScanFolderJournalResume() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path dir = Files.createTempDirectory("scanoss-journal");
+        Files.writeString(dir.resolve("a.c"), "int a() {\n  return 1;\n}\n");
+        Files.writeString(dir.resolve("b.c"), "int b() {\n  return 2;\n}\n");
+        String failing = "int c() {\n  return 3;\n}\n";
+        Files.writeString(dir.resolve("c.c"), failing);
+        String failingMd5 = org.apache.commons.codec.digest.DigestUtils.md5Hex(failing);
+
+        for (boolean obfuscate : new boolean[]{false, true}) {
+            final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+            Dispatcher noMatch = createNoMatchDispatcher(receivedPaths);
+            final java.util.concurrent.atomic.AtomicBoolean fail = new java.util.concurrent.atomic.AtomicBoolean(false);
+            server.setDispatcher(new Dispatcher() {
+                @NonNull
+                @Override
+                public MockResponse dispatch(@NonNull RecordedRequest request) throws InterruptedException {
+                    if (fail.get() && request.getBody().clone().readUtf8().contains(failingMd5)) {
+                        return new MockResponse().setResponseCode(503);  // service limits exceeded
+                    }
+                    return noMatch.dispatch(request);
+                }
+            });
+            String url = server.url("/api/scan/direct").toString();
+            List<String> expected = Scanner.builder().obfuscate(obfuscate).url(url).build().scanFolder(dir.toString());
+            fail.set(true);
+
+            // First run: one file fails, the others are journaled
+            Path journalFile = Files.createTempFile("scanoss", ".journal");
+            try (ScanJournal journal = ScanJournal.builder().file(journalFile).build()) {
+                Scanner scanner = Scanner.builder().numThreads(2).obfuscate(obfuscate).url(url).build();
+                scanner.scanFolder(dir.toString(), journal);
+                fail("Scan should have failed");
+            } catch (ScannerException e) {
+                log.info("Got expected exception: {}", e.getMessage());
+            }
+            assertEquals("Journal records", 3, Files.readAllLines(journalFile).size());
+
+            // Resume: only the failed file is scanned again, and the output matches a full scan
+            fail.set(false);
+            receivedPaths.clear();
+            try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+                assertEquals("Files done", 2, journal.getDoneCount());
+                assertEquals("Files failed", 1, journal.getFailedCount());
+                Scanner scanner = Scanner.builder().numThreads(2).obfuscate(obfuscate).url(url).build();
+                assertEquals("Resumed results (obfuscate " + obfuscate + ")", expected, scanner.scanFolder(dir.toString(), journal));
+            }
+            assertEquals("Only the failed file is rescanned", 1, receivedPaths.size());
+            try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+                assertEquals("All files done", 3, journal.getDoneCount());
+                assertEquals("No files failed", 0, journal.getFailedCount());
+            }
+            Files.delete(journalFile);
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test that journaled results are not deobfuscated again when resuming an obfuscated scan, even if a real file
+     * name looks like an obfuscated ID
+     */
+    @Test
+    public void testScanFolderJournalResumeObfuscatedNames() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Obfuscated IDs are unique per JVM: the probe takes ID n, the first run n+1 and n+2, and the resumed run n+3
+        String probe = Winnowing.builder().obfuscate(true).build().wfpForContents("probe.c", false, new byte[]{'x'});
+        probe = probe.substring(0, probe.indexOf('\n'));
+        long probeId = Long.parseLong(probe.substring(probe.lastIndexOf(',') + 1, probe.length() - 2));
+        String clash = (probeId + 3) + ".c";
+        Path dir = Files.createTempDirectory("scanoss-journal");
+        Files.writeString(dir.resolve(clash), "int zero() {\n  return 0;\n}\n");
+        Files.createDirectories(dir.resolve("sub"));
+        String failing = "int x() {\n  return 1;\n}\n";
+        Files.writeString(dir.resolve("sub/x.c"), failing);
+        String failingMd5 = org.apache.commons.codec.digest.DigestUtils.md5Hex(failing);
+
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        Dispatcher noMatch = createNoMatchDispatcher(receivedPaths);
+        final java.util.concurrent.atomic.AtomicBoolean fail = new java.util.concurrent.atomic.AtomicBoolean(true);
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) throws InterruptedException {
+                if (fail.get() && request.getBody().clone().readUtf8().contains(failingMd5)) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                return noMatch.dispatch(request);
+            }
+        });
+        String url = server.url("/api/scan/direct").toString();
+        Path journalFile = Files.createTempFile("scanoss", ".journal");
+        try {
+            try (ScanJournal journal = ScanJournal.builder().file(journalFile).build()) {
+                Scanner.builder().numThreads(1).obfuscate(true).url(url).build().scanFolder(dir.toString(), journal);
+                fail("Scan should have failed");
+            } catch (ScannerException e) {
+                log.info("Got expected exception: {}", e.getMessage());
+            }
+            fail.set(false);
+            try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+                assertNotNull(clash + " should be done", journal.getResult(clash));
+                // The resumed scan obfuscates sub/x.c with the real name of the journaled file
+                List<String> results = Scanner.builder().numThreads(1).obfuscate(true).url(url).build()
+                        .scanFolder(dir.toString(), journal);
+                assertEquals("Resumed result paths", List.of(clash, "sub/x.c"),
+                        results.stream().map(r -> JsonUtils.toJsonObject(r).keySet().iterator().next()).sorted()
+                                .collect(Collectors.toList()));
+            }
+        } finally {
+            Files.delete(journalFile);
+            try (var paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test resuming a journal whose last record was truncated (or left without a line feed) by a crash
+     */
+    @Test
+    public void testScanJournalTruncatedRecord() throws IOException {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path journalFile = Files.createTempFile("scanoss", ".journal");
+        try (ScanJournal journal = ScanJournal.builder().file(journalFile).build()) {
+            journal.done("a.c", "{\"a.c\":[]}");
+            journal.failed("b.c", "timeout");
+        }
+        Files.writeString(journalFile, "{\"path\":\"c.c\",\"sta", StandardOpenOption.APPEND);  // partial record
+        try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+            assertEquals("Files done", 1, journal.getDoneCount());
+            assertEquals("Files failed", 1, journal.getFailedCount());
+            journal.done("b.c", "{\"b.c\":[]}");
+        }
+        try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+            assertEquals("Files done after the second resume", 2, journal.getDoneCount());
+            assertEquals("No files failed", 0, journal.getFailedCount());
+            assertEquals("Record appended after the partial one", "{\"b.c\":[]}", journal.getResult("b.c"));
+        }
+        assertEquals("Partial record cut off", 3, Files.readAllLines(journalFile).size());
+
+        // A complete record only missing its line feed is kept
+        Files.writeString(journalFile, "{\"path\":\"d.c\",\"status\":\"done\",\"result\":\"{}\"}", StandardOpenOption.APPEND);
+        try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+            assertEquals("Unterminated record loaded", "{}", journal.getResult("d.c"));
+            journal.done("e.c", "{}");
+        }
+        try (ScanJournal journal = ScanJournal.builder().file(journalFile).resume(true).build()) {
+            assertEquals("Files done", 4, journal.getDoneCount());
+            assertEquals("Record appended after the unterminated one", "{}", journal.getResult("e.c"));
+        }
+        Files.delete(journalFile);
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test sharded fingerprinting splits the (filtered) files into disjoint shards covering all files
+     */
+    @Test
+    public void testShardedWfpFolder() {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        String folder = "src/main/java/com/scanoss";
+        Set<String> expected = WinnowingUtils.extractFilePathsFromWFPBlock(
+                String.join("", Scanner.builder().build().wfpFolder(folder)));
+        Set<String> found = new HashSet<>();
+        int shards = 3;
+        for (int i = 1; i <= shards; i++) {
+            Shard shard = Shard.parse(i + "/" + shards);
+            Scanner scanner = Scanner.builder().shard(shard).build();
+            Set<String> paths = WinnowingUtils.extractFilePathsFromWFPBlock(String.join("", scanner.wfpFolder(folder)));
+            assertFalse("Shard should not be empty: " + shard, paths.isEmpty());
+            for (String path : paths) {
+                assertTrue("File should belong to its shard: " + path, shard.contains(path));
+                assertTrue("File should only be in one shard: " + path, found.add(path));
+            }
+            StringWriter streamed = new StringWriter();
+            assertEquals("Streamed shard file count", paths.size(), scanner.wfpFolder(folder, streamed));
+        }
+        assertEquals("Shards should cover all files", expected, found);
+        assertEquals("Single shard", expected, WinnowingUtils.extractFilePathsFromWFPBlock(
+                String.join("", Scanner.builder().shard(Shard.parse("1/1")).build().wfpFolder(folder))));
+
+        for (String invalid : List.of("0/2", "3/2", "1", "a/b", "1/0")) {
+            assertThrows(invalid, IllegalArgumentException.class, () -> Shard.parse(invalid));
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Test watching a folder keeps its results up to date, rescanning only the changed files
+     */
+    @Test
+    public void testWatchFolder() throws Exception {
+        String methodName = new Object() {}.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        Path dir = Files.createTempDirectory("scanoss-watch");
+        Files.writeString(dir.resolve("a.c"), "int a() {\n  return 1;\n}\n");
+        Files.createDirectories(dir.resolve("sub"));
+        Files.writeString(dir.resolve("sub").resolve("b.c"), "int b() {\n  return 2;\n}\n");
+        Files.createDirectories(dir.resolve(".hidden"));
+        String a = "a.c";
+        String b = Paths.get("sub", "b.c").toString();
+        String c = Paths.get("new", "c.c").toString();
+
+        final Set<String> receivedPaths = ConcurrentHashMap.newKeySet();
+        server.setDispatcher(createNoMatchDispatcher(receivedPaths));
+        Scanner scanner = Scanner.builder().url(server.url("/api/scan/direct").toString()).build();
+        final Set<String> updated = ConcurrentHashMap.newKeySet();
+        final Set<String> removed = ConcurrentHashMap.newKeySet();
+        try (FolderWatcher watcher = FolderWatcher.builder().scanner(scanner).folder(dir.toString())
+                .debounce(java.time.Duration.ofMillis(100))
+                .listener((w, u, r) -> {
+                    updated.addAll(u);
+                    removed.addAll(r);
+                }).build()) {
+            watcher.start();
+            assertEquals("Initial results", Set.of(a, b), updated);
+            assertEquals("Initial results", Set.of(a, b), watcher.getResults().keySet());
+
+            // Only the modified file is rescanned
+            receivedPaths.clear();
+            updated.clear();
+            Files.writeString(dir.resolve("a.c"), "int a() {\n  return 10;\n}\n");
+            awaitCondition("Modified file rescanned", () -> updated.contains(a));
+            assertEquals("Rescanned files", Set.of(a), receivedPaths);
+
+            // New folders are watched, and their files scanned. Filtered folders are not
+            Files.writeString(dir.resolve(".hidden").resolve("x.c"), "int x() {\n  return 4;\n}\n");
+            Files.createDirectories(dir.resolve("new"));
+            Files.writeString(dir.resolve(c), "int c() {\n  return 3;\n}\n");
+            awaitCondition("New file scanned", () -> watcher.getResult(c) != null);
+
+            // Deleted files and folders are dropped
+            Files.delete(dir.resolve(b));
+            Files.delete(dir.resolve(c));
+            Files.delete(dir.resolve("new"));
+            awaitCondition("Deleted files dropped", () -> removed.containsAll(Set.of(b, c)));
+            assertEquals("Final results", Set.of(a), watcher.getResults().keySet());
+            assertEquals("Result count", 1, watcher.getResultCount());
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    /**
+     * Wait (up to 10 seconds) for the given condition to become true
+     *
+     * @param message   failure message
+     * @param condition condition to wait for
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void awaitCondition(String message, java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(50);
+        }
+    }
 }
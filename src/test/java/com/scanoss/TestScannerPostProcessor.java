@@ -23,25 +23,34 @@
 package com.scanoss;
 
 import com.google.gson.JsonObject;
+import com.scanoss.dto.ScanFileDetails;
 import com.scanoss.dto.ScanFileResult;
 import com.scanoss.dto.enums.MatchType;
 import com.scanoss.settings.Bom;
 import com.scanoss.settings.RemoveRule;
 import com.scanoss.settings.ReplaceRule;
 import com.scanoss.utils.JsonUtils;
+import com.scanoss.utils.Shard;
+import com.scanoss.utils.ShardMerger;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.scanoss.TestConstants.jsonResultsString;
@@ -464,5 +473,73 @@ public class TestScannerPostProcessor {
         log.info("Finished {} -->", methodName);
     }
 
+    /**
+     * TESTING SHARD MERGE
+     **/
+    @Test
+    public void TestShardMergeMatchesUnshardedResults() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
 
-}
\ No newline at end of file
+        Bom bom = Bom.builder()
+                .remove(List.of(RemoveRule.builder().purl("pkg:github/twbs/bootstrap").build()))
+                .replace(List.of(ReplaceRule.builder()
+                        .purl("pkg:github/scanoss/scanner.c")
+                        .replaceWith("pkg:maven/com.scanoss/scanoss")
+                        .build()))
+                .build();
+        List<ScanFileResult> all = new ArrayList<>(longScanResults);
+        Set<String> paths = all.stream().map(ScanFileResult::getFilePath).collect(Collectors.toSet());
+        sampleScanResults.stream().filter(r -> paths.add(r.getFilePath())).forEach(all::add);
+        // Another file with different details for the replacement PURL, walked before (but sorted after) src/scanner.c
+        ScanFileResult details = all.stream().filter(r -> r.getFilePath().equals("src/scanner.c")).findFirst().orElseThrow();
+        all.add(0, new ScanFileResult("test/scanner.c", details.getFileDetails().stream()
+                .map(d -> d.toBuilder().version("0.0.1").build()).collect(Collectors.toList())));
+        StringWriter expected = new StringWriter();
+        List<ScanFileResult> processed = ScannerPostProcessor.builder().build().process(all, bom);
+        JsonUtils.writeJsonPretty(JsonUtils.toScanFileResultJsonObject(processed), new PrintWriter(expected, true));
+        ScanFileDetails replaced = processed.stream().filter(r -> r.getFilePath().equals("src/main.c")).findFirst()
+                .orElseThrow().getFileDetails().get(0);
+        assertEquals("Replacement PURL", "pkg:maven/com.scanoss/scanoss", replaced.getPurls()[0]);
+        assertEquals("Replacement details should come from the first file path",
+                details.getFileDetails().get(0).getVersion(), replaced.getVersion());
+
+        // Write each shard the way the CLI does (sorted JSON, not post-processed), plus an empty shard result
+        int shards = 3;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i <= shards; i++) {
+            Shard shard = Shard.parse(i + "/" + shards);
+            List<ScanFileResult> shardResults = all.stream().filter(r -> shard.contains(r.getFilePath()))
+                    .collect(Collectors.toList());
+            Path input = Files.createTempFile("shard-" + i, ".json");
+            input.toFile().deleteOnExit();
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(input, StandardCharsets.UTF_8))) {
+                JsonUtils.writeJsonPretty(JsonUtils.toScanFileResultJsonObject(shardResults), writer);
+            }
+            inputs.add(input);
+        }
+        Path empty = Files.createTempFile("shard-empty", ".json");
+        empty.toFile().deleteOnExit();
+        inputs.add(empty);
+        StringWriter merged = new StringWriter();
+        long written = ShardMerger.builder().bom(bom).batchSize(7).build().merge(inputs, merged);
+        assertEquals("Merged result count", processed.size(), written);
+        assertEquals("Merged results should match the unsharded results", expected.toString(), merged.toString());
+
+        // Without BOM rules the shard results are copied as they are
+        StringWriter copied = new StringWriter();
+        ShardMerger.builder().build().merge(inputs, copied);
+        StringWriter raw = new StringWriter();
+        all.sort(Comparator.comparing(ScanFileResult::getFilePath));
+        JsonUtils.writeJsonPretty(JsonUtils.toScanFileResultJsonObject(all), new PrintWriter(raw, true));
+        assertEquals("Merged raw results", raw.toString(), copied.toString());
+
+        // Inputs must be sorted by file path
+        Path unsorted = Files.createTempFile("shard-unsorted", ".json");
+        unsorted.toFile().deleteOnExit();
+        Files.writeString(unsorted, "{\"b.c\": [], \"a.c\": []}");
+        assertThrows(IOException.class, () -> ShardMerger.builder().build().merge(List.of(unsorted), new StringWriter()));
+        log.info("Finished {} -->", methodName);
+    }
+}
@@ -24,16 +24,31 @@ package com.scanoss;
 
 
 import com.scanoss.exceptions.WinnowingException;
+import com.scanoss.utils.Hpsm;
+import com.scanoss.utils.WfpEmitter;
 import com.scanoss.utils.WinnowingUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.Tika;
+import org.apache.tika.mime.MediaType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
 import static org.junit.Assert.*;
 
 @Slf4j
@@ -115,6 +130,29 @@ public class TestWinnowing {
         log.info("Finished {} -->", methodName);
     }
 
+    @Test
+    public void TestHpsmLineRules() {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Leading new line is skipped, empty lines are 'ff', lines without normalised characters '00'
+        assertEquals("", Hpsm.calcHpsm("\n".getBytes()));
+        assertEquals("ff", Hpsm.calcHpsm("\n\n".getBytes()));
+        assertEquals("00", Hpsm.calcHpsm("{}\n".getBytes()));
+        assertEquals("Unterminated last line is ignored", "", Hpsm.calcHpsm("abc".getBytes()));
+        String hpsm = Hpsm.calcHpsm("ab\n\n  ;\nAB\n".getBytes());
+        assertEquals("Case is normalised", hpsm.substring(0, 2), hpsm.substring(6, 8));
+        assertEquals("ff00", hpsm.substring(2, 6));
+        assertEquals("Non-ASCII bytes are ignored", hpsm, Hpsm.calcHpsm("a\u00e9b\n\n  ;\nAB\n".getBytes(StandardCharsets.UTF_8)));
+        // Concurrent calls share the lookup table safely
+        byte[] contents = String.join("\n", Collections.nCopies(2000, "int main() { return 0; }")).getBytes();
+        String expected = Hpsm.calcHpsm(contents);
+        IntStream.range(0, 64).parallel().forEach(i -> assertEquals(expected, Hpsm.calcHpsm(contents)));
+
+        log.info("Finished {} -->", methodName);
+    }
+
     @Test
     public void TestWinnowingContents() {
         String methodName = new Object() {
@@ -420,5 +458,174 @@ public class TestWinnowing {
 
         log.info("Finished {} -->", methodName);
     }
-}
 
+    @Test
+    public void TestWinnowingSkipHeadersMatchesBlankedHeader() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Snippets generated after the header must be the same as those of the file with its header blanked out
+        File[] samples = new File("testing/data/header-files-test").listFiles();
+        assertNotNull(samples);
+        for (File sample : samples) {
+            byte[] contents = java.nio.file.Files.readAllBytes(sample.toPath());
+            for (int limit : new int[]{0, 5}) {
+                Winnowing winnowing = Winnowing.builder().skipHeaders(true).skipHeadersLimit(limit).build();
+                String wfp = winnowing.wfpForContents(sample.getName(), false, contents);
+                java.util.regex.Matcher startLine = Pattern.compile("(?m)^start_line=(\\d+)$").matcher(wfp);
+                int skipped = startLine.find() ? Integer.parseInt(startLine.group(1)) : 0;
+                assertEquals("Header lines of " + sample.getName(), new HeaderFilter(limit).filter(sample.getName(), contents), skipped);
+
+                byte[] blanked = contents.clone();
+                for (int i = 0, line = 1; i < blanked.length && line <= skipped; i++) {
+                    if (blanked[i] == '\n') {
+                        line++;
+                    } else {
+                        blanked[i] = '.';  // not part of any gram
+                    }
+                }
+                String expected = Winnowing.builder().build().wfpForContents(sample.getName(), false, blanked);
+                assertEquals("Snippets of " + sample.getName() + " (limit " + limit + ")",
+                        snippetLines(expected), snippetLines(wfp));
+            }
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    private static String snippetLines(String wfp) {
+        StringBuilder snippets = new StringBuilder();
+        for (String line : wfp.split("\n")) {
+            if (!line.isEmpty() && Character.isDigit(line.charAt(0))) {
+                snippets.append(line).append('\n');
+            }
+        }
+        return snippets.toString();
+    }
+
+    @Test
+    public void TestParallelWinnowingMatchesSequential() {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Random source-like text, with long runs of punctuation/white space (which delay the warm-up)
+        Random random = new Random(40);
+        StringBuilder text = new StringBuilder();
+        String[] words = {"int", "x", "=", "foo(bar);", "return", "{", "}", "while", "i++", "\n", "\n", "    ", "/* .. */"};
+        while (text.length() < 200_000) {
+            if (random.nextInt(200) == 0) {
+                text.append(" ;-.,".repeat(random.nextInt(100)));
+            } else {
+                text.append(words[random.nextInt(words.length)]).append(random.nextInt(3) == 0 ? "" : " ");
+            }
+        }
+        byte[] contents = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (int offset : new int[]{0, 1, 12345}) {
+            StringBuilder expected = new StringBuilder();
+            Winnowing.winnow(contents, offset, offset, contents.length, 3,
+                    (line, hash) -> expected.append(line).append('=').append(hash).append('\n'));
+            for (int chunkSize : new int[]{1, 7, 93, 94, 1000, 65536, contents.length}) {
+                StringBuilder actual = new StringBuilder();
+                Winnowing.winnowChunks(contents, offset, 3, chunkSize,
+                        (line, hash) -> actual.append(line).append('=').append(hash).append('\n'));
+                assertEquals("Chunk size " + chunkSize + " from offset " + offset, expected.toString(), actual.toString());
+            }
+        }
+
+        // Whole WFP, with and without header skipping
+        byte[] large = new byte[3 * contents.length * 8];
+        for (int i = 0; i < large.length; i += contents.length) {
+            System.arraycopy(contents, 0, large, i, Math.min(contents.length, large.length - i));
+        }
+        for (boolean skipHeaders : new boolean[]{false, true}) {
+            String sequential = Winnowing.builder().skipHeaders(skipHeaders).parallelThreshold(0).build()
+                    .wfpForContents("large.c", false, large);
+            String parallel = Winnowing.builder().skipHeaders(skipHeaders).parallelThreshold(1).build()
+                    .wfpForContents("large.c", false, large);
+            assertEquals("Parallel WFP (skipHeaders=" + skipHeaders + ")", sequential, parallel);
+        }
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void TestWfpEmitter() {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Table driven CRC32C must match the JDK implementation of the little-endian encoded value
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int value = i < 3 ? new int[]{0, -1, 1}[i] : random.nextInt();
+            CRC32C crc = new CRC32C();
+            crc.update(new byte[]{(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)});
+            assertEquals("CRC32C of " + value, crc.getValue(), Integer.toUnsignedLong(WfpEmitter.crc32cLittleEndian(value)));
+        }
+        WfpEmitter emitter = new WfpEmitter(0);
+        String wfp = emitter.file("d41d8cd98f00b204e9800998ecf8427e", 12, "a/b.c").line("start_line", 3)
+                .snippet(4, 0L).snippet(4, 0xFFFFFFFFL).snippet(7, 123).finish();
+        String expected = String.format("file=d41d8cd98f00b204e9800998ecf8427e,12,a/b.c%nstart_line=3%n4=%08x,%08x%n7=%08x%n",
+                WfpEmitter.crc32cLittleEndian(0), WfpEmitter.crc32cLittleEndian(-1), WfpEmitter.crc32cLittleEndian(123))
+                .replace(System.lineSeparator(), "\n");
+        assertEquals(expected, wfp);
+        emitter.reset();
+        assertEquals("Reset emitter", "hpsm=ab\n", emitter.line("hpsm", "ab").finish());
+
+        log.info("Finished {} -->", methodName);
+    }
+
+    @Test
+    public void TestFileTypeClassifierMatchesTika() throws IOException {
+        String methodName = new Object() {
+        }.getClass().getEnclosingMethod().getName();
+        log.info("<-- Starting {}", methodName);
+
+        // Wherever the fast classifier decides, it must agree with the Tika detection
+        Tika tika = new Tika();
+        int decided = 0;
+        List<Path> files;
+        try (Stream<Path> walk = Stream.concat(Files.walk(Paths.get("src")), Files.walk(Paths.get("testing")))) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            byte[] contents = Files.readAllBytes(file);
+            Boolean isText = FileTypeClassifier.isText(file.toString(), contents);
+            if (isText != null) {
+                decided++;
+                boolean expected = FileTypeClassifier.isTextMediaType(MediaType.parse(tika.detect(file.toFile())));
+                assertEquals("Classification of " + file, expected, isText);
+            }
+        }
+        assertTrue("Most files should be classified without Tika", decided > files.size() * 9 / 10);
+
+        // Binary magic numbers
+        byte[][] binaries = {
+                {(byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a, 0, 0, 0, 0x0d, 'I', 'H', 'D', 'R'},
+                {0x7f, 'E', 'L', 'F', 2, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe, 0, 0, 0, 0x37, 0, 0x10, 0x0a, 0, 0x03, 0, 0x0d, 0x07},
+                {'P', 'K', 0x03, 0x04, 0x14, 0, 0, 0, 0x08, 0, 0, 0, 0, 0, 0, 0},
+                {0x1f, (byte) 0x8b, 0x08, 0, 0, 0, 0, 0, 0, 0x03, 0x0b, 0x0c, 0, 0, 0, 0},
+                "%PDF-1.4\n%\u00e2\u00e3\n".getBytes(StandardCharsets.ISO_8859_1),
+        };
+        for (byte[] contents : binaries) {
+            assertEquals("Binary magic", Boolean.FALSE, FileTypeClassifier.isText("sample.c", contents));
+            assertFalse("Tika binary magic", FileTypeClassifier.isTextMediaType(MediaType.parse(tika.detect(contents))));
+        }
+
+        // Contents sniffing
+        byte[] text = "int main() {\n\treturn 0; // caf\u00e9\n}\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals("Clean text", Boolean.TRUE, FileTypeClassifier.isText("main", text));
+        assertEquals("Clean text (binary extension)", Boolean.TRUE, FileTypeClassifier.isText("main.png", text));
+        assertNull("PEM text", FileTypeClassifier.isText("key.txt", "-----BEGIN CERTIFICATE-----\nMIIB\n".getBytes(StandardCharsets.UTF_8)));
+        assertNull("Latin-1 text", FileTypeClassifier.isText("main.c", "caf\u00e9\n".getBytes(StandardCharsets.ISO_8859_1)));
+        byte[] nul = {'a', 0, 'b', 0, 1, 2, 3, (byte) 0xff, 0, 0, 0, 4};
+        assertEquals("NUL bytes", Boolean.FALSE, FileTypeClassifier.isText("data", nul));
+        assertNull("NUL bytes (text extension)", FileTypeClassifier.isText("data.c", nul));
+        assertNull("Empty contents", FileTypeClassifier.isText("empty.c", new byte[0]));
+        assertFalse("Truncated UTF-8", FileTypeClassifier.isCleanText(new byte[]{'a', (byte) 0xc3}, 10));
+        assertTrue("UTF-8 across the sniff limit", FileTypeClassifier.isCleanText(new byte[]{'a', (byte) 0xc3, (byte) 0xa9}, 2));
+
+        log.info("Finished {} -->", methodName);
+    }
+}
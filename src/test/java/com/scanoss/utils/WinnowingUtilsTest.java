@@ -3,6 +3,9 @@ package com.scanoss.utils;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -190,4 +193,62 @@ public class WinnowingUtilsTest {
         String result = WinnowingUtils.calculateOppositeLineEndingHash(unixBytes);
         assertEquals(expectedHash, result);
     }
+
+    @Test
+    public void testUtf16Length_RandomBytes_MatchesJdkDecoder() {
+        // Bias the bytes towards UTF-8 lead/continuation bytes, to hit all (malformed) sequence paths
+        byte[] interesting = {0x0a, 0x41, (byte) 0x80, (byte) 0x8f, (byte) 0x90, (byte) 0xa0, (byte) 0xbf, (byte) 0xc0,
+                (byte) 0xc2, (byte) 0xdf, (byte) 0xe0, (byte) 0xe4, (byte) 0xed, (byte) 0xef, (byte) 0xf0, (byte) 0xf4,
+                (byte) 0xf5, (byte) 0xf8, (byte) 0xff};
+        Random random = new Random(1234);
+        for (int i = 0; i < 200000; i++) {
+            byte[] bytes = new byte[random.nextInt(12)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = random.nextBoolean() ? interesting[random.nextInt(interesting.length)] : (byte) random.nextInt();
+            }
+            int offset = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int length = bytes.length - offset - (bytes.length == offset ? 0 : random.nextInt(bytes.length - offset));
+            assertEquals("UTF-16 length of " + Arrays.toString(bytes) + " [" + offset + "," + length + "]",
+                    new String(bytes, offset, length, StandardCharsets.UTF_8).length(),
+                    WinnowingUtils.utf16Length(bytes, offset, length));
+        }
+        byte[] text = "naïve café – 日本語 😀\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(20, WinnowingUtils.utf16Length(text, 0, text.length));
+    }
+
+    @Test
+    public void testNormalizeByte_MatchesNormalizeChar() {
+        for (int b = 0; b < 256; b++) {
+            char expected = b < 128 ? WinnowingUtils.normalize((char) b) : 0;
+            assertEquals("Byte " + b, expected, WinnowingUtils.normalize((byte) b));
+        }
+    }
+
+    @Test
+    public void testCalculateOppositeLineEndingHash_RandomContents_MatchesRewrittenCopy() {
+        byte[] alphabet = {'\r', '\n', 'a', ' ', (byte) 0xe9};
+        Random random = new Random(99);
+        for (int i = 0; i < 5000; i++) {
+            // Mostly short inputs, plus some with long runs (larger than the digest chunk buffer)
+            int size = i % 100 == 0 ? 20000 + random.nextInt(20000) : random.nextInt(40);
+            byte[] bytes = new byte[size];
+            for (int j = 0; j < size; j++) {
+                bytes[j] = i % 100 == 0 && random.nextInt(5000) != 0 ? (byte) 'x' : alphabet[random.nextInt(alphabet.length)];
+            }
+            // Reference: rewrite a copy of the contents
+            String text = new String(bytes, StandardCharsets.ISO_8859_1);
+            boolean crlf = text.contains("\r\n");
+            String withoutCrlf = text.replace("\r\n", "");
+            boolean lf = withoutCrlf.contains("\n");
+            boolean cr = withoutCrlf.contains("\r");
+            String expected = null;
+            if (crlf || lf || cr) {
+                String normalized = text.replace("\r\n", "\n").replace("\r", "\n");
+                String opposite = crlf && !lf && !cr ? normalized : normalized.replace("\n", "\r\n");
+                expected = org.apache.commons.codec.digest.DigestUtils.md5Hex(opposite.getBytes(StandardCharsets.ISO_8859_1));
+            }
+            assertEquals("Opposite hash of " + Arrays.toString(size < 40 ? bytes : new byte[0]),
+                    expected, WinnowingUtils.calculateOppositeLineEndingHash(bytes));
+        }
+    }
 }
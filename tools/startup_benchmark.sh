@@ -0,0 +1,111 @@
+#!/bin/bash
+###
+# SPDX-License-Identifier: MIT
+#
+#   Copyright (c) 2026, SCANOSS
+#
+#   Permission is hereby granted, free of charge, to any person obtaining a copy
+#   of this software and associated documentation files (the "Software"), to deal
+#   in the Software without restriction, including without limitation the rights
+#   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+#   copies of the Software, and to permit persons to whom the Software is
+#   furnished to do so, subject to the following conditions:
+#
+#   The above copyright notice and this permission notice shall be included in
+#   all copies or substantial portions of the Software.
+#
+#   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+#   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+#   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+#   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+#   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+#   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+#   THE SOFTWARE.
+#
+# Measure the CLI startup time: wall-clock time from launching 'wfp' on a single file to its first line of output.
+# Each run is timed without and (if there is one next to the jar) with the AppCDS archive built by 'mvn -Pappcds package'.
+#
+# Usage: startup_benchmark.sh [-n <runs>] [-j <jar file>] [<file to fingerprint>]
+#
+
+# Get current directory
+export dir=$(dirname "$0")
+if [ "$dir" = "" ] ; then
+  export dir=.
+fi
+
+runs=10
+jar_file=
+while getopts "n:j:h" opt; do
+  case $opt in
+    n) runs=$OPTARG ;;
+    j) jar_file=$OPTARG ;;
+    *) echo "Usage: $0 [-n <runs>] [-j <jar file>] [<file to fingerprint>]" >&2
+       exit 1 ;;
+  esac
+done
+shift $((OPTIND - 1))
+input_file="${1:-$dir/../src/main/java/com/scanoss/Scanner.java}"
+
+if [ "$jar_file" = "" ] && [ -d "$dir/../target" ] ; then
+  jar_file=$(find "$dir/../target" -name "scanoss*jar-with-dependencies.jar" -print | sort | tail -1)
+fi
+if [ "$jar_file" = "" ] || [ ! -f "$jar_file" ] ; then
+  echo "ERROR: Failed to find SCANOSS jar file to run. Please run 'make package' first." >&2
+  exit 1
+fi
+if [ ! -f "$input_file" ] ; then
+  echo "ERROR: File to fingerprint does not exist: $input_file" >&2
+  exit 1
+fi
+jsa_file="${jar_file%.jar}.jsa"
+stamp_file=$(mktemp)
+trap 'rm -f "$stamp_file"' EXIT
+
+# Current time in milliseconds
+now_ms() {
+  if [ -n "$EPOCHREALTIME" ] ; then
+    local now=${EPOCHREALTIME/[.,]/}
+    echo $((now / 1000))
+  else
+    echo $(($(date +%s%N) / 1000000))
+  fi
+}
+
+# Run the given command, and print the milliseconds it took to write its first byte to stdout
+first_output_ms() {
+  local start
+  start=$(now_ms)
+  "$@" 2> /dev/null | { head -c 1 > /dev/null; now_ms > "$stamp_file"; cat > /dev/null; }
+  echo $(($(cat "$stamp_file") - start))
+}
+
+# Print the min/median/mean of the given timings
+summary() {
+  local sorted count sum=0
+  sorted=($(printf "%s\n" "$@" | sort -n))
+  count=${#sorted[@]}
+  for t in "${sorted[@]}" ; do
+    sum=$((sum + t))
+  done
+  echo "min ${sorted[0]} ms, median ${sorted[$((count / 2))]} ms, mean $((sum / count)) ms"
+}
+
+java_version=$(java -version 2>&1 | head -1)
+echo "Startup benchmark: wfp $input_file ($runs runs, $java_version)"
+default_times=()
+appcds_times=()
+for ((i = 0; i < runs; i++)) ; do
+  default_times+=($(first_output_ms java -jar "$jar_file" wfp "$input_file"))
+  if [ -f "$jsa_file" ] ; then
+    appcds_times+=($(first_output_ms java -XX:SharedArchiveFile="$jsa_file" -Xlog:disable -Xlog:all=warning:stderr \
+                       -jar "$jar_file" wfp "$input_file"))
+  fi
+done
+echo "  default: $(summary "${default_times[@]}")"
+if [ ${#appcds_times[@]} -gt 0 ] ; then
+  echo "  appcds:  $(summary "${appcds_times[@]}")"
+else
+  echo "  appcds:  no archive found ($jsa_file). Run 'mvn -Pappcds package' to build it"
+fi
+exit 0